@@ -0,0 +1,339 @@
+package cine;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Almacenamiento de clientes particionado en N archivos (shards) por hash del nickname.
+ * <p>
+ * Cada shard es un archivo independiente {@code clientes-<i>.dat} dentro de la carpeta
+ * indicada. Al arrancar, todos los shards se cargan en paralelo sobre un {@link ForkJoinPool};
+ * al registrar un cliente solo se reescribe el shard que le corresponde.
+ * </p>
+ * <p>
+ * Si la carpeta aún no tiene shards pero existe el antiguo {@code clientes.dat} monolítico,
+ * se migra automáticamente. Si el número de shards configurado cambia, los clientes se
+ * redistribuyen.
+ * </p>
+ * <p>
+ * Cada shard se escribe en un temporal que luego se renombra de forma atómica, así
+ * que un shard nunca queda a medias. Al migrar o redistribuir, los archivos viejos se
+ * borran solo cuando todos los nuevos quedaron escritos; si el proceso se interrumpe,
+ * el siguiente arranque vuelve a redistribuir leyendo viejos, nuevos y temporales.
+ * </p>
+ */
+public class AlmacenClientes {
+
+    /** Número de shards por defecto (se puede cambiar con -Dcine.shardsClientes=N). */
+    public static final int SHARDS_POR_DEFECTO = Integer.getInteger("cine.shardsClientes", 8);
+
+    private static final String PREFIJO = "clientes-";
+    private static final String EXTENSION = ".dat";
+    private static final String TEMPORAL = ".tmp";
+
+    private final Path carpeta;
+    private final int numShards;
+    private final List<List<Cliente>> shards;
+
+    /**
+     * @param carpeta   carpeta donde viven los archivos de shard
+     * @param numShards número de shards (mínimo 1)
+     */
+    public AlmacenClientes(String carpeta, int numShards) {
+        this.carpeta = Paths.get(carpeta);
+        this.numShards = Math.max(1, numShards);
+        this.shards = new ArrayList<>(this.numShards);
+        for (int i = 0; i < this.numShards; i++) {
+            shards.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Shard al que pertenece un nickname (no distingue mayúsculas).
+     */
+    public static int shardDe(String nickname, int numShards) {
+        return Math.floorMod(nickname.toLowerCase(Locale.ROOT).hashCode(), numShards);
+    }
+
+    /* -------------------- Carga -------------------- */
+
+    /**
+     * Carga todos los shards en paralelo y devuelve la lista completa de clientes.
+     *
+     * @param archivoLegado ruta del clientes.dat monolítico a migrar si no hay shards (puede ser null)
+     * @return clientes cargados (lista nueva, nunca null)
+     */
+    public List<Cliente> cargar(String archivoLegado) {
+        try {
+            if (Files.notExists(carpeta)) Files.createDirectories(carpeta);
+        } catch (IOException e) {
+            System.err.println("Error creando carpeta de clientes: " + e.getMessage());
+        }
+
+        List<Path> existentes = listarShards();
+        List<Path> temporales = listar(EXTENSION + TEMPORAL);
+
+        if (existentes.isEmpty() && temporales.isEmpty()) {
+            migrarDesde(archivoLegado);
+        } else if (!temporales.isEmpty() || existentes.size() != numShards || !coincidenNombres(existentes)) {
+            // Temporales sueltos: una redistribución anterior no terminó
+            existentes.addAll(temporales);
+            redistribuir(existentes);
+        } else {
+            cargarEnParalelo();
+        }
+
+        List<Cliente> todos = new ArrayList<>();
+        for (List<Cliente> shard : shards) {
+            synchronized (shard) {
+                todos.addAll(shard);
+            }
+        }
+        return todos;
+    }
+
+    private void cargarEnParalelo() {
+        List<ForkJoinTask<?>> tareas = new ArrayList<>(numShards);
+        for (int i = 0; i < numShards; i++) {
+            final int idx = i;
+            tareas.add(ForkJoinPool.commonPool().submit(() -> {
+                List<Cliente> cargados = GestorArchivos.cargarClientes(rutaShard(idx).toString());
+                List<Cliente> shard = shards.get(idx);
+                synchronized (shard) {
+                    shard.clear();
+                    shard.addAll(cargados);
+                }
+            }));
+        }
+        for (ForkJoinTask<?> t : tareas) {
+            t.join();
+        }
+    }
+
+    /** Reparte el clientes.dat monolítico entre los shards y los escribe. */
+    private void migrarDesde(String archivoLegado) {
+        if (archivoLegado == null || !new File(archivoLegado).exists()) return;
+
+        List<Cliente> legado = GestorArchivos.cargarClientes(archivoLegado);
+        repartir(legado);
+        if (!escribirTodos()) {
+            System.err.println("No se completó la migración de " + archivoLegado + "; se conserva el archivo.");
+            return;
+        }
+
+        try {
+            Files.move(Paths.get(archivoLegado), Paths.get(archivoLegado + ".migrado"),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("No se pudo renombrar " + archivoLegado + ": " + e.getMessage());
+        }
+        System.out.println("Clientes migrados a " + numShards + " shards: " + legado.size());
+    }
+
+    /**
+     * El número de shards cambió: se leen los archivos viejos, se escriben los nuevos y
+     * solo entonces se borran los que sobran. Un cliente que aparece en dos archivos
+     * (redistribución interrumpida) se toma una vez.
+     */
+    private void redistribuir(List<Path> existentes) {
+        List<Cliente> todos = new ArrayList<>();
+        Set<String> vistos = new HashSet<>();
+        for (Path p : existentes) {
+            for (Cliente c : GestorArchivos.cargarClientes(p.toString())) {
+                if (vistos.add(c.getNickname().toLowerCase(Locale.ROOT))) todos.add(c);
+            }
+        }
+        repartir(todos);
+        if (!escribirTodos()) {
+            System.err.println("No se completó la redistribución de clientes; se conservan los archivos anteriores.");
+            return;
+        }
+
+        Set<Path> nuevos = new HashSet<>();
+        for (int i = 0; i < numShards; i++) nuevos.add(rutaShard(i));
+        for (Path p : existentes) {
+            if (nuevos.contains(p)) continue;
+            try {
+                Files.deleteIfExists(p);
+            } catch (IOException e) {
+                System.err.println("No se pudo borrar shard " + p + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void repartir(List<Cliente> clientes) {
+        for (Cliente c : clientes) {
+            List<Cliente> shard = shards.get(shardDe(c.getNickname(), numShards));
+            synchronized (shard) {
+                shard.add(c);
+            }
+        }
+    }
+
+    /* -------------------- Escritura -------------------- */
+
+    /**
+     * Agrega un cliente y reescribe únicamente su shard.
+     */
+    public void agregar(Cliente cliente) {
+        int idx = shardDe(cliente.getNickname(), numShards);
+        List<Cliente> shard = shards.get(idx);
+        synchronized (shard) {
+            shard.add(cliente);
+            escribirShard(idx);
+        }
+    }
+
+    /**
+     * Reescribe el shard del cliente (por ejemplo tras modificar sus datos).
+     * Si el cliente aún no estaba en su shard se agrega.
+     */
+    public void guardar(Cliente cliente) {
+        int idx = shardDe(cliente.getNickname(), numShards);
+        List<Cliente> shard = shards.get(idx);
+        synchronized (shard) {
+            if (!shard.contains(cliente)) shard.add(cliente);
+            escribirShard(idx);
+        }
+    }
+
+    /**
+     * Reemplaza todos los clientes y reescribe todos los shards.
+     */
+    public void reemplazarTodo(List<Cliente> clientes) {
+        for (List<Cliente> shard : shards) {
+            synchronized (shard) {
+                shard.clear();
+            }
+        }
+        repartir(clientes);
+        guardarTodo();
+    }
+
+    /**
+     * Reescribe un shard completo.
+     */
+    public void guardarShard(int idx) {
+        synchronized (shards.get(idx)) {
+            escribirShard(idx);
+        }
+    }
+
+    /**
+     * Reescribe todos los shards.
+     */
+    public void guardarTodo() {
+        for (int i = 0; i < numShards; i++) {
+            guardarShard(i);
+        }
+    }
+
+    /**
+     * Escribe todos los shards en temporales y, si todos se escribieron, los pone en su
+     * lugar. Hasta ese momento los archivos anteriores quedan intactos.
+     *
+     * @return false si algún shard no se pudo escribir
+     */
+    private boolean escribirTodos() {
+        for (int i = 0; i < numShards; i++) {
+            synchronized (shards.get(i)) {
+                if (!escribirTemporal(i)) return false;
+            }
+        }
+        for (int i = 0; i < numShards; i++) {
+            synchronized (shards.get(i)) {
+                // Sin temporal: un registro entre las dos vueltas ya escribió este shard
+                if (Files.exists(rutaTemporal(i)) && !reemplazar(i)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Escribe un shard (con el monitor del shard): temporal y renombrado atómico.
+     *
+     * @return false si no se pudo escribir (el archivo anterior sigue igual)
+     */
+    private boolean escribirShard(int idx) {
+        return escribirTemporal(idx) && reemplazar(idx);
+    }
+
+    private boolean escribirTemporal(int idx) {
+        try {
+            if (Files.notExists(carpeta)) Files.createDirectories(carpeta);
+        } catch (IOException e) {
+            System.err.println("Error creando carpeta de clientes: " + e.getMessage());
+            return false;
+        }
+        try (ObjectOutputStream oos = new ObjectOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(rutaTemporal(idx))))) {
+            oos.writeObject(new ArrayList<>(shards.get(idx)));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error guardando shard de clientes " + idx + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean reemplazar(int idx) {
+        try {
+            Files.move(rutaTemporal(idx), rutaShard(idx), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error guardando shard de clientes " + idx + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /* -------------------- Utilidades -------------------- */
+
+    private Path rutaShard(int idx) {
+        return carpeta.resolve(PREFIJO + idx + EXTENSION);
+    }
+
+    private Path rutaTemporal(int idx) {
+        return carpeta.resolve(PREFIJO + idx + EXTENSION + TEMPORAL);
+    }
+
+    private List<Path> listarShards() {
+        return listar(EXTENSION);
+    }
+
+    /** @return archivos de la carpeta con el prefijo de shard y la terminación indicada */
+    private List<Path> listar(String terminacion) {
+        List<Path> salida = new ArrayList<>();
+        if (Files.notExists(carpeta)) return salida;
+        try (Stream<Path> s = Files.list(carpeta)) {
+            s.filter(p -> {
+                String n = p.getFileName().toString();
+                return n.startsWith(PREFIJO) && n.endsWith(terminacion);
+            }).forEach(salida::add);
+        } catch (IOException e) {
+            System.err.println("Error listando shards de clientes: " + e.getMessage());
+        }
+        return salida;
+    }
+
+    private boolean coincidenNombres(List<Path> existentes) {
+        for (int i = 0; i < numShards; i++) {
+            if (!existentes.contains(rutaShard(i))) return false;
+        }
+        return true;
+    }
+
+    public int getNumShards() {
+        return numShards;
+    }
+}
@@ -0,0 +1,115 @@
+package cine;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Interfaz de almacenamiento de la aplicación.
+ * <p>
+ * Reúne todo lo que el sistema persiste: usuarios, películas, funciones, ventas,
+ * notificaciones, historiales de vendedores y de compras, y eventos de las órdenes de dulcería. {@link GestorArchivos} delega en la
+ * implementación activa ({@link GestorArchivos#getAlmacenamiento()}), que puede ser:
+ * <ul>
+ *   <li>{@link AlmacenamientoArchivos}: archivos bajo ArchivosAplicacion (producción)</li>
+ *   <li>{@link AlmacenamientoMemoria}: todo en memoria (pruebas y benchmarks)</li>
+ *   <li>{@link AlmacenamientoJdbc}: base de datos embebida (H2 o SQLite) vía JDBC</li>
+ * </ul>
+ * </p>
+ * Las implementaciones deben poder usarse desde varios hilos a la vez.
+ */
+public interface Almacenamiento {
+
+    /* -------------------- Usuarios -------------------- */
+
+    /** @return todos los clientes (lista nueva, nunca null) */
+    List<Cliente> cargarClientes();
+
+    /** Da de alta o actualiza un cliente. */
+    void guardarCliente(Cliente cliente);
+
+    /** Reemplaza la lista de clientes (los que no vengan en ella se borran). */
+    void guardarClientes(List<Cliente> clientes);
+
+    /** @return todos los empleados (lista nueva, nunca null) */
+    List<Empleado> cargarEmpleados();
+
+    /** Reemplaza la lista de empleados. */
+    void guardarEmpleados(List<Empleado> empleados);
+
+    /* -------------------- Películas y funciones -------------------- */
+
+    /** @return películas en cartelera (lista nueva, nunca null) */
+    List<Pelicula> cargarPeliculas();
+
+    /** Reemplaza la lista de películas. */
+    void guardarPeliculas(List<Pelicula> peliculas);
+
+    /**
+     * @param peliculas películas ya cargadas, para enlazar cada función con la suya
+     * @return funciones cuya película existe (lista nueva, nunca null)
+     */
+    List<FuncionDeCine> cargarFunciones(List<Pelicula> peliculas);
+
+    /** Agrega una función programada. */
+    void guardarFuncion(FuncionDeCine funcion);
+
+    /* -------------------- Ventas -------------------- */
+
+    /**
+     * Persiste un lote de ventas de forma durable, en el orden recibido.
+     *
+     * @throws IOException si el lote no pudo guardarse
+     */
+    void registrarVentas(List<RegistroVenta> lote) throws IOException;
+
+    /** Recorre todas las ventas en orden de secuencia. */
+    void recorrerVentas(Consumer<RegistroVenta> lector);
+
+    /* -------------------- Órdenes de dulcería -------------------- */
+
+    /**
+     * Persiste un lote de eventos de órdenes ({@link RegistroOrdenes}), en el orden recibido.
+     *
+     * @throws IOException si el lote no pudo guardarse
+     */
+    void registrarEventosOrden(List<EventoOrden> lote) throws IOException;
+
+    /**
+     * Recorre los eventos de órdenes en orden de secuencia. Puede omitir eventos
+     * reemplazados por uno posterior de la misma orden (bitácora compactada).
+     */
+    void recorrerEventosOrden(Consumer<EventoOrden> lector);
+
+    /* -------------------- Notificaciones e historial -------------------- */
+
+    /** Guarda (sobrescribe) la notificación de una clave de orden. */
+    void guardarNotificacion(String clave, String texto);
+
+    /** @return la notificación de la clave, o null si no existe */
+    String leerNotificacion(String clave);
+
+    /** Agrega una línea al historial de un vendedor. */
+    void agregarHistorialVendedor(String nickname, String linea);
+
+    /** @return líneas del historial del vendedor (lista nueva, vacía si no hay) */
+    List<String> leerHistorialVendedor(String nickname);
+
+    /** Agrega una línea al historial de compras de un cliente ({@link HistorialCompras}). */
+    void agregarRegistroCompra(String nickname, String linea);
+
+    /** @return true si el cliente tiene al menos una compra registrada */
+    boolean existeHistorialCompras(String nickname);
+
+    /**
+     * Recorre el historial de compras del cliente en orden, sin cargarlo completo.
+     *
+     * @param lector recibe cada línea; si devuelve false se deja de leer
+     */
+    void recorrerHistorialCompras(String nickname, Predicate<String> lector);
+
+    /** Libera recursos (conexiones, hilos). */
+    default void cerrar() {
+    }
+}
@@ -0,0 +1,364 @@
+package cine;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Almacenamiento en archivos (implementación de producción de {@link Almacenamiento}).
+ * <p>
+ * Estructura dentro de la carpeta base (por defecto {@link GestorArchivos#RUTA_BASE}):
+ * <ul>
+ *   <li>{@code clientes/clientes-<i>.dat}: clientes en shards (ver {@link AlmacenClientes})</li>
+ *   <li>{@code empleados.dat}: empleados serializados</li>
+ *   <li>{@code peliculas.csv} y {@code funciones.csv}: cartelera</li>
+ *   <li>{@code ventas/}: libro de ventas en una {@link Bitacora} segmentada</li>
+ *   <li>{@code ordenes/}: eventos de las órdenes de dulcería, en otra {@link Bitacora}
+ *       compactada por clave de orden</li>
+ *   <li>{@code notificaciones/<clave>.txt} e {@code historial_vendedores/<nickname>.txt}</li>
+ * </ul>
+ * </p>
+ */
+public class AlmacenamientoArchivos implements Almacenamiento {
+
+    /** Tamaño por defecto a partir del cual se sella un segmento del libro de ventas. */
+    public static final long TAM_SEGMENTO_VENTAS = 4L * 1024 * 1024;
+
+    private final Path base;
+    private final Path archivoEmpleados;
+    private final Path archivoPeliculas;
+    private final Path archivoFunciones;
+    private final Path carpetaNotificaciones;
+    private final Path carpetaHistorial;
+    private final Path carpetaCompras;
+
+    private final AlmacenClientes almacenClientes;
+    private final Bitacora bitacoraVentas;
+    private final Bitacora bitacoraOrdenes;
+
+    /**
+     * @param base carpeta raíz de los archivos (se crea si no existe)
+     */
+    public AlmacenamientoArchivos(String base) {
+        this(base, TAM_SEGMENTO_VENTAS);
+    }
+
+    /**
+     * @param base carpeta raíz de los archivos (se crea si no existe)
+     * @param tamSegmentoVentas bytes a partir de los cuales se sella un segmento de ventas
+     */
+    public AlmacenamientoArchivos(String base, long tamSegmentoVentas) {
+        this.base = Paths.get(base);
+        this.archivoEmpleados = this.base.resolve("empleados.dat");
+        this.archivoPeliculas = this.base.resolve("peliculas.csv");
+        this.archivoFunciones = this.base.resolve("funciones.csv");
+        this.carpetaNotificaciones = this.base.resolve("notificaciones");
+        this.carpetaHistorial = this.base.resolve("historial_vendedores");
+        this.carpetaCompras = this.base.resolve("historial_compras");
+
+        try {
+            Files.createDirectories(carpetaNotificaciones);
+            Files.createDirectories(carpetaHistorial);
+            Files.createDirectories(carpetaCompras);
+        } catch (IOException e) {
+            System.err.println("Error creando carpetas de almacenamiento: " + e.getMessage());
+        }
+
+        this.almacenClientes = new AlmacenClientes(this.base.resolve("clientes").toString(),
+                AlmacenClientes.SHARDS_POR_DEFECTO);
+        this.bitacoraVentas = new Bitacora(this.base.resolve("ventas").toString(), "ventas",
+                tamSegmentoVentas, AlmacenamientoArchivos::claveDeVenta);
+        // Libro de un solo archivo usado antes de segmentar
+        bitacoraVentas.importarArchivo(this.base.resolve("ventas.log"));
+        this.bitacoraOrdenes = new Bitacora(this.base.resolve("ordenes").toString(), "ordenes",
+                tamSegmentoVentas, AlmacenamientoArchivos::claveDeEvento);
+    }
+
+    /* -------------------- Usuarios -------------------- */
+
+    @Override
+    public List<Cliente> cargarClientes() {
+        return almacenClientes.cargar(base.resolve("clientes.dat").toString());
+    }
+
+    @Override
+    public void guardarCliente(Cliente cliente) {
+        almacenClientes.guardar(cliente);
+    }
+
+    @Override
+    public void guardarClientes(List<Cliente> clientes) {
+        almacenClientes.reemplazarTodo(clientes);
+    }
+
+    @Override
+    public List<Empleado> cargarEmpleados() {
+        return GestorArchivos.cargarEmpleados(archivoEmpleados.toString());
+    }
+
+    @Override
+    public synchronized void guardarEmpleados(List<Empleado> empleados) {
+        GestorArchivos.guardarEmpleados(empleados, archivoEmpleados.toString());
+    }
+
+    /* -------------------- Películas y funciones (CSV) -------------------- */
+
+    /**
+     * Formato por línea: Nombre,Genero,Sinopsis,HH:mm
+     */
+    @Override
+    public synchronized void guardarPeliculas(List<Pelicula> peliculas) {
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(archivoPeliculas, StandardCharsets.UTF_8))) {
+            for (Pelicula p : peliculas) {
+                // reemplazar comas para no romper CSV
+                String nombre = limpiarCsv(p.getNombre());
+                String genero = limpiarCsv(p.getGenero());
+                String sinopsis = limpiarCsv(p.getSinopsis());
+                String dur = p.getDuracion().toString(); // LocalTime as HH:mm
+                pw.println(String.join(",", nombre, genero, sinopsis, dur));
+            }
+        } catch (IOException e) {
+            System.err.println("Error guardando peliculas: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Pelicula> cargarPeliculas() {
+        List<Pelicula> salida = new ArrayList<>();
+        for (String linea : leerLineas(archivoPeliculas)) {
+            String[] cols = linea.split(",", 4);
+            if (cols.length < 4) continue;
+            salida.add(new Pelicula(cols[0], cols[1], cols[2], cols[3]));
+        }
+        return salida;
+    }
+
+    /**
+     * Formato por línea: NombrePelicula,IdSala,TipoSala,AAAA-MM-DD,HH:mm
+     */
+    @Override
+    public synchronized void guardarFuncion(FuncionDeCine funcion) {
+        String linea = String.join(",",
+                limpiarCsv(funcion.getPelicula().getNombre()),
+                limpiarCsv(funcion.getSala().getIdSala()),
+                funcion.getSala().getTipo(),
+                funcion.getFecha().toString(),
+                funcion.getHora().toString());
+        try (BufferedWriter bw = Files.newBufferedWriter(archivoFunciones, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            bw.write(linea);
+            bw.newLine();
+        } catch (IOException e) {
+            System.err.println("Error guardando función: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<FuncionDeCine> cargarFunciones(List<Pelicula> peliculas) {
+        List<FuncionDeCine> salida = new ArrayList<>();
+        for (String linea : leerLineas(archivoFunciones)) {
+            String[] cols = linea.split(",", 5);
+            if (cols.length < 5) continue;
+            Pelicula peli = buscarPelicula(peliculas, cols[0]);
+            if (peli == null) continue;
+            try {
+                salida.add(new FuncionDeCine(peli, new Sala(cols[1], cols[2]),
+                        LocalDate.parse(cols[3]), LocalTime.parse(cols[4])));
+            } catch (RuntimeException e) {
+                System.err.println("Función inválida en " + archivoFunciones + ": " + linea);
+            }
+        }
+        return salida;
+    }
+
+    static Pelicula buscarPelicula(List<Pelicula> peliculas, String nombre) {
+        for (Pelicula p : peliculas) {
+            if (p.getNombre().equalsIgnoreCase(nombre)) return p;
+        }
+        return null;
+    }
+
+    /* -------------------- Ventas -------------------- */
+
+    @Override
+    public void registrarVentas(List<RegistroVenta> lote) throws IOException {
+        List<String> lineas = new ArrayList<>(lote.size());
+        for (RegistroVenta r : lote) {
+            lineas.add(r.aLinea());
+        }
+        bitacoraVentas.agregarLote(lineas);
+    }
+
+    @Override
+    public void recorrerVentas(Consumer<RegistroVenta> lector) {
+        bitacoraVentas.recorrer(linea -> {
+            RegistroVenta r = RegistroVenta.desdeLinea(linea);
+            if (r != null) lector.accept(r); // línea incompleta (p. ej. corte de luz a medio lote)
+        });
+    }
+
+    /**
+     * La clave de compactación de una venta es su número de secuencia: ninguna se
+     * reemplaza, así que compactar solo descarta líneas dañadas.
+     */
+    private static String claveDeVenta(String linea) {
+        RegistroVenta r = RegistroVenta.desdeLinea(linea);
+        return r == null ? null : String.valueOf(r.getSecuencia());
+    }
+
+    /** @return bitácora del libro de ventas */
+    public Bitacora getBitacoraVentas() {
+        return bitacoraVentas;
+    }
+
+    /* -------------------- Órdenes de dulcería -------------------- */
+
+    @Override
+    public void registrarEventosOrden(List<EventoOrden> lote) throws IOException {
+        List<String> lineas = new ArrayList<>(lote.size());
+        for (EventoOrden e : lote) {
+            lineas.add(e.aLinea());
+        }
+        bitacoraOrdenes.agregarLote(lineas);
+    }
+
+    @Override
+    public void recorrerEventosOrden(Consumer<EventoOrden> lector) {
+        bitacoraOrdenes.recorrer(linea -> {
+            EventoOrden e = EventoOrden.desdeLinea(linea);
+            if (e != null) lector.accept(e);
+        });
+    }
+
+    /** Al compactar solo queda el último evento de cada orden. */
+    private static String claveDeEvento(String linea) {
+        EventoOrden e = EventoOrden.desdeLinea(linea);
+        return e == null ? null : e.getClave();
+    }
+
+    /** @return bitácora de eventos de órdenes (para registrarla en el {@link Compactador}) */
+    public Bitacora getBitacoraOrdenes() {
+        return bitacoraOrdenes;
+    }
+
+    /* -------------------- Notificaciones e historial -------------------- */
+
+    @Override
+    public void guardarNotificacion(String clave, String texto) {
+        Path p = carpetaNotificaciones.resolve(clave + ".txt");
+        try (BufferedWriter bw = Files.newBufferedWriter(p, StandardCharsets.UTF_8)) {
+            bw.write(texto);
+        } catch (IOException e) {
+            System.err.println("Error guardando notificación: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String leerNotificacion(String clave) {
+        Path p = carpetaNotificaciones.resolve(clave + ".txt");
+        if (!Files.exists(p)) return null;
+        try {
+            return new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "Error leyendo notificación: " + e.getMessage();
+        }
+    }
+
+    @Override
+    public synchronized void agregarHistorialVendedor(String nickname, String linea) {
+        Path p = carpetaHistorial.resolve(nickname + ".txt");
+        try (BufferedWriter bw = Files.newBufferedWriter(p, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            bw.write(linea);
+            bw.newLine();
+        } catch (IOException e) {
+            System.err.println("Error guardando historial vendedor: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> leerHistorialVendedor(String nickname) {
+        return leerLineas(carpetaHistorial.resolve(nickname + ".txt"));
+    }
+
+    @Override
+    public synchronized void agregarRegistroCompra(String nickname, String linea) {
+        Path p = archivoCompras(nickname);
+        try (BufferedWriter bw = Files.newBufferedWriter(p, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            bw.write(linea);
+            bw.newLine();
+        } catch (IOException e) {
+            System.err.println("Error guardando historial de compras: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean existeHistorialCompras(String nickname) {
+        Path p = archivoCompras(nickname);
+        try {
+            return Files.exists(p) && Files.size(p) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void recorrerHistorialCompras(String nickname, Predicate<String> lector) {
+        Path p = archivoCompras(nickname);
+        if (Files.notExists(p)) return;
+        try (BufferedReader br = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                if (linea.trim().isEmpty()) continue;
+                if (!lector.test(linea)) break;
+            }
+        } catch (IOException e) {
+            System.err.println("Error leyendo historial de compras: " + e.getMessage());
+        }
+    }
+
+    /* -------------------- Utilidades -------------------- */
+
+    /**
+     * Archivo del historial de compras de un cliente. El nickname lo escribe el usuario,
+     * así que cualquier carácter fuera de letras, dígitos, '.', '_' y '-' (o un punto al
+     * inicio) se cambia por su código, para que el nombre no salga de la carpeta.
+     */
+    private Path archivoCompras(String nickname) {
+        StringBuilder sb = new StringBuilder(nickname.length() + 4);
+        for (int i = 0; i < nickname.length(); i++) {
+            char ch = nickname.charAt(i);
+            boolean seguro = (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9')
+                    || ch == '_' || ch == '-' || (ch == '.' && i > 0);
+            if (seguro) sb.append(ch);
+            else sb.append(String.format("%%%04x", (int) ch));
+        }
+        return carpetaCompras.resolve(sb.append(".txt").toString());
+    }
+
+    private static List<String> leerLineas(Path archivo) {
+        List<String> salida = new ArrayList<>();
+        if (Files.notExists(archivo)) return salida;
+        try (BufferedReader br = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                if (!linea.trim().isEmpty()) salida.add(linea);
+            }
+        } catch (IOException e) {
+            System.err.println("Error leyendo " + archivo + ": " + e.getMessage());
+        }
+        return salida;
+    }
+
+    private static String limpiarCsv(String s) {
+        if (s == null) return "";
+        return s.replace(",", " ").replaceAll("[\\r\\n]+", " ");
+    }
+}
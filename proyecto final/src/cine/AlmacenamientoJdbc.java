@@ -0,0 +1,592 @@
+package cine;
+
+import java.io.*;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Almacenamiento en una base de datos embebida vía JDBC (H2 o SQLite en archivo local).
+ * <p>
+ * El controlador no viene con el proyecto: hay que agregar su .jar al classpath y
+ * elegir el URL, por ejemplo
+ * {@code -Dcine.almacenamiento=jdbc:h2:file:./ArchivosAplicacion/cine} o
+ * {@code -Dcine.almacenamiento=jdbc:sqlite:ArchivosAplicacion/cine.db}.
+ * </p>
+ * <p>
+ * Usa un pool de conexiones propio y sentencias preparadas por lotes
+ * ({@code addBatch}/{@code executeBatch}) dentro de una transacción para las
+ * escrituras masivas (ventas, empleados, películas). Los usuarios se guardan como
+ * objetos serializados, igual que en los archivos .dat.
+ * </p>
+ */
+public class AlmacenamientoJdbc implements Almacenamiento {
+
+    private static final String[] ESQUEMA = {
+        "CREATE TABLE IF NOT EXISTS clientes (nickname VARCHAR(100) PRIMARY KEY, orden BIGINT, datos BLOB)",
+        "CREATE TABLE IF NOT EXISTS empleados (nickname VARCHAR(100) PRIMARY KEY, orden BIGINT, datos BLOB)",
+        "CREATE TABLE IF NOT EXISTS peliculas (orden INT, nombre VARCHAR(200), genero VARCHAR(200), "
+                + "sinopsis VARCHAR(2000), duracion VARCHAR(5))",
+        "CREATE TABLE IF NOT EXISTS funciones (pelicula VARCHAR(200), id_sala VARCHAR(50), "
+                + "tipo_sala VARCHAR(10), fecha VARCHAR(10), hora VARCHAR(5))",
+        "CREATE TABLE IF NOT EXISTS ventas (secuencia BIGINT PRIMARY KEY, fecha_hora VARCHAR(30), "
+                + "id_funcion VARCHAR(100), nickname VARCHAR(100), asientos VARCHAR(2000), total DOUBLE)",
+        "CREATE TABLE IF NOT EXISTS eventos_orden (secuencia BIGINT PRIMARY KEY, fecha_hora VARCHAR(30), "
+                + "clave VARCHAR(200), estado VARCHAR(20), detalle VARCHAR(100))",
+        "CREATE TABLE IF NOT EXISTS notificaciones (clave VARCHAR(200) PRIMARY KEY, texto VARCHAR(4000))",
+        "CREATE TABLE IF NOT EXISTS historial_vendedores (orden BIGINT, nickname VARCHAR(100), linea VARCHAR(1000))",
+        "CREATE TABLE IF NOT EXISTS historial_compras (orden BIGINT, nickname VARCHAR(100), linea VARCHAR(4000))"
+    };
+
+    // Tablas de usuarios que en bases viejas no tienen la columna orden
+    private static final String[] TABLAS_USUARIOS = {"clientes", "empleados"};
+
+    private final PoolConexiones pool;
+    private final AtomicLong ordenClientes;
+    private final AtomicLong ordenEmpleados;
+    private final AtomicLong ordenHistorial;
+    private final AtomicLong ordenCompras;
+
+    /**
+     * Abre la base, crea las tablas si faltan y prepara el pool.
+     *
+     * @param url     URL JDBC (H2 o SQLite en archivo)
+     * @param tamPool número máximo de conexiones abiertas
+     * @throws SQLException si no hay controlador o la base no abre
+     */
+    public AlmacenamientoJdbc(String url, int tamPool) throws SQLException {
+        this.pool = new PoolConexiones(url, tamPool);
+        try (Prestamo p = pool.prestar(); Statement st = p.conexion.createStatement()) {
+            for (String ddl : ESQUEMA) st.execute(ddl);
+            for (String tabla : TABLAS_USUARIOS) agregarColumnaOrden(p.conexion, tabla);
+        }
+        this.ordenClientes = new AtomicLong(consultarLargo("SELECT COALESCE(MAX(orden), 0) FROM clientes"));
+        this.ordenEmpleados = new AtomicLong(consultarLargo("SELECT COALESCE(MAX(orden), 0) FROM empleados"));
+        this.ordenHistorial = new AtomicLong(consultarLargo("SELECT COALESCE(MAX(orden), 0) FROM historial_vendedores"));
+        this.ordenCompras = new AtomicLong(consultarLargo("SELECT COALESCE(MAX(orden), 0) FROM historial_compras"));
+    }
+
+    /* -------------------- Usuarios -------------------- */
+
+    @Override
+    public List<Cliente> cargarClientes() {
+        List<Cliente> salida = new ArrayList<>();
+        for (Object o : cargarObjetos("SELECT datos FROM clientes ORDER BY orden")) salida.add((Cliente) o);
+        return salida;
+    }
+
+    @Override
+    public void guardarCliente(Cliente cliente) {
+        reemplazarObjetos("clientes", ordenClientes, List.of(cliente), false);
+    }
+
+    @Override
+    public void guardarClientes(List<Cliente> clientes) {
+        reemplazarObjetos("clientes", ordenClientes, clientes, true);
+    }
+
+    @Override
+    public List<Empleado> cargarEmpleados() {
+        List<Empleado> salida = new ArrayList<>();
+        for (Object o : cargarObjetos("SELECT datos FROM empleados ORDER BY orden")) salida.add((Empleado) o);
+        return salida;
+    }
+
+    @Override
+    public void guardarEmpleados(List<Empleado> empleados) {
+        reemplazarObjetos("empleados", ordenEmpleados, empleados, true);
+    }
+
+    /**
+     * Guarda personas serializadas por nickname, en una transacción. La columna orden
+     * conserva el orden de alta: al cargar salen igual que en los otros almacenamientos.
+     *
+     * @param orden consecutivo de la tabla
+     * @param todo  si es true primero se vacía la tabla (las que no vengan se borran) y
+     *              el orden es el de la lista; si no, una persona que ya estaba se
+     *              actualiza en su lugar y una nueva va al final
+     */
+    private void reemplazarObjetos(String tabla, AtomicLong orden, List<? extends Persona> personas, boolean todo) {
+        try (Prestamo p = pool.prestar()) {
+            Connection c = p.conexion;
+            c.setAutoCommit(false);
+            try (PreparedStatement borrar = c.prepareStatement("DELETE FROM " + tabla);
+                 PreparedStatement actualizar = c.prepareStatement(
+                         "UPDATE " + tabla + " SET datos = ? WHERE nickname = ?");
+                 PreparedStatement insertar = c.prepareStatement(
+                         "INSERT INTO " + tabla + " (nickname, orden, datos) VALUES (?, ?, ?)")) {
+                if (todo) {
+                    borrar.executeUpdate();
+                }
+                for (Persona per : personas) {
+                    byte[] datos = serializar(per);
+                    if (!todo) {
+                        actualizar.setBytes(1, datos);
+                        actualizar.setString(2, per.getNickname());
+                        if (actualizar.executeUpdate() > 0) continue;
+                    }
+                    insertar.setString(1, per.getNickname());
+                    insertar.setLong(2, orden.incrementAndGet());
+                    insertar.setBytes(3, datos);
+                    insertar.addBatch();
+                }
+                insertar.executeBatch();
+                c.commit();
+            } catch (SQLException | IOException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("Error guardando " + tabla + ": " + e.getMessage());
+        }
+    }
+
+    /** Agrega la columna orden a una tabla de usuarios creada antes de que existiera. */
+    private static void agregarColumnaOrden(Connection c, String tabla) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            try {
+                st.executeQuery("SELECT orden FROM " + tabla + " WHERE 1 = 0").close();
+            } catch (SQLException e) {
+                st.execute("ALTER TABLE " + tabla + " ADD COLUMN orden BIGINT");
+            }
+        }
+    }
+
+    private List<Object> cargarObjetos(String sql) {
+        List<Object> salida = new ArrayList<>();
+        try (Prestamo p = pool.prestar();
+             Statement st = p.conexion.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(rs.getBytes(1)))) {
+                    salida.add(ois.readObject());
+                } catch (IOException | ClassNotFoundException e) {
+                    System.err.println("Registro de usuario dañado: " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error cargando usuarios: " + e.getMessage());
+        }
+        return salida;
+    }
+
+    private static byte[] serializar(Object o) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(o);
+        }
+        return bos.toByteArray();
+    }
+
+    /* -------------------- Películas y funciones -------------------- */
+
+    @Override
+    public List<Pelicula> cargarPeliculas() {
+        List<Pelicula> salida = new ArrayList<>();
+        try (Prestamo p = pool.prestar();
+             Statement st = p.conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT nombre, genero, sinopsis, duracion FROM peliculas ORDER BY orden")) {
+            while (rs.next()) {
+                salida.add(new Pelicula(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4)));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error cargando peliculas: " + e.getMessage());
+        }
+        return salida;
+    }
+
+    @Override
+    public void guardarPeliculas(List<Pelicula> peliculas) {
+        try (Prestamo p = pool.prestar()) {
+            Connection c = p.conexion;
+            c.setAutoCommit(false);
+            try (Statement borrar = c.createStatement();
+                 PreparedStatement ps = c.prepareStatement(
+                         "INSERT INTO peliculas (orden, nombre, genero, sinopsis, duracion) VALUES (?, ?, ?, ?, ?)")) {
+                borrar.executeUpdate("DELETE FROM peliculas");
+                int orden = 0;
+                for (Pelicula peli : peliculas) {
+                    ps.setInt(1, orden++);
+                    ps.setString(2, peli.getNombre());
+                    ps.setString(3, peli.getGenero());
+                    ps.setString(4, peli.getSinopsis());
+                    ps.setString(5, peli.getDuracion().toString());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error guardando peliculas: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<FuncionDeCine> cargarFunciones(List<Pelicula> peliculas) {
+        List<FuncionDeCine> salida = new ArrayList<>();
+        try (Prestamo p = pool.prestar();
+             Statement st = p.conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT pelicula, id_sala, tipo_sala, fecha, hora FROM funciones")) {
+            while (rs.next()) {
+                Pelicula peli = AlmacenamientoArchivos.buscarPelicula(peliculas, rs.getString(1));
+                if (peli == null) continue;
+                try {
+                    salida.add(new FuncionDeCine(peli, new Sala(rs.getString(2), rs.getString(3)),
+                            LocalDate.parse(rs.getString(4)), LocalTime.parse(rs.getString(5))));
+                } catch (DateTimeParseException e) {
+                    System.err.println("Función inválida en la base: " + rs.getString(1) + " " + e.getParsedString());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error cargando funciones: " + e.getMessage());
+        }
+        return salida;
+    }
+
+    @Override
+    public void guardarFuncion(FuncionDeCine f) {
+        try (Prestamo p = pool.prestar();
+             PreparedStatement ps = p.conexion.prepareStatement(
+                     "INSERT INTO funciones (pelicula, id_sala, tipo_sala, fecha, hora) VALUES (?, ?, ?, ?, ?)")) {
+            ps.setString(1, f.getPelicula().getNombre());
+            ps.setString(2, f.getSala().getIdSala());
+            ps.setString(3, f.getSala().getTipo());
+            ps.setString(4, f.getFecha().toString());
+            ps.setString(5, f.getHora().toString());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error guardando función: " + e.getMessage());
+        }
+    }
+
+    /* -------------------- Ventas -------------------- */
+
+    @Override
+    public void registrarVentas(List<RegistroVenta> lote) throws IOException {
+        try (Prestamo p = pool.prestar()) {
+            Connection c = p.conexion;
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO ventas "
+                    + "(secuencia, fecha_hora, id_funcion, nickname, asientos, total) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (RegistroVenta r : lote) {
+                    ps.setLong(1, r.getSecuencia());
+                    ps.setString(2, r.getFechaHora().toString());
+                    ps.setString(3, r.getIdFuncion());
+                    ps.setString(4, r.getNickname());
+                    ps.setString(5, String.join(",", r.getAsientos()));
+                    ps.setDouble(6, r.getTotal());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Error registrando ventas: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void recorrerVentas(Consumer<RegistroVenta> lector) {
+        try (Prestamo p = pool.prestar();
+             Statement st = p.conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT secuencia, fecha_hora, id_funcion, nickname, asientos, total "
+                     + "FROM ventas ORDER BY secuencia")) {
+            while (rs.next()) {
+                String asientos = rs.getString(5);
+                LocalDateTime fechaHora;
+                try {
+                    fechaHora = LocalDateTime.parse(rs.getString(2));
+                } catch (DateTimeParseException e) {
+                    System.err.println("Venta " + rs.getLong(1) + " con fecha inválida: " + e.getParsedString());
+                    continue;
+                }
+                lector.accept(new RegistroVenta(rs.getLong(1), fechaHora, rs.getString(3), rs.getString(4),
+                        asientos.isEmpty() ? List.of() : Arrays.asList(asientos.split(",")),
+                        rs.getDouble(6)));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error leyendo ventas: " + e.getMessage());
+        }
+    }
+
+    /* -------------------- Órdenes de dulcería -------------------- */
+
+    @Override
+    public void registrarEventosOrden(List<EventoOrden> lote) throws IOException {
+        try (Prestamo p = pool.prestar()) {
+            Connection c = p.conexion;
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO eventos_orden "
+                    + "(secuencia, fecha_hora, clave, estado, detalle) VALUES (?, ?, ?, ?, ?)")) {
+                for (EventoOrden e : lote) {
+                    ps.setLong(1, e.getSecuencia());
+                    ps.setString(2, e.getFechaHora().toString());
+                    ps.setString(3, e.getClave());
+                    ps.setString(4, e.getEstado().name());
+                    ps.setString(5, e.getDetalle());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Error registrando eventos de órdenes: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void recorrerEventosOrden(Consumer<EventoOrden> lector) {
+        try (Prestamo p = pool.prestar();
+             Statement st = p.conexion.createStatement();
+             ResultSet rs = st.executeQuery("SELECT secuencia, fecha_hora, clave, estado, detalle "
+                     + "FROM eventos_orden ORDER BY secuencia")) {
+            while (rs.next()) {
+                EstadoOrden estado = EstadoOrden.desde(rs.getString(4));
+                if (estado == null) continue;
+                LocalDateTime fechaHora;
+                try {
+                    fechaHora = LocalDateTime.parse(rs.getString(2));
+                } catch (DateTimeParseException e) {
+                    System.err.println("Evento de orden " + rs.getLong(1) + " con fecha inválida: " + e.getParsedString());
+                    continue;
+                }
+                lector.accept(new EventoOrden(rs.getLong(1), fechaHora, rs.getString(3), estado, rs.getString(5)));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error leyendo eventos de órdenes: " + e.getMessage());
+        }
+    }
+
+    /* -------------------- Notificaciones e historial -------------------- */
+
+    @Override
+    public void guardarNotificacion(String clave, String texto) {
+        try (Prestamo p = pool.prestar()) {
+            Connection c = p.conexion;
+            c.setAutoCommit(false);
+            try (PreparedStatement borrar = c.prepareStatement("DELETE FROM notificaciones WHERE clave = ?");
+                 PreparedStatement insertar = c.prepareStatement("INSERT INTO notificaciones (clave, texto) VALUES (?, ?)")) {
+                borrar.setString(1, clave);
+                borrar.executeUpdate();
+                insertar.setString(1, clave);
+                insertar.setString(2, texto);
+                insertar.executeUpdate();
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error guardando notificación: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String leerNotificacion(String clave) {
+        try (Prestamo p = pool.prestar();
+             PreparedStatement ps = p.conexion.prepareStatement("SELECT texto FROM notificaciones WHERE clave = ?")) {
+            ps.setString(1, clave);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            return "Error leyendo notificación: " + e.getMessage();
+        }
+    }
+
+    @Override
+    public void agregarHistorialVendedor(String nickname, String linea) {
+        try (Prestamo p = pool.prestar();
+             PreparedStatement ps = p.conexion.prepareStatement(
+                     "INSERT INTO historial_vendedores (orden, nickname, linea) VALUES (?, ?, ?)")) {
+            ps.setLong(1, ordenHistorial.incrementAndGet());
+            ps.setString(2, nickname);
+            ps.setString(3, linea);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error guardando historial vendedor: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<String> leerHistorialVendedor(String nickname) {
+        List<String> salida = new ArrayList<>();
+        try (Prestamo p = pool.prestar();
+             PreparedStatement ps = p.conexion.prepareStatement(
+                     "SELECT linea FROM historial_vendedores WHERE nickname = ? ORDER BY orden")) {
+            ps.setString(1, nickname);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) salida.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error leyendo historial vendedor: " + e.getMessage());
+        }
+        return salida;
+    }
+
+    @Override
+    public void agregarRegistroCompra(String nickname, String linea) {
+        try (Prestamo p = pool.prestar();
+             PreparedStatement ps = p.conexion.prepareStatement(
+                     "INSERT INTO historial_compras (orden, nickname, linea) VALUES (?, ?, ?)")) {
+            ps.setLong(1, ordenCompras.incrementAndGet());
+            ps.setString(2, nickname);
+            ps.setString(3, linea);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error guardando historial de compras: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean existeHistorialCompras(String nickname) {
+        try (Prestamo p = pool.prestar();
+             PreparedStatement ps = p.conexion.prepareStatement(
+                     "SELECT 1 FROM historial_compras WHERE nickname = ? LIMIT 1")) {
+            ps.setString(1, nickname);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void recorrerHistorialCompras(String nickname, Predicate<String> lector) {
+        try (Prestamo p = pool.prestar();
+             PreparedStatement ps = p.conexion.prepareStatement(
+                     "SELECT linea FROM historial_compras WHERE nickname = ? ORDER BY orden")) {
+            ps.setString(1, nickname);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (!lector.test(rs.getString(1))) break;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error leyendo historial de compras: " + e.getMessage());
+        }
+    }
+
+    private long consultarLargo(String sql) throws SQLException {
+        try (Prestamo p = pool.prestar();
+             Statement st = p.conexion.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    @Override
+    public void cerrar() {
+        pool.cerrar();
+    }
+
+    /* -------------------- Pool de conexiones -------------------- */
+
+    /**
+     * Pool mínimo de conexiones: abre hasta {@code tamMax} conexiones bajo demanda
+     * y las reutiliza. Si todas están prestadas, quien pide espera a que se libere una.
+     */
+    private static class PoolConexiones {
+
+        private static final long ESPERA_MAX_SEG = 30;
+
+        private final String url;
+        private final int tamMax;
+        private final BlockingQueue<Connection> libres;
+        private final AtomicInteger abiertas = new AtomicInteger();
+
+        PoolConexiones(String url, int tamMax) {
+            this.url = url;
+            this.tamMax = Math.max(1, tamMax);
+            this.libres = new ArrayBlockingQueue<>(this.tamMax);
+        }
+
+        Prestamo prestar() throws SQLException {
+            Connection c = libres.poll();
+            if (c == null && abiertas.incrementAndGet() <= tamMax) {
+                try {
+                    c = DriverManager.getConnection(url);
+                } catch (SQLException e) {
+                    abiertas.decrementAndGet();
+                    throw e;
+                }
+            } else if (c == null) {
+                abiertas.decrementAndGet();
+                try {
+                    c = libres.poll(ESPERA_MAX_SEG, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (c == null) throw new SQLException("No hay conexiones disponibles en el pool");
+            }
+            return new Prestamo(this, c);
+        }
+
+        void devolver(Connection c) {
+            if (!libres.offer(c)) {
+                cerrarSilencioso(c);
+            }
+        }
+
+        void cerrar() {
+            Connection c;
+            while ((c = libres.poll()) != null) cerrarSilencioso(c);
+        }
+
+        private static void cerrarSilencioso(Connection c) {
+            try {
+                c.close();
+            } catch (SQLException e) {
+                // ya no importa
+            }
+        }
+    }
+
+    /** Conexión prestada; al cerrarse vuelve al pool. */
+    private static class Prestamo implements AutoCloseable {
+        final PoolConexiones pool;
+        final Connection conexion;
+
+        Prestamo(PoolConexiones pool, Connection conexion) {
+            this.pool = pool;
+            this.conexion = conexion;
+        }
+
+        @Override
+        public void close() {
+            pool.devolver(conexion);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package cine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Almacenamiento completamente en memoria. No toca el disco, por lo que sirve
+ * para pruebas, simulaciones y como línea base en los benchmarks de almacenamiento.
+ * Nada sobrevive al cierre del programa.
+ */
+public class AlmacenamientoMemoria implements Almacenamiento {
+
+    // En orden de alta, como los demás almacenamientos
+    private final Map<String, Cliente> clientes = new LinkedHashMap<>();
+    private final List<Empleado> empleados = new ArrayList<>();
+    private final List<Pelicula> peliculas = new ArrayList<>();
+    private final List<FuncionDeCine> funciones = new ArrayList<>();
+    private final List<RegistroVenta> ventas = new ArrayList<>();
+    private final List<EventoOrden> eventosOrden = new ArrayList<>();
+    private final Map<String, String> notificaciones = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> historialVendedores = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> historialCompras = new ConcurrentHashMap<>();
+
+    /* -------------------- Usuarios -------------------- */
+
+    @Override
+    public List<Cliente> cargarClientes() {
+        synchronized (clientes) {
+            return new ArrayList<>(clientes.values());
+        }
+    }
+
+    @Override
+    public void guardarCliente(Cliente cliente) {
+        synchronized (clientes) {
+            clientes.put(cliente.getNickname().toLowerCase(), cliente);
+        }
+    }
+
+    @Override
+    public void guardarClientes(List<Cliente> lista) {
+        synchronized (clientes) {
+            clientes.clear();
+            for (Cliente c : lista) guardarCliente(c);
+        }
+    }
+
+    @Override
+    public List<Empleado> cargarEmpleados() {
+        synchronized (empleados) {
+            return new ArrayList<>(empleados);
+        }
+    }
+
+    @Override
+    public void guardarEmpleados(List<Empleado> lista) {
+        synchronized (empleados) {
+            empleados.clear();
+            empleados.addAll(lista);
+        }
+    }
+
+    /* -------------------- Películas y funciones -------------------- */
+
+    @Override
+    public List<Pelicula> cargarPeliculas() {
+        synchronized (peliculas) {
+            return new ArrayList<>(peliculas);
+        }
+    }
+
+    @Override
+    public void guardarPeliculas(List<Pelicula> lista) {
+        synchronized (peliculas) {
+            peliculas.clear();
+            peliculas.addAll(lista);
+        }
+    }
+
+    @Override
+    public List<FuncionDeCine> cargarFunciones(List<Pelicula> lista) {
+        synchronized (funciones) {
+            return new ArrayList<>(funciones);
+        }
+    }
+
+    @Override
+    public void guardarFuncion(FuncionDeCine funcion) {
+        synchronized (funciones) {
+            funciones.add(funcion);
+        }
+    }
+
+    /* -------------------- Ventas -------------------- */
+
+    @Override
+    public void registrarVentas(List<RegistroVenta> lote) {
+        synchronized (ventas) {
+            ventas.addAll(lote);
+        }
+    }
+
+    @Override
+    public void recorrerVentas(Consumer<RegistroVenta> lector) {
+        List<RegistroVenta> copia;
+        synchronized (ventas) {
+            copia = new ArrayList<>(ventas);
+        }
+        copia.forEach(lector);
+    }
+
+    /* -------------------- Órdenes de dulcería -------------------- */
+
+    @Override
+    public void registrarEventosOrden(List<EventoOrden> lote) {
+        synchronized (eventosOrden) {
+            eventosOrden.addAll(lote);
+        }
+    }
+
+    @Override
+    public void recorrerEventosOrden(Consumer<EventoOrden> lector) {
+        List<EventoOrden> copia;
+        synchronized (eventosOrden) {
+            copia = new ArrayList<>(eventosOrden);
+        }
+        copia.forEach(lector);
+    }
+
+    /* -------------------- Notificaciones e historial -------------------- */
+
+    @Override
+    public void guardarNotificacion(String clave, String texto) {
+        notificaciones.put(clave, texto);
+    }
+
+    @Override
+    public String leerNotificacion(String clave) {
+        return notificaciones.get(clave);
+    }
+
+    @Override
+    public void agregarHistorialVendedor(String nickname, String linea) {
+        historialVendedores.computeIfAbsent(nickname, k -> Collections.synchronizedList(new ArrayList<>())).add(linea);
+    }
+
+    @Override
+    public List<String> leerHistorialVendedor(String nickname) {
+        List<String> lineas = historialVendedores.get(nickname);
+        if (lineas == null) return new ArrayList<>();
+        synchronized (lineas) {
+            return new ArrayList<>(lineas);
+        }
+    }
+
+    @Override
+    public void agregarRegistroCompra(String nickname, String linea) {
+        historialCompras.computeIfAbsent(nickname, k -> Collections.synchronizedList(new ArrayList<>())).add(linea);
+    }
+
+    @Override
+    public boolean existeHistorialCompras(String nickname) {
+        List<String> lineas = historialCompras.get(nickname);
+        return lineas != null && !lineas.isEmpty();
+    }
+
+    @Override
+    public void recorrerHistorialCompras(String nickname, Predicate<String> lector) {
+        List<String> lineas = historialCompras.get(nickname);
+        if (lineas == null) return;
+        List<String> copia;
+        synchronized (lineas) {
+            copia = new ArrayList<>(lineas);
+        }
+        for (String linea : copia) {
+            if (!lector.test(linea)) break;
+        }
+    }
+}
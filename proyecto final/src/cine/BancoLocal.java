@@ -0,0 +1,272 @@
+package cine;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Banco de mentira para la {@link PasarelaPago}: tarda entre {@code latenciaMin} y
+ * {@code latenciaMax} ms en responder y aprueba un porcentaje de los cobros.
+ * <p>
+ * La respuesta se programa en el {@link Reloj} activo en lugar de dormir un hilo:
+ * un pago en curso es una tarea en la cola del planificador (unos cientos de bytes),
+ * así que decenas de miles de pagos a la vez caben en los pocos hilos del reloj, y
+ * en un {@link RelojVirtual} la espera no cuesta tiempo real.
+ * </p>
+ * <p>
+ * Por defecto responde como la transacción de siempre: 2 a 5 s y 97% aprobado. Se
+ * cambia con {@code -Dcine.banco.latenciaMin=ms}, {@code -Dcine.banco.latenciaMax=ms}
+ * y {@code -Dcine.banco.aprobacion=porcentaje}.
+ * </p>
+ * <p>
+ * Modo de fallas (para probar la {@link PasarelaResiliente}): un porcentaje de cobros
+ * responde "banco no disponible" (reintentable), otro porcentaje nunca responde, y a
+ * todos se les puede sumar latencia. Se prende con {@code -Dcine.banco.caidos=%},
+ * {@code -Dcine.banco.colgados=%} y {@code -Dcine.banco.latenciaExtra=ms}, o en
+ * caliente con {@link #inyectarFallas}.
+ * </p>
+ * <p>
+ * Como un banco real, reconoce la referencia: un cobro que repite la de uno que el
+ * banco ya recibió regresa la respuesta de ese primero (o la espera, si sigue en
+ * curso) en lugar de cargar otra vez, así que el reintento de un cobro lento no cobra
+ * doble. Un cobro que se perdió (sin respuesta) o que halló al banco no disponible no
+ * quedó registrado, así que su reintento es un cobro nuevo. Un cobro aprobado se
+ * puede {@link #anular}. Se recuerdan las últimas {@code -Dcine.banco.referencias}
+ * referencias.
+ * </p>
+ */
+public class BancoLocal extends PasarelaPago {
+
+    /** Latencia mínima del banco en ms (-Dcine.banco.latenciaMin=N). */
+    public static final int LATENCIA_MIN_POR_DEFECTO = Integer.getInteger("cine.banco.latenciaMin", 2000);
+    /** Latencia máxima del banco en ms (-Dcine.banco.latenciaMax=N). */
+    public static final int LATENCIA_MAX_POR_DEFECTO = Integer.getInteger("cine.banco.latenciaMax", 5000);
+    /** Porcentaje de cobros aprobados (-Dcine.banco.aprobacion=N). */
+    public static final int APROBACION_POR_DEFECTO = Integer.getInteger("cine.banco.aprobacion", 97);
+    /** Porcentaje de cobros que responden "no disponible" (-Dcine.banco.caidos=N). */
+    public static final int CAIDOS_POR_DEFECTO = Integer.getInteger("cine.banco.caidos", 0);
+    /** Porcentaje de cobros que nunca responden (-Dcine.banco.colgados=N). */
+    public static final int COLGADOS_POR_DEFECTO = Integer.getInteger("cine.banco.colgados", 0);
+    /** ms que se suman a cada respuesta (-Dcine.banco.latenciaExtra=N). */
+    public static final long LATENCIA_EXTRA_POR_DEFECTO = Long.getLong("cine.banco.latenciaExtra", 0);
+    /** Referencias que el banco recuerda para reconocer un cobro repetido (-Dcine.banco.referencias=N). */
+    public static final int REFERENCIAS_POR_DEFECTO = Integer.getInteger("cine.banco.referencias", 100_000);
+
+    private final int latenciaMin;
+    private final int latenciaMax;
+    private final int aprobacion;
+    private final Random aleatorio;
+
+    // Fallas inyectadas (se leen en cada cobro)
+    private volatile int caidos = CAIDOS_POR_DEFECTO;
+    private volatile int colgados = COLGADOS_POR_DEFECTO;
+    private volatile long latenciaExtra = LATENCIA_EXTRA_POR_DEFECTO;
+
+    // Cobros recibidos por referencia, los más viejos se olvidan primero (protegido por su monitor)
+    private final Map<String, CompletableFuture<ResultadoPago>> recibidos =
+            new LinkedHashMap<String, CompletableFuture<ResultadoPago>>() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<ResultadoPago>> e) {
+                    return size() > REFERENCIAS_POR_DEFECTO;
+                }
+            };
+
+    private final AtomicLong operaciones = new AtomicLong();
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicInteger maxEnCurso = new AtomicInteger();
+    private final LongAdder aprobados = new LongAdder();
+    private final LongAdder declinados = new LongAdder();
+    private final LongAdder noDisponibles = new LongAdder();
+    private final LongAdder sinRespuesta = new LongAdder();
+    private final LongAdder repetidos = new LongAdder();
+    private final LongAdder anulados = new LongAdder();
+
+    /** Banco con la configuración por defecto y el aleatorio del reloj activo. */
+    public BancoLocal() {
+        this(LATENCIA_MIN_POR_DEFECTO, LATENCIA_MAX_POR_DEFECTO, APROBACION_POR_DEFECTO, null);
+    }
+
+    /**
+     * @param latenciaMin ms mínimos hasta la respuesta
+     * @param latenciaMax ms máximos (exclusivo; igual al mínimo para latencia fija)
+     * @param aprobacion  porcentaje de cobros aprobados (0 a 100)
+     * @param aleatorio   generador para latencia y aprobación; null para usar el del reloj activo
+     */
+    public BancoLocal(int latenciaMin, int latenciaMax, int aprobacion, Random aleatorio) {
+        if (latenciaMin < 0 || latenciaMax < latenciaMin || aprobacion < 0 || aprobacion > 100) {
+            throw new IllegalArgumentException("Banco mal configurado: latencia " + latenciaMin + "-"
+                    + latenciaMax + " ms, aprobación " + aprobacion + "%");
+        }
+        this.latenciaMin = latenciaMin;
+        this.latenciaMax = latenciaMax;
+        this.aprobacion = aprobacion;
+        this.aleatorio = aleatorio;
+    }
+
+    /**
+     * Cambia las fallas del banco; aplica a los cobros que se pidan desde ahora.
+     *
+     * @param caidos        porcentaje de cobros que responden "no disponible"
+     * @param colgados      porcentaje de cobros que nunca responden
+     * @param latenciaExtra ms que se suman a cada respuesta
+     */
+    public void inyectarFallas(int caidos, int colgados, long latenciaExtra) {
+        if (caidos < 0 || colgados < 0 || caidos + colgados > 100 || latenciaExtra < 0) {
+            throw new IllegalArgumentException("Fallas mal configuradas: " + caidos + "% caídos, "
+                    + colgados + "% colgados, " + latenciaExtra + " ms extra");
+        }
+        this.caidos = caidos;
+        this.colgados = colgados;
+        this.latenciaExtra = latenciaExtra;
+    }
+
+    @Override
+    public CompletableFuture<ResultadoPago> cobrar(String referencia, long centavos) {
+        Reloj reloj = Reloj.getInstancia();
+        CompletableFuture<ResultadoPago> respuesta = new CompletableFuture<>();
+        if (centavos <= 0) {
+            declinados.increment();
+            respuesta.complete(new ResultadoPago(referencia, centavos, false, "", "monto inválido", reloj.ahora()));
+            return respuesta;
+        }
+
+        // Referencia repetida: la respuesta del primer cobro, sin cargar otra vez
+        CompletableFuture<ResultadoPago> previo;
+        synchronized (recibidos) {
+            previo = recibidos.get(referencia);
+        }
+        if (previo != null) {
+            repetidos.increment();
+            return previo.copy();
+        }
+
+        // Se decide al pedir el cobro: con la misma semilla, los mismos pagos
+        Random rnd = aleatorio != null ? aleatorio : reloj.aleatorio();
+        long latencia = latenciaMin + (latenciaMax > latenciaMin ? rnd.nextInt(latenciaMax - latenciaMin) : 0);
+        boolean aprobado = rnd.nextInt(100) < aprobacion;
+        // Solo se sortea la falla si hay fallas: sin ellas la secuencia es la de siempre
+        int falla = caidos + colgados > 0 ? rnd.nextInt(100) : 100;
+        if (falla < colgados) {
+            sinRespuesta.increment();
+            return respuesta;
+        }
+        boolean caido = falla < colgados + caidos;
+        if (!caido) {
+            synchronized (recibidos) {
+                previo = recibidos.putIfAbsent(referencia, respuesta);
+            }
+            if (previo != null) { // otro hilo pidió la misma referencia al mismo tiempo
+                repetidos.increment();
+                return previo.copy();
+            }
+        }
+
+        maxEnCurso.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+        reloj.programar(latencia + latenciaExtra, () -> {
+            enCurso.decrementAndGet();
+            ResultadoPago r;
+            if (caido) {
+                noDisponibles.increment();
+                r = new ResultadoPago(referencia, centavos, false, "", "banco no disponible", reloj.ahora(), true);
+            } else if (aprobado) {
+                aprobados.increment();
+                r = new ResultadoPago(referencia, centavos, true,
+                        String.format("%010d", operaciones.incrementAndGet()), "", reloj.ahora());
+            } else {
+                declinados.increment();
+                r = new ResultadoPago(referencia, centavos, false, "", "declinado por el banco", reloj.ahora());
+            }
+            respuesta.complete(r);
+        });
+        // Copia: si quien cobra cancela su futuro, el banco conserva la respuesta
+        return respuesta.copy();
+    }
+
+    /**
+     * Devuelve el cargo de un cobro aprobado; si el cobro sigue en curso, se devuelve
+     * en cuanto se apruebe. Anular dos veces la misma referencia no devuelve dos veces.
+     *
+     * @return futuro con true si había (o hubo) un cargo que devolver
+     */
+    @Override
+    public CompletableFuture<Boolean> anular(String referencia) {
+        CompletableFuture<ResultadoPago> cobro;
+        synchronized (recibidos) {
+            cobro = recibidos.get(referencia);
+        }
+        if (cobro == null) return CompletableFuture.completedFuture(false);
+        return cobro.thenApply(r -> {
+            if (!r.isAprobado()) return false;
+            synchronized (recibidos) {
+                // Se reemplaza por un declinado: un reintento posterior ve que ya no hay cargo
+                if (recibidos.get(referencia) != cobro) return false;
+                recibidos.put(referencia, CompletableFuture.completedFuture(new ResultadoPago(referencia,
+                        r.getCentavos(), false, "", "cargo anulado", Reloj.getInstancia().ahora())));
+            }
+            anulados.increment();
+            return true;
+        });
+    }
+
+    /* -------------------- Métricas -------------------- */
+
+    /** @return cobros esperando respuesta del banco */
+    public int getEnCurso() {
+        return enCurso.get();
+    }
+
+    /** @return máximo de cobros en curso a la vez */
+    public int getMaxEnCurso() {
+        return maxEnCurso.get();
+    }
+
+    public long getAprobados() {
+        return aprobados.sum();
+    }
+
+    public long getDeclinados() {
+        return declinados.sum();
+    }
+
+    /** @return cobros que respondieron "no disponible" (falla inyectada) */
+    public long getNoDisponibles() {
+        return noDisponibles.sum();
+    }
+
+    /** @return cobros que nunca van a responder (falla inyectada) */
+    public long getSinRespuesta() {
+        return sinRespuesta.sum();
+    }
+
+    /** @return cobros que repitieron una referencia ya recibida (no se cargaron otra vez) */
+    public long getRepetidos() {
+        return repetidos.sum();
+    }
+
+    /** @return cargos aprobados que después se anularon */
+    public long getAnulados() {
+        return anulados.sum();
+    }
+
+    /** @return resumen para reportes */
+    public String resumen() {
+        String s = String.format(Locale.ROOT, "Banco local: %d aprobados, %d declinados, %d en curso (máx. %d)",
+                getAprobados(), getDeclinados(), getEnCurso(), getMaxEnCurso());
+        if (getRepetidos() + getAnulados() > 0) {
+            s += String.format(Locale.ROOT, " | %d referencias repetidas, %d cargos anulados",
+                    getRepetidos(), getAnulados());
+        }
+        if (getNoDisponibles() + getSinRespuesta() > 0) {
+            s += String.format(Locale.ROOT, " | fallas: %d no disponible, %d sin respuesta",
+                    getNoDisponibles(), getSinRespuesta());
+        }
+        return s;
+    }
+}
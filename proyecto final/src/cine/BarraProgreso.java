@@ -1,24 +1,43 @@
 package cine;
 
+import java.util.concurrent.Future;
+
 public class BarraProgreso extends Thread {
     private int velocidad; // ms entre pasos
     private int tamaño;    // cantidad de pasos
+    private Future<?> pago; // si no es null, la barra sigue al pago
 
     public BarraProgreso(int velocidad, int tamaño) {
+        this(velocidad, tamaño, null);
+    }
+
+    /**
+     * Barra que se llena al ritmo de {@code velocidad} pero no llega al 100% hasta que
+     * termine el pago (y lo alcanza en cuanto termina). No imprime el resultado: eso le
+     * toca a quien cobra, que sabe si se aprobó.
+     */
+    public BarraProgreso(int velocidad, int tamaño, Future<?> pago) {
         this.velocidad = velocidad;
         this.tamaño = tamaño;
+        this.pago = pago;
     }
 
     @Override
     public void run() {
         for (int i = 0; i <= tamaño; i++) {
+            if (pago != null) {
+                if (pago.isDone()) i = tamaño;
+                else if (i == tamaño) i = tamaño - 1; // esperando al banco
+            }
             int porcentaje = i * 100 / tamaño;
-            System.out.print(" [");
+            System.out.print(pago == null ? " [" : "\r [");
             for (int j = 0; j < i; j++) System.out.print("=");
             for (int j = i; j < tamaño; j++) System.out.print(" ");
             System.out.print("] " + porcentaje + "%");
-            try { Thread.sleep(velocidad); } catch (InterruptedException e) {}
+            if (i == tamaño) break;
+            try { Reloj.getInstancia().dormir(velocidad); } catch (InterruptedException e) {}
         }
-        System.out.println("\n¡Pago completado!");
+        if (pago == null) System.out.println("\n¡Pago completado!");
+        else System.out.println();
     }
 }
@@ -0,0 +1,254 @@
+package cine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Bitácora de solo-agregado, de líneas de texto, dividida en segmentos.
+ * <p>
+ * Archivos dentro de la carpeta:
+ * <ul>
+ *   <li>{@code <prefijo>.checkpoint}: resultado de la última compactación</li>
+ *   <li>{@code <prefijo>-000001.seg}, {@code -000002.seg}, ...: segmentos en orden;
+ *       el de número mayor es el activo y los demás están sellados</li>
+ * </ul>
+ * Las escrituras solo tocan el segmento activo, por eso el {@link Compactador}
+ * puede trabajar con los sellados sin detener a quien escribe.
+ * </p>
+ * <p>
+ * Cada línea tiene una clave (la define quien crea la bitácora); al compactar
+ * solo sobrevive la última línea de cada clave.
+ * </p>
+ */
+public class Bitacora {
+
+    private static final String EXT_SEGMENTO = ".seg";
+    private static final String EXT_CHECKPOINT = ".checkpoint";
+
+    private final Path carpeta;
+    private final String prefijo;
+    private final long tamMaxSegmento;
+    private final Function<String, String> clave;
+
+    /** Protege el conjunto de archivos (rotación, intercambio tras compactar, recorrido). */
+    private final Object candadoEstructura = new Object();
+    /** Protege la escritura en el segmento activo. */
+    private final Object candadoEscritura = new Object();
+
+    private long numeroActivo;
+    private long bytesActivo;
+
+    /**
+     * @param carpeta        carpeta de la bitácora (se crea si no existe)
+     * @param prefijo        prefijo de los archivos
+     * @param tamMaxSegmento bytes a partir de los cuales se sella el segmento activo
+     * @param clave          extrae la clave de una línea (para descartar registros reemplazados)
+     */
+    public Bitacora(String carpeta, String prefijo, long tamMaxSegmento, Function<String, String> clave) {
+        this.carpeta = Paths.get(carpeta);
+        this.prefijo = prefijo;
+        this.tamMaxSegmento = tamMaxSegmento;
+        this.clave = clave;
+
+        try {
+            if (Files.notExists(this.carpeta)) Files.createDirectories(this.carpeta);
+        } catch (IOException e) {
+            System.err.println("Error creando carpeta de bitácora: " + e.getMessage());
+        }
+
+        List<Path> segmentos = listarSegmentos();
+        if (segmentos.isEmpty()) {
+            numeroActivo = 1;
+            bytesActivo = 0;
+        } else {
+            Path ultimo = segmentos.get(segmentos.size() - 1);
+            numeroActivo = numeroDe(ultimo);
+            try {
+                bytesActivo = Files.size(ultimo);
+            } catch (IOException e) {
+                bytesActivo = 0;
+            }
+        }
+    }
+
+    /* -------------------- Escritura -------------------- */
+
+    /**
+     * Agrega varias líneas al segmento activo con una sola escritura y un solo {@code fsync}.
+     * Si el segmento supera el tamaño máximo se sella y se abre uno nuevo.
+     *
+     * @param lineas líneas sin salto de línea
+     * @throws IOException si no se pudo escribir
+     */
+    public void agregarLote(List<String> lineas) throws IOException {
+        StringBuilder sb = new StringBuilder(lineas.size() * 96);
+        for (String l : lineas) sb.append(l).append('\n');
+        byte[] datos = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        synchronized (candadoEscritura) {
+            try (FileOutputStream fos = new FileOutputStream(rutaSegmento(numeroActivo).toFile(), true)) {
+                fos.write(datos);
+                fos.getChannel().force(false);
+            }
+            bytesActivo += datos.length;
+
+            if (bytesActivo >= tamMaxSegmento) {
+                synchronized (candadoEstructura) {
+                    numeroActivo++;
+                    bytesActivo = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Coloca un archivo existente (por ejemplo un libro anterior a esta bitácora)
+     * como segmento sellado más antiguo. Solo tiene efecto si la bitácora está vacía.
+     */
+    public void importarArchivo(Path archivo) {
+        synchronized (candadoEstructura) {
+            if (!listarSegmentos().isEmpty() || Files.exists(rutaCheckpoint()) || Files.notExists(archivo)) return;
+            try {
+                Files.move(archivo, rutaSegmento(1));
+                numeroActivo = 2;
+                bytesActivo = 0;
+            } catch (IOException e) {
+                System.err.println("No se pudo importar " + archivo + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /* -------------------- Lectura -------------------- */
+
+    /**
+     * Recorre todas las líneas en orden: checkpoint y luego segmentos.
+     */
+    public void recorrer(Consumer<String> lector) {
+        synchronized (candadoEstructura) {
+            leer(rutaCheckpoint(), lector);
+            for (Path seg : listarSegmentos()) {
+                leer(seg, lector);
+            }
+        }
+    }
+
+    private static void leer(Path archivo, Consumer<String> lector) {
+        if (Files.notExists(archivo)) return;
+        try (BufferedReader br = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                if (!linea.isBlank()) lector.accept(linea);
+            }
+        } catch (IOException e) {
+            System.err.println("Error leyendo " + archivo + ": " + e.getMessage());
+        }
+    }
+
+    /* -------------------- Compactación -------------------- */
+
+    /**
+     * @return segmentos sellados (todos menos el activo), del más antiguo al más nuevo
+     */
+    public List<Path> segmentosSellados() {
+        synchronized (candadoEstructura) {
+            List<Path> sellados = new ArrayList<>();
+            for (Path p : listarSegmentos()) {
+                if (numeroDe(p) < numeroActivo) sellados.add(p);
+            }
+            return sellados;
+        }
+    }
+
+    /**
+     * Pliega el checkpoint actual y los segmentos indicados en un checkpoint nuevo,
+     * conservando solo la última línea de cada clave, y hace el intercambio atómico.
+     * La escritura del archivo nuevo ocurre sin candados; solo el intercambio final
+     * (renombrar y borrar) bloquea la estructura.
+     *
+     * @param sellados segmentos a plegar (obtenidos de {@link #segmentosSellados()})
+     * @param limitador controla la velocidad de escritura (puede ser null)
+     * @return número de líneas descartadas
+     * @throws IOException si falla la escritura del checkpoint nuevo
+     */
+    int compactar(List<Path> sellados, Compactador.LimitadorES limitador) throws IOException {
+        if (sellados.isEmpty()) return 0;
+
+        Map<String, String> vigentes = new LinkedHashMap<>();
+        int[] leidas = {0};
+        Consumer<String> plegar = linea -> {
+            leidas[0]++;
+            String k = clave.apply(linea);
+            if (k == null) return; // línea dañada: se descarta
+            vigentes.remove(k);    // la versión nueva queda en la posición más reciente
+            vigentes.put(k, linea);
+        };
+        leer(rutaCheckpoint(), plegar);
+        for (Path seg : sellados) leer(seg, plegar);
+
+        Path temporal = carpeta.resolve(prefijo + EXT_CHECKPOINT + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temporal.toFile());
+             Writer w = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
+            for (String linea : vigentes.values()) {
+                w.write(linea);
+                w.write('\n');
+                if (limitador != null) limitador.consumir(linea.length() + 1);
+            }
+            w.flush();
+            fos.getChannel().force(true);
+        }
+
+        synchronized (candadoEstructura) {
+            Files.move(temporal, rutaCheckpoint(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (Path seg : sellados) {
+                Files.deleteIfExists(seg);
+            }
+        }
+        return leidas[0] - vigentes.size();
+    }
+
+    /* -------------------- Utilidades -------------------- */
+
+    private Path rutaSegmento(long numero) {
+        return carpeta.resolve(String.format("%s-%06d%s", prefijo, numero, EXT_SEGMENTO));
+    }
+
+    private Path rutaCheckpoint() {
+        return carpeta.resolve(prefijo + EXT_CHECKPOINT);
+    }
+
+    private long numeroDe(Path segmento) {
+        String n = segmento.getFileName().toString();
+        return Long.parseLong(n.substring(prefijo.length() + 1, n.length() - EXT_SEGMENTO.length()));
+    }
+
+    private List<Path> listarSegmentos() {
+        List<Path> salida = new ArrayList<>();
+        if (Files.notExists(carpeta)) return salida;
+        try (Stream<Path> s = Files.list(carpeta)) {
+            s.filter(p -> {
+                String n = p.getFileName().toString();
+                return n.startsWith(prefijo + "-") && n.endsWith(EXT_SEGMENTO);
+            }).sorted().forEach(salida::add);
+        } catch (IOException e) {
+            System.err.println("Error listando segmentos de " + prefijo + ": " + e.getMessage());
+        }
+        return salida;
+    }
+
+    public String getPrefijo() {
+        return prefijo;
+    }
+}
@@ -0,0 +1,154 @@
+package cine;
+
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Quién está de turno en la dulcería, precalculado por franja de una hora.
+ * <p>
+ * La semana se divide en 7 x 24 franjas. Al crear el calendario se recorre cada
+ * vendedor una vez: su turno ({@link Empleado#getTurno()}) marca las horas de cada
+ * día que trabaja, salvo su día de descanso ({@link VendedorDulceria#getDiaDescanso()}).
+ * Un turno que cruza la medianoche pertenece al día en que empieza. Después,
+ * "quién está de turno ahora" es leer una lista ya armada ({@link #enTurno}) y
+ * "este vendedor está de turno" es probar un bit ({@link #estaEnTurno}): O(1).
+ * </p>
+ * <p>
+ * Los horarios de cada turno se pueden cambiar con
+ * {@code -Dcine.turnos=matutino=7-15,vespertino=15-23,nocturno=23-7}. Un vendedor
+ * con un turno que no está en la lista (o sin turno) se considera siempre de turno;
+ * un día de descanso que no se reconoce se ignora.
+ * </p>
+ */
+public class CalendarioTurnos {
+
+    /** Horario de cada turno: nombre=horaInicio-horaFin (-Dcine.turnos=...). */
+    public static final String TURNOS_POR_DEFECTO =
+            System.getProperty("cine.turnos", "matutino=7-15,vespertino=15-23,nocturno=23-7");
+
+    private static final int HORAS = 24;
+    private static final int FRANJAS = 7 * HORAS;
+
+    private final Map<String, int[]> turnos;
+    private final List<List<VendedorDulceria>> porFranja = new ArrayList<>(FRANJAS);
+    private final Map<VendedorDulceria, long[]> semanas = new IdentityHashMap<>();
+
+    /**
+     * @param vendedores vendedores a acomodar, con los horarios de {@link #TURNOS_POR_DEFECTO}
+     */
+    public CalendarioTurnos(List<VendedorDulceria> vendedores) {
+        this(vendedores, TURNOS_POR_DEFECTO);
+    }
+
+    /**
+     * @param turnos horarios "nombre=inicio-fin,..." (horas enteras; fin menor que inicio cruza la medianoche)
+     * @throws IllegalArgumentException si los horarios están mal escritos
+     */
+    public CalendarioTurnos(List<VendedorDulceria> vendedores, String turnos) {
+        this.turnos = leerTurnos(turnos);
+        List<List<VendedorDulceria>> franjas = new ArrayList<>(FRANJAS);
+        for (int f = 0; f < FRANJAS; f++) franjas.add(new ArrayList<>());
+
+        for (VendedorDulceria v : vendedores) {
+            long[] semana = new long[(FRANJAS + 63) / 64];
+            int[] horario = this.turnos.get(normalizar(v.getTurno()));
+            DayOfWeek descanso = dia(v.getDiaDescanso());
+            for (int d = 0; d < 7; d++) {
+                if (horario != null && DayOfWeek.of(d + 1) == descanso) continue;
+                int inicio = horario == null ? 0 : horario[0];
+                int horas = horario == null ? HORAS : horario[1];
+                for (int h = 0; h < horas; h++) {
+                    int f = (d * HORAS + inicio + h) % FRANJAS;
+                    semana[f >> 6] |= 1L << f;
+                    franjas.get(f).add(v);
+                }
+            }
+            semanas.put(v, semana);
+        }
+        for (List<VendedorDulceria> lista : franjas) porFranja.add(Collections.unmodifiableList(lista));
+    }
+
+    /* -------------------- Consultas -------------------- */
+
+    /** @return vendedores de turno en ese momento (lista precalculada, no se copia) */
+    public List<VendedorDulceria> enTurno(LocalDateTime momento) {
+        return porFranja.get(franja(momento));
+    }
+
+    /** @return true si el vendedor está de turno en ese momento (false si no es de este calendario) */
+    public boolean estaEnTurno(VendedorDulceria vendedor, LocalDateTime momento) {
+        long[] semana = semanas.get(vendedor);
+        int f = franja(momento);
+        return semana != null && (semana[f >> 6] & (1L << f)) != 0;
+    }
+
+    /** @return franja de la semana (lunes 0:00 = 0, domingo 23:00 = 167) */
+    public static int franja(LocalDateTime momento) {
+        return (momento.getDayOfWeek().getValue() - 1) * HORAS + momento.getHour();
+    }
+
+    /** @return ms que faltan para que empiece la siguiente franja */
+    public static long msHastaSiguienteFranja(LocalDateTime momento) {
+        LocalDateTime siguiente = momento.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        return Math.max(1, ChronoUnit.MILLIS.between(momento, siguiente));
+    }
+
+    /** @return horarios en uso: nombre -> {inicio, horas} */
+    public Map<String, int[]> getTurnos() {
+        return Collections.unmodifiableMap(turnos);
+    }
+
+    /* -------------------- Lectura -------------------- */
+
+    private static Map<String, int[]> leerTurnos(String texto) {
+        Map<String, int[]> salida = new LinkedHashMap<>();
+        for (String parte : texto.split(",")) {
+            if (parte.isBlank()) continue;
+            String[] nombreHoras = parte.split("=");
+            String[] horas = nombreHoras.length == 2 ? nombreHoras[1].split("-") : new String[0];
+            try {
+                if (horas.length != 2) throw new NumberFormatException();
+                int inicio = Integer.parseInt(horas[0].trim());
+                int fin = Integer.parseInt(horas[1].trim());
+                if (inicio < 0 || inicio >= HORAS || fin < 0 || fin > HORAS || inicio == fin) {
+                    throw new NumberFormatException();
+                }
+                salida.put(normalizar(nombreHoras[0]), new int[]{inicio, fin > inicio ? fin - inicio : fin + HORAS - inicio});
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Turno mal escrito: \"" + parte.trim()
+                        + "\" (se espera nombre=inicio-fin, p. ej. matutino=7-15)");
+            }
+        }
+        return salida;
+    }
+
+    /** @return día de la semana en español ("miércoles", "sabado"...), o null */
+    static DayOfWeek dia(String nombre) {
+        switch (normalizar(nombre)) {
+            case "lunes": return DayOfWeek.MONDAY;
+            case "martes": return DayOfWeek.TUESDAY;
+            case "miercoles": return DayOfWeek.WEDNESDAY;
+            case "jueves": return DayOfWeek.THURSDAY;
+            case "viernes": return DayOfWeek.FRIDAY;
+            case "sabado": return DayOfWeek.SATURDAY;
+            case "domingo": return DayOfWeek.SUNDAY;
+            default: return null;
+        }
+    }
+
+    /** Minúsculas y sin acentos. */
+    private static String normalizar(String s) {
+        if (s == null) return "";
+        return Normalizer.normalize(s.trim().toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+    }
+}
@@ -29,8 +29,14 @@ public class Cartelera {
         GestorArchivos.verificarCarpeta();
         // Carga las películas del archivo a la RAM
         peliculas = GestorArchivos.cargarPeliculas();
+        // Carga las funciones programadas y vuelve a ocupar sus asientos vendidos
+        funciones = GestorArchivos.getAlmacenamiento().cargarFunciones(peliculas);
+        for (FuncionDeCine f : funciones) {
+            LibroVentas.getInstancia().restaurarAsientos(f);
+        }
         System.out.println("--- Sistema Inicializado ---");
         System.out.println("Películas en cartelera: " + peliculas.size());
+        System.out.println("Funciones programadas: " + funciones.size());
     }
     /**
      * Crea una nueva película, la añade a la lista en memoria y actualiza el archivo de persistencia.
@@ -72,6 +78,12 @@ public class Cartelera {
         }
         // 3. Si sobrevivió al for, es válida. La guardamos.
         funciones.add(nuevaFuncion);
+        GestorArchivos.getAlmacenamiento().guardarFuncion(nuevaFuncion);
+        // 4. Si el libro de ventas ya tiene ventas de esta función, se vuelven a ocupar esos asientos
+        int restaurados = LibroVentas.getInstancia().restaurarAsientos(nuevaFuncion);
+        if (restaurados > 0) {
+            System.out.println("-> Asientos vendidos restaurados desde el libro de ventas: " + restaurados);
+        }
         System.out.println("-> Función programada exitosamente: ID " + nuevaFuncion.getIdFuncion());
     }
     /**
@@ -0,0 +1,174 @@
+package cine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precios de la dulcería en memoria.
+ * <p>
+ * Se cargan una vez de la carpeta {@code precios/} (un archivo {@code <producto>.txt}
+ * con un número por producto) y un hilo con {@link WatchService} los recarga cuando
+ * cambia algún archivo. Cada recarga arma un mapa nuevo e inmutable y lo publica
+ * de una sola vez en un campo {@code volatile}: quien consulta ve el catálogo viejo
+ * completo o el nuevo completo, y tomar un precio nunca toca el disco.
+ * </p>
+ * <p>
+ * Si un archivo no se puede leer o no tiene un número (por ejemplo, porque se está
+ * escribiendo en ese momento), se conserva su precio anterior; el siguiente evento
+ * del archivo lo vuelve a intentar.
+ * </p>
+ * <p>
+ * Cualquier cambio en la carpeta (también otros archivos, como la configuración de
+ * {@link TarifaDulceria}) dispara una recarga; quien dependa de los precios se
+ * registra con {@link #alRecargar(Runnable)}.
+ * </p>
+ */
+public class CatalogoPrecios {
+
+    /** Carpeta de precios por defecto (relativa al directorio de trabajo). */
+    public static final String CARPETA_PRECIOS = "precios";
+
+    // Espera tras un evento para juntar las escrituras de un mismo cambio
+    private static final long ESPERA_RECARGA_MS = 50;
+
+    private static CatalogoPrecios instancia = null;
+
+    private final Path carpeta;
+    private volatile Map<String, Double> precios = Map.of();
+    private volatile long version = 0;
+    private final List<Runnable> oyentes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Crea el catálogo y lo carga; no vigila la carpeta hasta {@link #vigilar()}.
+     *
+     * @param carpeta carpeta con los archivos de precios
+     */
+    public CatalogoPrecios(Path carpeta) {
+        this.carpeta = carpeta;
+        recargar();
+    }
+
+    /**
+     * @return catálogo compartido de {@link #CARPETA_PRECIOS}, ya vigilado
+     */
+    public static synchronized CatalogoPrecios getInstancia() {
+        if (instancia == null) {
+            instancia = new CatalogoPrecios(Paths.get(CARPETA_PRECIOS));
+            instancia.vigilar();
+        }
+        return instancia;
+    }
+
+    /* -------------------- Consultas -------------------- */
+
+    /**
+     * @param archivo nombre del archivo de precio (ej. "palomitas_jumbo.txt")
+     * @return precio unitario; 0 si el producto no existe
+     */
+    public double precio(String archivo) {
+        Double p = precios.get(archivo);
+        if (p == null) {
+            System.out.println("ERROR: No se encontró " + archivo);
+            return 0;
+        }
+        return p;
+    }
+
+    /** @return copia inmutable del catálogo actual (archivo -> precio) */
+    public Map<String, Double> getPrecios() {
+        return precios;
+    }
+
+    /** @return número de recargas publicadas (útil para pruebas) */
+    public long getVersion() {
+        return version;
+    }
+
+    /** @return carpeta de los archivos de precios */
+    public Path getCarpeta() {
+        return carpeta;
+    }
+
+    /* -------------------- Recarga -------------------- */
+
+    /**
+     * Registra una acción que corre después de cada recarga publicada, en el hilo
+     * que recargó.
+     */
+    public void alRecargar(Runnable oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Vuelve a leer la carpeta y publica el catálogo nuevo.
+     */
+    public synchronized void recargar() {
+        Map<String, Double> anterior = precios;
+        Map<String, Double> nuevo = new HashMap<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, "*.txt")) {
+            for (Path p : archivos) {
+                String nombre = p.getFileName().toString();
+                try {
+                    String texto = new String(Files.readAllBytes(p), StandardCharsets.UTF_8).trim();
+                    nuevo.put(nombre, Double.parseDouble(texto));
+                } catch (IOException | NumberFormatException e) {
+                    System.err.println("Precio ilegible en " + nombre + ": " + e.getMessage());
+                    Double viejo = anterior.get(nombre);
+                    if (viejo != null) nuevo.put(nombre, viejo);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error leyendo precios de " + carpeta + ": " + e.getMessage());
+            return; // se conserva el catálogo actual
+        }
+        precios = Map.copyOf(nuevo);
+        for (Runnable oyente : oyentes) oyente.run();
+        version++; // después de los oyentes: quien la espera ya ve todo actualizado
+    }
+
+    /**
+     * Arranca un hilo de fondo que recarga el catálogo cuando cambia la carpeta.
+     */
+    public void vigilar() {
+        WatchService vigilante;
+        try {
+            vigilante = carpeta.getFileSystem().newWatchService();
+            carpeta.register(vigilante, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.err.println("No se pueden vigilar los precios (" + e.getMessage()
+                    + "); se usarán los cargados al inicio.");
+            return;
+        }
+        Thread hilo = new Thread(() -> esperarCambios(vigilante), "recarga-precios");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void esperarCambios(WatchService vigilante) {
+        try {
+            while (true) {
+                WatchKey clave = vigilante.take();
+                // Junta los eventos de un mismo guardado en una sola recarga
+                TimeUnit.MILLISECONDS.sleep(ESPERA_RECARGA_MS);
+                clave.pollEvents();
+                boolean valida = clave.reset();
+                recargar();
+                if (!valida) {
+                    System.err.println("La carpeta de precios ya no existe; se dejan los últimos precios.");
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // se cerró: termina el hilo
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interruptor (circuit breaker) entre la {@link PasarelaResiliente} y el banco.
+ * <p>
+ * Cerrado, deja pasar todo y recuerda si las últimas {@code ventana} respuestas
+ * fueron fallas del banco (sin respuesta o no disponible; un declinado del cliente
+ * no cuenta). Cuando las fallas llegan al {@code umbral} por ciento, se abre: durante
+ * {@code abiertoMs} cada cobro se rechaza al instante, sin esperar al banco. Pasado
+ * ese tiempo queda semiabierto y deja pasar un solo cobro de prueba: si sale bien se
+ * cierra, si falla se vuelve a abrir.
+ * </p>
+ * <p>
+ * Cada cambio de estado sube una generación; una respuesta que llega de una
+ * generación anterior (un cobro lento pedido antes de abrirse) ya no cuenta. Las
+ * veces que se entró a cada estado y los cobros rechazados quedan como métricas.
+ * </p>
+ */
+public class CircuitoPago {
+
+    /** Estado del interruptor. */
+    public enum Estado {
+        CERRADO("cerrado"),
+        ABIERTO("abierto"),
+        SEMIABIERTO("semiabierto");
+
+        private final String descripcion;
+
+        Estado(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        public String getDescripcion() {
+            return descripcion;
+        }
+    }
+
+    /** Respuestas recientes que se miran (-Dcine.pago.ventana=N). */
+    public static final int VENTANA_POR_DEFECTO = Integer.getInteger("cine.pago.ventana", 20);
+    /** Porcentaje de fallas en la ventana que abre el interruptor (-Dcine.pago.umbralFallas=N). */
+    public static final int UMBRAL_POR_DEFECTO = Integer.getInteger("cine.pago.umbralFallas", 50);
+    /** ms que el interruptor se queda abierto (-Dcine.pago.abiertoMs=N). */
+    public static final long ABIERTO_MS_POR_DEFECTO = Long.getLong("cine.pago.abiertoMs", 30_000);
+
+    /** Respuesta de {@link #permitir()} cuando el cobro no debe ir al banco. */
+    public static final long RECHAZADO = -1;
+
+    private final int umbral;
+    private final long abiertoMs;
+    private final int minimo;
+
+    // Protegidos por el monitor de this
+    private final boolean[] fallas;
+    private int pos = 0, llenos = 0, enFalla = 0;
+    private Estado estado = Estado.CERRADO;
+    private long generacion = 0;
+    private long abiertoHasta = 0;
+    private boolean pruebaEnCurso = false;
+    private LocalDateTime ultimoCambio = null;
+
+    private final Map<Estado, LongAdder> entradas = new EnumMap<>(Estado.class);
+    private final LongAdder rechazados = new LongAdder();
+
+    /** Interruptor con la configuración por defecto. */
+    public CircuitoPago() {
+        this(VENTANA_POR_DEFECTO, UMBRAL_POR_DEFECTO, ABIERTO_MS_POR_DEFECTO);
+    }
+
+    /**
+     * @param ventana   respuestas recientes que se miran (se abre con la mitad llena como mínimo)
+     * @param umbral    porcentaje de fallas que lo abre (1 a 100)
+     * @param abiertoMs ms abierto antes de dejar pasar un cobro de prueba
+     */
+    public CircuitoPago(int ventana, int umbral, long abiertoMs) {
+        if (ventana < 1 || umbral < 1 || umbral > 100 || abiertoMs < 0) {
+            throw new IllegalArgumentException("Interruptor mal configurado: ventana " + ventana
+                    + ", umbral " + umbral + "%, abierto " + abiertoMs + " ms");
+        }
+        this.fallas = new boolean[ventana];
+        this.umbral = umbral;
+        this.abiertoMs = abiertoMs;
+        this.minimo = Math.max(1, ventana / 2);
+        for (Estado e : Estado.values()) entradas.put(e, new LongAdder());
+    }
+
+    /**
+     * Pregunta si un cobro puede ir al banco.
+     *
+     * @return generación a pasar a {@link #registrar}, o {@link #RECHAZADO}
+     */
+    public synchronized long permitir() {
+        if (estado == Estado.ABIERTO && Reloj.getInstancia().milis() >= abiertoHasta) {
+            pasarA(Estado.SEMIABIERTO);
+        }
+        switch (estado) {
+            case CERRADO:
+                return generacion;
+            case SEMIABIERTO:
+                if (!pruebaEnCurso) {
+                    pruebaEnCurso = true;
+                    return generacion;
+                }
+                break;
+            default:
+                break;
+        }
+        rechazados.increment();
+        return RECHAZADO;
+    }
+
+    /**
+     * Anota cómo respondió el banco a un cobro que se dejó pasar.
+     *
+     * @param generacion la que regresó {@link #permitir()}
+     * @param falla      true si el banco falló (sin respuesta o no disponible)
+     */
+    public synchronized void registrar(long generacion, boolean falla) {
+        if (generacion != this.generacion) return;
+        if (estado == Estado.SEMIABIERTO) {
+            pasarA(falla ? Estado.ABIERTO : Estado.CERRADO);
+            return;
+        }
+        if (fallas[pos]) enFalla--;
+        fallas[pos] = falla;
+        if (falla) enFalla++;
+        pos = (pos + 1) % fallas.length;
+        llenos = Math.min(llenos + 1, fallas.length);
+        if (llenos >= minimo && enFalla * 100 >= umbral * llenos) pasarA(Estado.ABIERTO);
+    }
+
+    /** Cambia de estado (con el monitor); la ventana empieza de cero en cada cambio. */
+    private void pasarA(Estado nuevo) {
+        Reloj reloj = Reloj.getInstancia();
+        if (nuevo == Estado.ABIERTO) {
+            abiertoHasta = reloj.milis() + abiertoMs;
+            System.err.println(String.format(Locale.ROOT, "Pagos: el banco está fallando; se rechazan los "
+                    + "cobros por %.1f s (antes: %s).", abiertoMs / 1000.0, estado.getDescripcion()));
+        }
+        estado = nuevo;
+        generacion++;
+        pruebaEnCurso = false;
+        Arrays.fill(fallas, false);
+        pos = llenos = enFalla = 0;
+        ultimoCambio = reloj.ahora();
+        entradas.get(nuevo).increment();
+    }
+
+    /* -------------------- Métricas -------------------- */
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    /** @return fecha del último cambio de estado, o null si nunca ha cambiado */
+    public synchronized LocalDateTime getUltimoCambio() {
+        return ultimoCambio;
+    }
+
+    /** @return veces que el interruptor entró a {@code estado} */
+    public long getEntradas(Estado estado) {
+        return entradas.get(estado).sum();
+    }
+
+    /** @return cobros rechazados sin ir al banco */
+    public long getRechazados() {
+        return rechazados.sum();
+    }
+
+    /** @return resumen para reportes */
+    public String resumen() {
+        return String.format(Locale.ROOT, "Interruptor de pagos: %s | abierto %d veces, semiabierto %d, "
+                        + "cerrado de nuevo %d | cobros rechazados sin ir al banco: %d",
+                getEstado().getDescripcion(), getEntradas(Estado.ABIERTO), getEntradas(Estado.SEMIABIERTO),
+                getEntradas(Estado.CERRADO), getRechazados());
+    }
+}
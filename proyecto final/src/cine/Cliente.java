@@ -1,8 +1,6 @@
 package cine;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Clase que representa a un cliente del cine.
@@ -14,8 +12,11 @@ public class Cliente extends Persona implements Serializable {
     private int edad;
     private String numeroTarjeta;
 
-    /** Historial de compras del cliente */
-    private List<CompraBoletos> historialCompras = new ArrayList<>();
+    /**
+     * Historial de compras del cliente. Se guarda aparte (ver {@link HistorialCompras})
+     * para no serializarlo dentro de clientes.dat; se crea al primer uso.
+     */
+    private transient HistorialCompras historialCompras;
 
     public Cliente(String nombre, String apellidoPaterno, String apellidoMaterno, int edad,
                    String nickname, String contrasena, String correo,
@@ -45,13 +46,16 @@ public class Cliente extends Persona implements Serializable {
     /** ============================
      *   HISTORIAL DE COMPRAS
      * ============================ */
-    public List<CompraBoletos> getHistorialCompras() {
+    public HistorialCompras getHistorialCompras() {
+        if (historialCompras == null) {
+            historialCompras = new HistorialCompras(getNickname());
+        }
         return historialCompras;
     }
 
     public void agregarCompra(CompraBoletos compra) {
         if (compra != null) {
-            historialCompras.add(compra);
+            getHistorialCompras().agregar(compra);
         }
     }
 
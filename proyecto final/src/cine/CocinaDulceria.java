@@ -0,0 +1,666 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cocina de la dulcería: cola acotada de órdenes y un trabajador por vendedor.
+ * <p>
+ * Antes cada orden arrancaba su propio hilo y lo dormía casi un minuto. Ahora cada
+ * orden se asigna al llegar al vendedor menos cargado ({@link RosterVendedores}),
+ * espera en la cola de ese vendedor y cada {@link VendedorDulceria} atiende una a
+ * la vez; un vendedor que se queda sin órdenes toma la última de la cola del más
+ * cargado. Entre todas las colas hay {@link #CAPACIDAD_POR_DEFECTO} lugares. Los pasos de la preparación
+ * ({@link PreparaDulceria}) se programan en el {@link Reloj}: entre paso y paso no
+ * hay ningún hilo dormido, así que 100 000 órdenes en cola no cuestan 100 000 hilos.
+ * Con un {@link RelojVirtual} la cocina entera se simula sin esperas reales.
+ * </p>
+ * <p>
+ * Contrapresión: el mostrador reserva un lugar ({@link #reservarLugar}) antes de
+ * cobrar; si la cola está llena espera un poco y, si sigue llena, rechaza la orden
+ * antes del pago. Con el lugar reservado, {@link #encolar} nunca falla.
+ * </p>
+ * <p>
+ * Orden de atención ({@link Politica}): con EDF cada cola se ordena por la hora de
+ * inicio de la función del cliente ({@link OrdenDulceria#getInicioFuncion()}), la
+ * más próxima primero, y un vendedor libre toma la más urgente de la cola del más
+ * cargado. Contra la inanición, ninguna orden cuenta con un límite posterior a su
+ * llegada más {@link #ESPERA_MAXIMA_MS}: las órdenes sin función o con función
+ * lejana van envejeciendo y terminan pasando delante de las nuevas. Con FIFO se
+ * atiende por orden de llegada.
+ * </p>
+ * <p>
+ * Lotes ({@link LoteDulceria}): al tomar una orden, el vendedor junta las de su
+ * cola que comparten alguna partida (mismo producto, tamaño y sabor) y las prepara
+ * juntas, hasta {@link #LOTE_MAX_POR_DEFECTO} órdenes. El lote se cierra en ese
+ * momento: si la cola está vacía el vendedor empieza de inmediato, sin esperar
+ * órdenes iguales. Al terminar, cada orden se entrega por separado.
+ * </p>
+ * <p>
+ * Si no hay vendedores registrados, un trabajador "sin asignar" prepara las órdenes
+ * (como antes); se retira en cuanto llega el primer vendedor.
+ * </p>
+ * <p>
+ * Hora estimada ({@link EstimadorCocina}): cada paso de la orden ajusta el trabajo
+ * pendiente del estimador y la notificación del cliente dice a qué hora queda lista.
+ * El estado de cada orden queda en el {@link RegistroOrdenes}.
+ * </p>
+ * <p>
+ * Turnos ({@link CalendarioTurnos}): solo reciben órdenes los vendedores de turno.
+ * Al cambiar de franja (una hora) el que termina su turno acaba lo que prepara y
+ * su cola pasa a los que siguen; el que entra empieza tomando órdenes de los demás.
+ * El cambio se revisa con un aviso programado mientras haya órdenes en cola, y al
+ * encolar si ya pasó la hora. Si a esa hora nadie tiene turno, atienden todos.
+ * </p>
+ */
+public class CocinaDulceria {
+
+    /** Lugares en la cola (-Dcine.colaCocina=N). */
+    public static final int CAPACIDAD_POR_DEFECTO = Integer.getInteger("cine.colaCocina", 100_000);
+
+    /** Espera tras la cual una orden pasa delante de cualquier límite posterior (-Dcine.esperaMaxCocina=minutos). */
+    public static final long ESPERA_MAXIMA_MS = Long.getLong("cine.esperaMaxCocina", 20) * 60_000;
+
+    /** Órdenes por lote como máximo (-Dcine.loteMax=N; 1 = sin lotes). */
+    public static final int LOTE_MAX_POR_DEFECTO = Integer.getInteger("cine.loteMax", 6);
+
+    /** Respetar turnos y días de descanso de los vendedores (-Dcine.turnosCocina=true|false). */
+    public static final boolean TURNOS_POR_DEFECTO =
+            Boolean.parseBoolean(System.getProperty("cine.turnosCocina", "true"));
+
+    /** Orden de atención de cada cola. */
+    public enum Politica {
+        /** Por orden de llegada. */
+        FIFO,
+        /** Primero la función que empieza antes (con envejecimiento). */
+        EDF
+    }
+
+    /** Política de la cocina compartida (-Dcine.politicaCocina=FIFO|EDF). */
+    public static final Politica POLITICA_POR_DEFECTO =
+            Politica.valueOf(System.getProperty("cine.politicaCocina", "EDF").toUpperCase(Locale.ROOT));
+
+    private static CocinaDulceria instancia = null;
+
+    private final int capacidad;
+    private final Reloj reloj;
+    private final Semaphore lugares;
+    private final Politica politica;
+    private final Comparator<PreparaDulceria> orden;
+    private volatile int loteMax = LOTE_MAX_POR_DEFECTO;
+
+    // Vendedores por carga; cada trabajador guarda su propia cola
+    private final RosterVendedores roster = new RosterVendedores();
+    private final EstimadorCocina estimador = new EstimadorCocina();
+    private volatile RegistroOrdenes registro;
+    private Trabajador sinAsignar = null; // protegido por this
+
+    // Turnos: todos los trabajadores con vendedor, estén o no en el reparto
+    private final List<Trabajador> trabajadores = new CopyOnWriteArrayList<>();
+    private final Object candadoTurnos = new Object();
+    private volatile CalendarioTurnos calendario = null; // null = sin turnos
+    private volatile long finFranjaMs = Long.MAX_VALUE;
+    private final AtomicBoolean revisionProgramada = new AtomicBoolean();
+
+    // Métricas
+    private final AtomicInteger enCola = new AtomicInteger();
+    private final AtomicInteger maxEnCola = new AtomicInteger();
+    private final AtomicInteger ocupados = new AtomicInteger();
+    private final LongAdder encoladas = new LongAdder();
+    private final LongAdder completadas = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+    private final LongAdder esperaTotalMs = new LongAdder();
+    private final AtomicLong esperaMaxMs = new AtomicLong();
+    private final LongAdder conFuncion = new LongAdder();
+    private final LongAdder atrasadas = new LongAdder();
+    private final LongAdder atrasoTotalMs = new LongAdder();
+    private final AtomicLong atrasoMaxMs = new AtomicLong();
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder ordenesEnLotes = new LongAdder();
+    private final AtomicInteger loteMayor = new AtomicInteger();
+    private final LongAdder ocupadoMs = new LongAdder();
+    private final LongAdder reasignadasPorTurno = new LongAdder();
+
+    /**
+     * @param vendedores vendedores que atienden (uno por trabajador)
+     * @param capacidad  lugares en la cola
+     * @param reloj      reloj que mide esperas y programa los pasos de preparación
+     */
+    public CocinaDulceria(List<VendedorDulceria> vendedores, int capacidad, Reloj reloj) {
+        this(vendedores, capacidad, reloj, POLITICA_POR_DEFECTO);
+    }
+
+    /**
+     * @param politica orden de atención de las colas
+     */
+    public CocinaDulceria(List<VendedorDulceria> vendedores, int capacidad, Reloj reloj, Politica politica) {
+        this.capacidad = capacidad;
+        this.reloj = reloj;
+        this.lugares = new Semaphore(capacidad);
+        this.politica = politica;
+        this.orden = politica == Politica.EDF
+                ? Comparator.comparingLong(CocinaDulceria::prioridad).thenComparingLong(PreparaDulceria::getSecuencia)
+                : Comparator.comparingLong(PreparaDulceria::getSecuencia);
+
+        for (VendedorDulceria v : vendedores) {
+            trabajadores.add(new Trabajador(v, orden)); // entran al reparto al revisar turnos
+        }
+        if (vendedores.isEmpty()) {
+            sinAsignar = new Trabajador(null, orden);
+            sinAsignar.retirado = false;
+            roster.agregar(sinAsignar);
+        }
+        usarTurnos(TURNOS_POR_DEFECTO);
+    }
+
+    /**
+     * @return cocina compartida, con los vendedores de dulcería registrados
+     */
+    public static synchronized CocinaDulceria getInstancia() {
+        if (instancia == null) {
+            List<VendedorDulceria> vendedores = new ArrayList<>();
+            for (Empleado e : SistemaAutenticacion.getInstancia().getEmpleados()) {
+                if (e instanceof VendedorDulceria) vendedores.add((VendedorDulceria) e);
+            }
+            instancia = new CocinaDulceria(vendedores, CAPACIDAD_POR_DEFECTO, Reloj.getInstancia());
+        }
+        return instancia;
+    }
+
+    /**
+     * Avisa que se dio de alta un vendedor. Si la cocina ya está abierta entra al
+     * reparto de inmediato; si no, se tomará al abrirla.
+     */
+    public static synchronized void vendedorRegistrado(VendedorDulceria vendedor) {
+        if (instancia != null) instancia.agregarVendedor(vendedor);
+    }
+
+    /**
+     * Cambia el tamaño máximo de lote (antes de recibir órdenes).
+     *
+     * @param maximo órdenes por lote (1 = cada orden sola)
+     */
+    public void usarLotes(int maximo) {
+        this.loteMax = Math.max(1, maximo);
+    }
+
+    /**
+     * Activa o desactiva los turnos: sin ellos todos los vendedores atienden siempre.
+     */
+    public void usarTurnos(boolean turnos) {
+        synchronized (candadoTurnos) {
+            calendario = turnos ? new CalendarioTurnos(vendedores()) : null;
+        }
+        revisarTurnos();
+    }
+
+    /**
+     * Cambia el registro de estados (por defecto el compartido, ver
+     * {@link RegistroOrdenes#getInstancia()}); la simulación usa uno propio por corrida.
+     */
+    public void usarRegistro(RegistroOrdenes registro) {
+        this.registro = registro;
+    }
+
+    /* -------------------- Mostrador -------------------- */
+
+    /**
+     * Reserva un lugar en la cola; si está llena espera hasta {@code espera}.
+     *
+     * @return true si hay lugar (después hay que {@link #encolar} o {@link #liberarLugar})
+     */
+    public boolean reservarLugar(long espera, TimeUnit unidad) {
+        try {
+            if (lugares.tryAcquire(espera, unidad)) return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rechazadas.increment();
+        return false;
+    }
+
+    /**
+     * Devuelve un lugar reservado que no se usó (por ejemplo, si el pago falló).
+     */
+    public void liberarLugar() {
+        lugares.release();
+    }
+
+    /**
+     * Pone en cola una orden con lugar ya reservado.
+     */
+    public void encolar(OrdenDulceria orden) {
+        if (reloj.milis() >= finFranjaMs) revisarTurnos();
+        PreparaDulceria p = new PreparaDulceria(orden, reloj, getRegistro());
+        p.setServicioMs(estimador.servicioMs(orden));
+        estimador.encolada(p);
+        encoladas.increment();
+        maxEnCola.accumulateAndGet(enCola.incrementAndGet(), Math::max);
+        programarRevision();
+        entregar(p);
+    }
+
+    /**
+     * Reserva lugar y encola en un solo paso.
+     *
+     * @return false si la cola siguió llena durante {@code espera}
+     */
+    public boolean ofrecer(OrdenDulceria orden, long espera, TimeUnit unidad) {
+        if (!reservarLugar(espera, unidad)) return false;
+        encolar(orden);
+        return true;
+    }
+
+    /**
+     * Agrega un trabajador para un vendedor nuevo; entra al reparto si está de turno.
+     */
+    public void agregarVendedor(VendedorDulceria vendedor) {
+        trabajadores.add(new Trabajador(vendedor, orden));
+        synchronized (candadoTurnos) {
+            if (calendario != null) calendario = new CalendarioTurnos(vendedores());
+        }
+        revisarTurnos();
+        Trabajador retirado;
+        synchronized (this) {
+            retirado = sinAsignar;
+            sinAsignar = null;
+        }
+        if (retirado != null) retirar(retirado);
+    }
+
+    /**
+     * Saca a un trabajador del reparto: termina la orden que prepara y las que
+     * tenía en cola pasan a los demás.
+     *
+     * @return órdenes que pasaron a otros
+     */
+    private int retirar(Trabajador t) {
+        roster.retirar(t);
+        List<PreparaDulceria> pendientes;
+        synchronized (t) {
+            t.retirado = true;
+            pendientes = new ArrayList<>(t.cola);
+            t.cola.clear();
+        }
+        for (PreparaDulceria p : pendientes) {
+            roster.liberar(t);
+            entregar(p);
+        }
+        return pendientes.size();
+    }
+
+    /** Vuelve a meter al trabajador en el reparto; si estaba libre toma órdenes de los demás. */
+    private void reincorporar(Trabajador t) {
+        boolean arrancar;
+        synchronized (t) {
+            t.retirado = false;
+            arrancar = !t.ocupado;
+            t.ocupado = true;
+        }
+        roster.agregar(t);
+        if (arrancar) siguiente(t);
+    }
+
+    /* -------------------- Turnos -------------------- */
+
+    /**
+     * Deja en el reparto solo a los vendedores de turno: primero entran los que
+     * empiezan (para que reciban las colas) y luego salen los que terminan.
+     */
+    private void revisarTurnos() {
+        synchronized (candadoTurnos) {
+            CalendarioTurnos c = calendario;
+            LocalDateTime ahora = reloj.ahora();
+            finFranjaMs = c == null ? Long.MAX_VALUE : reloj.milis() + CalendarioTurnos.msHastaSiguienteFranja(ahora);
+            boolean nadie = c == null || c.enTurno(ahora).isEmpty();
+            List<Trabajador> salen = new ArrayList<>();
+            for (Trabajador t : trabajadores) {
+                boolean deTurno = nadie || c.estaEnTurno(t.getVendedor(), ahora);
+                boolean fuera;
+                synchronized (t) {
+                    fuera = t.retirado;
+                }
+                if (deTurno && fuera) reincorporar(t);
+                else if (!deTurno && !fuera) salen.add(t);
+            }
+            for (Trabajador t : salen) reasignadasPorTurno.add(retirar(t));
+        }
+    }
+
+    /** Programa la revisión del siguiente cambio de franja (una a la vez). */
+    private void programarRevision() {
+        if (calendario == null || revisionProgramada.get() || !revisionProgramada.compareAndSet(false, true)) return;
+        reloj.programar(Math.max(1, finFranjaMs - reloj.milis()), () -> {
+            revisionProgramada.set(false);
+            revisarTurnos();
+            if (enCola.get() > 0) programarRevision();
+        });
+    }
+
+    private List<VendedorDulceria> vendedores() {
+        List<VendedorDulceria> lista = new ArrayList<>();
+        for (Trabajador t : trabajadores) lista.add(t.getVendedor());
+        return lista;
+    }
+
+    /* -------------------- Trabajadores -------------------- */
+
+    /**
+     * Pone la orden en la cola del vendedor menos cargado, avisa al cliente cuántas
+     * tiene delante y, si el vendedor estaba libre, lo pone a trabajar.
+     */
+    private void entregar(PreparaDulceria p) {
+        while (true) {
+            Trabajador t = (Trabajador) roster.asignar();
+            if (t == null) {
+                throw new IllegalStateException("La cocina no tiene vendedores");
+            }
+            boolean arrancar;
+            int antes;
+            synchronized (t) {
+                if (t.retirado) continue; // se retiró entre asignar y encolar
+                t.cola.add(p);
+                arrancar = !t.ocupado;
+                // Cota: si por EDF quedó antes del final, tiene menos delante (la hora estimada ya lo toma en cuenta)
+                antes = t.cola.size() - 1 + (arrancar ? 0 : 1);
+                t.ocupado = true;
+            }
+            p.enCola(antes, estimador.eta(reloj.milis(), roster.getTamano(), p));
+            if (arrancar) siguiente(t);
+            return;
+        }
+    }
+
+    /**
+     * El trabajador toma la siguiente orden de su cola; si está vacía, una de la cola
+     * del más cargado; si tampoco hay, queda libre.
+     */
+    private void siguiente(Trabajador t) {
+        PreparaDulceria p;
+        synchronized (t) {
+            p = t.cola.pollFirst();
+            if (p == null && t.retirado) {
+                t.ocupado = false;
+                return;
+            }
+        }
+        if (p == null) p = robar(t);
+        if (p == null) {
+            synchronized (t) {
+                p = t.cola.pollFirst(); // pudo llegar una mientras buscaba
+                if (p == null) {
+                    t.ocupado = false;
+                    return;
+                }
+            }
+        }
+        sacarDeCola(p);
+        ocupados.incrementAndGet();
+        LoteDulceria lote = new LoteDulceria(t, p, loteMax);
+        juntar(t, lote);
+        reloj.programar(0, () -> asignar(t, lote));
+    }
+
+    /**
+     * Pasa al lote las órdenes de la cola del trabajador que comparten partidas.
+     */
+    private void juntar(Trabajador t, LoteDulceria lote) {
+        if (loteMax <= 1) return;
+        synchronized (t) {
+            Iterator<PreparaDulceria> it = t.cola.iterator();
+            while (it.hasNext() && !lote.isLleno()) {
+                PreparaDulceria p = it.next();
+                if (lote.unir(p)) {
+                    it.remove();
+                    sacarDeCola(p);
+                }
+            }
+        }
+    }
+
+    private void sacarDeCola(PreparaDulceria p) {
+        estimador.sacada(p);
+        enCola.decrementAndGet();
+        lugares.release();
+    }
+
+    /** @return ms estimados del lote: la suma del servicio de sus órdenes */
+    private static long servicio(LoteDulceria lote) {
+        long ms = 0;
+        for (PreparaDulceria p : lote.getOrdenes()) ms += p.getServicioMs();
+        return ms;
+    }
+
+    /**
+     * @return una orden de la cola del vendedor más cargado, ya movida a {@code t}:
+     *         con FIFO la más reciente, con EDF la más urgente (el ladrón puede
+     *         empezarla ya, el dueño no)
+     */
+    private PreparaDulceria robar(Trabajador t) {
+        Trabajador otro = (Trabajador) roster.masCargado();
+        if (otro == null || otro == t) return null;
+        PreparaDulceria p;
+        synchronized (otro) {
+            if (otro.retirado) return null;
+            p = politica == Politica.EDF ? otro.cola.pollFirst() : otro.cola.pollLast();
+        }
+        if (p != null) roster.mover(otro, t);
+        return p;
+    }
+
+    private void asignar(Trabajador t, LoteDulceria lote) {
+        List<PreparaDulceria> ordenes = lote.getOrdenes();
+        lotes.increment();
+        ordenesEnLotes.add(ordenes.size());
+        loteMayor.accumulateAndGet(ordenes.size(), Math::max);
+        long ahora = reloj.milis();
+        long estimado = servicio(lote);
+        lote.empezar(ahora, estimado);
+        estimador.loteIniciado(ahora, estimado);
+        try {
+            for (PreparaDulceria p : ordenes) {
+                long espera = ahora - p.getEncolada();
+                esperaTotalMs.add(espera);
+                esperaMaxMs.accumulateAndGet(espera, Math::max);
+                p.asignar(t.getVendedor(), ahora + estimado);
+            }
+            long ms = lote.duracionAlistar(reloj.aleatorio());
+            ocupadoMs.add(ms);
+            programar(ms, () -> iniciar(t, lote));
+        } catch (RuntimeException e) {
+            System.err.println("Error asignando orden de dulcería: " + e.getMessage());
+            estimador.loteCancelado(lote);
+            liberar(t, ordenes.size());
+        }
+    }
+
+    private void iniciar(Trabajador t, LoteDulceria lote) {
+        List<PreparaDulceria> ordenes = lote.getOrdenes();
+        try {
+            long eta = Math.max(reloj.milis(), lote.getInicioMs() + lote.getEstimadoMs());
+            for (PreparaDulceria p : ordenes) p.iniciar(eta);
+            long ms = lote.duracionPreparar(reloj.aleatorio());
+            ocupadoMs.add(ms);
+            programar(ms, () -> terminar(t, lote));
+        } catch (RuntimeException e) {
+            System.err.println("Error iniciando orden de dulcería: " + e.getMessage());
+            estimador.loteCancelado(lote);
+            liberar(t, ordenes.size());
+        }
+    }
+
+    /** El lote queda listo: cada orden se entrega por separado. */
+    private void terminar(Trabajador t, LoteDulceria lote) {
+        List<PreparaDulceria> ordenes = lote.getOrdenes();
+        estimador.loteTerminado(lote);
+        for (PreparaDulceria p : ordenes) {
+            if (p.getEtaInicial() >= 0) estimador.medir(reloj.milis() - p.getEtaInicial());
+            try {
+                p.terminar();
+            } catch (RuntimeException e) {
+                System.err.println("Error terminando orden de dulcería: " + e.getMessage());
+            } finally {
+                completadas.increment();
+                medirAtraso(p);
+            }
+        }
+        liberar(t, ordenes.size());
+    }
+
+    /** Órdenes que quedan listas después de que empezó la función del cliente. */
+    private void medirAtraso(PreparaDulceria p) {
+        if (p.getLimite() == PreparaDulceria.SIN_LIMITE) return;
+        conFuncion.increment();
+        long atraso = reloj.milis() - p.getLimite();
+        if (atraso > 0) {
+            atrasadas.increment();
+            atrasoTotalMs.add(atraso);
+            atrasoMaxMs.accumulateAndGet(atraso, Math::max);
+        }
+    }
+
+    /** Límite efectivo para EDF: la función, pero nunca más tarde que llegada + espera máxima. */
+    private static long prioridad(PreparaDulceria p) {
+        return Math.min(p.getLimite(), p.getEncolada() + ESPERA_MAXIMA_MS);
+    }
+
+    private void liberar(Trabajador t, int ordenes) {
+        ocupados.decrementAndGet();
+        for (int i = 0; i < ordenes; i++) roster.liberar(t);
+        siguiente(t);
+    }
+
+    private void programar(long ms, Runnable paso) {
+        reloj.programar(ms, paso);
+    }
+
+    /* -------------------- Métricas -------------------- */
+
+    public int getCapacidad() { return capacidad; }
+    public int getEnCola() { return enCola.get(); }
+    public int getMaxEnCola() { return maxEnCola.get(); }
+    public int getOcupados() { return ocupados.get(); }
+    public long getEncoladas() { return encoladas.sum(); }
+    public long getCompletadas() { return completadas.sum(); }
+    public long getRechazadas() { return rechazadas.sum(); }
+    public Politica getPolitica() { return politica; }
+    public long getConFuncion() { return conFuncion.sum(); }
+    public long getAtrasadas() { return atrasadas.sum(); }
+    public long getAtrasoMaxMs() { return atrasoMaxMs.get(); }
+    public long getLotes() { return lotes.sum(); }
+    public int getLoteMayor() { return loteMayor.get(); }
+
+    /** @return órdenes por lote en promedio (1 = sin juntar) */
+    public double getOrdenesPorLote() {
+        long n = lotes.sum();
+        return n == 0 ? 0 : (double) ordenesEnLotes.sum() / n;
+    }
+
+    /** @return tiempo que los vendedores pasaron alistando y preparando, en ms */
+    public long getOcupadoMs() {
+        return ocupadoMs.sum();
+    }
+
+    /** @return órdenes terminadas por hora de vendedor ocupado (rendimiento de la preparación) */
+    public double getOrdenesPorHoraVendedor() {
+        long ms = ocupadoMs.sum();
+        return ms == 0 ? 0 : completadas.sum() / (ms / 3_600_000.0);
+    }
+
+    /** @return fracción de órdenes con función que quedaron listas tarde */
+    public double getTasaAtraso() {
+        long n = conFuncion.sum();
+        return n == 0 ? 0 : (double) atrasadas.sum() / n;
+    }
+
+    /** @return atraso promedio de las órdenes tardías, en ms */
+    public double getAtrasoPromedioMs() {
+        long n = atrasadas.sum();
+        return n == 0 ? 0 : (double) atrasoTotalMs.sum() / n;
+    }
+
+    public int getTrabajadores() {
+        return roster.getTamano();
+    }
+
+    /** @return reparto de órdenes entre vendedores */
+    public RosterVendedores getRoster() {
+        return roster;
+    }
+
+    /** @return espera promedio en cola (de encolar a asignar), en ms */
+    public double getEsperaPromedioMs() {
+        long atendidas = encoladas.sum() - enCola.get();
+        return atendidas <= 0 ? 0 : (double) esperaTotalMs.sum() / atendidas;
+    }
+
+    /** @return registro donde quedan los estados de las órdenes */
+    public RegistroOrdenes getRegistro() {
+        RegistroOrdenes r = registro;
+        if (r == null) registro = r = RegistroOrdenes.getInstancia();
+        return r;
+    }
+
+    /** @return calendario de turnos en uso, o null si la cocina no respeta turnos */
+    public CalendarioTurnos getCalendario() {
+        return calendario;
+    }
+
+    /** @return órdenes en cola que pasaron a otro vendedor porque terminó el turno del suyo */
+    public long getReasignadasPorTurno() {
+        return reasignadasPorTurno.sum();
+    }
+
+    /** @return estimador de la hora en que quedan listas las órdenes */
+    public EstimadorCocina getEstimador() {
+        return estimador;
+    }
+
+    /** @return espera máxima en cola, en ms */
+    public long getEsperaMaxMs() {
+        return esperaMaxMs.get();
+    }
+
+    /** @return resumen de métricas para reportes */
+    public String resumen() {
+        return String.format(Locale.ROOT,
+                "En cola: %d de %d (máximo %d) | Vendedores: %d de turno de %d (ocupados %d) | Política: %s%n"
+                        + "Encoladas: %d | Completadas: %d | Rechazadas por cola llena: %d | Reasignadas por fin de turno: %d%n"
+                        + "Espera en cola: promedio %.1f s, máxima %.1f s%n"
+                        + "Con función: %d | Listas tarde: %d (%.1f%%), atraso promedio %.1f s, máximo %.1f s%n"
+                        + "Lotes: %d (%.2f órdenes por lote, máximo %d) | Órdenes por hora de vendedor ocupado: %.1f%n%s%n%s",
+                getEnCola(), capacidad, getMaxEnCola(), getTrabajadores(), trabajadores.size(), getOcupados(), politica,
+                getEncoladas(), getCompletadas(), getRechazadas(), getReasignadasPorTurno(),
+                getEsperaPromedioMs() / 1000, getEsperaMaxMs() / 1000.0,
+                getConFuncion(), getAtrasadas(), getTasaAtraso() * 100,
+                getAtrasoPromedioMs() / 1000, getAtrasoMaxMs() / 1000.0,
+                getLotes(), getOrdenesPorLote(), getLoteMayor(), getOrdenesPorHoraVendedor(), roster.resumen(),
+                estimador.resumen());
+    }
+
+    /** Un vendedor (o "sin asignar") con su cola; atiende una orden a la vez. */
+    private static final class Trabajador extends RosterVendedores.Puesto {
+        // Protegidos por el monitor del trabajador
+        final NavigableSet<PreparaDulceria> cola;
+        boolean ocupado = false;
+        boolean retirado = true; // fuera del reparto (fuera de turno, o "sin asignar" ya reemplazado)
+
+        Trabajador(VendedorDulceria vendedor, Comparator<PreparaDulceria> orden) {
+            super(vendedor);
+            this.cola = new TreeSet<>(orden);
+        }
+    }
+}
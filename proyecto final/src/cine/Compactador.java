@@ -0,0 +1,143 @@
+package cine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compactador en segundo plano para bitácoras segmentadas ({@link Bitacora}).
+ * <p>
+ * Cada cierto tiempo revisa las bitácoras registradas; cuando una acumula
+ * suficientes segmentos sellados los pliega en un checkpoint nuevo, descarta los
+ * registros reemplazados y cambia los archivos de forma atómica.
+ * </p>
+ * <p>
+ * Corre en un único hilo de baja prioridad y su escritura está limitada a
+ * cierta cantidad de bytes por segundo, para no competir por el disco con las
+ * compras en horas pico. Quien escribe en la bitácora nunca espera al compactador.
+ * </p>
+ */
+public class Compactador {
+
+    /** Bytes por segundo por defecto (se puede cambiar con -Dcine.compactadorBytesSeg=N). */
+    public static final long BYTES_SEG_POR_DEFECTO = Long.getLong("cine.compactadorBytesSeg", 2L * 1024 * 1024);
+
+    /** Segmentos sellados mínimos para que valga la pena compactar. */
+    private static final int MIN_SELLADOS = 4;
+
+    private static Compactador instancia = null;
+
+    private final List<Bitacora> bitacoras = new CopyOnWriteArrayList<>();
+    private final LimitadorES limitador;
+    private final ScheduledExecutorService hilo;
+
+    /**
+     * @param bytesPorSegundo límite de escritura del compactador
+     */
+    public Compactador(long bytesPorSegundo) {
+        this.limitador = new LimitadorES(bytesPorSegundo);
+        this.hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "compactador");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * @return compactador compartido, revisando cada minuto
+     */
+    public static synchronized Compactador getInstancia() {
+        if (instancia == null) {
+            instancia = new Compactador(BYTES_SEG_POR_DEFECTO);
+            instancia.iniciar(60, TimeUnit.SECONDS);
+        }
+        return instancia;
+    }
+
+    /**
+     * Agrega una bitácora a las revisiones periódicas.
+     */
+    public void registrar(Bitacora bitacora) {
+        bitacoras.add(bitacora);
+    }
+
+    /**
+     * Programa las revisiones periódicas.
+     */
+    public void iniciar(long periodo, TimeUnit unidad) {
+        hilo.scheduleWithFixedDelay(this::revisar, periodo, periodo, unidad);
+    }
+
+    private void revisar() {
+        for (Bitacora b : bitacoras) {
+            if (b.segmentosSellados().size() >= MIN_SELLADOS) {
+                compactar(b);
+            }
+        }
+    }
+
+    /**
+     * Compacta ya una bitácora (en el hilo que llama), sin importar cuántos segmentos tenga.
+     *
+     * @return líneas descartadas, o -1 si hubo error
+     */
+    public int compactar(Bitacora bitacora) {
+        List<Path> sellados = bitacora.segmentosSellados();
+        if (sellados.isEmpty()) return 0;
+        try {
+            int descartadas = bitacora.compactar(sellados, limitador);
+            System.out.println("[Compactador] " + bitacora.getPrefijo() + ": " + sellados.size()
+                    + " segmentos plegados, " + descartadas + " registros descartados.");
+            return descartadas;
+        } catch (IOException e) {
+            System.err.println("[Compactador] Error compactando " + bitacora.getPrefijo() + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /* -------------------- Limitador de E/S -------------------- */
+
+    /**
+     * Limita la velocidad de escritura durmiendo lo necesario para no pasar de
+     * cierta cantidad de bytes por segundo (promedio).
+     */
+    static class LimitadorES {
+
+        private final long bytesPorSegundo;
+        private long inicio = System.nanoTime();
+        private long consumidos = 0;
+
+        LimitadorES(long bytesPorSegundo) {
+            this.bytesPorSegundo = Math.max(1, bytesPorSegundo);
+        }
+
+        /**
+         * Anota bytes escritos y duerme si se va más rápido de lo permitido.
+         */
+        void consumir(long bytes) {
+            consumidos += bytes;
+            long esperado = consumidos * 1_000_000_000L / bytesPorSegundo;
+            long transcurrido = System.nanoTime() - inicio;
+
+            if (transcurrido > 1_000_000_000L) {
+                // Ventana nueva cada segundo, así un periodo ocioso no "presta" ráfagas largas
+                inicio = System.nanoTime();
+                consumidos = 0;
+                return;
+            }
+            long faltante = esperado - transcurrido;
+            if (faltante > 1_000_000L) {
+                try {
+                    Thread.sleep(faltante / 1_000_000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
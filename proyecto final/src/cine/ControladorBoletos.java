@@ -2,6 +2,8 @@ package cine;
 
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -11,11 +13,11 @@ import java.util.stream.Collectors;
  * - Muestra disposición física (libres/ocupados)
  * - Solicita al usuario los asientos en formato "H7 H8 H9"
  * - Valida disponibilidad; en caso de error vuelve a pedir
- * - Si están disponibles, inicia dos hilos concurrentes:
- *     * Hilo de transacción bancaria (mensajes con pausas de 2-5s)
- *     * Hilo de barra de progreso (imprime cada 0.5s)
- *   Espera a que termine la transacción bancaria, mantiene la barra 3s más y luego muestra resumen.
- * - Genera boletos (uno por asiento) usando {@link FuncionDeCine#venderAsientosPorCodigos(List, String)}
+ * - Si están disponibles, aparta los asientos generando los boletos (uno por asiento) con
+ *   {@link FuncionDeCine#venderAsientosPorCodigos(List, String)} y cobra en la {@link PasarelaPago}
+ *   mientras un hilo imprime la barra de progreso (cada 0.5s, y 3s más al responder el banco).
+ * - Si el pago se declina, devuelve los asientos con {@link FuncionDeCine#liberarAsientos(List)}
+ * - Registra la compra en el historial del cliente y en el {@link LibroVentas}
  * </p>
  */
 public class ControladorBoletos {
@@ -82,70 +84,69 @@ public class ControladorBoletos {
             }
         }
 
-        // 5) Iniciar hilos concurrentes: pago y barra
+        // 5) Apartar los asientos antes de cobrar: si el pago se declina se devuelven
         final List<String> finalCodigos = codigos;
         final String tipoCliente = "Adulto"; // si quieres, puedes obtenerlo de cliente.getTipo() si existe
-
-        // Preparar tarea de venta (se realizará después de confirmar pago)
         List<Boleto> boletosGenerados = new ArrayList<>();
+        try {
+            boletosGenerados.addAll(funcion.venderAsientosPorCodigos(finalCodigos, tipoCliente));
+        } catch (IllegalArgumentException ex) {
+            System.out.println("No fue posible reservar los asientos: " + ex.getMessage());
+            return;
+        }
+        long centavos = 0;
+        for (Boleto b : boletosGenerados) {
+            centavos += Math.round(b.getPrecio() * 100);
+        }
 
-        // Hilo que simula la transacción bancaria
-        Thread hiloPago = new Thread(() -> {
-            try {
-                Random rnd = new Random();
-                System.out.println("\n[Pago] estableciendo conexión con el banco...");
-                Thread.sleep((2000 + rnd.nextInt(3000))); // 2-5s
-                System.out.println("[Pago] haciendo el cargo correspondiente...");
-                Thread.sleep((2000 + rnd.nextInt(3000))); // 2-5s
-                System.out.println("[Pago] transacción finalizada.");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                System.err.println("[Pago] Interrumpido.");
-            }
-        });
+        // 6) Cobro en la pasarela (no ocupa un hilo) y barra de progreso mientras responde
+        Reloj reloj = Reloj.getInstancia();
+        System.out.println("\n[Pago] estableciendo conexión con el banco...");
+        PasarelaPago pasarela = PasarelaPago.getInstancia();
+        CompletableFuture<ResultadoPago> pago =
+                pasarela.cobrar(PasarelaPago.nuevaReferencia(funcion.getIdFuncion() + ":" + String.join(",", finalCodigos)),
+                        centavos);
 
-        // Hilo que imprime barra de progreso cada 0.5s hasta que hiloPago termine
+        // Hilo que imprime barra de progreso cada 0.5s hasta que responda el banco
         Thread hiloBarra = new Thread(() -> {
             try {
                 final char[] anim = {'|','/','-','\\'};
                 int idx = 0;
-                while (hiloPago.isAlive()) {
+                while (!pago.isDone()) {
                     System.out.print("\rProcesando " + anim[idx % anim.length]);
                     idx++;
-                    Thread.sleep(500);
+                    reloj.dormir(500);
                 }
                 // Mantener 3 segundos adicionales la pantalla de progreso
-                long end = System.currentTimeMillis() + 3000;
-                while (System.currentTimeMillis() < end) {
+                long end = reloj.milis() + 3000;
+                while (reloj.milis() < end) {
                     System.out.print("\rListo.      ");
-                    Thread.sleep(500);
+                    reloj.dormir(500);
                 }
                 System.out.println(); // nueva línea al finalizar
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         });
-
-        // Iniciar ambos
-        hiloPago.start();
         hiloBarra.start();
 
-        // Esperar a que termine la transacción bancaria
-        try {
-            hiloPago.join();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("Compra interrumpida.");
+        ResultadoPago resultado = pasarela.esperar(pago);
+        System.out.println("\n[Pago] transacción finalizada.");
+        if (!resultado.isAprobado()) {
+            hiloBarra.interrupt();
+            funcion.liberarAsientos(boletosGenerados);
+            System.out.println((resultado.isReintentable()
+                    ? "No pudimos confirmar tu pago con el banco (" + resultado.getMotivo()
+                            + "); si llega a aparecer un cargo, se anulará"
+                    : "Tu pago fue declinado (" + resultado.getMotivo() + ")")
+                    + ". Los asientos " + String.join(", ", finalCodigos) + " quedan libres otra vez.");
             return;
         }
 
-        // 6) Con el pago finalizado, vendemos los asientos (llamamos a funcion)
-        try {
-            boletosGenerados.addAll(funcion.venderAsientosPorCodigos(finalCodigos, tipoCliente));
-        } catch (IllegalArgumentException ex) {
-            System.out.println("No fue posible reservar los asientos: " + ex.getMessage());
-            return;
-        }
+        // Registrar la venta: historial del cliente y libro de ventas
+        CompraBoletos compra = new CompraBoletos(funcion, boletosGenerados);
+        cliente.agregarCompra(compra);
+        CompletableFuture<RegistroVenta> registro = LibroVentas.getInstancia().registrar(cliente.getNickname(), compra);
 
         // Asegurar que hiloBarra termine antes de continuar
         try {
@@ -174,6 +175,12 @@ public class ControladorBoletos {
             System.out.println("Clave boleto: " + clave);
         }
 
+        try {
+            System.out.println("Folio de venta: " + registro.join().getSecuencia());
+        } catch (CompletionException ex) {
+            System.out.println("Aviso: la venta no pudo guardarse en el libro de ventas.");
+        }
+
         System.out.println("\n¡Compra finalizada! Gracias por su compra.");
     }
 
@@ -1,8 +1,10 @@
 package cine;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 
 public class ControladorDulceria {
@@ -10,203 +12,206 @@ public class ControladorDulceria {
     private Scanner sc = new Scanner(System.in);
     private ProcesadorPago procesadorPago = new ProcesadorPago();
 
-    private double leerPrecio(String nombreArchivo) {
-        try {
-            File f = new File("precios/" + nombreArchivo);
-            Scanner lector = new Scanner(f);
-            double precio = lector.nextDouble();
-            lector.close();
-            return precio;
-        } catch (FileNotFoundException e) {
-            System.out.println("ERROR: No se encontró " + nombreArchivo);
-            return 0;
-        }
+    // Cuánto espera el mostrador un lugar en la cola de la cocina antes de rechazar
+    private static final long ESPERA_LUGAR_SEGUNDOS = 5;
+
+    // Próxima función del cliente (null si no tiene): límite para la cocina
+    private HistorialCompras.Registro funcionCliente = null;
+
+    // null: las instancias compartidas
+    private InventarioDulceria inventario = null;
+    private CocinaDulceria cocina = null;
+
+    public ControladorDulceria() {}
+
+    /**
+     * Controlador sobre un inventario y una cocina propios (pruebas).
+     */
+    ControladorDulceria(Scanner sc, InventarioDulceria inventario, CocinaDulceria cocina) {
+        this.sc = sc;
+        this.inventario = inventario;
+        this.cocina = cocina;
+    }
+
+    /**
+     * Indica la función a la que entra el cliente; sus órdenes se preparan con ese límite.
+     */
+    public void setFuncionCliente(HistorialCompras.Registro funcion) {
+        this.funcionCliente = funcion;
     }
 
-    /** Procesar los combos A-D */
-    public void procesarCombo(OrdenDulceria orden, String tipo) {
-        System.out.println("\nHas elegido el combo " + tipo);
-
-        // Sabor
-        System.out.print("Sabor de palomitas \n(mantequilla / queso / jalapeño): ");
-        String saborP = sc.nextLine();
-        System.out.print("Sabor de refrescos (cola / light / naranja / manzana / toronja): ");
-        String saborR = sc.nextLine();
-
-        // Cantidades y tamaños según combo
-        int pal = 1, ref = 0, nac = 0;
-        String archivoP = "", archivoR = "", archivoN = "";
-
-        switch(tipo) {
-            case "A": 
-                ref = 2; 
-                archivoP = "palomitas_jumbo.txt"; 
-                archivoR = "refresco_jumbo.txt"; 
-                break;
-            case "B": 
-                ref = 2; nac = 1; 
-                archivoP = "palomitas_jumbo.txt"; 
-                archivoR = "refresco_jumbo.txt"; 
-                archivoN = "nachos_jumbo.txt"; 
-                break;
-            case "C": 
-                ref = 3; nac = 1; 
-                archivoP = "palomitas_jumbo.txt"; 
-                archivoR = "refresco_jumbo.txt"; 
-                archivoN = "nachos_mega.txt"; 
-                break;
-            case "D": 
-                ref = 1; nac = 1; 
-                archivoP = "palomitas_jumbo.txt"; 
-                archivoR = "refresco_jumbo.txt"; 
-                archivoN = "nachos_jumbo.txt"; 
-                break;
+    /**
+     * Procesar el combo de la letra elegida (A = primer combo de la tarifa).
+     *
+     * @param tabla la tarifa con la que se mostró el menú: el combo que se cobra es el que
+     *              vio el cliente aunque la tarifa se recargue a media compra
+     */
+    public void procesarCombo(TarifaDulceria.Tabla tabla, String tipo) {
+        int c = tipo.isEmpty() ? -1 : tipo.charAt(0) - 'A';
+        if (c < 0 || c >= tabla.getCombos()) {
+            System.out.println("\nEse combo ya no está disponible.");
+            return;
         }
+        System.out.println("\nHas elegido el combo " + tipo + " \"" + tabla.nombreCombo(c) + "\"");
 
-        double precioP = leerPrecio(archivoP);
-        double precioR = leerPrecio(archivoR);
-        double precioN = (archivoN.isEmpty()) ? 0 : leerPrecio(archivoN);
+        // Un sabor por producto del combo
+        Map<ProductoDulceria, Integer> sabores = new EnumMap<>(ProductoDulceria.class);
+        for (int i = tabla.inicioCombo(c); i < tabla.finCombo(c); i++) {
+            ProductoDulceria p = ProductoDulceria.productoDe(tabla.skuPartida(i));
+            if (!sabores.containsKey(p)) sabores.put(p, elegirSabor(p));
+        }
 
-        OrdenDulceria combo = new OrdenDulceria(pal, ref, nac, precioP * pal, precioR * ref, precioN * nac);
-        combo.agregarProducto("Sabor palomitas: " + saborP, 0);
-        combo.agregarProducto("Sabor refrescos: " + saborR, 0);
+        // Precios de lista y el descuento del combo aparte: el total es el de la tarifa
+        OrdenDulceria combo = new OrdenDulceria();
+        combo.setTipo("Combo " + tabla.nombreCombo(c));
+        long lista = 0;
+        for (int i = tabla.inicioCombo(c); i < tabla.finCombo(c); i++) {
+            int sku = tabla.skuPartida(i);
+            int piezas = tabla.piezasPartida(i);
+            combo.agregar(sku, piezas, tabla.precioLista(sku), sabores.get(ProductoDulceria.productoDe(sku)));
+            lista += (long) tabla.precioLista(sku) * piezas;
+        }
+        combo.setDescuento(lista - tabla.totalCombo(c));
 
-        combo.aplicarDescuento(); // Descuento 10%
         finalizarOrden(combo);
     }
 
-    /** Procesar la orden personalizada - VERSIÓN CORREGIDA */
-    public void procesarPersonalizada() {
+    /**
+     * Procesar la orden personalizada: una pieza de cada producto que se pida.
+     *
+     * @param tabla la tarifa con la que se mostró el menú (una sola para toda la orden)
+     */
+    public void procesarPersonalizada(TarifaDulceria.Tabla tabla) {
         System.out.println("\n=== ORDEN PERSONALIZADA ===");
+        OrdenDulceria ordenFinal = new OrdenDulceria();
+
+        for (ProductoDulceria p : ProductoDulceria.values()) {
+            System.out.print("¿Desea " + p.getNombre() + "? (s/n): ");
+            String respuesta = sc.nextLine().trim();
+            if (!respuesta.equalsIgnoreCase("s")) continue;
+            int sku = elegirTamano(tabla, p);
+            if (sku < 0) continue;
+            ordenFinal.agregar(sku, 1, tabla.precio(sku), elegirSabor(p));
+        }
 
-        int pal = 0, ref = 0, nac = 0;
-        double precioPal = 0, precioRef = 0, precioNac = 0;
-        String saborPalomitas = "", saborRefresco = "", saborNachos = "";
-
-        // ------------------ PALOMITAS ------------------
-        System.out.print("¿Desea palomitas? (s/n): ");
-        String respuesta = sc.nextLine().trim();
-        if(respuesta.equalsIgnoreCase("s")) {
-            System.out.println("Tamaño: \n1) Med \n2) Gde \n3) Jumbo \n4) Mega");
-            System.out.print("Seleccione opción: ");
-            String t = sc.nextLine().trim();
-            
-            switch(t) {
-                case "1": 
-                    precioPal = leerPrecio("palomitas_med.txt"); 
-                    break;
-                case "2": 
-                    precioPal = leerPrecio("palomitas_gde.txt"); 
-                    break;
-                case "3": 
-                    precioPal = leerPrecio("palomitas_jumbo.txt"); 
-                    break;
-                case "4": 
-                    precioPal = leerPrecio("palomitas_mega.txt"); 
-                    break;
-                default:
-                    System.out.println("Opción inválida, se asignará tamaño Mediano");
-                    precioPal = leerPrecio("palomitas_med.txt");
-            }
-            pal = 1;
+        if (ordenFinal.getLineas() == 0) {
+            System.out.println("\nNo elegiste ningún producto.");
+            return;
+        }
+        finalizarOrden(ordenFinal);
+    }
 
-            System.out.print("Sabor de palomitas \n(mantequilla / queso / jalapeño): ");
-            saborPalomitas = sc.nextLine().trim();
+    /**
+     * Menú de tamaños del producto según la tarifa.
+     *
+     * @return id del SKU elegido (el primero si la opción es inválida), o -1 si no se vende
+     */
+    private int elegirTamano(TarifaDulceria.Tabla tabla, ProductoDulceria producto) {
+        int[] skus = tabla.tamanos(producto);
+        if (skus.length == 0) {
+            System.out.println("Por ahora no tenemos " + producto.getNombre() + ".");
+            return -1;
         }
+        System.out.println("Tamaño: ");
+        for (int i = 0; i < skus.length; i++) {
+            System.out.println((i + 1) + ") " + ProductoDulceria.tamanoDe(skus[i]).getEtiqueta());
+        }
+        System.out.print("Seleccione opción: ");
+        String t = sc.nextLine().trim();
+        try {
+            int k = Integer.parseInt(t);
+            if (k >= 1 && k <= skus.length) return skus[k - 1];
+        } catch (NumberFormatException e) {
+            // se asigna el primero
+        }
+        System.out.println("Opción inválida, se asignará tamaño " + ProductoDulceria.tamanoDe(skus[0]).getEtiqueta());
+        return skus[0];
+    }
 
-        // ------------------ REFRESCO ------------------
-        System.out.print("¿Desea refresco? (s/n): ");
-        respuesta = sc.nextLine().trim();
-        if(respuesta.equalsIgnoreCase("s")) {
-            System.out.println("Tamaño: \n1) Med \n2) Gde \n3) Jumbo \n4) Mega");
-            System.out.print("Seleccione opción: ");
-            String t = sc.nextLine().trim();
-            
-            switch(t) {
-                case "1": 
-                    precioRef = leerPrecio("refresco_med.txt"); 
-                    break;
-                case "2": 
-                    precioRef = leerPrecio("refresco_gde.txt"); 
-                    break;
-                case "3": 
-                    precioRef = leerPrecio("refresco_jumbo.txt"); 
-                    break;
-                case "4": 
-                    precioRef = leerPrecio("refresco_mega.txt"); 
-                    break;
-                default:
-                    System.out.println("Opción inválida, se asignará tamaño Mediano");
-                    precioRef = leerPrecio("refresco_med.txt");
-            }
-            ref = 1;
+    /**
+     * Pregunta el sabor (nombre o número).
+     *
+     * @return modificador de la partida; el primer sabor si no existe el elegido
+     */
+    private int elegirSabor(ProductoDulceria producto) {
+        if (producto.getSabores().isEmpty()) return 0;
+        System.out.print("Sabor de " + producto.getNombre() + " \n(" + String.join(" / ", producto.getSabores()) + "): ");
+        int m = producto.modificador(sc.nextLine());
+        if (m > 0) return m;
+        System.out.println("Sabor no disponible, se asignará " + producto.sabor(1));
+        return 1;
+    }
 
-            System.out.print("Sabor de refresco \n(cola / light / naranja / manzana / toronja): ");
-            saborRefresco = sc.nextLine().trim();
+    /** Finalizar la orden: aparta piezas y lugar en la cocina, cobra y la manda a preparar */
+    void finalizarOrden(OrdenDulceria orden) {
+        // Existencias: si algo se agotó no se cobra
+        InventarioDulceria inventario = this.inventario != null ? this.inventario : InventarioDulceria.getInstancia();
+        InventarioDulceria.Reserva reserva = inventario.reservar(orden);
+        if (!reserva.isAceptada()) {
+            System.out.println("\nLo sentimos, se agotó " + reserva.getAgotado().replace('_', ' ')
+                    + ". Elige otra opción.");
+            return;
         }
 
-        // ------------------ NACHOS ------------------
-        System.out.print("¿Desea nachos? (s/n): ");
-        respuesta = sc.nextLine().trim();
-        if(respuesta.equalsIgnoreCase("s")) {
-            System.out.println("Tamaño: \n1) Personal \n2) Jumbo \n3) Mega");
-            System.out.print("Seleccione opción: ");
-            String t = sc.nextLine().trim();
-            
-            switch(t) {
-                case "1": 
-                    precioNac = leerPrecio("nachos_personal.txt"); 
-                    break;
-                case "2": 
-                    precioNac = leerPrecio("nachos_jumbo.txt"); 
-                    break;
-                case "3": 
-                    precioNac = leerPrecio("nachos_mega.txt"); 
-                    break;
-                default:
-                    System.out.println("Opción inválida, se asignará tamaño Personal");
-                    precioNac = leerPrecio("nachos_personal.txt");
+        // Contrapresión: si la cocina está llena no se cobra
+        CocinaDulceria cocina = this.cocina != null ? this.cocina : CocinaDulceria.getInstancia();
+        if (!cocina.reservarLugar(ESPERA_LUGAR_SEGUNDOS, TimeUnit.SECONDS)) {
+            reserva.liberar();
+            System.out.println("\nLa dulcería tiene demasiadas órdenes en este momento. Intenta en unos minutos.");
+            return;
+        }
+
+        // Si algo falla antes de encolar, el lugar y las piezas no se quedan apartados
+        boolean encolada = false;
+        try {
+            // Clave única: el registro de órdenes lleva el estado por clave (y puede traer claves de otra corrida)
+            String clave;
+            do {
+                clave = procesadorPago.generarClaveCompra("Cliente","Cine","XD");
+            } while (cocina.getRegistro().getEstado(clave) != null);
+            orden.setClaveCompra(clave);
+            System.out.println("\nProcesando pago...");
+            // La clave de la orden es única, así que sirve de referencia del cobro
+            PasarelaPago pasarela = PasarelaPago.getInstancia();
+            CompletableFuture<ResultadoPago> pago = pasarela.cobrar(orden.getClaveCompra(), orden.getTotalCentavos());
+            BarraProgreso b = new BarraProgreso(200, 20, pago);
+            b.start();
+            ResultadoPago resultado = pasarela.esperar(pago);
+            try {
+                b.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            nac = 1;
 
-            System.out.print("Sabor de nachos \n(queso / nacho / jalapeño): ");
-            saborNachos = sc.nextLine().trim();
-        }
+            // Declinado: las piezas y el lugar en la cocina se devuelven al salir
+            if (!resultado.isAprobado()) {
+                if (resultado.isReintentable()) {
+                    // Resultado incierto: el banco pudo cargar sin avisar; la pasarela anula ese cargo
+                    System.out.println("\nNo pudimos confirmar tu pago con el banco (" + resultado.getMotivo()
+                            + "). Si llega a aparecer un cargo, se anulará; intenta de nuevo en unos minutos.");
+                } else {
+                    System.out.println("\nTu pago fue declinado (" + resultado.getMotivo()
+                            + "). No se hizo ningún cargo; intenta con otro método de pago.");
+                }
+                return;
+            }
+            reserva.confirmar();
+            System.out.println(resultado);
 
-        // Crear la orden final
-        OrdenDulceria ordenFinal = new OrdenDulceria(pal, ref, nac, precioPal, precioRef, precioNac);
-        
-        // Agregar sabores como productos adicionales
-        if(!saborPalomitas.isEmpty()) {
-            ordenFinal.agregarProducto("Sabor palomitas: " + saborPalomitas, 0);
-        }
-        if(!saborRefresco.isEmpty()) {
-            ordenFinal.agregarProducto("Sabor refresco: " + saborRefresco, 0);
-        }
-        if(!saborNachos.isEmpty()) {
-            ordenFinal.agregarProducto("Sabor nachos: " + saborNachos, 0);
+            if (funcionCliente != null) {
+                orden.setFuncion(funcionCliente.getIdFuncion(), funcionCliente.getFechaHoraFuncion());
+            }
+            cocina.encolar(orden);
+            encolada = true;
+            System.out.println("\n" + orden.resumenOrden());
+            System.out.println("Revisa la sección de notificaciones para saber cuando tu orden esté lista 😉");
+            System.out.println("Presiona Enter para regresar al menú...");
+            sc.nextLine();
+        } finally {
+            if (!encolada) {
+                cocina.liberarLugar();
+                reserva.liberar(); // sin efecto si ya se confirmó
+            }
         }
-        
-        finalizarOrden(ordenFinal);
-    }
-
-    /** Finalizar la orden */
-    private void finalizarOrden(OrdenDulceria orden) {
-        System.out.println("\nProcesando pago...");
-        TransaccionBancaria t = new TransaccionBancaria();
-        BarraProgreso b = new BarraProgreso(200, 20);
-        t.start();
-        b.start();
-        try { 
-            t.join(); 
-            b.join(); 
-        } catch (InterruptedException e) {}
-
-        orden.setClaveCompra(procesadorPago.generarClaveCompra("Cliente","Cine","XD"));
-        new PreparaDulceria(orden).start();
-        System.out.println("\n" + orden.resumenOrden());
-        System.out.println("Revisa la sección de notificaciones para saber cuando tu orden esté lista 😉");
-        System.out.println("Presiona Enter para regresar al menú...");
-        sc.nextLine();
     }
 }
\ No newline at end of file
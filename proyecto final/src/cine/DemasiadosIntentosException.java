@@ -0,0 +1,24 @@
+package cine;
+
+/**
+ * Se lanza cuando una identidad agotó sus intentos de inicio de sesión.
+ */
+public class DemasiadosIntentosException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long msRestantes;
+
+    /**
+     * @param mensaje     detalle
+     * @param msRestantes ms hasta el siguiente intento permitido
+     */
+    public DemasiadosIntentosException(String mensaje, long msRestantes) {
+        super(mensaje);
+        this.msRestantes = msRestantes;
+    }
+
+    public long getMsRestantes() {
+        return msRestantes;
+    }
+}
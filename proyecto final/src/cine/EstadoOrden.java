@@ -0,0 +1,40 @@
+package cine;
+
+/**
+ * Estados de una orden de dulcería, en el orden en que los recorre.
+ * Solo se puede pasar al siguiente ({@link #puedePasarA(EstadoOrden)}); quien
+ * lleva la cuenta es el {@link RegistroOrdenes}.
+ */
+public enum EstadoOrden {
+    EN_COLA("en cola"),
+    ASIGNADA("asignada a un vendedor"),
+    PREPARANDO("preparándose"),
+    LISTA("lista para recoger"),
+    RECOGIDA("recogida");
+
+    private static final EstadoOrden[] VALORES = values();
+
+    private final String descripcion;
+
+    EstadoOrden(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    /** @return texto para el cliente ("lista para recoger") */
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /** @return true si {@code siguiente} es el estado que sigue a este */
+    public boolean puedePasarA(EstadoOrden siguiente) {
+        return siguiente.ordinal() == ordinal() + 1;
+    }
+
+    /** @return estado con ese nombre ("LISTA"), o null */
+    public static EstadoOrden desde(String nombre) {
+        for (EstadoOrden e : VALORES) {
+            if (e.name().equalsIgnoreCase(nombre.trim())) return e;
+        }
+        return null;
+    }
+}
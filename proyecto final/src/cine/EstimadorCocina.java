@@ -0,0 +1,242 @@
+package cine;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estima cuándo queda lista una orden de la {@link CocinaDulceria}.
+ * <p>
+ * De cada lote terminado se aprende cuánto tardó cada pieza por producto (el
+ * tiempo del lote se reparte entre sus piezas, así que las piezas que se
+ * prepararon en lote cuentan más baratas) y se guarda en un histograma por
+ * producto. El servicio estimado de una orden es la suma de sus piezas por el
+ * promedio de su producto. Mientras no hay muestras se usa el tiempo nominal de
+ * {@link LoteDulceria}, que pesa como {@link #MUESTRAS_PREVIAS} muestras.
+ * </p>
+ * <p>
+ * La espera se calcula con el trabajo estimado de lo que está en cola más lo que
+ * falta de los lotes en preparación, repartido entre los vendedores. Estas dos
+ * sumas se ajustan en cada paso de la orden (entra a la cola, sale a un lote,
+ * termina el lote) con contadores atómicos, sin recorrer colas.
+ * </p>
+ * <p>
+ * La precisión se mide contra la primera hora estimada (la que ve el cliente al
+ * pagar): error promedio, sesgo, percentil 90 y qué tanto cae dentro de
+ * {@link #TOLERANCIA_MS}.
+ * </p>
+ */
+public class EstimadorCocina {
+
+    /** Peso del tiempo nominal antes de tener muestras. */
+    public static final int MUESTRAS_PREVIAS = 5;
+
+    /** Error que todavía se considera acierto, en ms. */
+    public static final long TOLERANCIA_MS = 2 * 60_000;
+
+    private final Histograma[] porPieza = new Histograma[ProductoDulceria.values().length];
+    private volatile boolean aprender = true;
+
+    // Trabajo pendiente (ms estimados)
+    private final AtomicLong trabajoEnCola = new AtomicLong();
+    private final AtomicLong estimadoEnCurso = new AtomicLong();
+    private final AtomicLong inicioEnCurso = new AtomicLong(); // suma de los inicios de los lotes en curso
+    private final AtomicLong lotesEnCurso = new AtomicLong();
+
+    // Precisión
+    private final Histograma errorAbsoluto = new Histograma();
+    private final LongAdder errorConSigno = new LongAdder();
+    private final LongAdder aciertos = new LongAdder();
+
+    public EstimadorCocina() {
+        for (int i = 0; i < porPieza.length; i++) porPieza[i] = new Histograma();
+    }
+
+    /**
+     * Con false no se aprende de los lotes y siempre se usa el tiempo nominal
+     * (para comparar en la simulación).
+     */
+    public void setAprender(boolean aprender) {
+        this.aprender = aprender;
+    }
+
+    /* -------------------- Estimaciones -------------------- */
+
+    /** @return ms por pieza esperados del producto */
+    public double msPorPieza(ProductoDulceria producto) {
+        double previo = LoteDulceria.nominalPorPiezaMs(producto);
+        if (!aprender) return previo;
+        Histograma h = porPieza[producto.ordinal()];
+        return (h.getSuma() + previo * MUESTRAS_PREVIAS) / (h.getMuestras() + MUESTRAS_PREVIAS);
+    }
+
+    /** @return ms que tarda en prepararse la orden una vez asignada */
+    public long servicioMs(OrdenDulceria orden) {
+        double ms = 0;
+        for (int i = 0; i < orden.getLineas(); i++) {
+            ms += orden.getCantidad(i) * msPorPieza(orden.getProducto(i));
+        }
+        return Math.round(ms);
+    }
+
+    /**
+     * @param ahora      ms del reloj
+     * @param vendedores vendedores que atienden
+     * @return ms que una orden que llega ahora espera antes de que la asignen
+     */
+    public long esperaMs(long ahora, int vendedores) {
+        long falta = estimadoEnCurso.get() - (lotesEnCurso.get() * ahora - inicioEnCurso.get());
+        return (trabajoEnCola.get() + Math.max(0, falta)) / Math.max(1, vendedores);
+    }
+
+    /**
+     * @return hora estimada (ms del reloj) en que queda lista una orden que ya está
+     *         en cola: la espera sin contarla a ella más su propio servicio
+     */
+    public long eta(long ahora, int vendedores, PreparaDulceria p) {
+        long falta = estimadoEnCurso.get() - (lotesEnCurso.get() * ahora - inicioEnCurso.get());
+        long delante = trabajoEnCola.get() - p.getServicioMs() + Math.max(0, falta);
+        return ahora + Math.max(0, delante) / Math.max(1, vendedores) + p.getServicioMs();
+    }
+
+    /* -------------------- Transiciones -------------------- */
+
+    /** La orden entró a la cola. */
+    void encolada(PreparaDulceria p) {
+        trabajoEnCola.addAndGet(p.getServicioMs());
+    }
+
+    /** La orden salió de la cola (a un lote). */
+    void sacada(PreparaDulceria p) {
+        trabajoEnCola.addAndGet(-p.getServicioMs());
+    }
+
+    /** Empieza un lote con {@code estimado} ms de trabajo. */
+    void loteIniciado(long ahora, long estimado) {
+        estimadoEnCurso.addAndGet(estimado);
+        inicioEnCurso.addAndGet(ahora);
+        lotesEnCurso.incrementAndGet();
+    }
+
+    /**
+     * Terminó un lote: deja de contar como trabajo en curso y se aprende de lo que
+     * tardó cada producto.
+     */
+    void loteTerminado(LoteDulceria lote) {
+        loteCancelado(lote);
+        for (ProductoDulceria producto : ProductoDulceria.values()) {
+            int piezas = lote.getPiezas(producto);
+            if (piezas > 0) porPieza[producto.ordinal()].agregar(lote.getMs(producto) / piezas, piezas);
+        }
+    }
+
+    /** El lote no llegó a terminar (error): solo deja de contar como trabajo en curso. */
+    void loteCancelado(LoteDulceria lote) {
+        estimadoEnCurso.addAndGet(-lote.getEstimadoMs());
+        inicioEnCurso.addAndGet(-lote.getInicioMs());
+        lotesEnCurso.decrementAndGet();
+    }
+
+    /** La orden quedó lista {@code error} ms después (positivo) o antes de lo estimado. */
+    void medir(long error) {
+        errorConSigno.add(error);
+        errorAbsoluto.agregar(Math.abs(error), 1);
+        if (Math.abs(error) <= TOLERANCIA_MS) aciertos.increment();
+    }
+
+    /* -------------------- Precisión -------------------- */
+
+    public long getMedidas() {
+        return errorAbsoluto.getMuestras();
+    }
+
+    /** @return error absoluto promedio, en ms */
+    public double getErrorPromedioMs() {
+        long n = errorAbsoluto.getMuestras();
+        return n == 0 ? 0 : (double) errorAbsoluto.getSuma() / n;
+    }
+
+    /** @return error con signo promedio, en ms (positivo = las órdenes salen más tarde de lo dicho) */
+    public double getSesgoMs() {
+        long n = errorAbsoluto.getMuestras();
+        return n == 0 ? 0 : (double) errorConSigno.sum() / n;
+    }
+
+    /** @return percentil 90 del error absoluto, en ms (a la resolución del histograma) */
+    public long getErrorP90Ms() {
+        return errorAbsoluto.percentil(0.9);
+    }
+
+    /** @return fracción de órdenes listas dentro de {@link #TOLERANCIA_MS} de lo estimado */
+    public double getAciertos() {
+        long n = errorAbsoluto.getMuestras();
+        return n == 0 ? 0 : (double) aciertos.sum() / n;
+    }
+
+    /** @return resumen para reportes */
+    public String resumen() {
+        StringBuilder sb = new StringBuilder("Hora estimada: ");
+        sb.append(String.format(Locale.ROOT, "error promedio %.1f min, sesgo %+.1f min, p90 %.1f min, %.1f%% dentro de %d min",
+                getErrorPromedioMs() / 60_000, getSesgoMs() / 60_000, getErrorP90Ms() / 60_000.0,
+                getAciertos() * 100, TOLERANCIA_MS / 60_000));
+        sb.append(System.lineSeparator()).append("Segundos por pieza:");
+        for (ProductoDulceria p : ProductoDulceria.values()) {
+            Histograma h = porPieza[p.ordinal()];
+            sb.append(String.format(Locale.ROOT, " %s %.1f (p50 %.1f, p90 %.1f)", p.getNombre(), msPorPieza(p) / 1000,
+                    h.percentil(0.5) / 1000.0, h.percentil(0.9) / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Histograma de duraciones en cubetas logarítmicas (cada una {@link #CRECIMIENTO}
+     * veces la anterior, desde {@link #MINIMO_MS}). Agregar es atómico y sin candados.
+     */
+    static final class Histograma {
+        private static final long MINIMO_MS = 100;
+        private static final double CRECIMIENTO = 1.1;
+        private static final int CUBETAS = 120; // hasta ~9 h
+
+        private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+        private final LongAdder muestras = new LongAdder();
+        private final LongAdder suma = new LongAdder();
+
+        void agregar(long ms, int veces) {
+            cubetas.addAndGet(cubeta(ms), veces);
+            muestras.add(veces);
+            suma.add(ms * veces);
+        }
+
+        long getMuestras() {
+            return muestras.sum();
+        }
+
+        long getSuma() {
+            return suma.sum();
+        }
+
+        /** @return límite superior de la cubeta donde cae el percentil {@code q}; 0 sin muestras */
+        long percentil(double q) {
+            long n = muestras.sum();
+            if (n == 0) return 0;
+            long objetivo = (long) Math.ceil(q * n);
+            long acumulado = 0;
+            for (int i = 0; i < CUBETAS; i++) {
+                acumulado += cubetas.get(i);
+                if (acumulado >= objetivo) return limite(i);
+            }
+            return limite(CUBETAS - 1);
+        }
+
+        private static int cubeta(long ms) {
+            if (ms <= MINIMO_MS) return 0;
+            int i = (int) Math.ceil(Math.log((double) ms / MINIMO_MS) / Math.log(CRECIMIENTO));
+            return Math.min(i, CUBETAS - 1);
+        }
+
+        private static long limite(int i) {
+            return Math.round(MINIMO_MS * Math.pow(CRECIMIENTO, i));
+        }
+    }
+}
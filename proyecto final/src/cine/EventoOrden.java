@@ -0,0 +1,77 @@
+package cine;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cambio de estado de una orden de dulcería dentro del {@link RegistroOrdenes}.
+ * <p>
+ * Se guarda como una línea de texto:
+ * {@code secuencia|fechaHora|clave|ESTADO|detalle} (el detalle es el nickname del
+ * vendedor al asignarla; vacío en los demás).
+ * </p>
+ */
+public class EventoOrden {
+
+    private static final String SEP = "|";
+
+    private final long secuencia;
+    private final LocalDateTime fechaHora;
+    private final String clave;
+    private final EstadoOrden estado;
+    private final String detalle;
+
+    public EventoOrden(long secuencia, LocalDateTime fechaHora, String clave, EstadoOrden estado, String detalle) {
+        this.secuencia = secuencia;
+        this.fechaHora = fechaHora;
+        this.clave = clave;
+        this.estado = estado;
+        this.detalle = detalle == null ? "" : detalle;
+    }
+
+    /**
+     * Convierte el evento en su línea de texto (sin salto de línea).
+     */
+    public String aLinea() {
+        return String.join(SEP,
+                String.valueOf(secuencia),
+                fechaHora.toString(),
+                limpiar(clave),
+                estado.name(),
+                limpiar(detalle));
+    }
+
+    /**
+     * Reconstruye un evento desde su línea de texto.
+     *
+     * @return el evento, o null si la línea está incompleta o dañada
+     */
+    public static EventoOrden desdeLinea(String linea) {
+        if (linea == null || linea.isBlank()) return null;
+        String[] cols = linea.split("\\|", -1);
+        if (cols.length != 5) return null;
+        try {
+            EstadoOrden estado = EstadoOrden.desde(cols[3]);
+            if (estado == null) return null;
+            return new EventoOrden(Long.parseLong(cols[0]), LocalDateTime.parse(cols[1]), cols[2], estado, cols[4]);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String limpiar(String s) {
+        if (s == null) return "";
+        return s.replace(SEP, " ").replaceAll("[\\r\\n]+", " ");
+    }
+
+    public long getSecuencia() { return secuencia; }
+    public LocalDateTime getFechaHora() { return fechaHora; }
+    public String getClave() { return clave; }
+    public EstadoOrden getEstado() { return estado; }
+    public String getDetalle() { return detalle; }
+
+    @Override
+    public String toString() {
+        return fechaHora.toLocalTime() + " " + clave + " " + estado.getDescripcion()
+                + (detalle.isEmpty() ? "" : " (" + detalle + ")");
+    }
+}
@@ -0,0 +1,246 @@
+package cine;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom con contadores para saber si un nickname está ocupado.
+ * <p>
+ * Si el filtro responde "no", el nickname está libre con seguridad y no hace falta
+ * consultar el índice ni el almacenamiento; si responde "tal vez", se consulta.
+ * La tasa de falsos positivos objetivo se elige al crearlo
+ * ({@code -Dcine.bloomFp}, por defecto 1%) y el tamaño se calcula a partir de ella.
+ * </p>
+ * <p>
+ * Cada posición es un contador de 4 bits (16 por {@code long}), lo que permite
+ * quitar nicknames. Los contadores se actualizan con compare-and-set, sin candados,
+ * y se saturan en 15 (un contador saturado ya no se decrementa).
+ * </p>
+ * <p>
+ * Se guarda en un archivo binario; al arrancar se usa solo si coincide con los
+ * usuarios cargados, y si no se reconstruye.
+ * </p>
+ */
+public class FiltroBloom {
+
+    /** Tasa de falsos positivos por defecto (-Dcine.bloomFp=0.01). */
+    public static final double FP_POR_DEFECTO = Double.parseDouble(System.getProperty("cine.bloomFp", "0.01"));
+
+    private static final int MAGICO = 0x424C4D31; // "BLM1"
+    private static final int BITS_CONTADOR = 4;
+    private static final int POR_LONG = 64 / BITS_CONTADOR;
+    private static final long MAX_CONTADOR = (1L << BITS_CONTADOR) - 1;
+
+    private final long capacidad;
+    private final double fpObjetivo;
+    private final long m; // contadores
+    private final int k;  // funciones hash
+    private final AtomicLongArray contadores;
+    private final AtomicLong insertados = new AtomicLong();
+
+    // Métricas de consultas
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder libresSeguros = new LongAdder();
+    private final LongAdder falsosPositivos = new LongAdder();
+
+    /**
+     * @param capacidad  nicknames esperados
+     * @param fpObjetivo tasa de falsos positivos buscada con esa capacidad (0 &lt; fp &lt; 1)
+     */
+    public FiltroBloom(long capacidad, double fpObjetivo) {
+        this(capacidad, fpObjetivo, calcularM(capacidad, fpObjetivo), calcularK(capacidad, fpObjetivo));
+    }
+
+    private FiltroBloom(long capacidad, double fpObjetivo, long m, int k) {
+        this.capacidad = Math.max(1, capacidad);
+        this.fpObjetivo = fpObjetivo;
+        this.m = m;
+        this.k = k;
+        this.contadores = new AtomicLongArray((int) ((m + POR_LONG - 1) / POR_LONG));
+    }
+
+    private static long calcularM(long n, double p) {
+        return Math.max(64, (long) Math.ceil(-Math.max(1, n) * Math.log(p) / (Math.log(2) * Math.log(2))));
+    }
+
+    private static int calcularK(long n, double p) {
+        long m = calcularM(n, p);
+        return Math.max(1, (int) Math.round((double) m / Math.max(1, n) * Math.log(2)));
+    }
+
+    /* -------------------- Operaciones -------------------- */
+
+    /** Agrega un nickname (sin distinguir mayúsculas). */
+    public void agregar(String nickname) {
+        long h = hash(nickname);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < k; i++) {
+            cambiar(posicion(h1, h2, i), +1);
+        }
+        insertados.incrementAndGet();
+    }
+
+    /** Quita un nickname agregado antes (por ejemplo, una reserva que no se concretó). */
+    public void quitar(String nickname) {
+        long h = hash(nickname);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < k; i++) {
+            cambiar(posicion(h1, h2, i), -1);
+        }
+        insertados.decrementAndGet();
+    }
+
+    /**
+     * @return false si el nickname seguro no está; true si podría estar
+     */
+    public boolean podriaContener(String nickname) {
+        consultas.increment();
+        long h = hash(nickname);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < k; i++) {
+            if (leer(posicion(h1, h2, i)) == 0) {
+                libresSeguros.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Quien consultó el índice tras un "tal vez" avisa que el nickname no existía.
+     */
+    public void registrarFalsoPositivo() {
+        falsosPositivos.increment();
+    }
+
+    /* -------------------- Métricas -------------------- */
+
+    /** @return tasa de falsos positivos esperada con los nicknames actuales: (1 - e^(-kn/m))^k */
+    public double getFpEstimada() {
+        return Math.pow(1 - Math.exp(-(double) k * getInsertados() / m), k);
+    }
+
+    /** @return falsos positivos / nicknames libres consultados */
+    public double getFpObservada() {
+        long negativos = libresSeguros.sum() + falsosPositivos.sum();
+        return negativos == 0 ? 0 : (double) falsosPositivos.sum() / negativos;
+    }
+
+    public double getFpObjetivo() { return fpObjetivo; }
+    public long getCapacidad() { return capacidad; }
+    public long getInsertados() { return insertados.get(); }
+    public long getConsultas() { return consultas.sum(); }
+    public long getLibresSeguros() { return libresSeguros.sum(); }
+    public long getFalsosPositivos() { return falsosPositivos.sum(); }
+    public long getBytes() { return 8L * contadores.length(); }
+
+    /** @return resumen de métricas para reportes */
+    public String resumen() {
+        return String.format(Locale.ROOT,
+                "Nicknames: %d de %d | Contadores: %d (k=%d, %.1f MB)%n"
+                        + "FP objetivo: %.4f | FP estimada: %.4f | FP observada: %.4f%n"
+                        + "Consultas: %d | Libres sin consultar índice: %d | Falsos positivos: %d",
+                getInsertados(), capacidad, m, k, getBytes() / (1024.0 * 1024.0),
+                fpObjetivo, getFpEstimada(), getFpObservada(),
+                getConsultas(), getLibresSeguros(), getFalsosPositivos());
+    }
+
+    /* -------------------- Persistencia -------------------- */
+
+    /**
+     * Guarda el filtro (archivo temporal + renombrado atómico).
+     */
+    public void guardar(Path archivo) {
+        Path tmp = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGICO);
+            out.writeLong(capacidad);
+            out.writeDouble(fpObjetivo);
+            out.writeLong(m);
+            out.writeInt(k);
+            out.writeLong(getInsertados());
+            for (int i = 0; i < contadores.length(); i++) {
+                out.writeLong(contadores.get(i));
+            }
+        } catch (IOException e) {
+            System.err.println("Error guardando filtro de nicknames: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error guardando filtro de nicknames: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return filtro guardado, o null si no existe o está dañado
+     */
+    public static FiltroBloom cargar(Path archivo) {
+        if (Files.notExists(archivo)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (in.readInt() != MAGICO) return null;
+            long capacidad = in.readLong();
+            double fp = in.readDouble();
+            long m = in.readLong();
+            int k = in.readInt();
+            long n = in.readLong();
+            FiltroBloom f = new FiltroBloom(capacidad, fp, m, k);
+            for (int i = 0; i < f.contadores.length(); i++) {
+                f.contadores.set(i, in.readLong());
+            }
+            f.insertados.set(n);
+            return f;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Filtro de nicknames ilegible, se reconstruirá: " + e);
+            return null;
+        }
+    }
+
+    /* -------------------- Utilidades -------------------- */
+
+    private long posicion(int h1, int h2, int i) {
+        return Math.floorMod(h1 + (long) i * h2, m);
+    }
+
+    private long leer(long pos) {
+        long palabra = contadores.get((int) (pos / POR_LONG));
+        return (palabra >>> ((pos % POR_LONG) * BITS_CONTADOR)) & MAX_CONTADOR;
+    }
+
+    private void cambiar(long pos, int delta) {
+        int idx = (int) (pos / POR_LONG);
+        int desp = (int) (pos % POR_LONG) * BITS_CONTADOR;
+        while (true) {
+            long palabra = contadores.get(idx);
+            long c = (palabra >>> desp) & MAX_CONTADOR;
+            if (c == MAX_CONTADOR) return;          // saturado: se queda así
+            if (delta < 0 && c == 0) return;        // nunca debajo de cero
+            long nueva = (palabra & ~(MAX_CONTADOR << desp)) | ((c + delta) << desp);
+            if (contadores.compareAndSet(idx, palabra, nueva)) return;
+        }
+    }
+
+    /** Hash de 64 bits del nickname en minúsculas (FNV-1a con mezcla final). */
+    private static long hash(String nickname) {
+        String s = RegistroUsuarios.clave(nickname);
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
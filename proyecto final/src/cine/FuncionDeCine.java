@@ -146,6 +146,19 @@ public class FuncionDeCine {
         return vendidos;
     }
 
+    /**
+     * Devuelve a la venta los asientos de boletos que no se pagaron (pago declinado).
+     * Solo libera un asiento si sigue ocupado por ese mismo boleto.
+     *
+     * @param boletos boletos regresados por {@link #venderAsientosPorCodigos(List, String)}
+     */
+    public synchronized void liberarAsientos(List<Boleto> boletos) {
+        for (Boleto b : boletos) {
+            int[] idx = sala.indicesDesdeCodigo(b.getAsientoAsignado());
+            if (asientosVendidos[idx[0]][idx[1]] == b) asientosVendidos[idx[0]][idx[1]] = null;
+        }
+    }
+
     /**
      * Calcula un precio base por boleto. (Actualmente constante, modificar si quieres tarifas).
      * @return precio double
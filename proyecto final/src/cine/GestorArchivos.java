@@ -2,10 +2,10 @@ package cine;
 
 import java.io.*;
 import java.nio.file.*;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Gestor de archivos centralizado para la aplicación.
@@ -13,9 +13,10 @@ import java.util.List;
  * Provee utilidades para:
  * <ul>
  *   <li>Crear/verificar carpetas necesarias</li>
- *   <li>Persistir y cargar clientes y empleados (.dat via serialización)</li>
- *   <li>Persistir y cargar películas (CSV)</li>
- *   <li>Guardar/leer notificaciones y historial de vendedores (archivos de texto)</li>
+ *   <li>Persistir y cargar listas de clientes y empleados (.dat via serialización)</li>
+ *   <li>Elegir el {@link Almacenamiento} activo y delegar en él películas,
+ *       notificaciones e historial de vendedores</li>
+ *   <li>Guardar/recorrer el historial de compras de cada cliente (archivo de texto por nickname)</li>
  * </ul>
  * </p>
  *
@@ -26,10 +27,16 @@ public class GestorArchivos {
     public static final String RUTA_BASE = "ArchivosAplicacion";
     public static final String RUTA_NOTIFICACIONES = RUTA_BASE + File.separator + "notificaciones";
     public static final String RUTA_HISTORIAL = RUTA_BASE + File.separator + "historial_vendedores";
+    public static final String RUTA_HISTORIAL_COMPRAS = RUTA_BASE + File.separator + "historial_compras";
     public static final String ARCHIVO_PELICULAS_CSV = RUTA_BASE + File.separator + "peliculas.csv";
 
     private static final DateTimeFormatter TF = DateTimeFormatter.ofPattern("yyyyMMdd:HHmm");
 
+    /** Conexiones máximas cuando el almacenamiento es JDBC. */
+    private static final int TAM_POOL_JDBC = 4;
+
+    private static Almacenamiento almacenamiento = null;
+
     private GestorArchivos() {
         // utilitaria - no instanciar
     }
@@ -48,6 +55,9 @@ public class GestorArchivos {
             Path hist = Paths.get(RUTA_HISTORIAL);
             if (Files.notExists(hist)) Files.createDirectories(hist);
 
+            Path compras = Paths.get(RUTA_HISTORIAL_COMPRAS);
+            if (Files.notExists(compras)) Files.createDirectories(compras);
+
             // Asegurar existencia del archivo de películas
             Path pel = Paths.get(ARCHIVO_PELICULAS_CSV);
             if (Files.notExists(pel)) Files.createFile(pel);
@@ -144,57 +154,66 @@ public class GestorArchivos {
         }
     }
 
-    // ------------------ Películas (CSV) ------------------
+    // ------------------ Almacenamiento activo ------------------
 
     /**
-     * Guarda la lista de películas en formato CSV (sobrescribe).
-     * Formato por línea: Nombre,Genero,Sinopsis,HH:mm
+     * Devuelve el almacenamiento activo. Se elige la primera vez con la propiedad
+     * {@code cine.almacenamiento}: "archivos" (por defecto), "memoria" o un URL JDBC
+     * (por ejemplo {@code jdbc:h2:file:./ArchivosAplicacion/cine}).
      *
-     * @param peliculas lista de Pelicula
+     * @return implementación de {@link Almacenamiento} en uso
      */
-    public static void guardarPeliculas(List<Pelicula> peliculas) {
-        verificarCarpeta();
-        try (PrintWriter pw = new PrintWriter(new FileWriter(ARCHIVO_PELICULAS_CSV))) {
-            for (Pelicula p : peliculas) {
-                // reemplazar comas para no romper CSV
-                String nombre = sanitizeCsv(p.getNombre());
-                String genero = sanitizeCsv(p.getGenero());
-                String sinopsis = sanitizeCsv(p.getSinopsis());
-                String dur = p.getDuracion().toString(); // LocalTime as HH:mm
-                pw.println(String.join(",", nombre, genero, sinopsis, dur));
-            }
-        } catch (IOException e) {
-            System.err.println("Error guardando peliculas: " + e.getMessage());
+    public static synchronized Almacenamiento getAlmacenamiento() {
+        if (almacenamiento == null) {
+            almacenamiento = crearAlmacenamiento(System.getProperty("cine.almacenamiento", "archivos"));
         }
+        return almacenamiento;
     }
 
     /**
-     * Carga películas desde CSV y las devuelve en una lista.
-     *
-     * @return lista de Pelicula (vacía si archivo no existe o error).
+     * Cambia el almacenamiento activo (pruebas, simulaciones, benchmarks).
+     * Debe llamarse antes de cargar datos.
      */
-    public static List<Pelicula> cargarPeliculas() {
-        verificarCarpeta();
-        List<Pelicula> salida = new ArrayList<>();
-        File f = new File(ARCHIVO_PELICULAS_CSV);
-        if (!f.exists()) return salida;
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String linea;
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) continue;
-                String[] cols = linea.split(",", 4);
-                if (cols.length < 4) continue;
-                salida.add(new Pelicula(cols[0], cols[1], cols[2], cols[3]));
+    public static synchronized void usarAlmacenamiento(Almacenamiento nuevo) {
+        almacenamiento = nuevo;
+    }
+
+    private static Almacenamiento crearAlmacenamiento(String tipo) {
+        if ("memoria".equalsIgnoreCase(tipo)) {
+            return new AlmacenamientoMemoria();
+        }
+        if (tipo.startsWith("jdbc:")) {
+            try {
+                return new AlmacenamientoJdbc(tipo, TAM_POOL_JDBC);
+            } catch (java.sql.SQLException e) {
+                System.err.println("No se pudo abrir " + tipo + " (" + e.getMessage() + "); se usarán archivos.");
             }
-        } catch (IOException e) {
-            System.err.println("Error cargando peliculas: " + e.getMessage());
         }
-        return salida;
+        verificarCarpeta();
+        AlmacenamientoArchivos archivos = new AlmacenamientoArchivos(RUTA_BASE);
+        // Las ventas no se reemplazan: compactar su bitácora solo la reescribiría completa
+        Compactador.getInstancia().registrar(archivos.getBitacoraOrdenes());
+        return archivos;
     }
 
-    private static String sanitizeCsv(String s) {
-        if (s == null) return "";
-        return s.replace(",", " ").replaceAll("[\\r\\n]+", " ");
+    // ------------------ Películas ------------------
+
+    /**
+     * Guarda la lista de películas (sobrescribe) en el almacenamiento activo.
+     *
+     * @param peliculas lista de Pelicula
+     */
+    public static void guardarPeliculas(List<Pelicula> peliculas) {
+        getAlmacenamiento().guardarPeliculas(peliculas);
+    }
+
+    /**
+     * Carga las películas del almacenamiento activo.
+     *
+     * @return lista de Pelicula (vacía si no hay o en caso de error).
+     */
+    public static List<Pelicula> cargarPeliculas() {
+        return getAlmacenamiento().cargarPeliculas();
     }
 
     // ------------------ Notificaciones e historial ------------------
@@ -206,47 +225,70 @@ public class GestorArchivos {
      * @param texto texto a guardar.
      */
     public static void guardarNotificacion(String clave, String texto) {
-        verificarCarpeta();
-        Path p = Paths.get(RUTA_NOTIFICACIONES, clave + ".txt");
-        try (BufferedWriter bw = Files.newBufferedWriter(p)) {
-            bw.write(texto);
-        } catch (IOException e) {
-            System.err.println("Error guardando notificación: " + e.getMessage());
-        }
+        getAlmacenamiento().guardarNotificacion(clave, texto);
     }
 
     /**
      * Lee la notificación asociada a una clave y devuelve su contenido.
      *
      * @param clave clave de la orden
-     * @return contenido del archivo o mensaje por defecto si no existe.
+     * @return contenido de la notificación o mensaje por defecto si no existe.
      */
     public static String leerNotificacion(String clave) {
-        verificarCarpeta();
-        Path p = Paths.get(RUTA_NOTIFICACIONES, clave + ".txt");
-        if (!Files.exists(p)) return "No hay notificaciones para la clave " + clave;
-        try {
-            return new String(Files.readAllBytes(p));
-        } catch (IOException e) {
-            return "Error leyendo notificación: " + e.getMessage();
-        }
+        String texto = getAlmacenamiento().leerNotificacion(clave);
+        return texto != null ? texto : "No hay notificaciones para la clave " + clave;
     }
 
     /**
-     * Agrega una línea al historial del vendedor (archivo por nickname).
+     * Agrega una línea (con fecha y hora) al historial del vendedor.
      *
      * @param nickname nickname del vendedor
      * @param texto línea a agregar
      */
     public static void guardarHistorialVendedor(String nickname, String texto) {
-        verificarCarpeta();
-        Path p = Paths.get(RUTA_HISTORIAL, nickname + ".txt");
-        try (BufferedWriter bw = Files.newBufferedWriter(p, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-            String linea = (LocalDateTime.now().format(TF)) + " - " + texto;
-            bw.write(linea);
-            bw.newLine();
-        } catch (IOException e) {
-            System.err.println("Error guardando historial vendedor: " + e.getMessage());
-        }
+        String linea = (Reloj.getInstancia().ahora().format(TF)) + " - " + texto;
+        getAlmacenamiento().agregarHistorialVendedor(nickname, linea);
+    }
+
+    /**
+     * Lee el historial completo del vendedor.
+     *
+     * @param nickname nickname del vendedor
+     * @return contenido del historial o mensaje por defecto si está vacío.
+     */
+    public static String leerHistorialVendedor(String nickname) {
+        List<String> lineas = getAlmacenamiento().leerHistorialVendedor(nickname);
+        if (lineas.isEmpty()) return "Aún no hay órdenes atendidas.";
+        return String.join(System.lineSeparator(), lineas);
+    }
+
+    // ------------------ Historial de compras de clientes ------------------
+
+    /**
+     * Agrega una línea al historial de compras del cliente.
+     *
+     * @param nickname nickname del cliente
+     * @param linea registro de la compra ya formateado
+     */
+    public static void agregarRegistroCompra(String nickname, String linea) {
+        getAlmacenamiento().agregarRegistroCompra(nickname, linea);
+    }
+
+    /**
+     * @param nickname nickname del cliente
+     * @return true si el cliente tiene al menos una compra registrada
+     */
+    public static boolean existeHistorialCompras(String nickname) {
+        return getAlmacenamiento().existeHistorialCompras(nickname);
+    }
+
+    /**
+     * Recorre línea por línea el historial de compras del cliente sin cargarlo completo.
+     *
+     * @param nickname nickname del cliente
+     * @param lector recibe cada línea; si devuelve false se deja de leer
+     */
+    public static void recorrerHistorialCompras(String nickname, Predicate<String> lector) {
+        getAlmacenamiento().recorrerHistorialCompras(nickname, lector);
     }
 }
@@ -0,0 +1,343 @@
+package cine;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Sesiones con token opaco: permiten reanudar una sesión desde otro quiosco (o
+ * desde una llamada externa) sin volver a pedir credenciales.
+ * <p>
+ * Diseño, pensado para millones de sesiones vivas:
+ * <ul>
+ *   <li>El token son 64 bits aleatorios ({@link SecureRandom}), mostrados en hexadecimal.</li>
+ *   <li>Las sesiones viven en arreglos paralelos (token, usuario, último acceso y
+ *       siguiente en la rueda): unos 20 bytes por sesión, más un índice de
+ *       direccionamiento abierto (int por casilla, ocupación máxima 1/2) para buscar
+ *       el token en O(1). No se crea ningún objeto por sesión.</li>
+ *   <li>La expiración es deslizante: cada uso actualiza el último acceso. Una rueda de
+ *       tiempo con {@link #TAM_RUEDA} casillas de un segundo revisa cada sesión cuando
+ *       llega su vencimiento programado; si se usó desde entonces, se reprograma
+ *       (reprogramación perezosa: tocar una sesión nunca mueve nada en la rueda).</li>
+ *   <li>Las sesiones se reparten en {@link #SEGMENTOS} segmentos, cada uno con su
+ *       propio candado, índice y rueda.</li>
+ * </ul>
+ * </p>
+ */
+public class GestorSesiones {
+
+    /** Minutos de inactividad antes de expirar (se puede cambiar con -Dcine.sesionMinutos=N). */
+    public static final int MINUTOS_POR_DEFECTO = Integer.getInteger("cine.sesionMinutos", 30);
+
+    /** Casillas de la rueda (segundos); potencia de 2. */
+    static final int TAM_RUEDA = 1024;
+
+    /** Segmentos independientes; potencia de 2. */
+    static final int SEGMENTOS = 16;
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final int VACIO = -1;
+
+    private static GestorSesiones instancia = null;
+
+    private final int ttlSegundos;
+    private final LongSupplier relojSegundos;
+    private final long base; // segundo 0 de los tiempos internos (int)
+    private final Segmento[] segmentos = new Segmento[SEGMENTOS];
+    private final SecureRandom aleatorio = new SecureRandom();
+
+    /**
+     * @param ttlSegundos   inactividad máxima de una sesión
+     * @param relojSegundos fuente del tiempo actual en segundos
+     */
+    public GestorSesiones(int ttlSegundos, LongSupplier relojSegundos) {
+        this.ttlSegundos = ttlSegundos;
+        this.relojSegundos = relojSegundos;
+        this.base = relojSegundos.getAsLong();
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento();
+        }
+    }
+
+    /**
+     * @return gestor compartido; la rueda avanza cada segundo en un hilo propio
+     */
+    public static synchronized GestorSesiones getInstancia() {
+        if (instancia == null) {
+            instancia = new GestorSesiones(MINUTOS_POR_DEFECTO * 60,
+                    () -> Reloj.getInstancia().milis() / 1000);
+            ScheduledExecutorService hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "expiracion-sesiones");
+                t.setDaemon(true);
+                return t;
+            });
+            hilo.scheduleAtFixedRate(instancia::expirar, 1, 1, TimeUnit.SECONDS);
+        }
+        return instancia;
+    }
+
+    /* -------------------- Operaciones -------------------- */
+
+    /**
+     * Abre una sesión para el usuario.
+     *
+     * @return token opaco (16 caracteres hexadecimales)
+     */
+    public String abrir(Persona usuario) {
+        int ahora = ahora();
+        while (true) {
+            long token = aleatorio.nextLong();
+            if (token == 0) continue; // 0 marca casilla libre
+            Segmento s = segmentoDe(token);
+            synchronized (s) {
+                if (s.buscar(token) >= 0) continue; // choque: otro token
+                s.agregar(token, usuario, ahora, ttlSegundos);
+            }
+            return aTexto(token);
+        }
+    }
+
+    /**
+     * Reanuda una sesión: devuelve su usuario y renueva la expiración.
+     *
+     * @return usuario de la sesión, o null si el token no existe o ya expiró
+     */
+    public Persona reanudar(String token) {
+        long t = desdeTexto(token);
+        if (t == 0) return null;
+        Segmento s = segmentoDe(t);
+        int ahora = ahora();
+        synchronized (s) {
+            int id = s.buscar(t);
+            if (id < 0) return null;
+            if (s.ultimoAcceso[id] + ttlSegundos <= ahora) return null; // vencida, la rueda aún no pasa
+            s.ultimoAcceso[id] = ahora;
+            return s.usuarios[id];
+        }
+    }
+
+    /**
+     * Cierra una sesión.
+     *
+     * @return true si existía
+     */
+    public boolean cerrar(String token) {
+        long t = desdeTexto(token);
+        if (t == 0) return false;
+        Segmento s = segmentoDe(t);
+        synchronized (s) {
+            return s.cerrar(t);
+        }
+    }
+
+    /** @return sesiones vivas (incluye vencidas que la rueda aún no retira) */
+    public int getActivas() {
+        int total = 0;
+        for (Segmento s : segmentos) {
+            synchronized (s) {
+                total += s.activas;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Avanza la rueda hasta el segundo actual y retira las sesiones vencidas.
+     * Lo llama el hilo de {@link #getInstancia()}; las pruebas lo llaman directamente.
+     *
+     * @return sesiones retiradas
+     */
+    public int expirar() {
+        int ahora = ahora();
+        int retiradas = 0;
+        for (Segmento s : segmentos) {
+            synchronized (s) {
+                retiradas += s.avanzar(ahora, ttlSegundos);
+            }
+        }
+        return retiradas;
+    }
+
+    /* -------------------- Utilidades -------------------- */
+
+    private int ahora() {
+        return (int) (relojSegundos.getAsLong() - base);
+    }
+
+    private Segmento segmentoDe(long token) {
+        return segmentos[(int) (token >>> 60) & (SEGMENTOS - 1)];
+    }
+
+    private static String aTexto(long token) {
+        String hex = Long.toHexString(token);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    private static long desdeTexto(String token) {
+        if (token == null || token.length() != 16) return 0;
+        try {
+            return Long.parseUnsignedLong(token, 16);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Un segmento: sesiones en arreglos paralelos indexados por id, un índice
+     * token -> id con sondeo lineal y una rueda de tiempo con listas enlazadas
+     * por el arreglo {@code siguiente}.
+     */
+    private static final class Segmento {
+
+        // Sesiones (por id). Un id libre tiene token 0 y se encadena en libres.
+        long[] tokens = new long[CAPACIDAD_INICIAL];
+        Persona[] usuarios = new Persona[CAPACIDAD_INICIAL];
+        int[] ultimoAcceso = new int[CAPACIDAD_INICIAL];
+        int[] siguiente = new int[CAPACIDAD_INICIAL];
+        int usados = 0;      // ids entregados alguna vez
+        int libres = VACIO;  // lista de ids reutilizables
+        int activas = 0;
+
+        // Índice token -> id (sondeo lineal, borrado con desplazamiento hacia atrás)
+        int[] indice = nuevoIndice(2 * CAPACIDAD_INICIAL);
+
+        // Rueda: primera sesión programada en cada segundo (mód TAM_RUEDA)
+        final int[] rueda = nuevoIndice(TAM_RUEDA);
+        int ultimoTick = 0;
+
+        private static int[] nuevoIndice(int n) {
+            int[] a = new int[n];
+            Arrays.fill(a, VACIO);
+            return a;
+        }
+
+        private int casilla(long token, int mascara) {
+            long h = token * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+
+        int buscar(long token) {
+            int mascara = indice.length - 1;
+            for (int i = casilla(token, mascara); ; i = (i + 1) & mascara) {
+                int id = indice[i];
+                if (id == VACIO) return -1;
+                if (tokens[id] == token) return id;
+            }
+        }
+
+        void agregar(long token, Persona usuario, int ahora, int ttl) {
+            int id;
+            if (libres != VACIO) {
+                id = libres;
+                libres = siguiente[id];
+            } else {
+                if (usados == tokens.length) crecer();
+                id = usados++;
+            }
+            tokens[id] = token;
+            usuarios[id] = usuario;
+            ultimoAcceso[id] = ahora;
+            programar(id, ahora + ttl);
+            activas++;
+
+            if (2 * activas > indice.length) reindexar(2 * indice.length);
+            insertarEnIndice(id);
+        }
+
+        /** Saca la sesión del índice; el id se libera cuando la rueda pase por él. */
+        boolean cerrar(long token) {
+            int id = buscar(token);
+            if (id < 0) return false;
+            quitarDelIndice(id);
+            usuarios[id] = null;
+            activas--;
+            return true;
+        }
+
+        int avanzar(int ahora, int ttl) {
+            int retiradas = 0;
+            // Si hay más de una vuelta de atraso, basta con revisar cada casilla una vez
+            int desde = Math.max(ultimoTick + 1, ahora - TAM_RUEDA + 1);
+            for (int tick = desde; tick <= ahora; tick++) {
+                int b = tick & (TAM_RUEDA - 1);
+                int id = rueda[b];
+                rueda[b] = VACIO;
+                while (id != VACIO) {
+                    int sig = siguiente[id];
+                    if (usuarios[id] == null) {
+                        liberar(id); // cerrada
+                    } else {
+                        int vence = ultimoAcceso[id] + ttl;
+                        if (vence <= ahora) {
+                            quitarDelIndice(id);
+                            usuarios[id] = null;
+                            activas--;
+                            liberar(id);
+                            retiradas++;
+                        } else {
+                            programar(id, vence); // se usó desde que se programó
+                        }
+                    }
+                    id = sig;
+                }
+            }
+            ultimoTick = Math.max(ultimoTick, ahora);
+            return retiradas;
+        }
+
+        private void programar(int id, int segundo) {
+            int b = segundo & (TAM_RUEDA - 1);
+            siguiente[id] = rueda[b];
+            rueda[b] = id;
+        }
+
+        private void liberar(int id) {
+            tokens[id] = 0;
+            siguiente[id] = libres;
+            libres = id;
+        }
+
+        private void insertarEnIndice(int id) {
+            int mascara = indice.length - 1;
+            int i = casilla(tokens[id], mascara);
+            while (indice[i] != VACIO) i = (i + 1) & mascara;
+            indice[i] = id;
+        }
+
+        private void quitarDelIndice(int id) {
+            int mascara = indice.length - 1;
+            int i = casilla(tokens[id], mascara);
+            while (indice[i] != id) i = (i + 1) & mascara;
+            indice[i] = VACIO;
+            // Desplazamiento hacia atrás: recoloca las entradas que dependían de esta casilla
+            for (int j = (i + 1) & mascara; indice[j] != VACIO; j = (j + 1) & mascara) {
+                int otro = indice[j];
+                int ideal = casilla(tokens[otro], mascara);
+                if (((j - ideal) & mascara) >= ((j - i) & mascara)) {
+                    indice[i] = otro;
+                    indice[j] = VACIO;
+                    i = j;
+                }
+            }
+        }
+
+        private void crecer() {
+            int n = tokens.length * 2;
+            tokens = Arrays.copyOf(tokens, n);
+            usuarios = Arrays.copyOf(usuarios, n);
+            ultimoAcceso = Arrays.copyOf(ultimoAcceso, n);
+            siguiente = Arrays.copyOf(siguiente, n);
+        }
+
+        private void reindexar(int n) {
+            int[] viejo = indice;
+            indice = nuevoIndice(n);
+            for (int id : viejo) {
+                if (id != VACIO) insertarEnIndice(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Historial de compras de boletos de un cliente, almacenado fuera de clientes.dat.
+ * <p>
+ * Se guarda en el {@link Almacenamiento} activo, una línea por compra (en archivos,
+ * {@code ArchivosAplicacion/historial_compras/<nickname>.txt}).
+ * La instancia es solo un manejador: no lee nada del disco hasta que se recorre,
+ * y el recorrido se hace por páginas sin cargar el historial completo en memoria.
+ * Así, cargar un cliente con miles de compras cuesta lo mismo que cargar uno sin compras.
+ * </p>
+ */
+public class HistorialCompras {
+
+    /** Separador de columnas dentro de cada línea del historial. */
+    private static final String SEP = "|";
+
+    private final String nickname;
+
+    // Última respuesta de proximaFuncion: sigue valiendo mientras esa función no empiece
+    private Registro proxima = null;
+    private LocalDateTime proximaDesde = null;
+
+    /**
+     * @param nickname nickname del cliente dueño del historial
+     */
+    public HistorialCompras(String nickname) {
+        this.nickname = nickname;
+    }
+
+    /**
+     * Agrega una compra al final del historial del cliente.
+     *
+     * @param compra compra realizada (si es null no hace nada)
+     */
+    public void agregar(CompraBoletos compra) {
+        if (compra == null) return;
+        Registro r = Registro.desdeCompra(compra);
+        GestorArchivos.agregarRegistroCompra(nickname, r.aLinea());
+        synchronized (this) {
+            if (proximaDesde != null && !r.getFechaHoraFuncion().isBefore(proximaDesde)
+                    && (proxima == null || r.getFechaHoraFuncion().isBefore(proxima.getFechaHoraFuncion()))) {
+                proxima = r;
+            }
+        }
+    }
+
+    /**
+     * @return true si el cliente no tiene compras registradas
+     */
+    public boolean estaVacio() {
+        return !GestorArchivos.existeHistorialCompras(nickname);
+    }
+
+    /**
+     * Recorre el historial en páginas de tamaño fijo, de la compra más antigua a la más reciente.
+     * Solo se mantiene en memoria una página a la vez.
+     *
+     * @param tamPagina  número máximo de registros por página (mínimo 1)
+     * @param consumidor recibe cada página; si devuelve false se detiene el recorrido
+     */
+    public void recorrerPaginas(int tamPagina, Predicate<List<Registro>> consumidor) {
+        final int tam = Math.max(1, tamPagina);
+        final List<Registro> pagina = new ArrayList<>(tam);
+        final boolean[] continuar = {true};
+
+        GestorArchivos.recorrerHistorialCompras(nickname, linea -> {
+            Registro r = Registro.desdeLinea(linea);
+            if (r == null) return true;
+            pagina.add(r);
+            if (pagina.size() == tam) {
+                continuar[0] = consumidor.test(new ArrayList<>(pagina));
+                pagina.clear();
+            }
+            return continuar[0];
+        });
+
+        if (continuar[0] && !pagina.isEmpty()) {
+            consumidor.test(pagina);
+        }
+    }
+
+    /**
+     * Devuelve una página concreta del historial (0 = la primera).
+     *
+     * @param numero    número de página
+     * @param tamPagina tamaño de página
+     * @return registros de esa página (vacía si no existe)
+     */
+    public List<Registro> pagina(int numero, int tamPagina) {
+        List<Registro> salida = new ArrayList<>();
+        final int desde = Math.max(0, numero) * Math.max(1, tamPagina);
+        final int hasta = desde + Math.max(1, tamPagina);
+        final int[] indice = {0};
+
+        GestorArchivos.recorrerHistorialCompras(nickname, linea -> {
+            int i = indice[0]++;
+            if (i >= desde) {
+                Registro r = Registro.desdeLinea(linea);
+                if (r != null) salida.add(r);
+            }
+            return indice[0] < hasta;
+        });
+        return salida;
+    }
+
+    /**
+     * Busca la función comprada más próxima que todavía no empieza. El historial se
+     * recorre una vez; mientras esa función no empiece (y el tiempo solo avance) la
+     * respuesta se reutiliza, y las compras nuevas se comparan al agregarse.
+     *
+     * @param desde instante de referencia (normalmente ahora)
+     * @return el registro de esa compra, o null si no hay ninguna pendiente
+     */
+    public synchronized Registro proximaFuncion(LocalDateTime desde) {
+        if (proximaDesde != null && !desde.isBefore(proximaDesde)
+                && (proxima == null || !proxima.getFechaHoraFuncion().isBefore(desde))) {
+            return proxima;
+        }
+        final Registro[] mejor = {null};
+        recorrerPaginas(100, pagina -> {
+            for (Registro r : pagina) {
+                LocalDateTime inicio = r.getFechaHoraFuncion();
+                if (!inicio.isBefore(desde)
+                        && (mejor[0] == null || inicio.isBefore(mejor[0].getFechaHoraFuncion()))) {
+                    mejor[0] = r;
+                }
+            }
+            return true;
+        });
+        proxima = mejor[0];
+        proximaDesde = desde;
+        return mejor[0];
+    }
+
+    public String getNickname() {
+        return nickname;
+    }
+
+    /* -------------------- Registro de una compra -------------------- */
+
+    /**
+     * Vista compacta de una {@link CompraBoletos} tal como se guarda en el historial.
+     * Solo guarda los datos necesarios para reportes (no la función completa).
+     */
+    public static class Registro {
+
+        private final LocalDateTime fechaCompra;
+        private final String idFuncion;
+        private final String pelicula;
+        private final String sala;
+        private final LocalDateTime fechaHoraFuncion;
+        private final List<String> asientos;
+        private final double total;
+
+        public Registro(LocalDateTime fechaCompra, String idFuncion, String pelicula, String sala,
+                        LocalDateTime fechaHoraFuncion, List<String> asientos, double total) {
+            this.fechaCompra = fechaCompra;
+            this.idFuncion = idFuncion;
+            this.pelicula = pelicula;
+            this.sala = sala;
+            this.fechaHoraFuncion = fechaHoraFuncion;
+            this.asientos = asientos;
+            this.total = total;
+        }
+
+        static Registro desdeCompra(CompraBoletos compra) {
+            FuncionDeCine f = compra.getFuncion();
+            List<String> asientos = new ArrayList<>();
+            double total = 0;
+            for (Boleto b : compra.getBoletos()) {
+                asientos.add(b.getAsientoAsignado());
+                total += b.getPrecio();
+            }
+            return new Registro(Reloj.getInstancia().ahora(), f.getIdFuncion(), f.getPelicula().getNombre(),
+                    f.getSala().getIdSala(), f.getFechaHora(), asientos, total);
+        }
+
+        /** Formato: fechaCompra|idFuncion|pelicula|sala|fechaHoraFuncion|A1,A2|total */
+        String aLinea() {
+            return String.join(SEP,
+                    fechaCompra.toString(),
+                    limpiar(idFuncion),
+                    limpiar(pelicula),
+                    limpiar(sala),
+                    fechaHoraFuncion.toString(),
+                    String.join(",", asientos),
+                    String.valueOf(total));
+        }
+
+        static Registro desdeLinea(String linea) {
+            if (linea == null || linea.isBlank()) return null;
+            String[] cols = linea.split("\\|", -1);
+            if (cols.length < 7) return null;
+            try {
+                List<String> asientos = new ArrayList<>();
+                for (String a : cols[5].split(",")) {
+                    if (!a.isEmpty()) asientos.add(a);
+                }
+                return new Registro(LocalDateTime.parse(cols[0]), cols[1], cols[2], cols[3],
+                        LocalDateTime.parse(cols[4]), asientos, Double.parseDouble(cols[6]));
+            } catch (RuntimeException e) {
+                System.err.println("Registro de compra inválido, se omite: " + linea);
+                return null;
+            }
+        }
+
+        private static String limpiar(String s) {
+            if (s == null) return "";
+            return s.replace(SEP, " ").replaceAll("[\\r\\n]+", " ");
+        }
+
+        public LocalDateTime getFechaCompra() { return fechaCompra; }
+        public String getIdFuncion() { return idFuncion; }
+        public String getPelicula() { return pelicula; }
+        public String getSala() { return sala; }
+        public LocalDateTime getFechaHoraFuncion() { return fechaHoraFuncion; }
+        public List<String> getAsientos() { return asientos; }
+        public double getTotal() { return total; }
+    }
+}
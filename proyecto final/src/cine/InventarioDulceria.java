@@ -0,0 +1,329 @@
+package cine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Existencias de la dulcería por SKU ({@code producto_tamaño}, igual que el archivo de
+ * precio: {@code palomitas_jumbo}, {@code refresco_med}...). El sabor no cuenta: el
+ * insumo es el mismo.
+ * <p>
+ * Cada SKU tiene un contador atómico de piezas disponibles. Una orden primero
+ * {@link #reservar reserva} sus piezas (antes de cobrar), y después la reserva se
+ * {@link Reserva#confirmar confirma} (pago aprobado) o se {@link Reserva#liberar libera}
+ * (pago rechazado, cocina llena). Reservar es un compare-and-set por SKU, sin
+ * candados: si algún SKU no alcanza se devuelven los ya tomados y la orden se
+ * rechaza sin haber cobrado. Así dos mostradores nunca venden la última pieza dos veces.
+ * </p>
+ * <p>
+ * Alertas de existencia baja: cuando un SKU queda en su umbral o por debajo, el
+ * primer hilo que lo nota (un compare-and-set sobre una bandera) deja la alerta en
+ * una cola sin candados; el camino de la orden no espera a nadie. La bandera se
+ * rearma al reabastecer por encima del umbral.
+ * </p>
+ * <p>
+ * Con almacenamiento en archivos las existencias se guardan en
+ * {@link #ARCHIVO_INVENTARIO} al reabastecer, cada {@link #GUARDADO_MS} y al cerrar.
+ * Los SKU sin existencia registrada no se controlan.
+ * </p>
+ */
+public class InventarioDulceria {
+
+    /** Archivo de existencias (una línea {@code sku|existencia|umbral}). */
+    public static final Path ARCHIVO_INVENTARIO = Paths.get(GestorArchivos.RUTA_BASE, "inventario.txt");
+
+    /** Piezas de cada SKU la primera vez (-Dcine.inventarioInicial=N). */
+    public static final int EXISTENCIA_INICIAL = Integer.getInteger("cine.inventarioInicial", 500);
+
+    /** Umbral de alerta de cada SKU nuevo (-Dcine.umbralInventario=N). */
+    public static final int UMBRAL_POR_DEFECTO = Integer.getInteger("cine.umbralInventario", 50);
+
+    /** Cada cuánto se guardan las existencias (-Dcine.guardadoInventario=segundos). */
+    public static final long GUARDADO_MS = Long.getLong("cine.guardadoInventario", 60) * 1000;
+
+    // Alertas que se conservan para el reporte
+    private static final int MAX_ALERTAS = 100;
+
+    private static InventarioDulceria instancia = null;
+
+    private final Map<String, Existencia> existencias = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> alertas = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger totalAlertas = new AtomicInteger();
+    private final LongAdder rechazadas = new LongAdder();
+
+    /**
+     * @param iniciales existencia inicial por SKU
+     * @param umbral    umbral de alerta para todos
+     */
+    public InventarioDulceria(Map<String, Integer> iniciales, int umbral) {
+        for (Map.Entry<String, Integer> e : iniciales.entrySet()) {
+            existencias.put(e.getKey(), new Existencia(e.getKey(), e.getValue(), umbral));
+        }
+    }
+
+    /**
+     * @return inventario compartido: el guardado si hay, o {@link #EXISTENCIA_INICIAL}
+     *         piezas de cada producto del catálogo de precios
+     */
+    public static synchronized InventarioDulceria getInstancia() {
+        if (instancia == null) {
+            boolean enArchivos = GestorArchivos.getAlmacenamiento() instanceof AlmacenamientoArchivos;
+            InventarioDulceria inv = enArchivos ? cargar(ARCHIVO_INVENTARIO) : null;
+            if (inv == null) {
+                Map<String, Integer> iniciales = new TreeMap<>();
+                for (String archivo : CatalogoPrecios.getInstancia().getPrecios().keySet()) {
+                    iniciales.put(archivo.replace(".txt", ""), EXISTENCIA_INICIAL);
+                }
+                inv = new InventarioDulceria(iniciales, UMBRAL_POR_DEFECTO);
+            }
+            if (enArchivos) {
+                InventarioDulceria guardar = inv;
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> guardar.guardar(ARCHIVO_INVENTARIO),
+                        "guardado-inventario"));
+                guardar.guardarCada(Reloj.getInstancia());
+            }
+            instancia = inv;
+        }
+        return instancia;
+    }
+
+    /* -------------------- Reservas -------------------- */
+
+    /**
+     * Reserva las piezas de la orden. No bloquea: si algún SKU no alcanza, devuelve
+     * lo ya tomado y la reserva sale rechazada.
+     *
+     * @return reserva (ver {@link Reserva#isAceptada()})
+     */
+    public Reserva reservar(OrdenDulceria orden) {
+        // Orden fijo de SKU: dos reservas que compiten fallan igual, sin ir y venir
+        Map<Existencia, Integer> piezas = new TreeMap<>((a, b) -> a.sku.compareTo(b.sku));
+        for (int i = 0; i < orden.getLineas(); i++) {
+            Existencia ex = existencias.get(ProductoDulceria.nombreSku(orden.getSku(i)));
+            if (ex != null) piezas.merge(ex, orden.getCantidad(i), Integer::sum);
+        }
+
+        List<Map.Entry<Existencia, Integer>> tomadas = new ArrayList<>();
+        for (Map.Entry<Existencia, Integer> e : piezas.entrySet()) {
+            if (!e.getKey().tomar(e.getValue())) {
+                for (Map.Entry<Existencia, Integer> t : tomadas) t.getKey().devolver(t.getValue());
+                rechazadas.increment();
+                return new Reserva(null, e.getKey().sku);
+            }
+            tomadas.add(e);
+        }
+        return new Reserva(tomadas, null);
+    }
+
+    /**
+     * Suma piezas a un SKU (lo crea si no existe) y guarda las existencias.
+     */
+    public void reabastecer(String sku, int cantidad) {
+        Existencia ex = existencias.computeIfAbsent(sku, s -> new Existencia(s, 0, UMBRAL_POR_DEFECTO));
+        int ahora = ex.disponible.addAndGet(cantidad);
+        if (ahora > ex.umbral) ex.alertada.set(false);
+        if (this == instancia && GestorArchivos.getAlmacenamiento() instanceof AlmacenamientoArchivos) {
+            guardar(ARCHIVO_INVENTARIO);
+        }
+    }
+
+    /** Cambia el umbral de alerta de un SKU. */
+    public void setUmbral(String sku, int umbral) {
+        Existencia ex = existencias.get(sku);
+        if (ex != null) ex.umbral = umbral;
+    }
+
+    /* -------------------- Consultas -------------------- */
+
+    /** @return piezas disponibles (sin contar las reservadas); -1 si el SKU no se controla */
+    public int getDisponible(String sku) {
+        Existencia ex = existencias.get(sku);
+        return ex == null ? -1 : ex.disponible.get();
+    }
+
+    public int getReservado(String sku) {
+        Existencia ex = existencias.get(sku);
+        return ex == null ? 0 : ex.reservado.get();
+    }
+
+    public long getVendido(String sku) {
+        Existencia ex = existencias.get(sku);
+        return ex == null ? 0 : ex.vendidos.sum();
+    }
+
+    /** @return órdenes rechazadas por falta de existencia */
+    public long getRechazadas() {
+        return rechazadas.sum();
+    }
+
+    /** @return últimas alertas de existencia baja, de la más vieja a la más nueva */
+    public List<String> getAlertas() {
+        return new ArrayList<>(alertas);
+    }
+
+    /** @return alertas emitidas desde el arranque */
+    public int getTotalAlertas() {
+        return totalAlertas.get();
+    }
+
+    /** @return tabla de existencias y últimas alertas */
+    public String resumen() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-18s %10s %10s %10s %8s%n", "SKU", "Disponible", "Reservado", "Vendido", "Umbral"));
+        for (Existencia ex : new TreeMap<>(existencias).values()) {
+            sb.append(String.format("%-18s %10d %10d %10d %8d%s%n", ex.sku, ex.disponible.get(),
+                    ex.reservado.get(), ex.vendidos.sum(), ex.umbral,
+                    ex.disponible.get() <= ex.umbral ? "  <- BAJO" : ""));
+        }
+        sb.append("Órdenes rechazadas por falta de existencia: ").append(getRechazadas());
+        for (String a : alertas) sb.append(System.lineSeparator()).append("  ").append(a);
+        return sb.toString();
+    }
+
+    private void alertar(Existencia ex, int quedan) {
+        String alerta = Reloj.getInstancia().ahora().withNano(0) + " Existencia baja: " + ex.sku
+                + " (" + quedan + " de umbral " + ex.umbral + ")";
+        alertas.add(alerta);
+        if (totalAlertas.incrementAndGet() > MAX_ALERTAS) alertas.poll();
+    }
+
+    /* -------------------- Persistencia -------------------- */
+
+    /**
+     * Guarda las existencias (lo reservado cuenta como existencia: si la aplicación
+     * se cierra antes de confirmar, esas piezas no se vendieron).
+     */
+    public void guardar(Path archivo) {
+        Path tmp = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(archivo.toAbsolutePath().getParent());
+            try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Existencia ex : new TreeMap<>(existencias).values()) {
+                    w.write(ex.sku + "|" + (ex.disponible.get() + ex.reservado.get()) + "|" + ex.umbral);
+                    w.newLine();
+                }
+            }
+            Files.move(tmp, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error guardando inventario de dulcería: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return inventario guardado, o null si no existe o está dañado
+     */
+    public static InventarioDulceria cargar(Path archivo) {
+        if (Files.notExists(archivo)) return null;
+        try {
+            InventarioDulceria inv = new InventarioDulceria(Map.of(), UMBRAL_POR_DEFECTO);
+            for (String linea : Files.readAllLines(archivo, StandardCharsets.UTF_8)) {
+                if (linea.isBlank()) continue;
+                String[] cols = linea.split("\\|");
+                inv.existencias.put(cols[0], inv.new Existencia(cols[0], Integer.parseInt(cols[1].trim()),
+                        Integer.parseInt(cols[2].trim())));
+            }
+            return inv;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Inventario de dulcería ilegible, se reinicia: " + e);
+            return null;
+        }
+    }
+
+    private void guardarCada(Reloj reloj) {
+        reloj.programar(GUARDADO_MS, () -> {
+            guardar(ARCHIVO_INVENTARIO);
+            guardarCada(reloj);
+        });
+    }
+
+    /* -------------------- Tipos -------------------- */
+
+    /**
+     * Piezas apartadas para una orden. Se confirma o se libera una sola vez; las
+     * llamadas siguientes no hacen nada.
+     */
+    public static final class Reserva {
+        private final List<Map.Entry<Existencia, Integer>> piezas;
+        private final String agotado;
+        private final AtomicBoolean cerrada = new AtomicBoolean();
+
+        private Reserva(List<Map.Entry<Existencia, Integer>> piezas, String agotado) {
+            this.piezas = piezas;
+            this.agotado = agotado;
+        }
+
+        /** @return true si se apartaron todas las piezas */
+        public boolean isAceptada() {
+            return agotado == null;
+        }
+
+        /** @return SKU que no alcanzó (null si se aceptó) */
+        public String getAgotado() {
+            return agotado;
+        }
+
+        /** La venta se concretó: las piezas salen del inventario. */
+        public void confirmar() {
+            if (!isAceptada() || !cerrada.compareAndSet(false, true)) return;
+            for (Map.Entry<Existencia, Integer> e : piezas) e.getKey().vender(e.getValue());
+        }
+
+        /** La venta no se hizo: las piezas vuelven a estar disponibles. */
+        public void liberar() {
+            if (!isAceptada() || !cerrada.compareAndSet(false, true)) return;
+            for (Map.Entry<Existencia, Integer> e : piezas) e.getKey().devolver(e.getValue());
+        }
+    }
+
+    /** Contadores de un SKU. */
+    private final class Existencia {
+        final String sku;
+        final AtomicInteger disponible;
+        final AtomicInteger reservado = new AtomicInteger();
+        final LongAdder vendidos = new LongAdder();
+        final AtomicBoolean alertada = new AtomicBoolean();
+        volatile int umbral;
+
+        Existencia(String sku, int disponible, int umbral) {
+            this.sku = sku;
+            this.disponible = new AtomicInteger(disponible);
+            this.umbral = umbral;
+        }
+
+        boolean tomar(int n) {
+            while (true) {
+                int d = disponible.get();
+                if (d < n) return false;
+                if (disponible.compareAndSet(d, d - n)) {
+                    reservado.addAndGet(n);
+                    if (d - n <= umbral && alertada.compareAndSet(false, true)) alertar(this, d - n);
+                    return true;
+                }
+            }
+        }
+
+        void devolver(int n) {
+            reservado.addAndGet(-n);
+            disponible.addAndGet(n);
+        }
+
+        void vender(int n) {
+            reservado.addAndGet(-n);
+            vendidos.add(n);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package cine;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Libro de ventas de boletos: bitácora de solo-agregado con número de secuencia.
+ * <p>
+ * Cada venta se agrega a una cola y un hilo escritor las persiste por lotes
+ * (varias ventas por escritura y un solo {@code fsync} por lote), de modo que
+ * el costo del disco se reparte entre todas las ventas que llegan juntas.
+ * Los lotes se guardan en el {@link Almacenamiento} activo (en archivos, una
+ * {@link Bitacora} segmentada). Una venta nunca reemplaza a otra, así que compactar
+ * no descartaría nada: el libro no se registra en el {@link Compactador}.
+ * </p>
+ * <p>
+ * En memoria se mantienen índices por función, por cliente y por día. Al arrancar
+ * las ventas se vuelven a leer completas para reconstruir los índices, y con ellos
+ * los mapas de asientos ({@link #restaurarAsientos(FuncionDeCine)}) y los reportes.
+ * </p>
+ */
+public class LibroVentas {
+
+    /** Máximo de ventas escritas en un solo lote. */
+    private static final int TAM_LOTE = 512;
+
+    private static LibroVentas instancia = null;
+
+    private final Almacenamiento almacen;
+
+    // Secuencia y cola se actualizan juntas para que el archivo quede en orden
+    private final Object candado = new Object();
+    private long siguienteSecuencia = 1;
+    private final BlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+    private volatile Pendiente ultimo = null;
+
+    // ----- Índices en memoria -----
+    private final Map<String, List<RegistroVenta>> porFuncion = new ConcurrentHashMap<>();
+    private final Map<String, List<RegistroVenta>> porCliente = new ConcurrentHashMap<>();
+    private final Map<LocalDate, List<RegistroVenta>> porDia = new ConcurrentHashMap<>();
+
+    private final Thread escritor;
+
+    /**
+     * Abre el libro sobre un almacenamiento y reproduce las ventas que ya tenga.
+     *
+     * @param almacen dónde se guardan las ventas
+     */
+    public LibroVentas(Almacenamiento almacen) {
+        this.almacen = almacen;
+        reproducir();
+
+        escritor = new Thread(this::ciclarEscritura, "libro-ventas");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * @return instancia compartida sobre el almacenamiento activo
+     */
+    public static synchronized LibroVentas getInstancia() {
+        if (instancia == null) {
+            instancia = new LibroVentas(GestorArchivos.getAlmacenamiento());
+            Runtime.getRuntime().addShutdownHook(new Thread(instancia::vaciar));
+        }
+        return instancia;
+    }
+
+    /* -------------------- Registro -------------------- */
+
+    /**
+     * Registra una compra de boletos.
+     *
+     * @param nickname cliente que compró
+     * @param compra   compra realizada
+     * @return futuro que se completa cuando la venta ya está en disco
+     */
+    public CompletableFuture<RegistroVenta> registrar(String nickname, CompraBoletos compra) {
+        List<String> asientos = new ArrayList<>();
+        double total = 0;
+        for (Boleto b : compra.getBoletos()) {
+            asientos.add(b.getAsientoAsignado());
+            total += b.getPrecio();
+        }
+
+        Pendiente p;
+        synchronized (candado) {
+            RegistroVenta r = new RegistroVenta(siguienteSecuencia++, Reloj.getInstancia().ahora(),
+                    compra.getFuncion().getIdFuncion(), nickname, asientos, total);
+            p = new Pendiente(r);
+            cola.add(p);
+            ultimo = p;
+        }
+        indexar(p.registro);
+        return p.persistido;
+    }
+
+    /**
+     * Bloquea hasta que todas las ventas encoladas hasta ahora estén en disco.
+     */
+    public void vaciar() {
+        Pendiente p = ultimo;
+        if (p == null) return;
+        try {
+            p.persistido.join();
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo vaciar el libro de ventas: " + e.getMessage());
+        }
+    }
+
+    /* -------------------- Escritura por lotes -------------------- */
+
+    private void ciclarEscritura() {
+        List<Pendiente> lote = new ArrayList<>(TAM_LOTE);
+        while (true) {
+            try {
+                lote.add(cola.take());
+                cola.drainTo(lote, TAM_LOTE - 1);
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribirLote(List<Pendiente> lote) {
+        try {
+            List<RegistroVenta> registros = new ArrayList<>(lote.size());
+            for (Pendiente p : lote) {
+                registros.add(p.registro);
+            }
+            almacen.registrarVentas(registros);
+
+            for (Pendiente p : lote) p.persistido.complete(p.registro);
+        } catch (IOException | RuntimeException e) {
+            // Un backend puede fallar con RuntimeException (JDBC, memoria): el hilo escritor
+            // sigue vivo y quien espera el lote recibe el error en vez de quedarse colgado
+            System.err.println("Error escribiendo libro de ventas: " + e.getMessage());
+            for (Pendiente p : lote) p.persistido.completeExceptionally(e);
+        }
+    }
+
+    /* -------------------- Reproducción e índices -------------------- */
+
+    /**
+     * Lee todas las ventas, reconstruye índices y ajusta la secuencia.
+     * Las secuencias llegan en orden; una secuencia repetida (por ejemplo, una
+     * compactación interrumpida antes de borrar segmentos) se ignora.
+     */
+    private void reproducir() {
+        long[] maxSecuencia = {0};
+        almacen.recorrerVentas(r -> {
+            if (r.getSecuencia() <= maxSecuencia[0]) return;
+            indexar(r);
+            maxSecuencia[0] = r.getSecuencia();
+        });
+        siguienteSecuencia = maxSecuencia[0] + 1;
+    }
+
+
+    private void indexar(RegistroVenta r) {
+        agregarA(porFuncion.computeIfAbsent(r.getIdFuncion(), k -> new ArrayList<>()), r);
+        agregarA(porCliente.computeIfAbsent(r.getNickname().toLowerCase(), k -> new ArrayList<>()), r);
+        agregarA(porDia.computeIfAbsent(r.getFechaHora().toLocalDate(), k -> new ArrayList<>()), r);
+    }
+
+    private static void agregarA(List<RegistroVenta> lista, RegistroVenta r) {
+        synchronized (lista) {
+            lista.add(r);
+        }
+    }
+
+    private static List<RegistroVenta> copia(List<RegistroVenta> lista) {
+        if (lista == null) return Collections.emptyList();
+        synchronized (lista) {
+            return new ArrayList<>(lista);
+        }
+    }
+
+    /* -------------------- Consultas -------------------- */
+
+    public List<RegistroVenta> ventasDeFuncion(String idFuncion) {
+        return copia(porFuncion.get(idFuncion));
+    }
+
+    public List<RegistroVenta> ventasDeCliente(String nickname) {
+        return copia(porCliente.get(nickname.toLowerCase()));
+    }
+
+    public List<RegistroVenta> ventasDelDia(LocalDate dia) {
+        return copia(porDia.get(dia));
+    }
+
+    /**
+     * Vuelve a marcar como vendidos en la función los asientos registrados en el libro.
+     * Se usa al volver a dar de alta una función que ya tenía ventas.
+     *
+     * @param funcion función recién creada
+     * @return número de asientos restaurados
+     */
+    public int restaurarAsientos(FuncionDeCine funcion) {
+        int restaurados = 0;
+        for (RegistroVenta r : ventasDeFuncion(funcion.getIdFuncion())) {
+            try {
+                restaurados += funcion.venderAsientosPorCodigos(r.getAsientos(), "Adulto").size();
+            } catch (IllegalArgumentException e) {
+                System.err.println("Venta " + r.getSecuencia() + " no se pudo restaurar: " + e.getMessage());
+            }
+        }
+        return restaurados;
+    }
+
+    /** Venta en espera de ser escrita. */
+    private static class Pendiente {
+        final RegistroVenta registro;
+        final CompletableFuture<RegistroVenta> persistido = new CompletableFuture<>();
+
+        Pendiente(RegistroVenta registro) {
+            this.registro = registro;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package cine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limitador de intentos por identidad (nickname, terminal...) con cubetas de fichas.
+ * <p>
+ * Cada cubeta es un único {@link AtomicLong} que empaqueta las fichas disponibles
+ * (en milésimas) y la hora de la última recarga; consumir es un ciclo de
+ * compare-and-set, sin candados. La recarga es perezosa: se calcula al consumir, a
+ * partir del tiempo transcurrido, sin ningún hilo que rellene cubetas.
+ * </p>
+ * <p>
+ * Memoria acotada: una cubeta llena no aporta información, así que se puede borrar
+ * sin cambiar el comportamiento; {@link #devolver} la retira en cuanto se vuelve a
+ * llenar (un inicio de sesión correcto no deja rastro) y {@link #purgar()} retira las
+ * que se recargaron solas. Si aun así se llega a {@code maxCubetas}, las identidades
+ * nuevas comparten una cubeta de desborde (más estricta, nunca más permisiva) hasta
+ * que haya espacio.
+ * </p>
+ */
+public class LimitadorIntentos {
+
+    // Estado empaquetado: [tiempo ms desde base: 44 bits][milifichas: 20 bits]
+    private static final int BITS_FICHAS = 20;
+    private static final long MASCARA_FICHAS = (1L << BITS_FICHAS) - 1;
+    private static final long MILI = 1000;
+
+    private final String nombre;
+    private final long capacidadMili;
+    private final long msPorFicha;
+    private final int maxCubetas;
+    private final long base = System.nanoTime();
+
+    private final Map<String, Cubeta> cubetas = new ConcurrentHashMap<>();
+    private final Cubeta desborde;
+    private final ReentrantLock candadoPurga = new ReentrantLock();
+    private volatile long ultimaPurga = 0;
+
+    // Un solo hilo purga todos los limitadores con purga programada
+    private static ScheduledExecutorService hiloPurga = null;
+
+    /**
+     * @param nombre     nombre para reportes (ej. "nickname")
+     * @param capacidad  intentos seguidos permitidos (máximo 1000)
+     * @param msPorFicha cada cuántos ms se recupera un intento
+     * @param maxCubetas identidades distintas que se recuerdan como máximo
+     */
+    public LimitadorIntentos(String nombre, int capacidad, long msPorFicha, int maxCubetas) {
+        if (capacidad < 1 || capacidad * MILI > MASCARA_FICHAS) {
+            throw new IllegalArgumentException("Capacidad fuera de rango: " + capacidad);
+        }
+        this.nombre = nombre;
+        this.capacidadMili = capacidad * MILI;
+        this.msPorFicha = msPorFicha;
+        this.maxCubetas = maxCubetas;
+        this.desborde = new Cubeta(empacar(ahora(), capacidadMili));
+    }
+
+    /**
+     * Consume un intento de la identidad.
+     *
+     * @return 0 si se permite; si no, ms que faltan para el siguiente intento
+     */
+    public long intentar(String clave) {
+        Cubeta c = cubetaDe(clave);
+        while (true) {
+            long estado = c.get();
+            long recargado = recargar(estado, ahora());
+            long fichas = fichasDe(recargado);
+            if (fichas < MILI) {
+                c.rechazos.incrementAndGet();
+                return msParaFicha(fichas);
+            }
+            if (c.compareAndSet(estado, recargado - MILI)) {
+                // Si la cubeta se retiró mientras tanto, la ficha se cobra en la vigente
+                if (c == desborde || cubetas.get(clave) == c) return 0;
+                c = cubetaDe(clave);
+            }
+        }
+    }
+
+    /**
+     * Devuelve un intento consumido (por ejemplo, tras un inicio de sesión correcto).
+     * Si la cubeta queda llena se retira.
+     */
+    public void devolver(String clave) {
+        Cubeta c = cubetas.get(clave);
+        if (c == null) c = desborde; // sin cubeta propia: el intento se cobró en el desborde
+        while (true) {
+            long estado = c.get();
+            long fichas = Math.min(capacidadMili, fichasDe(estado) + MILI);
+            if (c.compareAndSet(estado, empacar(tiempoDe(estado), fichas))) {
+                if (c != desborde && fichas >= capacidadMili) cubetas.remove(clave, c);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retira las cubetas que ya se recargaron por completo (no limitan a nadie).
+     *
+     * @return cubetas retiradas
+     */
+    public int purgar() {
+        if (!candadoPurga.tryLock()) return 0; // ya hay una purga en curso
+        try {
+            int retiradas = 0;
+            long ahora = ahora();
+            ultimaPurga = ahora;
+            for (Map.Entry<String, Cubeta> e : cubetas.entrySet()) {
+                if (fichasDe(recargar(e.getValue().get(), ahora)) >= capacidadMili
+                        && cubetas.remove(e.getKey(), e.getValue())) {
+                    retiradas++;
+                }
+            }
+            return retiradas;
+        } finally {
+            candadoPurga.unlock();
+        }
+    }
+
+    /**
+     * Purga periódicamente en un hilo de fondo compartido.
+     */
+    public void programarPurga(long periodo, TimeUnit unidad) {
+        synchronized (LimitadorIntentos.class) {
+            if (hiloPurga == null) {
+                hiloPurga = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "purga-limitadores");
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                });
+            }
+        }
+        hiloPurga.scheduleWithFixedDelay(this::purgar, periodo, periodo, unidad);
+    }
+
+    /**
+     * @return identidades que ahora mismo no pueden intentar, con sus rechazos
+     */
+    public List<Limitada> limitadas() {
+        List<Limitada> salida = new ArrayList<>();
+        long ahora = ahora();
+        for (Map.Entry<String, Cubeta> e : cubetas.entrySet()) {
+            long fichas = fichasDe(recargar(e.getValue().get(), ahora));
+            if (fichas < MILI) {
+                salida.add(new Limitada(nombre, e.getKey(), e.getValue().rechazos.get(), msParaFicha(fichas)));
+            }
+        }
+        long fichas = fichasDe(recargar(desborde.get(), ahora));
+        if (fichas < MILI) {
+            salida.add(new Limitada(nombre, "(desborde)", desborde.rechazos.get(), msParaFicha(fichas)));
+        }
+        return salida;
+    }
+
+    /** @return identidades recordadas en este momento */
+    public int getCubetas() {
+        return cubetas.size();
+    }
+
+    /* -------------------- Utilidades -------------------- */
+
+    private Cubeta cubetaDe(String clave) {
+        Cubeta c = cubetas.get(clave);
+        if (c != null) return c;
+        if (cubetas.size() >= maxCubetas) {
+            // Como mucho una purga por segundo: bajo ataque casi ninguna cubeta está llena
+            if (ahora() - ultimaPurga > 1000) purgar();
+            if (cubetas.size() >= maxCubetas) return desborde;
+        }
+        return cubetas.computeIfAbsent(clave, k -> new Cubeta(empacar(ahora(), capacidadMili)));
+    }
+
+    /** @return estado empaquetado tras la recarga perezosa hasta {@code ahora} */
+    private long recargar(long estado, long ahora) {
+        long tiempo = tiempoDe(estado);
+        long fichas = fichasDe(estado);
+        long transcurrido = ahora - tiempo;
+        if (transcurrido <= 0) return estado;
+        long nuevas = transcurrido * MILI / msPorFicha;
+        if (fichas + nuevas >= capacidadMili) {
+            return empacar(ahora, capacidadMili);
+        }
+        // Solo se avanza el tiempo que se convirtió en fichas, para no perder fracciones
+        return empacar(tiempo + nuevas * msPorFicha / MILI, fichas + nuevas);
+    }
+
+    /** @return ms hasta juntar una ficha completa */
+    private long msParaFicha(long fichas) {
+        return (MILI - fichas) * msPorFicha / MILI + 1;
+    }
+
+    private long ahora() {
+        return (System.nanoTime() - base) / 1_000_000;
+    }
+
+    private static long empacar(long tiempo, long fichas) {
+        return (tiempo << BITS_FICHAS) | fichas;
+    }
+
+    private static long tiempoDe(long estado) {
+        return estado >>> BITS_FICHAS;
+    }
+
+    private static long fichasDe(long estado) {
+        return estado & MASCARA_FICHAS;
+    }
+
+    /** Cubeta: el estado empaquetado más un contador de rechazos para reportes. */
+    private static final class Cubeta extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+
+        final AtomicInteger rechazos = new AtomicInteger();
+
+        Cubeta(long estado) {
+            super(estado);
+        }
+    }
+
+    /**
+     * Identidad limitada (para la vista del administrador).
+     */
+    public static class Limitada {
+        private final String tipo;
+        private final String clave;
+        private final int rechazos;
+        private final long msRestantes;
+
+        public Limitada(String tipo, String clave, int rechazos, long msRestantes) {
+            this.tipo = tipo;
+            this.clave = clave;
+            this.rechazos = rechazos;
+            this.msRestantes = msRestantes;
+        }
+
+        public String getTipo() { return tipo; }
+        public String getClave() { return clave; }
+        public int getRechazos() { return rechazos; }
+        public long getMsRestantes() { return msRestantes; }
+
+        @Override
+        public String toString() {
+            return tipo + " " + clave + " | rechazos: " + rechazos
+                    + " | siguiente intento en " + ((msRestantes + 999) / 1000) + " s";
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package cine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Lote de preparación de la {@link CocinaDulceria}: una o varias órdenes que un
+ * vendedor prepara juntas porque comparten partidas (mismo producto, tamaño y
+ * sabor, por ejemplo todas las palomitas jumbo de mantequilla).
+ * <p>
+ * Los tiempos son los de una orden sola: alistar tarda 20-30 s y entregar 10-15 s.
+ * En un lote se alista una sola vez y cada orden se entrega por separado (su
+ * historial y su notificación), así que juntar órdenes ahorra el alistado repetido.
+ * </p>
+ * <p>
+ * El lote anota cuánto tiempo se fue en cada producto (para el
+ * {@link EstimadorCocina}) y cuánto se estimó al empezarlo.
+ * </p>
+ */
+public class LoteDulceria {
+
+    /** Piezas de una orden típica (un combo) para repartir el tiempo nominal. */
+    private static final int PIEZAS_POR_ORDEN = 4;
+
+    private final RosterVendedores.Puesto puesto;
+    private final int maximo;
+
+    // Protegidos por this
+    private final List<PreparaDulceria> ordenes = new ArrayList<>();
+    private final Map<String, Integer> partidas = new LinkedHashMap<>();
+    private int piezas = 0;
+    private final long[] msPorProducto = new long[ProductoDulceria.values().length];
+    private final int[] piezasPorProducto = new int[ProductoDulceria.values().length];
+    private long inicioMs;
+    private long estimadoMs;
+
+    /**
+     * @param puesto vendedor que prepara el lote
+     * @param primera orden que abre el lote
+     * @param maximo órdenes como máximo en el lote
+     */
+    public LoteDulceria(RosterVendedores.Puesto puesto, PreparaDulceria primera, int maximo) {
+        this.puesto = puesto;
+        this.maximo = Math.max(1, maximo);
+        agregar(primera);
+    }
+
+    /**
+     * Agrega la orden si el lote tiene lugar y comparte alguna partida.
+     *
+     * @return true si la orden quedó en el lote
+     */
+    public synchronized boolean unir(PreparaDulceria p) {
+        if (ordenes.size() >= maximo || !comparte(p)) return false;
+        agregar(p);
+        return true;
+    }
+
+    public synchronized boolean isLleno() {
+        return ordenes.size() >= maximo;
+    }
+
+    /**
+     * Tiempo de alistar: 20-30 s, una vez por lote.
+     *
+     * @return ms
+     */
+    public synchronized long duracionAlistar(Random aleatorio) {
+        long ms = (20 + aleatorio.nextInt(11)) * 1000L; // 20..30
+        anotar(ms);
+        return ms;
+    }
+
+    /**
+     * Tiempo de entregar: 10-15 s por cada orden del lote.
+     *
+     * @return ms
+     */
+    public synchronized long duracionPreparar(Random aleatorio) {
+        long ms = 0;
+        for (int i = 0; i < ordenes.size(); i++) {
+            ms += (10 + aleatorio.nextInt(6)) * 1000L; // 10..15
+        }
+        anotar(ms);
+        return ms;
+    }
+
+    /** Reparte {@code ms} entre los productos del lote según sus piezas. */
+    private void anotar(long ms) {
+        for (Map.Entry<String, Integer> e : partidas.entrySet()) {
+            ProductoDulceria p = ProductoDulceria.desde(producto(e.getKey()));
+            if (p != null) msPorProducto[p.ordinal()] += ms * e.getValue() / Math.max(1, piezas);
+        }
+    }
+
+    /**
+     * Anota cuándo empezó el lote y cuánto se estimó que tardaría.
+     */
+    public synchronized void empezar(long inicioMs, long estimadoMs) {
+        this.inicioMs = inicioMs;
+        this.estimadoMs = estimadoMs;
+    }
+
+    public synchronized long getInicioMs() {
+        return inicioMs;
+    }
+
+    public synchronized long getEstimadoMs() {
+        return estimadoMs;
+    }
+
+    /** @return ms que se fueron en el producto (alistar y preparar) */
+    public synchronized long getMs(ProductoDulceria producto) {
+        return msPorProducto[producto.ordinal()];
+    }
+
+    /** @return piezas del producto en el lote */
+    public synchronized int getPiezas(ProductoDulceria producto) {
+        return piezasPorProducto[producto.ordinal()];
+    }
+
+    /** @return copia de las órdenes del lote */
+    public synchronized List<PreparaDulceria> getOrdenes() {
+        return new ArrayList<>(ordenes);
+    }
+
+    public synchronized int getTamano() {
+        return ordenes.size();
+    }
+
+    /** @return partidas distintas del lote */
+    public synchronized int getPartidasDistintas() {
+        return partidas.size();
+    }
+
+    public RosterVendedores.Puesto getPuesto() {
+        return puesto;
+    }
+
+    private boolean comparte(PreparaDulceria p) {
+        for (String clave : p.getOrden().getPartidas().keySet()) {
+            if (partidas.containsKey(clave)) return true;
+        }
+        return false;
+    }
+
+    private void agregar(PreparaDulceria p) {
+        ordenes.add(p);
+        for (Map.Entry<String, Integer> e : p.getOrden().getPartidas().entrySet()) {
+            partidas.merge(e.getKey(), e.getValue(), Integer::sum);
+            piezas += e.getValue();
+        }
+        OrdenDulceria o = p.getOrden();
+        for (int i = 0; i < o.getLineas(); i++) piezasPorProducto[o.getProducto(i).ordinal()] += o.getCantidad(i);
+    }
+
+    private static String producto(String clave) {
+        int i = clave.indexOf('|');
+        return i < 0 ? clave : clave.substring(0, i);
+    }
+
+    /* -------------------- Tiempo nominal -------------------- */
+
+    /**
+     * Tiempo esperado de una pieza en una orden preparada sola (alistar 25 s y
+     * entregar 12.5 s en promedio, entre las piezas de una orden típica): punto de
+     * partida del {@link EstimadorCocina}, igual para todos los productos.
+     */
+    static double nominalPorPiezaMs(ProductoDulceria producto) {
+        return (25_000 + 12_500) / (double) PIEZAS_POR_ORDEN;
+    }
+}
@@ -19,7 +19,7 @@ public class Main {
 
             // 3. Inicializar autenticación
             System.out.println("> Iniciando módulo de autenticación...");
-            SistemaAutenticacion sistema = new SistemaAutenticacion();
+            SistemaAutenticacion sistema = SistemaAutenticacion.getInstancia();
 
             // 4. Iniciar pantalla principal
             System.out.println("\n> Sistema listo. Bienvenido.");
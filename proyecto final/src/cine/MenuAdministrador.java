@@ -2,6 +2,7 @@ package cine;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
 
@@ -21,7 +22,13 @@ public class MenuAdministrador {
             System.out.println("2. Dar de alta una función");
             System.out.println("3. Registrar nuevo empleado");
             System.out.println("4. Ver películas compradas por un cliente");
-            System.out.println("5. Cerrar sesión");
+            System.out.println("5. Ver ventas de boletos del día");
+            System.out.println("6. Ver identidades con inicio de sesión bloqueado");
+            System.out.println("7. Ver métricas del filtro de nicknames");
+            System.out.println("8. Ver estado de la cocina de dulcería");
+            System.out.println("9. Ver y reabastecer inventario de dulcería");
+            System.out.println("10. Ver estado de la pasarela de pagos");
+            System.out.println("11. Cerrar sesión");
             System.out.print("Seleccione opción: ");
 
             String op = sc.nextLine();
@@ -45,6 +52,30 @@ public class MenuAdministrador {
                     break;
 
                 case "5":
+                    reporteVentasDelDia();
+                    break;
+
+                case "6":
+                    reporteIdentidadesLimitadas();
+                    break;
+
+                case "7":
+                    reporteFiltroNicknames();
+                    break;
+
+                case "8":
+                    reporteCocina();
+                    break;
+
+                case "9":
+                    reporteInventario();
+                    break;
+
+                case "10":
+                    reportePagos();
+                    break;
+
+                case "11":
                     System.out.println("Sesión cerrada.");
                     return;
 
@@ -257,8 +288,16 @@ public class MenuAdministrador {
         }
 
         // Guardar empleado en sistema
-        SistemaAutenticacion sistema = new SistemaAutenticacion();
-        sistema.agregarEmpleadoDesdeAdministrador(empleado);
+        SistemaAutenticacion sistema = SistemaAutenticacion.getInstancia();
+        try {
+            if (!sistema.agregarEmpleadoDesdeAdministrador(empleado)) {
+                System.out.println("El nickname " + nick + " ya está en uso. Empleado no registrado.");
+                return;
+            }
+        } catch (SistemaOcupadoException e) {
+            System.out.println("El sistema está ocupado en este momento. Intente registrar al empleado de nuevo.");
+            return;
+        }
 
         System.out.println("Empleado registrado exitosamente.");
     }
@@ -272,6 +311,132 @@ public class MenuAdministrador {
         System.out.print("Escriba nickname o parte de él: ");
         String criterio = sc.nextLine();
 
-        Reportes.buscarClientePorNickname(criterio);
+        List<Cliente> encontrados = Reportes.buscarClientePorNickname(criterio);
+        if (encontrados.isEmpty()) return;
+
+        System.out.print("Seleccione cliente (0 para regresar): ");
+        int idx;
+        try {
+            idx = Integer.parseInt(sc.nextLine().trim()) - 1;
+        } catch (NumberFormatException e) {
+            System.out.println("Entrada inválida.");
+            return;
+        }
+
+        if (idx < 0 || idx >= encontrados.size()) return;
+
+        Reportes.mostrarPeliculasCompradas(encontrados.get(idx), sc);
+    }
+
+
+    /* =====================================================
+                  5. VENTAS DE BOLETOS DEL DÍA
+       ===================================================== */
+    private static void reporteVentasDelDia() {
+
+        System.out.print("Fecha (YYYY-MM-DD, vacío para hoy): ");
+        String entrada = sc.nextLine().trim();
+
+        LocalDate dia;
+        try {
+            dia = entrada.isEmpty() ? Reloj.getInstancia().ahora().toLocalDate() : LocalDate.parse(entrada);
+        } catch (DateTimeParseException e) {
+            System.out.println("Fecha inválida.");
+            return;
+        }
+
+        Reportes.mostrarVentasDelDia(dia);
+    }
+
+
+    /* =====================================================
+           6. IDENTIDADES CON INICIO DE SESIÓN BLOQUEADO
+       ===================================================== */
+    private static void reporteIdentidadesLimitadas() {
+
+        List<LimitadorIntentos.Limitada> limitadas =
+                SistemaAutenticacion.getInstancia().getIdentidadesLimitadas();
+
+        if (limitadas.isEmpty()) {
+            System.out.println("\nNinguna identidad tiene el inicio de sesión bloqueado.");
+            return;
+        }
+
+        System.out.println("\n=== INICIO DE SESIÓN BLOQUEADO ===");
+        for (LimitadorIntentos.Limitada l : limitadas) {
+            System.out.println(l);
+        }
+    }
+
+
+    /* =====================================================
+               7. MÉTRICAS DEL FILTRO DE NICKNAMES
+       ===================================================== */
+    private static void reporteFiltroNicknames() {
+
+        FiltroBloom filtro = SistemaAutenticacion.getInstancia().getFiltroNicknames();
+
+        if (filtro == null) {
+            System.out.println("\nEl filtro de nicknames no está activo.");
+            return;
+        }
+
+        System.out.println("\n=== FILTRO DE NICKNAMES ===");
+        System.out.println(filtro.resumen());
+    }
+
+    /* =====================================================
+                8. ESTADO DE LA COCINA DE DULCERÍA
+       ===================================================== */
+    private static void reporteCocina() {
+
+        System.out.println("\n=== COCINA DE DULCERÍA ===");
+        System.out.println(CocinaDulceria.getInstancia().resumen());
+    }
+
+    /* =====================================================
+                9. INVENTARIO DE DULCERÍA
+       ===================================================== */
+    private static void reporteInventario() {
+
+        InventarioDulceria inventario = InventarioDulceria.getInstancia();
+        System.out.println("\n=== INVENTARIO DE DULCERÍA ===");
+        System.out.println(inventario.resumen());
+
+        System.out.print("\nSKU a reabastecer (Enter para regresar): ");
+        String sku = sc.nextLine().trim();
+        if (sku.isEmpty()) return;
+        if (inventario.getDisponible(sku) < 0) {
+            System.out.println("SKU desconocido: " + sku);
+            return;
+        }
+        System.out.print("Piezas a agregar: ");
+        try {
+            int piezas = Integer.parseInt(sc.nextLine().trim());
+            if (piezas <= 0) {
+                System.out.println("La cantidad debe ser positiva.");
+                return;
+            }
+            inventario.reabastecer(sku, piezas);
+            System.out.println("Existencia de " + sku + ": " + inventario.getDisponible(sku));
+        } catch (NumberFormatException e) {
+            System.out.println("Cantidad inválida.");
+        }
+    }
+
+    /* =====================================================
+                10. PASARELA DE PAGOS
+       ===================================================== */
+    private static void reportePagos() {
+
+        PasarelaPago pasarela = PasarelaPago.getInstancia();
+        System.out.println("\n=== PASARELA DE PAGOS ===");
+        if (pasarela instanceof PasarelaResiliente) {
+            System.out.println(((PasarelaResiliente) pasarela).resumen());
+        } else if (pasarela instanceof BancoLocal) {
+            System.out.println(((BancoLocal) pasarela).resumen());
+        } else {
+            System.out.println("Pasarela sin métricas: " + pasarela.getClass().getSimpleName());
+        }
     }
 }
@@ -40,8 +40,10 @@ public class MenuCliente {
                     System.out.print("Ingresa tu clave de compra: ");
                     String clave = sc.nextLine();
                     String mensaje = GestorArchivos.leerNotificacion(clave);
+                    EstadoOrden estado = RegistroOrdenes.getInstancia().getEstado(clave);
 
                     System.out.println("\n--- NOTIFICACIÓN ---");
+                    if (estado != null) System.out.println("Estado de tu orden: " + estado.getDescripcion());
                     System.out.println(mensaje);
                     break;
 
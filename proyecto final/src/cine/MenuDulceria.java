@@ -9,47 +9,44 @@ public class MenuDulceria {
 
     public void mostrarMenu(Cliente cliente) {
 
+        // La cocina prioriza según la función más próxima que compró el cliente
+        if (cliente != null) {
+            controlador.setFuncionCliente(cliente.getHistorialCompras().proximaFuncion(Reloj.getInstancia().ahora()));
+        }
+
         boolean repetir = true;
 
         while (repetir) {
 
+            // Los combos salen de la tarifa (precios/dulceria.cfg): A es el primero
+            TarifaDulceria.Tabla tabla = TarifaDulceria.getInstancia().getTabla();
+            int combos = tabla.getCombos();
+            String personalizada = String.valueOf((char) ('A' + combos));
+            String cancelar = String.valueOf((char) ('A' + combos + 1));
+
             System.out.println("========= MENÚ DULCERÍA =========");
-            System.out.println("A. Combo \"amix\" (palomitas + 2 refrescos jumbo)");
-            System.out.println("B. Combo \"nachos\" (palomitas + 2 refrescos jumbo + nachos jumbo)");
-            System.out.println("C. Combo \"buen trío\" (palomitas + 3 refrescos jumbo + nachos mega)");
-            System.out.println("D. Combo \"qué me ves\" (palomitas + refresco + nachos jumbo)");
-            System.out.println("E. Orden personalizada");
-            System.out.println("F. Cancelar compra");
+            for (int c = 0; c < combos; c++) {
+                System.out.printf("%c. Combo \"%s\" (%s) $%.2f%n", 'A' + c, tabla.nombreCombo(c),
+                        tabla.describirCombo(c), tabla.totalCombo(c) / 100.0);
+            }
+            System.out.println(personalizada + ". Orden personalizada");
+            System.out.println(cancelar + ". Cancelar compra");
             System.out.print("Elige una opción: ");
 
             String op = sc.nextLine().trim().toUpperCase();
 
-            switch (op) {
-
-                case "A":
-                case "B":
-                case "C":
-                case "D":
-                    // Para combos, creamos una orden vacía y el controlador la llenará
-                    OrdenDulceria ordenCombo = new OrdenDulceria(0, 0, 0, 0, 0, 0);
-                    controlador.procesarCombo(ordenCombo, op);
-                    repetir = false;
-                    break;
-
-                case "E":
-                    // SOLUCIÓN: Solo llamamos al método sin parámetros
-                    // El controlador se encarga de todo el proceso
-                    controlador.procesarPersonalizada();
-                    repetir = false;
-                    break;
-
-                case "F":
-                    System.out.println("Compra cancelada.");
-                    repetir = false;
-                    break;
-
-                default:
-                    System.out.println("Opción inválida, intenta de nuevo.\n");
+            if (op.length() == 1 && op.charAt(0) >= 'A' && op.charAt(0) < 'A' + combos) {
+                controlador.procesarCombo(tabla, op);
+                repetir = false;
+            } else if (op.equals(personalizada)) {
+                // El controlador se encarga de todo el proceso
+                controlador.procesarPersonalizada(tabla);
+                repetir = false;
+            } else if (op.equals(cancelar)) {
+                System.out.println("Compra cancelada.");
+                repetir = false;
+            } else {
+                System.out.println("Opción inválida, intenta de nuevo.\n");
             }
         }
     }
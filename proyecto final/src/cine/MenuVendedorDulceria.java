@@ -11,7 +11,9 @@ public class MenuVendedorDulceria {
         while (true) {
             System.out.println("\n=== MENÚ VENDEDOR DE DULCERÍA ===");
             System.out.println("1. Ver historial de órdenes atendidas");
-            System.out.println("2. Cerrar sesión");
+            System.out.println("2. Ver órdenes listas para entregar");
+            System.out.println("3. Entregar orden al cliente");
+            System.out.println("4. Cerrar sesión");
             System.out.print("Seleccione opción: ");
 
             String opcion = sc.nextLine();
@@ -23,6 +25,31 @@ public class MenuVendedorDulceria {
                     break;
 
                 case "2":
+                    System.out.println("\n--- LISTAS PARA ENTREGAR ---");
+                    RegistroOrdenes registro = RegistroOrdenes.getInstancia();
+                    if (registro.getCuantas(EstadoOrden.LISTA) == 0) {
+                        System.out.println("No hay órdenes listas.");
+                    }
+                    for (String clave : registro.ordenesEn(EstadoOrden.LISTA)) {
+                        System.out.println(registro.getEvento(clave, EstadoOrden.LISTA));
+                    }
+                    break;
+
+                case "3":
+                    System.out.print("Clave de la orden: ");
+                    String clave = sc.nextLine().trim();
+                    if (RegistroOrdenes.getInstancia().recoger(clave)) {
+                        GestorNotificaciones.actualizarNotificacionFinal(clave,
+                                "Tu orden " + clave + " ya fue entregada. ¡Disfruta tu función!");
+                        System.out.println("Orden entregada.");
+                    } else {
+                        EstadoOrden estado = RegistroOrdenes.getInstancia().getEstado(clave);
+                        System.out.println(estado == null ? "No existe esa orden."
+                                : "No se puede entregar: la orden está " + estado.getDescripcion() + ".");
+                    }
+                    break;
+
+                case "4":
                     System.out.println("Sesión cerrada.");
                     return;
 
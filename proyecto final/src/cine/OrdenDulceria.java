@@ -2,91 +2,178 @@ package cine;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Representa una orden de compra en dulcería.
- * Maneja cantidades, precios, clave de compra y fecha.
+ * <p>
+ * Las partidas se guardan en arreglos paralelos (SKU, piezas, precio unitario en
+ * centavos y modificador de sabor, ver {@link ProductoDulceria}), así que una orden
+ * puede tener cualquier número de partidas y sumar su total no crea objetos. El
+ * precio unitario es el que tenía la tarifa al crear la orden; un combo guarda
+ * precios de lista y su descuento aparte.
+ * </p>
+ * <p>
+ * {@link #aLinea()} la escribe en una sola línea compacta de texto y
+ * {@link #desdeLinea(String)} la vuelve a armar.
+ * </p>
  */
 public class OrdenDulceria {
 
-    // Cantidades
-    private int palomitas;
-    private int refrescos;
-    private int nachos;
+    private static final String SEP = "|";
 
-    // Precios unitarios (totales por cada producto en la orden)
-    private double precioPalomitas;
-    private double precioRefrescos;
-    private double precioNachos;
+    // Partidas: las primeras n posiciones de cada arreglo
+    private int n = 0;
+    private int[] skus = new int[4];
+    private int[] cantidades = new int[4];
+    private int[] precios = new int[4];
+    private int[] modificadores = new int[4];
 
-    // Productos adicionales (texto descriptivo)
-    private ArrayList<String> productos;
+    // Descuento de la orden en centavos (combos)
+    private long descuento = 0;
+    private String tipo = "Personalizada";
 
     // Fecha y clave
     private LocalDateTime fechaCompra;
     private String claveCompra;
 
+    // Función a la que entra el cliente (null si no se conoce): la cocina la usa como límite
+    private String idFuncion = null;
+    private LocalDateTime inicioFuncion = null;
+
     private static final DateTimeFormatter TF = DateTimeFormatter.ofPattern("yyyyMMdd:HHmm");
 
-    // Descuento por política (si aplica)
-    private static final double DESCUENTO = 0.10;
+    /**
+     * Orden vacía con la fecha del reloj actual.
+     */
+    public OrdenDulceria() {
+        this.fechaCompra = Reloj.getInstancia().ahora();
+        this.claveCompra = ""; // puede setearse externamente o auto-generarse
+    }
 
     /**
-     * Constructor principal.
+     * Agrega piezas de un SKU. Si ya hay una partida con el mismo SKU, sabor y
+     * precio, se suman a ella.
      *
-     * @param pal número de porciones de palomitas
-     * @param ref número de refrescos
-     * @param nac número de nachos
-     * @param precioP precio total de palomitas (sumado)
-     * @param precioR precio total de refrescos (sumado)
-     * @param precioN precio total de nachos (sumado)
+     * @param sku            id del SKU ({@link ProductoDulceria#sku(TamanoDulceria)})
+     * @param cantidad       piezas (si es 0 o menos no se agrega nada)
+     * @param precioUnitario centavos por pieza
+     * @param modificador    sabor (0 = sin sabor)
      */
-    public OrdenDulceria(int pal, int ref, int nac,double precioP, double precioR, double precioN) {
-        this.palomitas = pal;
-        this.refrescos = ref;
-        this.nachos = nac;
-
-        this.precioPalomitas = precioP;
-        this.precioRefrescos = precioR;
-        this.precioNachos = precioN;
-
-        this.productos = new ArrayList<>();
-        this.fechaCompra = LocalDateTime.now();
-        this.claveCompra = ""; // puede setearse externamente o auto-generarse
+    public void agregar(int sku, int cantidad, int precioUnitario, int modificador) {
+        if (cantidad <= 0) return;
+        for (int i = 0; i < n; i++) {
+            if (skus[i] == sku && modificadores[i] == modificador && precios[i] == precioUnitario) {
+                cantidades[i] += cantidad;
+                return;
+            }
+        }
+        if (n == skus.length) {
+            int cap = n * 2;
+            skus = Arrays.copyOf(skus, cap);
+            cantidades = Arrays.copyOf(cantidades, cap);
+            precios = Arrays.copyOf(precios, cap);
+            modificadores = Arrays.copyOf(modificadores, cap);
+        }
+        skus[n] = sku;
+        cantidades[n] = cantidad;
+        precios[n] = precioUnitario;
+        modificadores[n] = modificador;
+        n++;
     }
 
     /**
-     * Agrega un producto extra (sabor/tamaño u otro) y opcionalmente ajusta precios.
+     * Agrega piezas por producto, tamaño y sabor.
      *
-     * @param nombre nombre del extra
-     * @param precio importe adicional (0 si solo es descripción)
+     * @param sabor nombre del sabor ("" o desconocido = sin sabor)
      */
-    public void agregarProducto(String nombre, double precio) {
-        this.productos.add(nombre + (precio > 0 ? " ($" + String.format("%.2f", precio) + ")" : ""));
-        // No alteramos cantidades por defecto; el controlador deberá sumar si es necesario.
-        if (nombre.toLowerCase().contains("palomita")) this.precioPalomitas += precio;
-        if (nombre.toLowerCase().contains("refresco")) this.precioRefrescos += precio;
-        if (nombre.toLowerCase().contains("nacho")) this.precioNachos += precio;
+    public void agregar(ProductoDulceria producto, TamanoDulceria tamano, String sabor,
+                        int cantidad, int precioUnitario) {
+        agregar(producto.sku(tamano), cantidad, precioUnitario, Math.max(0, producto.modificador(sabor)));
+    }
+
+    /** @param centavos descuento sobre la suma de las partidas (combos) */
+    public void setDescuento(long centavos) {
+        this.descuento = centavos;
+    }
+
+    public long getDescuento() {
+        return descuento;
     }
 
     /**
-     * Aplica un descuento general (ej. 10%) sobre los precios totales — usado por combos.
+     * Total de la orden sin crear objetos.
+     *
+     * @return centavos
      */
-    public void aplicarDescuento() {
-        this.precioPalomitas *= (1 - DESCUENTO);
-        this.precioRefrescos *= (1 - DESCUENTO);
-        this.precioNachos *= (1 - DESCUENTO);
+    public long getTotalCentavos() {
+        long total = 0;
+        for (int i = 0; i < n; i++) total += (long) precios[i] * cantidades[i];
+        return total - descuento;
     }
 
     /**
      * Calcula el total actual de la orden.
-     * @return total (double)
+     * @return total en pesos
      */
     public double calcularTotal() {
-        return precioPalomitas + precioRefrescos + precioNachos;
+        return getTotalCentavos() / 100.0;
+    }
+
+    /* -------------------- Partidas -------------------- */
+
+    /** @return número de partidas */
+    public int getLineas() { return n; }
+    public int getSku(int i) { return skus[i]; }
+    public int getCantidad(int i) { return cantidades[i]; }
+    public int getPrecioUnitario(int i) { return precios[i]; }
+    public int getModificador(int i) { return modificadores[i]; }
+
+    public ProductoDulceria getProducto(int i) {
+        return ProductoDulceria.productoDe(skus[i]);
+    }
+
+    /** @return sabor de la partida ("" si no tiene) */
+    public String getSabor(int i) {
+        return getProducto(i).sabor(modificadores[i]);
+    }
+
+    /** @return piezas del producto en toda la orden */
+    public int getPiezas(ProductoDulceria producto) {
+        int piezas = 0;
+        for (int i = 0; i < n; i++) {
+            if (ProductoDulceria.productoDe(skus[i]) == producto) piezas += cantidades[i];
+        }
+        return piezas;
+    }
+
+    /**
+     * @return piezas por partida para la cocina: "producto|tamaño|sabor" -> cantidad
+     */
+    public Map<String, Integer> getPartidas() {
+        Map<String, Integer> partidas = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            String clave = clavePartida(getProducto(i).getNombre(),
+                    ProductoDulceria.tamanoDe(skus[i]).getNombre(), getSabor(i));
+            partidas.merge(clave, cantidades[i], Integer::sum);
+        }
+        return partidas;
+    }
+
+    /** @return clave normalizada "producto|tamaño|sabor" */
+    public static String clavePartida(String producto, String tamano, String sabor) {
+        return norm(producto) + "|" + norm(tamano) + "|" + norm(sabor);
     }
 
+    private static String norm(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT).replace('|', ' ');
+    }
+
+    /* -------------------- Datos de la orden -------------------- */
+
     /** Genera una clave simple por fecha; puede override si se necesita otro formato. */
     public String generarClaveAutomatica() {
         return "ORD-" + fechaCompra.format(TF);
@@ -104,13 +191,43 @@ public class OrdenDulceria {
         return this.fechaCompra;
     }
 
+    /**
+     * Liga la orden a la función del cliente: la cocina procura tenerla lista antes
+     * de que empiece.
+     *
+     * @param idFuncion     id de la función (ver {@link FuncionDeCine#getIdFuncion()})
+     * @param inicioFuncion fecha y hora de inicio
+     */
+    public void setFuncion(String idFuncion, LocalDateTime inicioFuncion) {
+        this.idFuncion = idFuncion;
+        this.inicioFuncion = inicioFuncion;
+    }
+
+    public void setFuncion(FuncionDeCine funcion) {
+        setFuncion(funcion.getIdFuncion(), funcion.getFechaHora());
+    }
+
+    /** @return id de la función ligada, o null */
+    public String getIdFuncion() {
+        return idFuncion;
+    }
+
+    /** @return inicio de la función ligada, o null si la orden no tiene función */
+    public LocalDateTime getInicioFuncion() {
+        return inicioFuncion;
+    }
+
+    /** @param tipo "Combo amix", "Personalizada"... */
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
     /**
      * Tipo simple de orden para el módulo de historial/notificaciones.
-     * @return "Combo / Estándar" o "Personalizada"
+     * @return "Combo ..." o "Personalizada"
      */
     public String getTipoOrden() {
-        if (this.productos.isEmpty()) return "Combo / Estándar";
-        return "Personalizada";
+        return tipo;
     }
 
     /**
@@ -121,27 +238,76 @@ public class OrdenDulceria {
         StringBuilder sb = new StringBuilder();
         sb.append("=== RESUMEN DE ORDEN ===\n");
         sb.append("Fecha: ").append(fechaCompra.format(TF)).append("\n");
-        sb.append("Palomitas: ").append(palomitas).append("  Precio: $").append(String.format("%.2f", precioPalomitas)).append("\n");
-        sb.append("Refrescos: ").append(refrescos).append("  Precio: $").append(String.format("%.2f", precioRefrescos)).append("\n");
-        sb.append("Nachos: ").append(nachos).append("  Precio: $").append(String.format("%.2f", precioNachos)).append("\n");
-
-        if (!productos.isEmpty()) {
-            sb.append("Extras:\n");
-            for (String s : productos) sb.append(" - ").append(s).append("\n");
+        sb.append("Orden: ").append(tipo).append("\n");
+        for (int i = 0; i < n; i++) {
+            String sabor = getSabor(i);
+            sb.append(String.format("%d x %s %s%s  Precio: $%.2f%n", cantidades[i],
+                    getProducto(i).getNombre(), ProductoDulceria.tamanoDe(skus[i]).getNombre(),
+                    sabor.isEmpty() ? "" : " (" + sabor + ")", (long) precios[i] * cantidades[i] / 100.0));
         }
+        if (descuento != 0) sb.append(String.format("Descuento: -$%.2f%n", descuento / 100.0));
 
         sb.append("TOTAL: $").append(String.format("%.2f", calcularTotal())).append("\n");
+        if (inicioFuncion != null) {
+            sb.append("Lista antes de tu función de las ").append(inicioFuncion.format(DateTimeFormatter.ofPattern("HH:mm"))).append("\n");
+        }
         sb.append("Clave de compra: ").append(claveCompra.isEmpty() ? generarClaveAutomatica() : claveCompra).append("\n");
 
         return sb.toString();
     }
 
-    // Getters útiles
-    public int getPalomitas() { return palomitas; }
-    public int getRefrescos() { return refrescos; }
-    public int getNachos() { return nachos; }
-    public double getPrecioPalomitas() { return precioPalomitas; }
-    public double getPrecioRefrescos() { return precioRefrescos; }
-    public double getPrecioNachos() { return precioNachos; }
-    public ArrayList<String> getProductos() { return productos; }
+    /* -------------------- Formato de línea -------------------- */
+
+    /**
+     * Formato: {@code clave|fecha|tipo|idFuncion|inicioFuncion|descuento|sku:piezas:precio:sabor,...}
+     * (campos vacíos para lo que no haya).
+     */
+    public String aLinea() {
+        StringBuilder partidas = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) partidas.append(',');
+            partidas.append(skus[i]).append(':').append(cantidades[i]).append(':')
+                    .append(precios[i]).append(':').append(modificadores[i]);
+        }
+        return String.join(SEP,
+                limpiar(claveCompra),
+                fechaCompra.toString(),
+                limpiar(tipo),
+                idFuncion == null ? "" : limpiar(idFuncion),
+                inicioFuncion == null ? "" : inicioFuncion.toString(),
+                String.valueOf(descuento),
+                partidas);
+    }
+
+    /**
+     * @param linea línea escrita por {@link #aLinea()}
+     * @return orden leída, o null si la línea está mal formada
+     */
+    public static OrdenDulceria desdeLinea(String linea) {
+        String[] c = linea.split("\\|", -1);
+        if (c.length != 7) return null;
+        try {
+            OrdenDulceria o = new OrdenDulceria();
+            o.claveCompra = c[0];
+            o.fechaCompra = LocalDateTime.parse(c[1]);
+            o.tipo = c[2];
+            if (!c[4].isEmpty()) o.setFuncion(c[3].isEmpty() ? null : c[3], LocalDateTime.parse(c[4]));
+            o.descuento = Long.parseLong(c[5]);
+            if (!c[6].isEmpty()) {
+                for (String p : c[6].split(",")) {
+                    String[] v = p.split(":");
+                    int sku = Integer.parseInt(v[0]);
+                    if (sku < 0 || sku >= ProductoDulceria.SKUS || v.length != 4) return null;
+                    o.agregar(sku, Integer.parseInt(v[1]), Integer.parseInt(v[2]), Integer.parseInt(v[3]));
+                }
+            }
+            return o;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String limpiar(String s) {
+        return s.replace(SEP, " ").replace('\n', ' ');
+    }
 }
@@ -0,0 +1,103 @@
+package cine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cobro a un banco sin bloquear a quien lo pide.
+ * <p>
+ * {@link #cobrar} regresa de inmediato un {@link CompletableFuture} que se completa
+ * cuando el banco responde, aprobado o declinado: un pago en curso no ocupa un hilo
+ * dormido, así que caben miles a la vez. Quien cobra decide qué hacer con la
+ * respuesta; un pago declinado nunca se completa con excepción, se completa con
+ * {@link ResultadoPago#isAprobado()} en false.
+ * </p>
+ * <p>
+ * La pasarela activa es un {@link BancoLocal} (un banco de mentira configurable)
+ * envuelto en una {@link PasarelaResiliente} (plazos, reintentos e interruptor); se
+ * cambia con {@link #usar(PasarelaPago)}, igual que el {@link Reloj}.
+ * </p>
+ */
+public abstract class PasarelaPago {
+
+    // Holgura sobre el plazo de la pasarela al esperar un cobro (hilos del reloj ocupados)
+    private static final long MARGEN_ESPERA_MS = 1_000;
+
+    private static volatile PasarelaPago actual = new PasarelaResiliente(new BancoLocal());
+
+    // Consecutivo de las referencias de cobro que no salen de una clave única
+    private static final AtomicLong CONSECUTIVO = new AtomicLong();
+
+    /** @return pasarela activa */
+    public static PasarelaPago getInstancia() {
+        return actual;
+    }
+
+    /**
+     * Cambia la pasarela activa (los pagos en curso siguen con la anterior).
+     */
+    public static void usar(PasarelaPago pasarela) {
+        actual = pasarela;
+    }
+
+    /**
+     * Referencia única para un cobro cuya clave natural se puede repetir (los mismos
+     * asientos comprados otra vez tras un declinado, por ejemplo).
+     *
+     * @param prefijo lo que identifica la compra
+     * @return {@code prefijo#N}, distinta en cada llamada
+     */
+    public static String nuevaReferencia(String prefijo) {
+        return prefijo + "#" + CONSECUTIVO.incrementAndGet();
+    }
+
+    /**
+     * Pide el cargo al banco.
+     *
+     * @param referencia clave única del cobro (aparece en el resultado): el banco trata
+     *                   dos cobros con la misma referencia como el mismo cobro
+     * @param centavos   monto a cobrar
+     * @return futuro con la respuesta del banco; las acciones encadenadas corren en el
+     *         hilo que lo completa, así que deben ser cortas (o usar las variantes Async)
+     */
+    public abstract CompletableFuture<ResultadoPago> cobrar(String referencia, long centavos);
+
+    /**
+     * Pide al banco devolver el cargo de un cobro, por ejemplo uno que se dio por
+     * declinado porque el banco no respondió a tiempo y que el banco aprobó después.
+     *
+     * @param referencia la del cobro
+     * @return futuro con true si había un cargo aprobado y se devolvió
+     */
+    public abstract CompletableFuture<Boolean> anular(String referencia);
+
+    /**
+     * @return ms a más tardar en que se completa un cobro, o {@link Long#MAX_VALUE} si
+     *         esta pasarela no lo garantiza
+     */
+    public long getPlazoMaximoMs() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Espera la respuesta de un cobro de esta pasarela, sin pasar de su plazo máximo.
+     * Si se interrumpe, falla o vence, el cobro se cancela y cuenta como declinado.
+     */
+    public ResultadoPago esperar(CompletableFuture<ResultadoPago> pago) {
+        long plazo = getPlazoMaximoMs();
+        try {
+            return plazo == Long.MAX_VALUE ? pago.get() : pago.get(plazo + MARGEN_ESPERA_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error al cobrar: " + e.getCause());
+        } catch (TimeoutException e) {
+            System.err.println("El cobro no terminó en " + plazo + " ms; se cancela.");
+        }
+        pago.cancel(false);
+        return new ResultadoPago("", 0, false, "", "sin respuesta del banco", Reloj.getInstancia().ahora(), true);
+    }
+}
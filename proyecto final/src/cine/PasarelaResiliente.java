@@ -0,0 +1,240 @@
+package cine;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pasarela que envuelve a otra (el banco) con plazo por intento, reintentos y un
+ * {@link CircuitoPago}, para que un banco lento o caído no deje al cliente esperando.
+ * <p>
+ * Cada intento tiene {@code timeoutMs} para responder; si no, cuenta como
+ * "sin respuesta" (reintentable). Un declinado reintentable se vuelve a pedir hasta
+ * {@code reintentos} veces, esperando entre intentos un tiempo al azar entre 0 y
+ * {@code backoffMs * 2^intento} (tope {@code backoffMaxMs}) para que los cobros que
+ * fallaron juntos no regresen juntos. Un declinado del cliente (fondos, tarjeta) no
+ * se reintenta. Con el interruptor abierto el cobro se rechaza al instante.
+ * </p>
+ * <p>
+ * Pase lo que pase, el futuro se completa a más tardar en {@code plazoMs} desde
+ * {@link #cobrar}: ningún intento empieza ni espera más allá de ese plazo
+ * ({@link #getPlazoMaximoMs()}). La referencia es la misma en todos los intentos,
+ * para que el banco reconozca el reintento de un cobro lento y no cargue dos veces.
+ * </p>
+ * <p>
+ * Vencer el plazo de un intento solo deja de esperarlo: el banco puede aprobarlo
+ * después. Por eso un cobro que termina con resultado incierto (declinado
+ * reintentable, o cancelado por quien lo esperaba) se {@linkplain PasarelaPago#anular
+ * anula} en el banco, y un cargo aprobado tarde se devuelve.
+ * </p>
+ * <p>
+ * Configuración: {@code -Dcine.pago.timeoutMs}, {@code -Dcine.pago.reintentos},
+ * {@code -Dcine.pago.backoffMs}, {@code -Dcine.pago.backoffMaxMs} y
+ * {@code -Dcine.pago.plazoMs}; las del interruptor están en {@link CircuitoPago}.
+ * </p>
+ */
+public class PasarelaResiliente extends PasarelaPago {
+
+    /** ms que se espera cada intento (-Dcine.pago.timeoutMs=N). */
+    public static final long TIMEOUT_MS_POR_DEFECTO = Long.getLong("cine.pago.timeoutMs", 8_000);
+    /** Reintentos tras un declinado reintentable (-Dcine.pago.reintentos=N). */
+    public static final int REINTENTOS_POR_DEFECTO = Integer.getInteger("cine.pago.reintentos", 2);
+    /** Espera base entre intentos en ms (-Dcine.pago.backoffMs=N). */
+    public static final long BACKOFF_MS_POR_DEFECTO = Long.getLong("cine.pago.backoffMs", 500);
+    /** Espera máxima entre intentos en ms (-Dcine.pago.backoffMaxMs=N). */
+    public static final long BACKOFF_MAX_MS_POR_DEFECTO = Long.getLong("cine.pago.backoffMaxMs", 4_000);
+    /** ms máximos de un cobro completo, con reintentos (-Dcine.pago.plazoMs=N). */
+    public static final long PLAZO_MS_POR_DEFECTO = Long.getLong("cine.pago.plazoMs", 20_000);
+
+    private final PasarelaPago banco;
+    private final CircuitoPago circuito;
+    private final long timeoutMs;
+    private final int reintentos;
+    private final long backoffMs;
+    private final long backoffMaxMs;
+    private final long plazoMs;
+
+    private final LongAdder cobros = new LongAdder();
+    private final LongAdder intentos = new LongAdder();
+    private final LongAdder reintentados = new LongAdder();
+    private final LongAdder sinRespuesta = new LongAdder();
+    private final LongAdder rechazadosAlInstante = new LongAdder();
+    private final LongAdder inciertos = new LongAdder();
+    private final LongAdder anulados = new LongAdder();
+    private final AtomicLong latenciaMaxMs = new AtomicLong();
+    private final EstimadorCocina.Histograma latencias = new EstimadorCocina.Histograma();
+
+    /** Envuelve al banco con la configuración por defecto. */
+    public PasarelaResiliente(PasarelaPago banco) {
+        this(banco, new CircuitoPago(), TIMEOUT_MS_POR_DEFECTO, REINTENTOS_POR_DEFECTO,
+                BACKOFF_MS_POR_DEFECTO, BACKOFF_MAX_MS_POR_DEFECTO, PLAZO_MS_POR_DEFECTO);
+    }
+
+    /**
+     * @param banco        pasarela que habla con el banco
+     * @param circuito     interruptor (uno por banco)
+     * @param timeoutMs    ms que se espera cada intento
+     * @param reintentos   reintentos tras un declinado reintentable
+     * @param backoffMs    espera base entre intentos (se duplica en cada uno)
+     * @param backoffMaxMs tope de la espera entre intentos
+     * @param plazoMs      ms máximos del cobro completo
+     */
+    public PasarelaResiliente(PasarelaPago banco, CircuitoPago circuito, long timeoutMs, int reintentos,
+                              long backoffMs, long backoffMaxMs, long plazoMs) {
+        if (timeoutMs < 1 || reintentos < 0 || backoffMs < 0 || backoffMaxMs < backoffMs || plazoMs < 1) {
+            throw new IllegalArgumentException("Pasarela mal configurada: timeout " + timeoutMs + " ms, "
+                    + reintentos + " reintentos, espera " + backoffMs + "-" + backoffMaxMs + " ms, plazo "
+                    + plazoMs + " ms");
+        }
+        this.banco = banco;
+        this.circuito = circuito;
+        this.timeoutMs = timeoutMs;
+        this.reintentos = reintentos;
+        this.backoffMs = backoffMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.plazoMs = plazoMs;
+    }
+
+    @Override
+    public CompletableFuture<ResultadoPago> cobrar(String referencia, long centavos) {
+        Reloj reloj = Reloj.getInstancia();
+        long inicio = reloj.milis();
+        cobros.increment();
+        CompletableFuture<ResultadoPago> salida = new CompletableFuture<>();
+        salida.thenRun(() -> {
+            long ms = Math.max(0, reloj.milis() - inicio);
+            latencias.agregar(ms, 1);
+            latenciaMaxMs.accumulateAndGet(ms, Math::max);
+        });
+        // Resultado incierto: si el banco llega a aprobar, se devuelve el cargo
+        salida.whenComplete((r, e) -> {
+            if (e == null && !r.isReintentable()) return;
+            inciertos.increment();
+            banco.anular(referencia).thenAccept(anulado -> {
+                if (anulado) anulados.increment();
+            });
+        });
+        intentar(reloj, referencia, centavos, 0, inicio + plazoMs, salida);
+        return salida;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> anular(String referencia) {
+        return banco.anular(referencia);
+    }
+
+    @Override
+    public long getPlazoMaximoMs() {
+        return plazoMs;
+    }
+
+    /** Un intento; al responder decide si termina o programa el siguiente. */
+    private void intentar(Reloj reloj, String referencia, long centavos, int n, long limite,
+                          CompletableFuture<ResultadoPago> salida) {
+        if (salida.isDone()) return; // cancelado por quien esperaba: no se vuelve a pedir
+        long generacion = circuito.permitir();
+        if (generacion == CircuitoPago.RECHAZADO) {
+            rechazadosAlInstante.increment();
+            salida.complete(new ResultadoPago(referencia, centavos, false, "",
+                    "el banco no está disponible; intenta en unos minutos", reloj.ahora(), true));
+            return;
+        }
+        intentos.increment();
+
+        CompletableFuture<ResultadoPago> intento = new CompletableFuture<>();
+        long espera = Math.max(1, Math.min(timeoutMs, limite - reloj.milis()));
+        Future<?> alarma = reloj.programar(espera, () -> {
+            if (intento.complete(new ResultadoPago(referencia, centavos, false, "",
+                    "el banco no respondió a tiempo", reloj.ahora(), true))) {
+                sinRespuesta.increment();
+            }
+        });
+        try {
+            banco.cobrar(referencia, centavos).whenComplete((r, e) -> intento.complete(e == null ? r
+                    : new ResultadoPago(referencia, centavos, false, "", "error del banco: " + e, reloj.ahora(), true)));
+        } catch (RuntimeException e) {
+            intento.complete(new ResultadoPago(referencia, centavos, false, "", "error del banco: " + e,
+                    reloj.ahora(), true));
+        }
+
+        intento.thenAccept(r -> {
+            alarma.cancel(false);
+            circuito.registrar(generacion, r.isReintentable());
+            if (!r.isReintentable() || n >= reintentos) {
+                salida.complete(r);
+                return;
+            }
+            long tope = Math.min(backoffMaxMs, backoffMs << Math.min(n, 30));
+            long pausa = tope > 0 ? reloj.aleatorio().nextInt((int) Math.min(tope, Integer.MAX_VALUE)) : 0;
+            if (reloj.milis() + pausa >= limite) {
+                salida.complete(r); // ya no alcanza el plazo para otro intento
+                return;
+            }
+            reintentados.increment();
+            reloj.programar(pausa, () -> intentar(reloj, referencia, centavos, n + 1, limite, salida));
+        });
+    }
+
+    /* -------------------- Métricas -------------------- */
+
+    public CircuitoPago getCircuito() {
+        return circuito;
+    }
+
+    public long getCobros() {
+        return cobros.sum();
+    }
+
+    /** @return intentos que llegaron al banco */
+    public long getIntentos() {
+        return intentos.sum();
+    }
+
+    public long getReintentos() {
+        return reintentados.sum();
+    }
+
+    /** @return intentos que vencieron sin respuesta */
+    public long getSinRespuesta() {
+        return sinRespuesta.sum();
+    }
+
+    /** @return cobros rechazados con el interruptor abierto */
+    public long getRechazadosAlInstante() {
+        return rechazadosAlInstante.sum();
+    }
+
+    /** @return cobros que terminaron con resultado incierto (se pidió anularlos) */
+    public long getInciertos() {
+        return inciertos.sum();
+    }
+
+    /** @return cobros inciertos que el banco sí había aprobado y se devolvieron */
+    public long getAnulados() {
+        return anulados.sum();
+    }
+
+    /** @return mayor tiempo de un cobro completo, en ms */
+    public long getLatenciaMaxMs() {
+        return latenciaMaxMs.get();
+    }
+
+    /** @return percentil {@code q} (0 a 1) del tiempo de un cobro completo, en ms */
+    public long getLatenciaPercentilMs(double q) {
+        return Math.min(latencias.percentil(q), getLatenciaMaxMs());
+    }
+
+    /** @return resumen para reportes */
+    public String resumen() {
+        return String.format(Locale.ROOT, "Pasarela: %d cobros, %d intentos, %d reintentos, %d sin respuesta, "
+                        + "%d rechazados al instante, %d inciertos (%d cargos anulados) | tiempo p50 %.1f s, "
+                        + "p99 %.1f s, máx. %.1f s (plazo %.1f s)%n%s",
+                getCobros(), getIntentos(), getReintentos(), getSinRespuesta(), getRechazadosAlInstante(),
+                getInciertos(), getAnulados(),
+                getLatenciaPercentilMs(0.5) / 1000.0, getLatenciaPercentilMs(0.99) / 1000.0,
+                getLatenciaMaxMs() / 1000.0, plazoMs / 1000.0, circuito.resumen())
+                + (banco instanceof BancoLocal ? System.lineSeparator() + ((BancoLocal) banco).resumen() : "");
+    }
+}
@@ -9,6 +9,7 @@ package cine;
  */
 
 import java.io.Serializable;
+import java.util.Objects;
 
 public abstract class Persona implements Serializable {
 
@@ -18,7 +19,8 @@ public abstract class Persona implements Serializable {
     private String apellidoPaterno;
     private String apellidoMaterno;
     private String nickname;
-    private String contrasena;
+    // Hash PBKDF2 (ver SeguridadContrasenas); en datos viejos, texto plano hasta migrarse
+    private volatile String contrasena;
     private String correo;
     private String celular;
     
@@ -70,10 +72,6 @@ public abstract class Persona implements Serializable {
         return contrasena; 
     }
 
-    public void setContrasena(String contrasena) { 
-        this.contrasena = contrasena; 
-    }
-    
     public String getCorreo() { 
         return correo; 
     }
@@ -90,8 +88,25 @@ public abstract class Persona implements Serializable {
         this.celular = celular; 
     }
     
+    /**
+     * Reemplaza la contraseña guardada solo si sigue siendo {@code anterior}
+     * (la migración y un inicio de sesión pueden querer actualizarla a la vez).
+     *
+     * @return true si se reemplazó
+     */
+    public synchronized boolean actualizarContrasena(String anterior, String nueva) {
+        if (!Objects.equals(this.contrasena, anterior)) return false;
+        this.contrasena = nueva;
+        return true;
+    }
+
+    /**
+     * Valida nickname y contraseña en el hilo actual. Para inicios de sesión usar
+     * {@link SistemaAutenticacion#autenticar(String, String)}, que verifica en el
+     * pool de {@link VerificadorContrasenas}.
+     */
     public boolean validarCredenciales(String nickname, String contrasena) {
-        return this.nickname.equals(nickname) && this.contrasena.equals(contrasena);
+        return this.nickname.equals(nickname) && SeguridadContrasenas.verificar(contrasena, this.contrasena);
     }
     
     @Override
@@ -1,101 +1,168 @@
 package cine;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Hilo que simula la preparación de una orden de dulcería.
+ * Trabajo de preparación de una orden de dulcería dentro de {@link CocinaDulceria}.
+ * Ya no es un hilo: la cocina llama a cada paso cuando toca, y entre pasos no
+ * hay ningún hilo dormido. Los tiempos los pone el {@link LoteDulceria} en que se
+ * prepara la orden (sola o junto con otras).
  * Flujo:
- *  1) Espera 20-40s (en cola)
- *  2) Selecciona vendedor aleatorio
- *  3) Espera 20-30s (antes de empezar)
- *  4) Espera 10-15s (preparación)
+ *  1) En cola hasta que un vendedor queda libre ({@link #enCola(int, long)})
+ *  2) Se asigna al vendedor ({@link #asignar(VendedorDulceria, long)}) y se alista el lote
+ *  3) Empieza la preparación ({@link #iniciar(long)})
+ *  4) Queda lista ({@link #terminar()})
  *  5) Actualiza historial del vendedor y notificación del cliente
+ * En cada paso la notificación lleva la hora estimada que calcula el
+ * {@link EstimadorCocina}, y el estado de la orden se registra en el
+ * {@link RegistroOrdenes} de la cocina.
  */
-public class PreparaDulceria extends Thread {
+public class PreparaDulceria {
+
+    /** Límite de una orden sin función. */
+    public static final long SIN_LIMITE = Long.MAX_VALUE;
+
+    private static final AtomicLong SECUENCIA = new AtomicLong();
 
     private final OrdenDulceria orden;
-    private final Random rnd = new Random();
+    private final Reloj reloj;
+    private final RegistroOrdenes registro;
+    private final long encolada;
+    private final long limite;
+    private final long secuencia = SECUENCIA.incrementAndGet();
+    private VendedorDulceria vendedor;
+    private long servicioMs = 0;
+    private long etaInicial = -1;
+    private static final DateTimeFormatter HM = DateTimeFormatter.ofPattern("HH:mm");
     private static final DateTimeFormatter TF = DateTimeFormatter.ofPattern("yyyyMMdd:HHmm");
 
-    public PreparaDulceria(OrdenDulceria orden) {
+    /**
+     * @param orden orden a preparar
+     * @param reloj    reloj de la cocina (horas y duraciones aleatorias)
+     * @param registro dónde se registran los cambios de estado
+     */
+    public PreparaDulceria(OrdenDulceria orden, Reloj reloj, RegistroOrdenes registro) {
         this.orden = orden;
+        this.reloj = reloj;
+        this.registro = registro;
+        this.encolada = reloj.milis();
+        LocalDateTime inicio = orden.getInicioFuncion();
+        this.limite = inicio == null ? SIN_LIMITE : inicio.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
-    @Override
-    public void run() {
-        try {
-            // 1) En cola 20-40s
-            int pausa1 = 20 + rnd.nextInt(21); // 20..40
-            Thread.sleep(pausa1 * 1000L);
-
-            // 2) Seleccionar vendedor
-            VendedorDulceria vendedor = seleccionarVendedor();
-
-            LocalDateTime asignacionTime = LocalDateTime.now();
-            String tipoOrden = orden.getTipoOrden();
-            String lineaAsignacion = String.format("Generada: %s | Tipo: %s | Asignada: %s",
-                    orden.getFechaCompra().format(TF), tipoOrden, asignacionTime.format(TF));
-
-            if (vendedor != null) {
-                // Guardar registro en archivo historial del vendedor
-                GestorArchivos.guardarHistorialVendedor(vendedor.getNickname(), lineaAsignacion);
-            }
-
-            // 3) Espera 20-30s antes de empezar a preparar
-            int pausa2 = 20 + rnd.nextInt(11); // 20..30
-            Thread.sleep(pausa2 * 1000L);
-
-            LocalDateTime inicioPreparacion = LocalDateTime.now();
-            if (vendedor != null) {
-                GestorArchivos.guardarHistorialVendedor(vendedor.getNickname(),
-                        "InicioPreparacion: " + inicioPreparacion.format(TF));
-            }
-
-            // 4) Preparación 10-15s
-            int pausa3 = 10 + rnd.nextInt(6); // 10..15
-            Thread.sleep(pausa3 * 1000L);
-
-            LocalDateTime fin = LocalDateTime.now();
-            if (vendedor != null) {
-                GestorArchivos.guardarHistorialVendedor(vendedor.getNickname(),
-                        "Terminado: " + fin.format(TF));
-            }
-
-            // 5) Actualizar notificación final (sobrescribe)
-            String mensaje = "Tu orden " + (orden.getClaveCompra().isEmpty() ? orden.generarClaveAutomatica() : orden.getClaveCompra())
-                    + " está lista para recoger.\nAtendida por: " + (vendedor != null ? vendedor.getNombre() : "sin asignar")
-                    + "\nHora: " + fin.format(TF);
-
-            GestorNotificaciones.actualizarNotificacionFinal((orden.getClaveCompra().isEmpty() ? orden.generarClaveAutomatica() : orden.getClaveCompra()),mensaje);
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("PreparaDulceria interrumpido.");
-        } catch (Exception ex) {
-            System.err.println("Error en PreparaDulceria: " + ex.getMessage());
+    /**
+     * 1) Notificación inicial mientras la orden espera.
+     *
+     * @param antes órdenes en cola delante de esta
+     * @param eta   hora estimada en que queda lista (ms del reloj)
+     */
+    public void enCola(int antes, long eta) {
+        if (etaInicial < 0) {
+            etaInicial = eta;
+            registro.registrar(clave(), EstadoOrden.EN_COLA, ""); // si vuelve a la cola no cambia de estado
         }
+        GestorNotificaciones.crearNotificacionInicial(clave(),
+                "Tu orden " + clave() + " está en cola (" + antes + " antes que la tuya)." + textoEta(eta));
     }
 
     /**
-     * Selecciona un vendedor aleatoriamente leyendo empleados serializados.
-     * Usa GestorArchivos para cargar empleados.
+     * 2) Asigna la orden al vendedor (null si no hay vendedores) y lo anota en su historial.
+     *
+     * @param eta hora estimada en que queda lista (ms del reloj)
      */
-    private VendedorDulceria seleccionarVendedor() {
-        try {
-            List<Empleado> empleados = GestorArchivos.cargarEmpleados("ArchivosAplicacion/empleados.dat");
-            if (empleados == null || empleados.isEmpty()) return null;
-            List<VendedorDulceria> vendedores = new ArrayList<>();
-            for (Empleado e : empleados) {
-                if (e instanceof VendedorDulceria) vendedores.add((VendedorDulceria) e);
-            }
-            if (vendedores.isEmpty()) return null;
-            return vendedores.get(rnd.nextInt(vendedores.size()));
-        } catch (Exception e) {
-            System.err.println("No se pudieron cargar empleados para asignación: " + e.getMessage());
-            return null;
+    public void asignar(VendedorDulceria vendedor, long eta) {
+        this.vendedor = vendedor;
+        registro.registrar(clave(), EstadoOrden.ASIGNADA, vendedor != null ? vendedor.getNickname() : "");
+        GestorNotificaciones.actualizarNotificacionFinal(clave(), "Tu orden " + clave() + " ya se está preparando"
+                + (vendedor != null ? " (la atiende " + vendedor.getNombre() + ")" : "") + "." + textoEta(eta));
+        LocalDateTime asignacionTime = reloj.ahora();
+        String lineaAsignacion = String.format("Generada: %s | Tipo: %s | Asignada: %s",
+                orden.getFechaCompra().format(TF), orden.getTipoOrden(), asignacionTime.format(TF));
+        if (vendedor != null) {
+            GestorArchivos.guardarHistorialVendedor(vendedor.getNickname(), lineaAsignacion);
         }
     }
-}
 
+    /**
+     * 3) Empieza la preparación.
+     *
+     * @param eta hora estimada en que queda lista (ms del reloj)
+     */
+    public void iniciar(long eta) {
+        registro.registrar(clave(), EstadoOrden.PREPARANDO, "");
+        GestorNotificaciones.actualizarNotificacionFinal(clave(), "Tu orden " + clave()
+                + " ya se está sirviendo." + textoEta(eta));
+        if (vendedor != null) {
+            GestorArchivos.guardarHistorialVendedor(vendedor.getNickname(),
+                    "InicioPreparacion: " + reloj.ahora().format(TF));
+        }
+    }
+
+    /**
+     * 4-5) Termina: historial del vendedor y notificación final (sobrescribe).
+     */
+    public void terminar() {
+        LocalDateTime fin = reloj.ahora();
+        if (vendedor != null) {
+            GestorArchivos.guardarHistorialVendedor(vendedor.getNickname(),
+                    "Terminado: " + fin.format(TF));
+        }
+        String mensaje = "Tu orden " + clave()
+                + " está lista para recoger.\nAtendida por: " + (vendedor != null ? vendedor.getNombre() : "sin asignar")
+                + "\nHora: " + fin.format(TF);
+        GestorNotificaciones.actualizarNotificacionFinal(clave(), mensaje);
+        registro.registrar(clave(), EstadoOrden.LISTA, "");
+    }
+
+    /** "\nHora estimada: 18:40 (unos 7 min)." */
+    private String textoEta(long eta) {
+        long faltan = Math.max(0, eta - reloj.milis());
+        LocalDateTime hora = reloj.ahora().plus(faltan, ChronoUnit.MILLIS);
+        return "\nHora estimada: " + hora.format(HM) + " (unos " + Math.max(1, (faltan + 59_999) / 60_000) + " min).";
+    }
+
+    /** @param servicioMs ms que se estima que tarda en prepararse (ver {@link EstimadorCocina#servicioMs}) */
+    public void setServicioMs(long servicioMs) {
+        this.servicioMs = servicioMs;
+    }
+
+    public long getServicioMs() {
+        return servicioMs;
+    }
+
+    /** @return primera hora estimada que se le dio al cliente (ms del reloj), o -1 */
+    public long getEtaInicial() {
+        return etaInicial;
+    }
+
+    /** @return instante (ms del reloj) en que la orden entró a la cola */
+    public long getEncolada() {
+        return encolada;
+    }
+
+    /** @return instante (ms del reloj) en que empieza la función, o {@link #SIN_LIMITE} */
+    public long getLimite() {
+        return limite;
+    }
+
+    /** @return orden de llegada a la cocina (desempate) */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    public OrdenDulceria getOrden() {
+        return orden;
+    }
+
+    public VendedorDulceria getVendedor() {
+        return vendedor;
+    }
+
+    private String clave() {
+        return orden.getClaveCompra().isEmpty() ? orden.generarClaveAutomatica() : orden.getClaveCompra();
+    }
+}
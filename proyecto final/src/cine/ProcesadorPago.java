@@ -2,11 +2,15 @@ package cine;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ProcesadorPago {
 
     private SecureRandom random = new SecureRandom();
 
+    // Consecutivo de las claves: dos compras en el mismo minuto no comparten clave
+    private static final AtomicLong CONSECUTIVO = new AtomicLong();
+
     public ProcesadorPago() {}
 
     // Precio total de ordenes personalizadas
@@ -14,14 +18,14 @@ public class ProcesadorPago {
         return precioPalomitas + precioRefresco + precioNachos;
     }
 
-    // Genera una clave de compra con las iniciales + fecha en formato AAAAMMDD:HHMM
+    // Genera una clave de compra con las iniciales + fecha en formato AAAAMMDD:HHMM + consecutivo
     public String generarClaveCompra(String nombre, String apeP, String apeM) {
 
         // Iniciales
         String iniciales = ("" + nombre.charAt(0) + apeP.charAt(0) + apeM.charAt(0)).toUpperCase();
 
         // Fecha y hora usando LocalDateTime
-        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime ahora = Reloj.getInstancia().ahora();
 
         int anio  = ahora.getYear();
         int mes   = ahora.getMonthValue();
@@ -29,9 +33,9 @@ public class ProcesadorPago {
         int hora  = ahora.getHour();
         int min   = ahora.getMinute();
 
-        // Formato: ABC:AAAAMMDD:HHMM
-        return String.format("%s:%04d%02d%02d:%02d%02d",
-                iniciales, anio, mes, dia, hora, min);
+        // Formato: ABC:AAAAMMDD:HHMM-N
+        return String.format("%s:%04d%02d%02d:%02d%02d-%d",
+                iniciales, anio, mes, dia, hora, min, CONSECUTIVO.incrementAndGet());
     }
 
     // Genera una operación aleatoria de 10 dígitos
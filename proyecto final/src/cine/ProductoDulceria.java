@@ -0,0 +1,105 @@
+package cine;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Productos de la dulcería con sus sabores.
+ * <p>
+ * Un SKU es un producto en un tamaño y se identifica con un entero fijo,
+ * {@code producto * tamaños + tamaño}, que no cambia aunque se recargue la tarifa:
+ * por eso las órdenes, la tarifa y los arreglos indexados por SKU pueden usarlo
+ * directamente. Su nombre ({@code palomitas_jumbo}) es el del archivo de precio y
+ * el de la existencia en {@link InventarioDulceria}.
+ * </p>
+ * <p>
+ * El modificador de una partida es el sabor: 0 sin sabor, {@code k} el sabor
+ * {@code k - 1} de {@link #getSabores()}.
+ * </p>
+ */
+public enum ProductoDulceria {
+    PALOMITAS("palomitas", "mantequilla", "queso", "jalapeño"),
+    REFRESCO("refresco", "cola", "light", "naranja", "manzana", "toronja"),
+    NACHOS("nachos", "queso", "nacho", "jalapeño");
+
+    private static final ProductoDulceria[] VALORES = values();
+
+    /** Número de SKU posibles (producto x tamaño): tamaño de los arreglos indexados por SKU. */
+    public static final int SKUS = VALORES.length * TamanoDulceria.cuantos();
+
+    private final String nombre;
+    private final List<String> sabores;
+
+    ProductoDulceria(String nombre, String... sabores) {
+        this.nombre = nombre;
+        this.sabores = List.of(sabores);
+    }
+
+    /** @return nombre en minúsculas, como en los archivos de precios ("palomitas") */
+    public String getNombre() {
+        return nombre;
+    }
+
+    public List<String> getSabores() {
+        return sabores;
+    }
+
+    /** @return id del SKU de este producto en ese tamaño */
+    public int sku(TamanoDulceria tamano) {
+        return ordinal() * TamanoDulceria.cuantos() + tamano.ordinal();
+    }
+
+    /**
+     * @param sabor nombre del sabor o su número en el menú (1 = primero); "" = sin sabor
+     * @return modificador; -1 si el producto no tiene ese sabor
+     */
+    public int modificador(String sabor) {
+        String s = sabor == null ? "" : sabor.trim().toLowerCase(Locale.ROOT);
+        if (s.isEmpty()) return 0;
+        int i = sabores.indexOf(s);
+        if (i >= 0) return i + 1;
+        try {
+            int k = Integer.parseInt(s);
+            return k >= 1 && k <= sabores.size() ? k : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** @return sabor del modificador; "" si es 0 o no existe */
+    public String sabor(int modificador) {
+        return modificador >= 1 && modificador <= sabores.size() ? sabores.get(modificador - 1) : "";
+    }
+
+    /* -------------------- SKU -------------------- */
+
+    public static ProductoDulceria productoDe(int sku) {
+        return VALORES[sku / TamanoDulceria.cuantos()];
+    }
+
+    public static TamanoDulceria tamanoDe(int sku) {
+        return TamanoDulceria.porOrdinal(sku % TamanoDulceria.cuantos());
+    }
+
+    /** @return "palomitas_jumbo" */
+    public static String nombreSku(int sku) {
+        return productoDe(sku).nombre + "_" + tamanoDe(sku).getNombre();
+    }
+
+    /** @return id del SKU "palomitas_jumbo", o -1 si no es un producto y tamaño conocidos */
+    public static int skuDe(String nombre) {
+        int i = nombre.indexOf('_');
+        if (i < 0) return -1;
+        ProductoDulceria p = desde(nombre.substring(0, i));
+        TamanoDulceria t = TamanoDulceria.desde(nombre.substring(i + 1));
+        return p == null || t == null ? -1 : p.sku(t);
+    }
+
+    /** @return producto con ese nombre (sin importar mayúsculas), o null */
+    public static ProductoDulceria desde(String nombre) {
+        for (ProductoDulceria p : VALORES) {
+            if (p.nombre.equalsIgnoreCase(nombre.trim())) return p;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,287 @@
+package cine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Estado de las órdenes de dulcería: máquina de estados con bitácora de eventos.
+ * <p>
+ * Cada orden recorre {@link EstadoOrden} en orden (en cola, asignada, preparándose,
+ * lista, recogida); un salto o un retroceso se rechaza. Cada transición es un
+ * {@link EventoOrden} con número de secuencia que:
+ * <ul>
+ *   <li>actualiza el estado de la orden en un mapa por clave (consulta O(1) para
+ *       el kiosco, la pantalla del vendedor y los reportes),</li>
+ *   <li>entra a un anillo en memoria con los últimos {@link #EVENTOS_EN_MEMORIA}
+ *       eventos ({@link #recientes(int)}),</li>
+ *   <li>y se persiste por lotes en el {@link Almacenamiento} activo desde un hilo
+ *       escritor, igual que el {@link LibroVentas}.</li>
+ * </ul>
+ * En archivos la bitácora se compacta por clave, así que lo durable es la cola de
+ * la bitácora: el último estado de cada orden. Al arrancar se vuelve a leer para
+ * reconstruir el mapa.
+ * </p>
+ */
+public class RegistroOrdenes {
+
+    /** Eventos que se conservan en memoria (-Dcine.eventosOrdenes=N). */
+    public static final int EVENTOS_EN_MEMORIA = Integer.getInteger("cine.eventosOrdenes", 100_000);
+
+    /** Máximo de eventos escritos en un solo lote. */
+    private static final int TAM_LOTE = 512;
+
+    private static final EstadoOrden[] ESTADOS = EstadoOrden.values();
+
+    private static RegistroOrdenes instancia = null;
+
+    private final Almacenamiento almacen;
+
+    // Estado actual por clave y claves por estado (sin las recogidas, que ya no se consultan en pantalla)
+    private final Map<String, Seguimiento> ordenes = new ConcurrentHashMap<>();
+    private final List<Set<String>> porEstado = new ArrayList<>();
+    private final AtomicIntegerArray cuantas = new AtomicIntegerArray(ESTADOS.length);
+
+    // Anillo, secuencia y cola de escritura se actualizan juntos para que el almacén quede en orden
+    private final EventoOrden[] anillo;
+    private long siguienteSecuencia = 1;
+    private final BlockingQueue<EventoOrden> cola = new LinkedBlockingQueue<>();
+
+    // Escritura: secuencia hasta la que todo está persistido (protegida por el monitor de this)
+    private long persistido = 0;
+    private long perdidos = 0;
+
+    /**
+     * Abre el registro sobre un almacenamiento y reproduce los eventos que ya tenga.
+     *
+     * @param almacen dónde se guardan los eventos
+     */
+    public RegistroOrdenes(Almacenamiento almacen) {
+        this.almacen = almacen;
+        this.anillo = new EventoOrden[Math.max(1, EVENTOS_EN_MEMORIA)];
+        for (int i = 0; i < ESTADOS.length; i++) porEstado.add(ConcurrentHashMap.newKeySet());
+        reproducir();
+
+        Thread escritor = new Thread(this::ciclarEscritura, "registro-ordenes");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * @return instancia compartida sobre el almacenamiento activo
+     */
+    public static synchronized RegistroOrdenes getInstancia() {
+        if (instancia == null) {
+            instancia = new RegistroOrdenes(GestorArchivos.getAlmacenamiento());
+            Runtime.getRuntime().addShutdownHook(new Thread(instancia::vaciar));
+        }
+        return instancia;
+    }
+
+    /* -------------------- Transiciones -------------------- */
+
+    /**
+     * Registra que la orden pasó a {@code estado}.
+     *
+     * @param clave   clave de compra de la orden
+     * @param estado  estado nuevo ({@link EstadoOrden#EN_COLA} para una orden nueva)
+     * @param detalle nickname del vendedor al asignarla; "" en los demás
+     * @return false si la transición no es válida (la orden no cambia)
+     */
+    public boolean registrar(String clave, EstadoOrden estado, String detalle) {
+        Seguimiento s = ordenes.computeIfAbsent(clave, k -> new Seguimiento());
+        synchronized (s) {
+            EstadoOrden actual = s.estado;
+            boolean valida = actual == null ? estado == EstadoOrden.EN_COLA : actual.puedePasarA(estado);
+            if (!valida) {
+                System.err.println("Transición inválida de la orden " + clave + ": "
+                        + (actual == null ? "nueva" : actual.getDescripcion()) + " -> " + estado.getDescripcion());
+                return false;
+            }
+            EventoOrden e;
+            synchronized (anillo) {
+                e = new EventoOrden(siguienteSecuencia++, Reloj.getInstancia().ahora(), clave, estado, detalle);
+                anillo[(int) ((e.getSecuencia() - 1) % anillo.length)] = e;
+                cola.add(e);
+            }
+            aplicar(s, e);
+        }
+        return true;
+    }
+
+    /**
+     * El cliente recogió su orden (debe estar lista).
+     *
+     * @return false si la orden no existe o todavía no está lista
+     */
+    public boolean recoger(String clave) {
+        if (getEstado(clave) != EstadoOrden.LISTA) return false;
+        return registrar(clave, EstadoOrden.RECOGIDA, "");
+    }
+
+    /** Cambia estado, índices y conteos (con el monitor de {@code s}). */
+    private void aplicar(Seguimiento s, EventoOrden e) {
+        EstadoOrden anterior = s.estado;
+        if (anterior != null) {
+            porEstado.get(anterior.ordinal()).remove(e.getClave());
+            cuantas.decrementAndGet(anterior.ordinal());
+        }
+        s.eventos[e.getEstado().ordinal()] = e;
+        s.estado = e.getEstado();
+        if (e.getEstado() != EstadoOrden.RECOGIDA) porEstado.get(e.getEstado().ordinal()).add(e.getClave());
+        cuantas.incrementAndGet(e.getEstado().ordinal());
+    }
+
+    /* -------------------- Consultas -------------------- */
+
+    /** @return estado actual de la orden, o null si no se conoce */
+    public EstadoOrden getEstado(String clave) {
+        Seguimiento s = ordenes.get(clave);
+        return s == null ? null : s.estado;
+    }
+
+    /** @return evento con el que la orden llegó a {@code estado}, o null si no ha llegado */
+    public EventoOrden getEvento(String clave, EstadoOrden estado) {
+        Seguimiento s = ordenes.get(clave);
+        if (s == null) return null;
+        synchronized (s) {
+            return s.eventos[estado.ordinal()];
+        }
+    }
+
+    /** @return eventos conocidos de la orden, del primero al último (lista vacía si no existe) */
+    public List<EventoOrden> historial(String clave) {
+        List<EventoOrden> salida = new ArrayList<>();
+        Seguimiento s = ordenes.get(clave);
+        if (s == null) return salida;
+        synchronized (s) {
+            for (EventoOrden e : s.eventos) {
+                if (e != null) salida.add(e);
+            }
+        }
+        return salida;
+    }
+
+    /** @return claves de las órdenes que están en {@code estado} (no incluye las recogidas) */
+    public Set<String> ordenesEn(EstadoOrden estado) {
+        return Collections.unmodifiableSet(porEstado.get(estado.ordinal()));
+    }
+
+    /** @return órdenes que están en {@code estado} */
+    public int getCuantas(EstadoOrden estado) {
+        return cuantas.get(estado.ordinal());
+    }
+
+    /** @return hasta {@code n} eventos más recientes que siguen en memoria, del más viejo al más nuevo */
+    public List<EventoOrden> recientes(int n) {
+        synchronized (anillo) {
+            long ultimo = siguienteSecuencia - 1;
+            long desde = Math.max(Math.max(1, ultimo - n + 1), ultimo - anillo.length + 1);
+            List<EventoOrden> salida = new ArrayList<>((int) Math.max(0, ultimo - desde + 1));
+            for (long sec = desde; sec <= ultimo; sec++) {
+                EventoOrden e = anillo[(int) ((sec - 1) % anillo.length)];
+                if (e != null) salida.add(e);
+            }
+            return salida;
+        }
+    }
+
+    /** @return resumen para reportes */
+    public String resumen() {
+        StringBuilder sb = new StringBuilder("Órdenes de dulcería:");
+        for (EstadoOrden e : ESTADOS) {
+            sb.append(' ').append(e.getDescripcion()).append(' ').append(getCuantas(e)).append(',');
+        }
+        sb.setLength(sb.length() - 1);
+        synchronized (this) {
+            if (perdidos > 0) sb.append(" | Eventos sin guardar: ").append(perdidos);
+        }
+        return sb.toString();
+    }
+
+    /* -------------------- Escritura por lotes -------------------- */
+
+    /**
+     * Bloquea hasta que todos los eventos registrados hasta ahora estén guardados
+     * (o se haya reportado el error al guardarlos).
+     */
+    public void vaciar() {
+        long objetivo;
+        synchronized (anillo) {
+            objetivo = siguienteSecuencia - 1;
+        }
+        synchronized (this) {
+            while (persistido < objetivo) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void ciclarEscritura() {
+        List<EventoOrden> lote = new ArrayList<>(TAM_LOTE);
+        while (true) {
+            try {
+                lote.add(cola.take());
+                cola.drainTo(lote, TAM_LOTE - 1);
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribirLote(List<EventoOrden> lote) {
+        boolean guardado = true;
+        try {
+            almacen.registrarEventosOrden(lote);
+        } catch (IOException e) {
+            System.err.println("Error escribiendo eventos de órdenes: " + e.getMessage());
+            guardado = false;
+        }
+        synchronized (this) {
+            if (!guardado) perdidos += lote.size();
+            persistido = lote.get(lote.size() - 1).getSecuencia();
+            notifyAll();
+        }
+    }
+
+    /* -------------------- Reproducción -------------------- */
+
+    /**
+     * Lee los eventos guardados y reconstruye el estado de cada orden. En archivos
+     * compactados solo queda el último evento de cada orden, que se toma tal cual.
+     */
+    private void reproducir() {
+        almacen.recorrerEventosOrden(e -> {
+            Seguimiento s = ordenes.computeIfAbsent(e.getClave(), k -> new Seguimiento());
+            synchronized (s) {
+                if (s.estado == null || e.getEstado().ordinal() > s.estado.ordinal()) aplicar(s, e);
+            }
+            anillo[(int) ((e.getSecuencia() - 1) % anillo.length)] = e;
+            siguienteSecuencia = Math.max(siguienteSecuencia, e.getSecuencia() + 1);
+        });
+        persistido = siguienteSecuencia - 1;
+    }
+
+    /** Estado de una orden y el evento con que llegó a cada estado. */
+    private static final class Seguimiento {
+        // Protegidos por el monitor del seguimiento (estado también se lee sin él)
+        volatile EstadoOrden estado;
+        final EventoOrden[] eventos = new EventoOrden[ESTADOS.length];
+    }
+}
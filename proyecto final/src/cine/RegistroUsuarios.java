@@ -0,0 +1,124 @@
+package cine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registro en memoria de todos los usuarios (clientes y empleados), seguro para
+ * usarse desde muchos hilos a la vez.
+ * <p>
+ * El nickname (sin distinguir mayúsculas) se reserva con un {@code putIfAbsent}
+ * atómico sobre el índice: si dos registros compiten por el mismo nickname, solo
+ * uno gana. Las búsquedas por nickname son O(1) y no bloquean.
+ * </p>
+ * <p>
+ * Las listas de clientes y empleados conservan el orden de alta y se entregan como
+ * copias, de modo que recorrerlas (por ejemplo en Reportes) no choca con registros
+ * simultáneos.
+ * </p>
+ * <p>
+ * Opcionalmente se le conecta un {@link FiltroBloom}: si el filtro dice que el
+ * nickname no está, {@link #existe(String)} responde sin tocar el índice.
+ * </p>
+ */
+public class RegistroUsuarios {
+
+    // nickname en minúsculas -> usuario
+    private final ConcurrentHashMap<String, Persona> porNickname = new ConcurrentHashMap<>();
+
+    // Los clientes se agregan seguido; los empleados casi nunca (se copian al escribir)
+    private final Queue<Cliente> clientes = new ConcurrentLinkedQueue<>();
+    private final List<Empleado> empleados = new CopyOnWriteArrayList<>();
+
+    // Prefiltro de nicknames ocupados (null = sin filtro)
+    private volatile FiltroBloom filtro = null;
+
+    /** Clave del índice: el nickname sin distinguir mayúsculas. */
+    public static String clave(String nickname) {
+        return nickname.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reserva el nickname del usuario y, si estaba libre, lo agrega al registro.
+     *
+     * @param usuario cliente o empleado nuevo
+     * @return true si se registró; false si el nickname ya estaba ocupado (o es nulo)
+     */
+    public boolean registrar(Persona usuario) {
+        if (usuario == null || usuario.getNickname() == null) return false;
+        // Al filtro antes que al índice: nunca hay un nickname ocupado que el filtro dé por libre
+        FiltroBloom f = filtro;
+        if (f != null) f.agregar(usuario.getNickname());
+        if (porNickname.putIfAbsent(clave(usuario.getNickname()), usuario) != null) {
+            if (f != null) f.quitar(usuario.getNickname());
+            return false;
+        }
+        if (usuario instanceof Cliente) {
+            clientes.add((Cliente) usuario);
+        } else if (usuario instanceof Empleado) {
+            empleados.add((Empleado) usuario);
+        }
+        return true;
+    }
+
+    /**
+     * Vacía el registro y carga los usuarios indicados. Los empleados van primero:
+     * si un nickname se repitiera en los datos guardados, se queda el empleado.
+     */
+    public void cargar(List<Empleado> listaEmpleados, List<Cliente> listaClientes) {
+        filtro = null; // quien cargue decide si el filtro guardado sigue sirviendo
+        porNickname.clear();
+        clientes.clear();
+        empleados.clear();
+        for (Empleado e : listaEmpleados) registrar(e);
+        for (Cliente c : listaClientes) registrar(c);
+    }
+
+    /** @return true si el nickname ya está ocupado (sin distinguir mayúsculas) */
+    public boolean existe(String nickname) {
+        FiltroBloom f = filtro;
+        if (f == null) return porNickname.containsKey(clave(nickname));
+        if (!f.podriaContener(nickname)) return false; // libre con seguridad
+        boolean existe = porNickname.containsKey(clave(nickname));
+        if (!existe) f.registrarFalsoPositivo();
+        return existe;
+    }
+
+    /**
+     * Conecta un filtro que ya contiene todos los nicknames registrados; a partir de
+     * aquí cada alta lo actualiza.
+     */
+    public void usarFiltro(FiltroBloom filtro) {
+        this.filtro = filtro;
+    }
+
+    /** @return filtro conectado, o null */
+    public FiltroBloom getFiltro() {
+        return filtro;
+    }
+
+    /** @return el usuario con ese nickname (sin distinguir mayúsculas), o null */
+    public Persona buscar(String nickname) {
+        return porNickname.get(clave(nickname));
+    }
+
+    /** @return copia de los clientes en orden de alta */
+    public List<Cliente> getClientes() {
+        return new ArrayList<>(clientes);
+    }
+
+    /** @return copia de los empleados en orden de alta */
+    public List<Empleado> getEmpleados() {
+        return new ArrayList<>(empleados);
+    }
+
+    /** @return total de usuarios registrados */
+    public int getTotal() {
+        return porNickname.size();
+    }
+}
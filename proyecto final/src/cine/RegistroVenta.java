@@ -0,0 +1,81 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registro inmutable de una venta de boletos dentro del {@link LibroVentas}.
+ * <p>
+ * Se guarda como una línea de texto:
+ * {@code secuencia|fechaHoraVenta|idFuncion|nickname|A1,A2|total}
+ * </p>
+ */
+public class RegistroVenta {
+
+    private static final String SEP = "|";
+
+    private final long secuencia;
+    private final LocalDateTime fechaHora;
+    private final String idFuncion;
+    private final String nickname;
+    private final List<String> asientos;
+    private final double total;
+
+    public RegistroVenta(long secuencia, LocalDateTime fechaHora, String idFuncion, String nickname,
+                         List<String> asientos, double total) {
+        this.secuencia = secuencia;
+        this.fechaHora = fechaHora;
+        this.idFuncion = idFuncion;
+        this.nickname = nickname;
+        this.asientos = Collections.unmodifiableList(new ArrayList<>(asientos));
+        this.total = total;
+    }
+
+    /**
+     * Convierte el registro en su línea de texto (sin salto de línea).
+     */
+    public String aLinea() {
+        return String.join(SEP,
+                String.valueOf(secuencia),
+                fechaHora.toString(),
+                limpiar(idFuncion),
+                limpiar(nickname),
+                String.join(",", asientos),
+                String.valueOf(total));
+    }
+
+    /**
+     * Reconstruye un registro desde su línea de texto.
+     *
+     * @return el registro, o null si la línea está incompleta o dañada
+     */
+    public static RegistroVenta desdeLinea(String linea) {
+        if (linea == null || linea.isBlank()) return null;
+        String[] cols = linea.split("\\|", -1);
+        if (cols.length < 6) return null;
+        try {
+            List<String> asientos = new ArrayList<>();
+            for (String a : cols[4].split(",")) {
+                if (!a.isEmpty()) asientos.add(a);
+            }
+            return new RegistroVenta(Long.parseLong(cols[0]), LocalDateTime.parse(cols[1]),
+                    cols[2], cols[3], asientos, Double.parseDouble(cols[5]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String limpiar(String s) {
+        if (s == null) return "";
+        return s.replace(SEP, " ").replaceAll("[\\r\\n]+", " ");
+    }
+
+    public long getSecuencia() { return secuencia; }
+    public LocalDateTime getFechaHora() { return fechaHora; }
+    public String getIdFuncion() { return idFuncion; }
+    public String getNickname() { return nickname; }
+    public List<String> getAsientos() { return asientos; }
+    public double getTotal() { return total; }
+}
@@ -0,0 +1,64 @@
+package cine;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.Future;
+
+/**
+ * Fuente del tiempo de la aplicación: hora actual, pausas, tareas programadas y
+ * números aleatorios.
+ * <p>
+ * Las clases que esperan o ponen fecha (pago, barra de progreso, cocina, órdenes,
+ * historiales) la piden a {@link #getInstancia()} en lugar de llamar a
+ * {@code Thread.sleep} o {@code LocalDateTime.now()}. Hay dos implementaciones:
+ * <ul>
+ *   <li>{@link RelojReal}: el tiempo del sistema (la que usa la aplicación).</li>
+ *   <li>{@link RelojVirtual}: tiempo simulado que avanza de evento en evento, tan
+ *       rápido como se puedan ejecutar; con la misma semilla la simulación se
+ *       repite idéntica.</li>
+ * </ul>
+ * Se cambia con {@link #usar(Reloj)}, igual que el almacenamiento en
+ * {@link GestorArchivos#usarAlmacenamiento}.
+ * </p>
+ */
+public abstract class Reloj {
+
+    private static volatile Reloj actual = new RelojReal();
+
+    /** @return reloj activo */
+    public static Reloj getInstancia() {
+        return actual;
+    }
+
+    /**
+     * Cambia el reloj activo (antes de crear cocina, órdenes, etc.).
+     */
+    public static void usar(Reloj reloj) {
+        actual = reloj;
+    }
+
+    /** @return ms desde la época (1970-01-01T00:00Z) */
+    public abstract long milis();
+
+    /**
+     * Pausa el hilo que llama. En tiempo virtual no bloquea: avanza el reloj.
+     */
+    public abstract void dormir(long ms) throws InterruptedException;
+
+    /**
+     * Ejecuta la tarea dentro de {@code ms} (0 = en cuanto se pueda).
+     *
+     * @return futuro para cancelarla
+     */
+    public abstract Future<?> programar(long ms, Runnable tarea);
+
+    /** @return generador aleatorio (con semilla fija en tiempo virtual) */
+    public abstract Random aleatorio();
+
+    /** @return fecha y hora actual en la zona del sistema */
+    public LocalDateTime ahora() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(milis()), ZoneId.systemDefault());
+    }
+}
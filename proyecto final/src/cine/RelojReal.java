@@ -0,0 +1,59 @@
+package cine;
+
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloj del sistema: {@code System.currentTimeMillis}, {@code Thread.sleep} y un
+ * planificador compartido de pocos hilos para las tareas programadas.
+ */
+public class RelojReal extends Reloj {
+
+    // Hilos del planificador (-Dcine.hilosReloj=N): solo ejecutan pasos cortos
+    private static final int HILOS = Integer.getInteger("cine.hilosReloj", 2);
+
+    private volatile ScheduledThreadPoolExecutor planificador = null;
+
+    @Override
+    public long milis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void dormir(long ms) throws InterruptedException {
+        Thread.sleep(ms);
+    }
+
+    @Override
+    public Future<?> programar(long ms, Runnable tarea) {
+        return planificador().schedule(tarea, ms, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Random aleatorio() {
+        return ThreadLocalRandom.current();
+    }
+
+    /** El planificador se crea al primer uso: muchas ejecuciones nunca programan nada. */
+    private ScheduledThreadPoolExecutor planificador() {
+        ScheduledThreadPoolExecutor p = planificador;
+        if (p == null) {
+            synchronized (this) {
+                if (planificador == null) {
+                    p = new ScheduledThreadPoolExecutor(HILOS, r -> {
+                        Thread t = new Thread(r, "reloj");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    p.setRemoveOnCancelPolicy(true);
+                    planificador = p;
+                }
+                p = planificador;
+            }
+        }
+        return p;
+    }
+}
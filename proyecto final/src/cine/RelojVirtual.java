@@ -0,0 +1,143 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Reloj simulado: el tiempo solo avanza cuando se pide, saltando de un evento
+ * programado al siguiente.
+ * <p>
+ * Los eventos se guardan en una cola de prioridad por (instante, orden de llegada)
+ * y se ejecutan en el hilo que avanza el reloj ({@link #dormir}, {@link #correrHasta}
+ * o {@link #correrTodo}). Un sábado completo de cocina son unos cuantos miles de
+ * eventos: se simula en segundos.
+ * </p>
+ * <p>
+ * Determinismo: con la misma semilla y el mismo guion, el orden de los eventos y los
+ * números aleatorios son los mismos. Para eso la simulación debe correr en un solo
+ * hilo, y las tareas programadas no deben llamar a {@link #dormir} (deben programar
+ * su continuación).
+ * </p>
+ */
+public class RelojVirtual extends Reloj {
+
+    private final PriorityQueue<Evento> eventos = new PriorityQueue<>();
+    private final Random aleatorio;
+    private long tiempo;
+    private long secuencia = 0;
+    private long ejecutados = 0;
+
+    /**
+     * @param inicio  fecha y hora inicial (zona del sistema)
+     * @param semilla semilla de los números aleatorios
+     */
+    public RelojVirtual(LocalDateTime inicio, long semilla) {
+        this.tiempo = inicio.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        this.aleatorio = new Random(semilla);
+    }
+
+    @Override
+    public synchronized long milis() {
+        return tiempo;
+    }
+
+    /** Avanza el reloj {@code ms}, ejecutando los eventos que vencen en ese lapso. */
+    @Override
+    public void dormir(long ms) {
+        correrHasta(milis() + ms);
+    }
+
+    @Override
+    public synchronized Future<?> programar(long ms, Runnable tarea) {
+        FutureTask<Void> f = new FutureTask<>(tarea, null);
+        eventos.add(new Evento(tiempo + Math.max(0, ms), secuencia++, f));
+        return f;
+    }
+
+    @Override
+    public Random aleatorio() {
+        return aleatorio;
+    }
+
+    /**
+     * Ejecuta, en orden, todos los eventos hasta el instante indicado y deja el reloj ahí.
+     */
+    public void correrHasta(long instante) {
+        while (true) {
+            Evento e;
+            synchronized (this) {
+                e = eventos.peek();
+                if (e == null || e.instante > instante) {
+                    tiempo = Math.max(tiempo, instante);
+                    return;
+                }
+                eventos.poll();
+                tiempo = e.instante;
+                ejecutados++;
+            }
+            ejecutar(e);
+        }
+    }
+
+    /** Ejecuta hasta la fecha y hora indicada. */
+    public void correrHasta(LocalDateTime instante) {
+        correrHasta(instante.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    /**
+     * Ejecuta eventos hasta que no quede ninguno.
+     */
+    public void correrTodo() {
+        while (true) {
+            Evento e;
+            synchronized (this) {
+                e = eventos.poll();
+                if (e == null) return;
+                tiempo = e.instante;
+                ejecutados++;
+            }
+            ejecutar(e);
+        }
+    }
+
+    /** @return eventos pendientes */
+    public synchronized int getPendientes() {
+        return eventos.size();
+    }
+
+    /** @return eventos ejecutados desde el inicio */
+    public synchronized long getEjecutados() {
+        return ejecutados;
+    }
+
+    private static void ejecutar(Evento e) {
+        e.tarea.run(); // si se canceló no hace nada
+        try {
+            if (!e.tarea.isCancelled()) e.tarea.get();
+        } catch (Exception ex) {
+            System.err.println("Error en evento simulado: " + ex.getCause());
+        }
+    }
+
+    private static final class Evento implements Comparable<Evento> {
+        final long instante;
+        final long orden;
+        final FutureTask<Void> tarea;
+
+        Evento(long instante, long orden, FutureTask<Void> tarea) {
+            this.instante = instante;
+            this.orden = orden;
+            this.tarea = tarea;
+        }
+
+        @Override
+        public int compareTo(Evento o) {
+            if (instante != o.instante) return Long.compare(instante, o.instante);
+            return Long.compare(orden, o.orden);
+        }
+    }
+}
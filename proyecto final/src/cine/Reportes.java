@@ -1,7 +1,11 @@
 package cine;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.TreeMap;
 
 /**
  * Clase de Reportes administrativos.
@@ -11,6 +15,9 @@ public class Reportes {
     /** Instancia central del sistema */
     private static final SistemaAutenticacion sistema = SistemaAutenticacion.getInstancia();
 
+    /** Compras mostradas por página en el historial de un cliente */
+    private static final int TAM_PAGINA_HISTORIAL = 20;
+
     /* ============================================================
      *  1. BUSCAR CLIENTE POR NICKNAME
      * ============================================================ */
@@ -41,14 +48,16 @@ public class Reportes {
     /* ============================================================
      *  2. MOSTRAR HISTORIAL DE COMPRAS
      * ============================================================ */
-    public static void mostrarPeliculasCompradas(Cliente cliente) {
+    public static void mostrarPeliculasCompradas(Cliente cliente, Scanner sc) {
 
         if (cliente == null) {
             System.out.println("Cliente inválido.");
             return;
         }
 
-        if (cliente.getHistorialCompras().isEmpty()) {
+        HistorialCompras historial = cliente.getHistorialCompras();
+
+        if (historial.estaVacio()) {
             System.out.println("\nEl cliente no ha realizado compras.");
             return;
         }
@@ -58,22 +67,27 @@ public class Reportes {
         System.out.println("Nombre: " + cliente.getNombreCompleto());
         System.out.println("----------------------------------");
 
-        for (CompraBoletos compra : cliente.getHistorialCompras()) {
-
-            FuncionDeCine funcion = compra.getFuncion();
+        // Se recorre por páginas: solo una página del historial vive en memoria.
+        // Se pregunta antes de mostrar la siguiente, así no se pregunta si ya no hay más.
+        final boolean[] primera = {true};
+        historial.recorrerPaginas(TAM_PAGINA_HISTORIAL, pagina -> {
 
-            System.out.println("Película: " + funcion.getPelicula().getNombre());
-            System.out.println("Sala: " + funcion.getSala().getIdSala());
-            System.out.println("Fecha y hora: " + funcion.getFechaHora());
-            System.out.println("Boletos: " + compra.getBoletos().size());
-
-            System.out.print("Asientos: ");
-            for (Boleto b : compra.getBoletos()) {
-                System.out.print(b.getAsientoAsignado() + " ");
+            if (!primera[0]) {
+                System.out.print("Enter para ver más o 'q' para terminar: ");
+                if ("q".equalsIgnoreCase(sc.nextLine().trim())) return false;
             }
-
-            System.out.println("\n----------------------------------");
-        }
+            primera[0] = false;
+
+            for (HistorialCompras.Registro compra : pagina) {
+                System.out.println("Película: " + compra.getPelicula());
+                System.out.println("Sala: " + compra.getSala());
+                System.out.println("Fecha y hora: " + compra.getFechaHoraFuncion());
+                System.out.println("Boletos: " + compra.getAsientos().size());
+                System.out.println("Asientos: " + String.join(" ", compra.getAsientos()));
+                System.out.println("----------------------------------");
+            }
+            return true;
+        });
     }
 
     /* ============================================================
@@ -83,7 +97,40 @@ public class Reportes {
         System.out.println("\n=== HISTORIAL DEL VENDEDOR " +
                 nickname.toUpperCase() + " ===");
 
-        String contenido = GestorArchivos.leerNotificacion(nickname);
+        String contenido = GestorArchivos.leerHistorialVendedor(nickname);
         System.out.println(contenido);
     }
+
+    /* ============================================================
+     *  4. VENTAS DEL DÍA (desde el libro de ventas)
+     * ============================================================ */
+    public static void mostrarVentasDelDia(LocalDate dia) {
+
+        List<RegistroVenta> ventas = LibroVentas.getInstancia().ventasDelDia(dia);
+
+        if (ventas.isEmpty()) {
+            System.out.println("\nNo hay ventas registradas el " + dia + ".");
+            return;
+        }
+
+        System.out.println("\n=== VENTAS DEL " + dia + " ===");
+
+        Map<String, Integer> boletosPorFuncion = new TreeMap<>();
+        int boletos = 0;
+        double total = 0;
+
+        for (RegistroVenta v : ventas) {
+            boletosPorFuncion.merge(v.getIdFuncion(), v.getAsientos().size(), Integer::sum);
+            boletos += v.getAsientos().size();
+            total += v.getTotal();
+        }
+
+        for (Map.Entry<String, Integer> e : boletosPorFuncion.entrySet()) {
+            System.out.println(e.getKey() + " -> " + e.getValue() + " boletos");
+        }
+
+        System.out.println("----------------------------------");
+        System.out.println("Ventas: " + ventas.size() + " | Boletos: " + boletos);
+        System.out.printf("Total: $%.2f%n", total);
+    }
 }
@@ -0,0 +1,86 @@
+package cine;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta inmutable del banco a un cobro de la {@link PasarelaPago}.
+ * <p>
+ * Un declinado {@linkplain #isReintentable() reintentable} es una falla del banco o
+ * de la conexión (no respondió, no estaba disponible), no del cliente: volver a
+ * intentar puede aprobarse. Uno no reintentable (fondos, tarjeta) se queda así.
+ * </p>
+ * <p>
+ * Un declinado reintentable es un resultado incierto: el banco pudo haber cargado
+ * y no alcanzó a avisar. La {@link PasarelaResiliente} pide anular esos cobros, así
+ * que un cargo que el banco apruebe tarde se devuelve.
+ * </p>
+ */
+public class ResultadoPago {
+
+    private final String referencia;
+    private final long centavos;
+    private final boolean aprobado;
+    private final String operacion;
+    private final String motivo;
+    private final LocalDateTime fechaHora;
+    private final boolean reintentable;
+
+    /**
+     * @param operacion número de operación del banco ("" si se declinó)
+     * @param motivo    por qué se declinó ("" si se aprobó)
+     */
+    public ResultadoPago(String referencia, long centavos, boolean aprobado, String operacion,
+                         String motivo, LocalDateTime fechaHora) {
+        this(referencia, centavos, aprobado, operacion, motivo, fechaHora, false);
+    }
+
+    /**
+     * @param reintentable si el declinado se debe a una falla del banco (ignorado si se aprobó)
+     */
+    public ResultadoPago(String referencia, long centavos, boolean aprobado, String operacion,
+                         String motivo, LocalDateTime fechaHora, boolean reintentable) {
+        this.referencia = referencia;
+        this.centavos = centavos;
+        this.aprobado = aprobado;
+        this.operacion = operacion;
+        this.motivo = motivo;
+        this.fechaHora = fechaHora;
+        this.reintentable = !aprobado && reintentable;
+    }
+
+    public String getReferencia() {
+        return referencia;
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public boolean isAprobado() {
+        return aprobado;
+    }
+
+    public String getOperacion() {
+        return operacion;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    /** @return true si se declinó por una falla del banco y se puede volver a intentar */
+    public boolean isReintentable() {
+        return reintentable;
+    }
+
+    @Override
+    public String toString() {
+        return aprobado
+                ? String.format("Pago aprobado: $%.2f, operación %s", centavos / 100.0, operacion)
+                : String.format("Pago declinado: $%.2f (%s)", centavos / 100.0, motivo);
+    }
+}
@@ -0,0 +1,211 @@
+package cine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vendedores de dulcería en memoria, ordenados por carga para repartir órdenes.
+ * <p>
+ * Cada vendedor tiene un {@link Puesto} con su carga actual (órdenes en su cola más
+ * la que prepara) y el total que se le ha asignado. Los puestos viven en un
+ * {@link ConcurrentSkipListSet} ordenado por (carga, asignadas, id): el menos
+ * cargado es el primero, y asignarle una orden es sacarlo, sumarle y volverlo a
+ * meter, O(log n). Con la misma carga gana el que menos órdenes ha recibido, así
+ * que el reparto también es justo a lo largo del turno.
+ * </p>
+ * <p>
+ * El conjunto no guarda los puestos sino una {@link Clave} inmutable con su carga
+ * y asignadas en ese momento: cambiar la carga es sacar la clave vieja y meter una
+ * nueva, con el monitor del puesto tomado. Así una búsqueda concurrente que todavía
+ * recorre un nodo ya borrado nunca ve su orden cambiar. Entre leer el primero y
+ * tomarlo otro hilo puede ganarlo; en ese caso se vuelve a leer.
+ * </p>
+ */
+public class RosterVendedores {
+
+    private static final AtomicLong SECUENCIA = new AtomicLong();
+
+    private final ConcurrentSkipListSet<Clave> puestos = new ConcurrentSkipListSet<>((a, b) -> {
+        if (a.carga != b.carga) return Integer.compare(a.carga, b.carga);
+        if (a.asignadas != b.asignadas) return Long.compare(a.asignadas, b.asignadas);
+        return Long.compare(a.puesto.id, b.puesto.id);
+    });
+
+    /**
+     * Agrega un puesto (con carga cero) al reparto.
+     */
+    public void agregar(Puesto p) {
+        synchronized (p) {
+            p.activo = true;
+            p.clave = new Clave(p);
+            puestos.add(p.clave);
+        }
+    }
+
+    /**
+     * Saca un puesto del reparto; no vuelve a recibir órdenes.
+     */
+    public void retirar(Puesto p) {
+        synchronized (p) {
+            p.activo = false;
+            if (p.clave != null) puestos.remove(p.clave);
+        }
+    }
+
+    /**
+     * Asigna una orden al puesto menos cargado.
+     *
+     * @return el puesto (ya con la carga sumada), o null si no hay ninguno
+     */
+    public Puesto asignar() {
+        while (true) {
+            Clave c;
+            try {
+                c = puestos.first();
+            } catch (NoSuchElementException e) {
+                return null;
+            }
+            Puesto p = c.puesto;
+            synchronized (p) {
+                if (p.clave != c || !puestos.remove(c)) continue; // otro hilo lo tomó o se retiró
+                p.carga++;
+                p.asignadas++;
+                p.clave = new Clave(p);
+                puestos.add(p.clave);
+                return p;
+            }
+        }
+    }
+
+    /**
+     * Resta una orden terminada (o reasignada) de la carga del puesto.
+     */
+    public void liberar(Puesto p) {
+        synchronized (p) {
+            boolean estaba = p.clave != null && puestos.remove(p.clave);
+            p.carga--;
+            reubicar(p, estaba);
+        }
+    }
+
+    /**
+     * @return el puesto más cargado, o null si no hay ninguno
+     */
+    public Puesto masCargado() {
+        try {
+            return puestos.last().puesto;
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Pasa una orden ya asignada de un puesto a otro (cuando un vendedor libre la
+     * toma de la cola de otro).
+     */
+    public void mover(Puesto de, Puesto a) {
+        synchronized (de) {
+            boolean estaba = de.clave != null && puestos.remove(de.clave);
+            de.carga--;
+            de.asignadas--;
+            reubicar(de, estaba);
+        }
+        synchronized (a) {
+            boolean estaba = a.clave != null && puestos.remove(a.clave);
+            a.carga++;
+            a.asignadas++;
+            reubicar(a, estaba);
+        }
+    }
+
+    /** Nueva clave con los valores actuales; con el monitor del puesto tomado. */
+    private void reubicar(Puesto p, boolean estaba) {
+        p.clave = new Clave(p);
+        if (estaba) puestos.add(p.clave);
+    }
+
+    /** @return puestos activos, del menos al más cargado */
+    public List<Puesto> getPuestos() {
+        List<Puesto> lista = new ArrayList<>();
+        for (Clave c : puestos) lista.add(c.puesto);
+        return lista;
+    }
+
+    /** @return puestos activos */
+    public int getTamano() {
+        return puestos.size();
+    }
+
+    /**
+     * Índice de equidad de Jain sobre las órdenes asignadas: 1 = todos recibieron
+     * lo mismo; 1/n = uno recibió todo.
+     */
+    public double getIndiceEquidad() {
+        double suma = 0, sumaCuadrados = 0;
+        int n = 0;
+        for (Clave c : puestos) {
+            suma += c.asignadas;
+            sumaCuadrados += (double) c.asignadas * c.asignadas;
+            n++;
+        }
+        return sumaCuadrados == 0 ? 1 : suma * suma / (n * sumaCuadrados);
+    }
+
+    /** @return resumen de carga y reparto por vendedor */
+    public String resumen() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Equidad del reparto (Jain): %.3f", getIndiceEquidad()));
+        for (Clave c : puestos) {
+            sb.append(System.lineSeparator()).append("  ").append(c.puesto);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lugar de un vendedor en el reparto. La cocina lo extiende con su cola.
+     */
+    public static class Puesto {
+        private final long id = SECUENCIA.incrementAndGet();
+        private final VendedorDulceria vendedor;
+        // Se escriben con el monitor del puesto tomado
+        private volatile int carga = 0;
+        private volatile long asignadas = 0;
+        private boolean activo = false;
+        private Clave clave = null;
+
+        /**
+         * @param vendedor vendedor del puesto (null = "sin asignar")
+         */
+        public Puesto(VendedorDulceria vendedor) {
+            this.vendedor = vendedor;
+        }
+
+        public VendedorDulceria getVendedor() { return vendedor; }
+        public int getCarga() { return carga; }
+        public long getAsignadas() { return asignadas; }
+        public synchronized boolean isActivo() { return activo; }
+
+        @Override
+        public String toString() {
+            return (vendedor != null ? vendedor.getNickname() : "(sin asignar)")
+                    + " | carga: " + carga + " | asignadas: " + asignadas;
+        }
+    }
+
+    /** Foto inmutable de la posición de un puesto en el conjunto. */
+    private static final class Clave {
+        final int carga;
+        final long asignadas;
+        final Puesto puesto;
+
+        Clave(Puesto p) {
+            this.carga = p.carga;
+            this.asignadas = p.asignadas;
+            this.puesto = p;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package cine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hash de contraseñas con sal (PBKDF2 con HMAC-SHA256, incluido en el JDK).
+ * <p>
+ * Formato guardado: {@code pbkdf2$<iteraciones>$<sal base64>$<hash base64>}.
+ * Las iteraciones van dentro del propio registro, así que subir el costo no invalida
+ * las contraseñas existentes; {@link #necesitaRehash(String)} indica cuáles conviene
+ * volver a calcular.
+ * </p>
+ * <p>
+ * Un valor sin el prefijo {@code pbkdf2$} es una contraseña en texto plano de antes
+ * de la migración; {@link #verificar(String, String)} la sigue aceptando hasta que
+ * se migre.
+ * </p>
+ * Calcular un hash es deliberadamente caro: fuera de pruebas, usar
+ * {@link VerificadorContrasenas} para no cargar el hilo que atiende ventas.
+ */
+public final class SeguridadContrasenas {
+
+    /** Iteraciones de PBKDF2 (se puede cambiar con -Dcine.pbkdf2Iteraciones=N; ver TestSeguridadContrasenas). */
+    public static final int ITERACIONES = Integer.getInteger("cine.pbkdf2Iteraciones", 210_000);
+
+    private static final String PREFIJO = "pbkdf2$";
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+
+    private static final SecureRandom aleatorio = new SecureRandom();
+
+    private SeguridadContrasenas() {
+    }
+
+    /**
+     * @return hash con sal nueva y {@link #ITERACIONES} iteraciones
+     */
+    public static String hashear(String contrasena) {
+        return hashear(contrasena, ITERACIONES);
+    }
+
+    /**
+     * @param iteraciones costo del hash (mayor = más lento de adivinar y de verificar)
+     * @return hash con sal nueva en el formato guardado
+     */
+    public static String hashear(String contrasena, int iteraciones) {
+        byte[] sal = new byte[BYTES_SAL];
+        aleatorio.nextBytes(sal);
+        byte[] hash = pbkdf2(contrasena, sal, iteraciones);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIJO + iteraciones + "$" + b64.encodeToString(sal) + "$" + b64.encodeToString(hash);
+    }
+
+    /**
+     * Compara una contraseña contra lo guardado (hash o, antes de migrar, texto plano).
+     *
+     * @return true si coincide
+     */
+    public static boolean verificar(String contrasena, String almacenado) {
+        if (contrasena == null || almacenado == null) return false;
+        if (!esHash(almacenado)) {
+            return MessageDigest.isEqual(contrasena.getBytes(StandardCharsets.UTF_8),
+                    almacenado.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] partes = almacenado.split("\\$");
+        if (partes.length != 4) return false;
+        try {
+            int iteraciones = Integer.parseInt(partes[1]);
+            byte[] sal = Base64.getDecoder().decode(partes[2]);
+            byte[] esperado = Base64.getDecoder().decode(partes[3]);
+            // Comparación en tiempo constante
+            return MessageDigest.isEqual(esperado, pbkdf2(contrasena, sal, iteraciones));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Hash de contraseña mal formado: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** @return true si el valor ya es un hash (y no una contraseña en texto plano) */
+    public static boolean esHash(String almacenado) {
+        return almacenado != null && almacenado.startsWith(PREFIJO);
+    }
+
+    /** @return true si está en texto plano o se calculó con otro número de iteraciones */
+    public static boolean necesitaRehash(String almacenado) {
+        if (!esHash(almacenado)) return true;
+        int fin = almacenado.indexOf('$', PREFIJO.length());
+        return fin < 0 || !almacenado.substring(PREFIJO.length(), fin).equals(String.valueOf(ITERACIONES));
+    }
+
+    private static byte[] pbkdf2(String contrasena, byte[] sal, int iteraciones) {
+        PBEKeySpec spec = new PBEKeySpec(contrasena.toCharArray(), sal, iteraciones, BITS_HASH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            // PBKDF2WithHmacSHA256 viene en todo JDK desde la versión 8
+            throw new IllegalStateException("PBKDF2 no disponible: " + e.getMessage(), e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package cine;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulación de un sábado completo de dulcería (10:00 a 23:00) en tiempo virtual.
+ * Uso: java cine.SimulacionDulceria [semilla] [vendedores] [lugaresEnCola] [factorDemanda]
+ * <p>
+ * Los clientes llegan según una demanda por hora, pagan en un {@link BancoLocal} (2-5 s,
+ * 97% aprobado por defecto) y su orden entra a la {@link CocinaDulceria}. Todo
+ * corre sobre un {@link RelojVirtual}: el día entero tarda segundos, y con la misma
+ * semilla el resultado es idéntico (se corre dos veces y se comparan las huellas).
+ * </p>
+ * <p>
+ * La mayoría de los clientes compra antes de su función (que empieza cada cuarto de
+ * hora, de 5 a 40 minutos después): al final se compara FIFO contra EDF con la misma
+ * demanda, en el escenario pedido, con 30% más demanda y con un vendedor menos, y
+ * luego la cocina con y sin lotes ({@link LoteDulceria}) en los mismos escenarios.
+ * Por último se mide qué tan buena es la hora estimada que ve el cliente
+ * ({@link EstimadorCocina}) con tiempos nominales y aprendiendo de los lotes.
+ * </p>
+ */
+public class SimulacionDulceria {
+
+    /** Sábado de referencia. */
+    public static final LocalDateTime APERTURA = LocalDateTime.of(2026, 10, 24, 10, 0);
+    private static final int HORA_CIERRE = 23;
+
+    // Órdenes por hora de 10:00 a 22:00 (pico en las funciones de la noche)
+    private static final int[] DEMANDA = {30, 40, 60, 80, 90, 100, 120, 150, 200, 240, 220, 150, 60};
+
+    // Clientes que compran para una función
+    private static final int PORCENTAJE_CON_FUNCION = 80;
+
+    // Sabores más pedidos primero (se repiten para darles más peso)
+    private static final String[] SABOR_PALOMITAS = {"mantequilla", "mantequilla", "queso", "jalapeño"};
+    private static final String[] SABOR_REFRESCO = {"cola", "cola", "cola", "light", "naranja", "manzana", "toronja"};
+
+    private final long semilla;
+    private final int vendedores;
+    private final int lugares;
+    private final double factor;
+    private final CocinaDulceria.Politica politica;
+    private final int loteMax;
+    private boolean aprender = true;
+
+    private RelojVirtual reloj;
+    private Random clientes; // aparte del reloj: misma demanda con cualquier política
+    private BancoLocal banco;
+    private CocinaDulceria cocina;
+    private int llegadas, rechazadas, declinadas, llegadasHora;
+    private double ingresos;
+    private final List<String> porHora = new ArrayList<>();
+
+    public SimulacionDulceria(long semilla, int vendedores, int lugares, double factor,
+                              CocinaDulceria.Politica politica, int loteMax) {
+        this.semilla = semilla;
+        this.vendedores = vendedores;
+        this.lugares = lugares;
+        this.factor = factor;
+        this.politica = politica;
+        this.loteMax = loteMax;
+    }
+
+    public static void main(String[] args) {
+        long semilla = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        int vendedores = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int lugares = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        double factor = args.length > 3 ? Double.parseDouble(args[3]) : 1.0;
+
+        System.out.println("=== SIMULACIÓN DE UN SÁBADO EN LA DULCERÍA ===");
+        System.out.println("Semilla " + semilla + " | " + vendedores + " vendedores | "
+                + lugares + " lugares en cola | demanda x" + factor);
+
+        long ini = System.nanoTime();
+        final int lote = CocinaDulceria.LOTE_MAX_POR_DEFECTO;
+        final CocinaDulceria.Politica edf = CocinaDulceria.Politica.EDF;
+        SimulacionDulceria sim = new SimulacionDulceria(semilla, vendedores, lugares, factor, edf, lote);
+        long huella = sim.correr();
+        double seg = (System.nanoTime() - ini) / 1e9;
+        sim.imprimir();
+        System.out.printf("%nTiempo real: %.2f s para %.1f h simuladas (%,d eventos)%n", seg,
+                Duration.between(APERTURA, sim.reloj.ahora()).toMinutes() / 60.0, sim.reloj.getEjecutados());
+
+        long otra = new SimulacionDulceria(semilla, vendedores, lugares, factor, edf, lote).correr();
+        long distinta = new SimulacionDulceria(semilla + 1, vendedores, lugares, factor, edf, lote).correr();
+        System.out.println("Huella: " + Long.toHexString(huella));
+        System.out.println("Misma semilla, mismo resultado (Esperado true): " + (huella == otra));
+        System.out.println("Otra semilla, otro resultado (Esperado true): " + (huella != distinta));
+
+        int[] vend = {vendedores, vendedores, Math.max(1, vendedores - 1)};
+        double[] dem = {factor, factor * 1.3, factor};
+
+        System.out.println("\n--- FIFO contra EDF (misma demanda, sin lotes para aislar el orden) ---");
+        System.out.println("Vend. | Demanda | Política | Lote | Completadas | Órd./h vend. | Tarde         | Espera prom. | Espera máx.");
+        for (int i = 0; i < vend.length; i++) {
+            for (CocinaDulceria.Politica pol : CocinaDulceria.Politica.values()) {
+                fila(new SimulacionDulceria(semilla, vend[i], lugares, dem[i], pol, 1));
+            }
+        }
+
+        System.out.println("\n--- Con y sin lotes (misma demanda) ---");
+        System.out.println("Vend. | Demanda | Política | Lote | Completadas | Órd./h vend. | Tarde         | Espera prom. | Espera máx.");
+        for (int i = 0; i < vend.length; i++) {
+            for (int maximo : new int[]{1, lote}) {
+                fila(new SimulacionDulceria(semilla, vend[i], lugares, dem[i], edf, maximo));
+            }
+        }
+
+        System.out.println("\n--- Precisión de la hora estimada (contra la primera que ve el cliente) ---");
+        System.out.println("Vend. | Demanda | Estimación | Medidas | Error prom. | Sesgo      | Error p90  | Dentro de "
+                + EstimadorCocina.TOLERANCIA_MS / 60_000 + " min");
+        for (int i = 0; i < vend.length; i++) {
+            for (boolean aprende : new boolean[]{false, true}) {
+                SimulacionDulceria s = new SimulacionDulceria(semilla, vend[i], lugares, dem[i], edf, lote);
+                s.aprender = aprende;
+                s.correr();
+                EstimadorCocina e = s.cocina.getEstimador();
+                System.out.printf("%5d | x%-6.2f | %-10s | %7d | %7.1f min | %+6.1f min | %6.1f min | %5.1f%%%n",
+                        s.vendedores, s.factor, aprende ? "aprendida" : "nominal", e.getMedidas(),
+                        e.getErrorPromedioMs() / 60_000, e.getSesgoMs() / 60_000, e.getErrorP90Ms() / 60_000.0,
+                        e.getAciertos() * 100);
+            }
+        }
+    }
+
+    /** Corre una simulación y la imprime como fila de comparación. */
+    private static void fila(SimulacionDulceria s) {
+        s.correr();
+        CocinaDulceria c = s.cocina;
+        System.out.printf("%5d | x%-6.2f | %-8s | %4d | %11d | %12.1f | %5d (%5.1f%%) | %10.1f s | %7.1f min%n",
+                s.vendedores, s.factor, s.politica, s.loteMax, c.getCompletadas(), c.getOrdenesPorHoraVendedor(),
+                c.getAtrasadas(), c.getTasaAtraso() * 100, c.getEsperaPromedioMs() / 1000,
+                c.getEsperaMaxMs() / 60_000.0);
+    }
+
+    /**
+     * Corre el día completo y hasta que la cocina termina la última orden.
+     *
+     * @return huella del resultado (para comparar corridas)
+     */
+    public long correr() {
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        reloj = new RelojVirtual(APERTURA, semilla);
+        Reloj anterior = Reloj.getInstancia();
+        Reloj.usar(reloj);
+        try {
+            List<VendedorDulceria> lista = new ArrayList<>();
+            for (int i = 0; i < vendedores; i++) {
+                lista.add(new VendedorDulceria("Vendedor" + i, "Sim", "Sim", "sim" + i, "x",
+                        "sim@cine.com", "5500000000", "vespertino", "lunes"));
+            }
+            cocina = new CocinaDulceria(lista, lugares, reloj, politica);
+            cocina.usarLotes(loteMax);
+            cocina.getEstimador().setAprender(aprender);
+            cocina.usarRegistro(new RegistroOrdenes(GestorArchivos.getAlmacenamiento())); // las claves se repiten entre corridas
+            clientes = new Random(semilla);
+            banco = new BancoLocal(BancoLocal.LATENCIA_MIN_POR_DEFECTO, BancoLocal.LATENCIA_MAX_POR_DEFECTO,
+                    BancoLocal.APROBACION_POR_DEFECTO, clientes);
+
+            reloj.programar(0, this::llegada);
+            for (int h = 1; h <= HORA_CIERRE - APERTURA.getHour(); h++) {
+                reloj.programar(h * 3_600_000L, this::corte);
+            }
+            reloj.correrTodo();
+            return huella();
+        } finally {
+            Reloj.usar(anterior);
+        }
+    }
+
+    /** Llega un cliente y se programa el siguiente según la demanda de la hora. */
+    private void llegada() {
+        Random rnd = clientes;
+        int hora = reloj.ahora().getHour();
+        if (hora >= HORA_CIERRE) return;
+        llegadas++;
+        llegadasHora++;
+
+        if (!cocina.reservarLugar(0, TimeUnit.MILLISECONDS)) {
+            rechazadas++;
+        } else {
+            OrdenDulceria orden = combo(rnd);
+            orden.setClaveCompra("SIM-" + llegadas);
+            if (rnd.nextInt(100) < PORCENTAJE_CON_FUNCION) {
+                // La siguiente función en punto o a cuarto, de 5 a 40 minutos después
+                LocalDateTime inicio = reloj.ahora().plusMinutes(5 + rnd.nextInt(36));
+                int cuarto = (inicio.getMinute() + 14) / 15 * 15;
+                inicio = inicio.withMinute(0).withSecond(0).withNano(0).plusMinutes(cuarto);
+                orden.setFuncion("SIM:" + inicio.toLocalTime(), inicio);
+            }
+            banco.cobrar(orden.getClaveCompra(), orden.getTotalCentavos()).thenAccept(pago -> {
+                if (pago.isAprobado()) {
+                    ingresos += orden.calcularTotal();
+                    cocina.encolar(orden);
+                } else {
+                    declinadas++;
+                    cocina.liberarLugar();
+                }
+            });
+        }
+
+        double porHoraActual = DEMANDA[Math.min(hora - APERTURA.getHour(), DEMANDA.length - 1)] * factor;
+        long siguiente = (long) (-Math.log(1 - rnd.nextDouble()) / porHoraActual * 3_600_000);
+        reloj.programar(siguiente, this::llegada);
+    }
+
+    /**
+     * Combo al azar como los del menú (precios fijos: la simulación no lee precios/).
+     */
+    private static OrdenDulceria combo(Random rnd) {
+        int ref = 1 + rnd.nextInt(3);
+        int nac = rnd.nextInt(2);
+        OrdenDulceria o = new OrdenDulceria();
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO,
+                SABOR_PALOMITAS[rnd.nextInt(SABOR_PALOMITAS.length)], 1, 9500);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO,
+                SABOR_REFRESCO[rnd.nextInt(SABOR_REFRESCO.length)], ref, 7000);
+        o.agregar(ProductoDulceria.NACHOS, TamanoDulceria.JUMBO, "", nac, 8000);
+        return o;
+    }
+
+    /** Foto de cada hora. */
+    private void corte() {
+        porHora.add(String.format("%02d:00 | llegadas %4d | en cola %4d | completadas %5d | espera prom. %6.1f min",
+                reloj.ahora().getHour(), llegadasHora, cocina.getEnCola(), cocina.getCompletadas(),
+                cocina.getEsperaPromedioMs() / 60_000));
+        llegadasHora = 0;
+    }
+
+    private long huella() {
+        long h = reloj.milis();
+        long[] valores = {llegadas, rechazadas, declinadas, cocina.getCompletadas(), cocina.getMaxEnCola(),
+                cocina.getAtrasadas(), cocina.getAtrasoMaxMs(), cocina.getLotes(),
+                cocina.getEsperaMaxMs(), Double.doubleToLongBits(cocina.getEsperaPromedioMs()),
+                Double.doubleToLongBits(ingresos), reloj.getEjecutados()};
+        for (long v : valores) h = h * 31 + v;
+        for (RosterVendedores.Puesto p : cocina.getRoster().getPuestos()) h = h * 31 + p.getAsignadas();
+        return h;
+    }
+
+    private void imprimir() {
+        System.out.println();
+        for (String linea : porHora) System.out.println(linea);
+        System.out.println();
+        System.out.println("Llegadas: " + llegadas + " | Rechazadas por cola llena: " + rechazadas
+                + " | Pagos declinados: " + declinadas);
+        System.out.printf("Ingresos de dulcería: $%,.2f%n", ingresos);
+        System.out.println("Última orden lista: " + reloj.ahora().toLocalTime());
+        System.out.println(cocina.resumen());
+        System.out.println(cocina.getRegistro().resumen());
+    }
+}
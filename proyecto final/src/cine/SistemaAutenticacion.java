@@ -1,8 +1,13 @@
 package cine;
 
-import java.util.List;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Gestor central de autenticación y registro de usuarios.
@@ -10,8 +15,12 @@ import java.util.Scanner;
  * <p>
  * Provee:
  * <ul>
- *   <li>Pantalla inicial (registro cliente / inicio sesión)</li>
- *   <li>Carga y guardado de clientes y empleados usando {@link GestorArchivos}</li>
+ *   <li>Pantalla inicial (registro cliente / inicio sesión / reanudar sesión con token)</li>
+ *   <li>Carga y guardado de clientes y empleados en el {@link Almacenamiento} activo de {@link GestorArchivos}</li>
+ *   <li>Registro concurrente de usuarios ({@link RegistroUsuarios}): se pueden dar de alta
+ *       e iniciar sesión desde varios hilos sin nicknames duplicados</li>
+ *   <li>Filtro de Bloom de nicknames ({@link FiltroBloom}) guardado en
+ *       {@code nicknames.bloom}: un nickname libre se confirma sin consultar el registro</li>
  *   <li>Singleton accesible mediante {@link #getInstancia()}</li>
  *   <li>Redirección a menús según tipo de usuario</li>
  * </ul>
@@ -26,12 +35,40 @@ public class SistemaAutenticacion {
     private static final Scanner sc = new Scanner(System.in);
 
     // ----- Datos en memoria -----
-    private List<Cliente> clientes;
-    private List<Empleado> empleados;
+    // Clientes y empleados con índice por nickname (login y unicidad en O(1))
+    private final RegistroUsuarios registro = new RegistroUsuarios();
+
+    // Serializa las escrituras de la lista de empleados
+    private final Object candadoEmpleados = new Object();
+
+    // Altas de clientes (lectura: concurrentes entre sí) contra el guardado completo
+    // (escritura): la copia que se guarda incluye toda alta ya guardada, así no la pisa
+    private final ReentrantReadWriteLock candadoClientes = new ReentrantReadWriteLock();
+
+    // Migración de contraseñas en texto plano del arranque (0 migradas si no hubo)
+    private CompletableFuture<Integer> migracion = CompletableFuture.completedFuture(0);
+
+    // Intentos de inicio de sesión: 5 seguidos por nickname (uno más por minuto) y
+    // 30 por terminal (uno más cada 2 s). Se revisan antes de calcular el hash.
+    private final LimitadorIntentos intentosPorNickname =
+            new LimitadorIntentos("nickname", 5, 60_000, 100_000);
+    private final LimitadorIntentos intentosPorTerminal =
+            new LimitadorIntentos("terminal", 30, 2_000, 10_000);
 
-    // Rutas (usadas por GestorArchivos)
-    private static final String ARCHIVO_CLIENTES_DAT = "ArchivosAplicacion/clientes.dat";
-    private static final String ARCHIVO_EMPLEADOS_DAT = "ArchivosAplicacion/empleados.dat";
+    // Identificador de este quiosco (-Dcine.terminal=...)
+    private static final String TERMINAL = System.getProperty("cine.terminal",
+            "quiosco-" + ProcessHandle.current().pid());
+
+    // Hilos de baja prioridad para migrar contraseñas en texto plano (-Dcine.hilosMigracion=N)
+    private static final int HILOS_MIGRACION = Integer.getInteger("cine.hilosMigracion",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+
+    // Almacenamiento activo (archivos, memoria o JDBC)
+    private final Almacenamiento almacen = GestorArchivos.getAlmacenamiento();
+
+    // Filtro de nicknames: se guarda junto a los datos cuando el almacenamiento es de archivos
+    private static final Path ARCHIVO_FILTRO = Paths.get(GestorArchivos.RUTA_BASE, "nicknames.bloom");
+    private static final int CAPACIDAD_MINIMA_FILTRO = 100_000;
 
     // Singleton (accesible desde Reportes y otras clases)
     private static SistemaAutenticacion instancia = null;
@@ -48,7 +85,14 @@ public class SistemaAutenticacion {
         // inicializa estructura de archivos y carga listas
         GestorArchivos.inicializarSistema();
         cargarDatos();
+        prepararFiltroNicknames();
         inicializarAdministradorPorDefecto();
+        // -Dcine.migrarContrasenas=false la desactiva (solo para benchmarks)
+        if (Boolean.parseBoolean(System.getProperty("cine.migrarContrasenas", "true"))) {
+            migrarContrasenas();
+        }
+        intentosPorNickname.programarPurga(1, TimeUnit.MINUTES);
+        intentosPorTerminal.programarPurga(1, TimeUnit.MINUTES);
 
         // Si no hay instancia singleton registrada, la registramos para mantener
         // consistencia en el resto del sistema.
@@ -73,25 +117,85 @@ public class SistemaAutenticacion {
     /* -------------------- Carga / Guardado -------------------- */
 
     /**
-     * Carga listas de clientes y empleados desde disco usando GestorArchivos.
+     * Carga listas de clientes y empleados desde el almacenamiento.
      */
-    @SuppressWarnings("unchecked")
     private void cargarDatos() {
-        // GestorArchivos devuelve listas (vacías) si el archivo no existe o hay error,
-        // por lo que podemos asignar directamente.
-        clientes = GestorArchivos.cargarClientes(ARCHIVO_CLIENTES_DAT);
-        empleados = GestorArchivos.cargarEmpleados(ARCHIVO_EMPLEADOS_DAT);
+        // Ambos devuelven listas (vacías) si no hay datos o hay error.
+        // Los empleados van primero: si un nickname se repitiera, gana el empleado
+        // (mismo orden en que antes se revisaban las listas al iniciar sesión)
+        registro.cargar(almacen.cargarEmpleados(), almacen.cargarClientes());
+    }
 
-        if (clientes == null) clientes = new ArrayList<>();
-        if (empleados == null) empleados = new ArrayList<>();
+    /**
+     * Usa el filtro de nicknames guardado si corresponde a los usuarios cargados (mismo
+     * total, misma tasa de falsos positivos y aún dentro de su capacidad); si no, lo
+     * reconstruye con el doble de capacidad que usuarios hay. El filtro se guarda al
+     * cerrar la aplicación; si se cierra de golpe, el total no cuadra y se reconstruye.
+     */
+    private void prepararFiltroNicknames() {
+        boolean enArchivos = almacen instanceof AlmacenamientoArchivos;
+        FiltroBloom filtro = enArchivos ? FiltroBloom.cargar(ARCHIVO_FILTRO) : null;
+        int total = registro.getTotal();
+        if (filtro == null || filtro.getInsertados() != total
+                || filtro.getFpObjetivo() != FiltroBloom.FP_POR_DEFECTO
+                || filtro.getInsertados() > filtro.getCapacidad()) {
+            filtro = new FiltroBloom(Math.max(CAPACIDAD_MINIMA_FILTRO, 2L * total), FiltroBloom.FP_POR_DEFECTO);
+            for (Empleado e : registro.getEmpleados()) filtro.agregar(e.getNickname());
+            for (Cliente c : registro.getClientes()) filtro.agregar(c.getNickname());
+            if (enArchivos) filtro.guardar(ARCHIVO_FILTRO);
+        }
+        registro.usarFiltro(filtro);
+        if (enArchivos) {
+            FiltroBloom guardar = filtro;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> guardar.guardar(ARCHIVO_FILTRO),
+                    "guardado-filtro-nicknames"));
+        }
     }
 
     /**
-     * Persiste las listas actuales de clientes y empleados en disco.
+     * Persiste las listas actuales de clientes y empleados.
      */
     public void guardarDatos() {
-        GestorArchivos.guardarClientes(clientes, ARCHIVO_CLIENTES_DAT);
-        GestorArchivos.guardarEmpleados(empleados, ARCHIVO_EMPLEADOS_DAT);
+        candadoClientes.writeLock().lock();
+        try {
+            almacen.guardarClientes(registro.getClientes());
+        } finally {
+            candadoClientes.writeLock().unlock();
+        }
+        guardarEmpleados();
+    }
+
+    /**
+     * Persiste solo la lista de empleados. La copia se toma dentro del candado para
+     * que una escritura vieja nunca pise a una más reciente.
+     */
+    private void guardarEmpleados() {
+        synchronized (candadoEmpleados) {
+            almacen.guardarEmpleados(registro.getEmpleados());
+        }
+    }
+
+    /**
+     * Convierte a hash, en segundo plano, las contraseñas guardadas en texto plano y
+     * al terminar persiste todo (con el candado de clientes: no pisa las altas que
+     * llegaron mientras tanto). Mientras tanto, el inicio de sesión sigue aceptando
+     * las contraseñas aún no migradas.
+     */
+    private void migrarContrasenas() {
+        List<Persona> usuarios = new ArrayList<>(registro.getEmpleados());
+        usuarios.addAll(registro.getClientes());
+        migracion = VerificadorContrasenas.migrar(usuarios, HILOS_MIGRACION).whenComplete((migradas, error) -> {
+            if (error != null) {
+                System.err.println("Error migrando contraseñas: " + error.getMessage());
+            } else if (migradas > 0) {
+                guardarDatos();
+            }
+        });
+    }
+
+    /** @return futuro de la migración de contraseñas del arranque, ya guardada (pruebas) */
+    CompletableFuture<Integer> getMigracion() {
+        return migracion;
     }
 
     /**
@@ -99,17 +203,14 @@ public class SistemaAutenticacion {
      * Si no existe lo crea, lo agrega a la lista y guarda los datos.
      */
     private void inicializarAdministradorPorDefecto() {
-        boolean adminExiste = empleados.stream()
-                .anyMatch(emp -> emp.getNickname() != null && "elAdministrador".equalsIgnoreCase(emp.getNickname()));
-
-        if (!adminExiste) {
-            Administrador adminDefault = new Administrador(
-                    "Administrador", "Sistema", "PorDefecto",
-                    "elAdministrador", "3l4dm1n", "admin@cine.com",
-                    "5512345678", "matutino", "entre semana"
-            );
-            empleados.add(adminDefault);
-            guardarDatos();
+        Administrador adminDefault = new Administrador(
+                "Administrador", "Sistema", "PorDefecto",
+                "elAdministrador", "3l4dm1n", "admin@cine.com",
+                "5512345678", "matutino", "entre semana"
+        );
+
+        if (registro.registrar(adminDefault)) {
+            guardarEmpleados();
             System.out.println("Administrador por defecto creado: elAdministrador / 3l4dm1n");
         }
     }
@@ -125,7 +226,8 @@ public class SistemaAutenticacion {
             System.out.println("\n=== CINE APP ===");
             System.out.println("1. Nuevo registro de cliente");
             System.out.println("2. Ingreso al sistema");
-            System.out.println("3. Salir");
+            System.out.println("3. Reanudar sesión con token");
+            System.out.println("4. Salir");
             System.out.print("Seleccione una opción: ");
 
             String opcion = sc.nextLine().trim();
@@ -138,6 +240,9 @@ public class SistemaAutenticacion {
                     iniciarSesion();
                     break;
                 case "3":
+                    reanudarSesion();
+                    break;
+                case "4":
                     System.out.println("¡Hasta pronto!");
                     return;
                 default:
@@ -229,16 +334,23 @@ public class SistemaAutenticacion {
             System.out.print("\n¿Los datos son correctos? (s/n): ");
             String respuesta = sc.nextLine().trim();
 
-            if (respuesta.equalsIgnoreCase("s")) {
-                datosCorrectos = true;
-            } else {
+            if (!respuesta.equalsIgnoreCase("s")) {
                 System.out.println("Reingrese los datos.");
+            } else {
+                try {
+                    if (registrarCliente(nuevoCliente)) {
+                        datosCorrectos = true;
+                    } else {
+                        // Alguien más tomó el nickname mientras se capturaban los datos
+                        System.out.println("El nickname " + nuevoCliente.getNickname()
+                                + " acaba de ser registrado por otro usuario. Reingrese los datos.");
+                    }
+                } catch (SistemaOcupadoException e) {
+                    System.out.println("El sistema está ocupado en este momento. Reingrese los datos en unos segundos.");
+                }
             }
         }
 
-        clientes.add(nuevoCliente);
-        guardarDatos();
-
         System.out.println("\nRegistro exitoso! Mostrando mensaje por 5 segundos...");
         try {
             Thread.sleep(5000);
@@ -254,9 +366,106 @@ public class SistemaAutenticacion {
      * @return true si existe, false en caso contrario
      */
     public boolean nicknameExiste(String nickname) {
-        boolean existeEnClientes = clientes.stream().anyMatch(c -> c.getNickname().equalsIgnoreCase(nickname));
-        boolean existeEnEmpleados = empleados.stream().anyMatch(e -> e.getNickname().equalsIgnoreCase(nickname));
-        return existeEnClientes || existeEnEmpleados;
+        return registro.existe(nickname);
+    }
+
+    /**
+     * Da de alta un cliente: guarda el hash de su contraseña, reserva su nickname de
+     * forma atómica y lo persiste. Es seguro llamarlo desde varios hilos a la vez.
+     *
+     * @param cliente cliente nuevo (con la contraseña en texto plano)
+     * @return true si se registró; false si el nickname ya estaba ocupado
+     * @throws SistemaOcupadoException si el pool de contraseñas está saturado
+     */
+    public boolean registrarCliente(Cliente cliente) {
+        // Revisión barata antes de pagar el hash; la reserva atómica decide al final
+        if (registro.existe(cliente.getNickname())) return false;
+        // Siempre se hashea: lo que se tecleó nunca decide si ya es un hash
+        String plano = cliente.getContrasena();
+        cliente.actualizarContrasena(plano, VerificadorContrasenas.getInstancia().hashear(plano));
+        candadoClientes.readLock().lock();
+        try {
+            if (!registro.registrar(cliente)) return false;
+            // Solo se persiste el nuevo cliente (en archivos, únicamente su shard)
+            almacen.guardarCliente(cliente);
+        } finally {
+            candadoClientes.readLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Autentica desde este quiosco ({@link #TERMINAL}).
+     *
+     * @see #autenticar(String, String, String)
+     */
+    public Persona autenticar(String nickname, String contrasena) {
+        return autenticar(nickname, contrasena, TERMINAL);
+    }
+
+    /**
+     * Busca al usuario por nickname (sin distinguir mayúsculas) y valida su contraseña
+     * en el pool de {@link VerificadorContrasenas}. Cada intento consume una ficha de la
+     * terminal y, si el nickname existe, otra del nickname; un inicio de sesión correcto
+     * (o uno que no se revisó porque el pool estaba saturado) las devuelve.
+     *
+     * @param terminal quiosco o cliente desde el que se intenta
+     * @return el usuario autenticado, o null si las credenciales no son válidas
+     * @throws DemasiadosIntentosException si el nickname o la terminal agotaron sus intentos
+     * @throws SistemaOcupadoException si el pool de contraseñas está saturado
+     */
+    public Persona autenticar(String nickname, String contrasena, String terminal) {
+        long espera = intentosPorTerminal.intentar(terminal);
+        if (espera > 0) {
+            throw new DemasiadosIntentosException("Demasiados intentos desde " + terminal, espera);
+        }
+
+        // Un nickname que no existe solo gasta la ficha de la terminal: así una ola de
+        // nicknames inventados no llena el limitador ni empuja a las cuentas reales al desborde
+        Persona usuario = registro.buscar(nickname);
+        if (usuario == null) return null;
+        String claveNick = RegistroUsuarios.clave(nickname);
+        espera = intentosPorNickname.intentar(claveNick);
+        if (espera > 0) {
+            throw new DemasiadosIntentosException("Demasiados intentos para " + nickname, espera);
+        }
+        if (!usuario.getNickname().equals(nickname)) return null;
+
+        String almacenado = usuario.getContrasena();
+        boolean valida;
+        try {
+            valida = VerificadorContrasenas.getInstancia().verificar(contrasena, almacenado);
+        } catch (SistemaOcupadoException e) {
+            // No se revisó la contraseña: el intento no cuenta
+            intentosPorNickname.devolver(claveNick);
+            intentosPorTerminal.devolver(terminal);
+            throw e;
+        }
+        if (!valida) return null;
+
+        intentosPorNickname.devolver(claveNick);
+        intentosPorTerminal.devolver(terminal);
+
+        // Hash con otras iteraciones: se recalcula aprovechando que tenemos la contraseña.
+        // (El texto plano lo convierte la migración de arranque.)
+        if (SeguridadContrasenas.esHash(almacenado) && SeguridadContrasenas.necesitaRehash(almacenado)) {
+            VerificadorContrasenas.getInstancia().rehashear(usuario, contrasena, this::persistir);
+        }
+        return usuario;
+    }
+
+    /** Guarda un usuario cuyos datos cambiaron. */
+    private void persistir(Persona usuario) {
+        if (usuario instanceof Cliente) {
+            almacen.guardarCliente((Cliente) usuario);
+        } else {
+            guardarEmpleados();
+        }
+    }
+
+    /** @return el usuario con ese nickname (sin distinguir mayúsculas), o null */
+    public Persona buscarUsuario(String nickname) {
+        return registro.buscar(nickname);
     }
 
     /**
@@ -274,28 +483,64 @@ public class SistemaAutenticacion {
             System.out.print("Contraseña: ");
             String contrasena = sc.nextLine();
 
-            // Buscar en empleados
-            for (Empleado empleado : empleados) {
-                if (empleado.validarCredenciales(nickname, contrasena)) {
-                    System.out.println("\n¡Bienvenido " + empleado.getNombre() + "!");
-                    redirigirSegunTipoUsuario(empleado);
-                    return;
-                }
+            Persona usuario;
+            try {
+                usuario = autenticar(nickname, contrasena);
+            } catch (SistemaOcupadoException e) {
+                System.out.println("El sistema está ocupado en este momento. Intente nuevamente en unos segundos.");
+                continue;
+            } catch (DemasiadosIntentosException e) {
+                System.out.println("Demasiados intentos fallidos. Espere "
+                        + ((e.getMsRestantes() + 999) / 1000) + " s antes de volver a intentar.");
+                return;
             }
-
-            // Buscar en clientes
-            for (Cliente cliente : clientes) {
-                if (cliente.validarCredenciales(nickname, contrasena)) {
-                    System.out.println("\n¡Bienvenido " + cliente.getNombre() + "!");
-                    redirigirSegunTipoUsuario(cliente);
-                    return;
-                }
+            if (usuario != null) {
+                System.out.println("\n¡Bienvenido " + usuario.getNombre() + "!");
+                String token = GestorSesiones.getInstancia().abrir(usuario);
+                System.out.println("Token de sesión (para continuar en otro quiosco): " + token);
+                redirigirSegunTipoUsuario(usuario);
+                terminarSesion(token);
+                return;
             }
 
             System.out.println("Credenciales incorrectas. Intente nuevamente.");
         }
     }
 
+    /**
+     * Continúa una sesión abierta (por ejemplo, en otro quiosco) a partir de su token,
+     * sin volver a pedir credenciales.
+     */
+    private void reanudarSesion() {
+        System.out.print("Token de sesión: ");
+        String token = sc.nextLine().trim();
+
+        Persona usuario = GestorSesiones.getInstancia().reanudar(token);
+        if (usuario == null) {
+            System.out.println("La sesión no existe o ya expiró. Inicie sesión de nuevo.");
+            return;
+        }
+        System.out.println("\n¡Bienvenido de nuevo " + usuario.getNombre() + "!");
+        redirigirSegunTipoUsuario(usuario);
+        terminarSesion(token);
+    }
+
+    /**
+     * Al salir del menú el token sigue vigente (se puede reanudar en otro quiosco hasta
+     * que pase su tiempo de inactividad), salvo que el usuario pida invalidarlo.
+     */
+    private void terminarSesion(String token) {
+        GestorSesiones sesiones = GestorSesiones.getInstancia();
+        // Salir del menú cuenta como uso: la expiración se cuenta desde aquí
+        if (sesiones.reanudar(token) == null) return;
+        System.out.print("¿Conservar su token para reanudar en otro quiosco durante "
+                + GestorSesiones.MINUTOS_POR_DEFECTO + " minutos? (s/n): ");
+        if (sc.nextLine().trim().equalsIgnoreCase("n")) {
+            sesiones.cerrar(token);
+            System.out.println("El token ya no es válido.");
+        }
+    }
+
     /**
      * Redirige a los menús según el tipo de usuario.
      *
@@ -319,23 +564,52 @@ public class SistemaAutenticacion {
      * Permite que el administrador agregue un empleado (vía menú).
      *
      * @param emp instancia de Empleado creada por el administrador
+     * @return true si se agregó; false si el nickname ya estaba ocupado
+     * @throws SistemaOcupadoException si el pool de contraseñas está saturado
+     */
+    public boolean agregarEmpleadoDesdeAdministrador(Empleado emp) {
+        if (emp == null || registro.existe(emp.getNickname())) return false;
+        String plano = emp.getContrasena();
+        emp.actualizarContrasena(plano, VerificadorContrasenas.getInstancia().hashear(plano));
+        if (!registro.registrar(emp)) return false;
+        guardarEmpleados();
+        if (emp instanceof VendedorDulceria) {
+            CocinaDulceria.vendedorRegistrado((VendedorDulceria) emp);
+        }
+        return true;
+    }
+
+    /**
+     * @return nicknames y terminales que ahora mismo tienen bloqueado el inicio de sesión
+     */
+    public List<LimitadorIntentos.Limitada> getIdentidadesLimitadas() {
+        List<LimitadorIntentos.Limitada> salida = new ArrayList<>(intentosPorNickname.limitadas());
+        salida.addAll(intentosPorTerminal.limitadas());
+        return salida;
+    }
+
+    /** @return nicknames que el limitador recuerda en este momento (pruebas) */
+    int getNicknamesVigilados() {
+        return intentosPorNickname.getCubetas();
+    }
+
+    /**
+     * @return filtro de nicknames activo, para reportar sus métricas
      */
-    public void agregarEmpleadoDesdeAdministrador(Empleado emp) {
-        if (emp == null) return;
-        empleados.add(emp);
-        guardarDatos();
+    public FiltroBloom getFiltroNicknames() {
+        return registro.getFiltro();
     }
 
     /* -------------------- Getters para otras clases (Reportes, UI, etc.) -------------------- */
 
-    /** @return lista de clientes en memoria (NO null). */
+    /** @return copia de la lista de clientes en orden de alta (NO null). */
     public List<Cliente> getClientes() {
-        return clientes;
+        return registro.getClientes();
     }
 
-    /** @return lista de empleados en memoria (NO null). */
+    /** @return copia de la lista de empleados en orden de alta (NO null). */
     public List<Empleado> getEmpleados() {
-        return empleados;
+        return registro.getEmpleados();
     }
 
     /* -------------------- MAIN de arranque rápido (para pruebas) -------------------- */
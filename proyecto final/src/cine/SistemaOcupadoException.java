@@ -0,0 +1,17 @@
+package cine;
+
+/**
+ * Se lanza cuando el pool de verificación de contraseñas está saturado.
+ * Quien la recibe debe pedir al usuario que lo intente de nuevo.
+ */
+public class SistemaOcupadoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param mensaje motivo del rechazo
+     */
+    public SistemaOcupadoException(String mensaje) {
+        super(mensaje);
+    }
+}
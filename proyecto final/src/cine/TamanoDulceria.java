@@ -0,0 +1,39 @@
+package cine;
+
+import java.util.Locale;
+
+/**
+ * Tamaños de la dulcería. Junto con {@link ProductoDulceria} forman el SKU.
+ * Qué tamaños se venden de cada producto lo decide la {@link TarifaDulceria}.
+ */
+public enum TamanoDulceria {
+    PERSONAL, MED, GDE, JUMBO, MEGA;
+
+    private static final TamanoDulceria[] VALORES = values();
+
+    /** @return nombre en minúsculas, como en los archivos de precios ("jumbo") */
+    public String getNombre() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /** @return "Jumbo" */
+    public String getEtiqueta() {
+        return name().charAt(0) + name().substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    /** @return tamaño con ese nombre (sin importar mayúsculas), o null */
+    public static TamanoDulceria desde(String nombre) {
+        for (TamanoDulceria t : VALORES) {
+            if (t.name().equalsIgnoreCase(nombre.trim())) return t;
+        }
+        return null;
+    }
+
+    static TamanoDulceria porOrdinal(int i) {
+        return VALORES[i];
+    }
+
+    static int cuantos() {
+        return VALORES.length;
+    }
+}
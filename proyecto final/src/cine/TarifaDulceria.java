@@ -0,0 +1,377 @@
+package cine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tarifa de la dulcería: tamaños, combos y promociones.
+ * <p>
+ * Se definen en {@link #ARCHIVO_CONFIG} (dentro de la carpeta de precios) y los
+ * precios de lista siguen en los archivos {@code <producto>_<tamaño>.txt} del
+ * {@link CatalogoPrecios}. Al cargar, todo se compila a una {@link Tabla} plana:
+ * los precios quedan en arreglos de centavos enteros indexados por el id fijo del
+ * SKU ({@link ProductoDulceria#sku(TamanoDulceria)}), con las promociones y los
+ * descuentos de combo ya aplicados. Cobrar una orden es sumar enteros, sin crear
+ * objetos.
+ * </p>
+ * <p>
+ * Cuando el catálogo detecta un cambio en la carpeta (un precio o este archivo),
+ * la tabla se vuelve a compilar y se publica completa en un campo {@code volatile}.
+ * Si el archivo tiene un error se avisa y se conserva la tabla anterior. Quien
+ * cobra toma la tabla una vez con {@link #getTabla()} y la usa para toda la orden.
+ * </p>
+ * Formato (una definición por línea, {@code #} para comentarios):
+ * <pre>
+ * tamano palomitas = med, gde, jumbo, mega
+ * combo amix = palomitas_jumbo x1, refresco_jumbo x2 ; 10
+ * promo refresco_mega = 15
+ * </pre>
+ */
+public class TarifaDulceria {
+
+    /** Archivo de configuración dentro de la carpeta de precios. */
+    public static final String ARCHIVO_CONFIG = "dulceria.cfg";
+
+    /** Se usa si la carpeta no trae {@link #ARCHIVO_CONFIG}: los combos de siempre. */
+    static final List<String> LINEAS_POR_DEFECTO = List.of(
+            "tamano palomitas = med, gde, jumbo, mega",
+            "tamano refresco = med, gde, jumbo, mega",
+            "tamano nachos = personal, jumbo, mega",
+            "combo amix = palomitas_jumbo x1, refresco_jumbo x2 ; 10",
+            "combo nachos = palomitas_jumbo x1, refresco_jumbo x2, nachos_jumbo x1 ; 10",
+            "combo buen trío = palomitas_jumbo x1, refresco_jumbo x3, nachos_mega x1 ; 10",
+            "combo qué me ves = palomitas_jumbo x1, refresco_jumbo x1, nachos_jumbo x1 ; 10");
+
+    private static TarifaDulceria instancia = null;
+
+    private final CatalogoPrecios catalogo;
+    private volatile Tabla tabla;
+
+    /**
+     * Compila la tarifa con los precios actuales del catálogo y se recompila en
+     * cada recarga del catálogo.
+     */
+    public TarifaDulceria(CatalogoPrecios catalogo) {
+        this.catalogo = catalogo;
+        Tabla inicial;
+        try {
+            inicial = compilar(catalogo.getPrecios(), leerConfig());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error en " + ARCHIVO_CONFIG + " (" + e.getMessage() + "); se usan los combos por defecto.");
+            try {
+                inicial = compilar(catalogo.getPrecios(), LINEAS_POR_DEFECTO);
+            } catch (IllegalArgumentException sinPrecios) {
+                System.err.println("Tampoco hay precios para los combos por defecto; no se ofrecerán combos.");
+                inicial = compilar(catalogo.getPrecios(), List.of());
+            }
+        }
+        this.tabla = inicial;
+        catalogo.alRecargar(this::recompilar);
+    }
+
+    /**
+     * @return tarifa compartida sobre {@link CatalogoPrecios#getInstancia()}
+     */
+    public static synchronized TarifaDulceria getInstancia() {
+        if (instancia == null) {
+            instancia = new TarifaDulceria(CatalogoPrecios.getInstancia());
+        }
+        return instancia;
+    }
+
+    /** @return tabla vigente; no cambia aunque después se publique otra */
+    public Tabla getTabla() {
+        return tabla;
+    }
+
+    /**
+     * Vuelve a leer la configuración y compila con los precios actuales del catálogo.
+     * Si algo falla se conserva la tabla anterior.
+     */
+    public synchronized void recompilar() {
+        try {
+            tabla = compilar(catalogo.getPrecios(), leerConfig());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error en " + ARCHIVO_CONFIG + " (" + e.getMessage() + "); se conserva la tarifa anterior.");
+        }
+    }
+
+    private List<String> leerConfig() {
+        Path archivo = catalogo.getCarpeta().resolve(ARCHIVO_CONFIG);
+        try {
+            return Files.readAllLines(archivo, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return LINEAS_POR_DEFECTO;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("no se pudo leer: " + e.getMessage());
+        }
+    }
+
+    /* -------------------- Compilación -------------------- */
+
+    /**
+     * Compila la configuración contra los precios de lista.
+     *
+     * @param precios archivo de precio ("palomitas_jumbo.txt") -> pesos
+     * @param lineas  líneas de la configuración
+     * @return tabla nueva
+     * @throws IllegalArgumentException si una línea es inválida o un combo usa un SKU sin precio
+     */
+    public static Tabla compilar(Map<String, Double> precios, List<String> lineas) {
+        Map<String, List<String>> tamanos = new LinkedHashMap<>();
+        List<String[]> combos = new ArrayList<>();
+        Map<String, Integer> promos = new HashMap<>();
+
+        int n = 0;
+        for (String linea : lineas) {
+            n++;
+            String l = linea.strip();
+            if (l.isEmpty() || l.startsWith("#")) continue;
+            int igual = l.indexOf('=');
+            int espacio = l.indexOf(' ');
+            if (igual < 0 || espacio < 0 || espacio > igual) {
+                throw new IllegalArgumentException("línea " + n + ": se esperaba \"<tipo> <nombre> = <valor>\"");
+            }
+            String tipo = l.substring(0, espacio);
+            String nombre = l.substring(espacio + 1, igual).strip();
+            String valor = l.substring(igual + 1).strip();
+            switch (tipo) {
+                case "tamano":
+                    List<String> lista = new ArrayList<>();
+                    for (String t : valor.split(",")) {
+                        if (!t.isBlank()) lista.add(t.strip());
+                    }
+                    tamanos.put(nombre, lista);
+                    break;
+                case "combo":
+                    combos.add(new String[]{nombre, valor, String.valueOf(n)});
+                    break;
+                case "promo":
+                    promos.put(nombre, basePuntos(valor, n));
+                    break;
+                default:
+                    throw new IllegalArgumentException("línea " + n + ": tipo desconocido \"" + tipo + "\"");
+            }
+        }
+
+        // Precios por SKU fijo (ver ProductoDulceria); los archivos de otros productos no entran
+        Tabla t = new Tabla();
+        for (int sku = 0; sku < ProductoDulceria.SKUS; sku++) {
+            String nombre = ProductoDulceria.nombreSku(sku);
+            Double pesos = precios.get(nombre + ".txt");
+            t.lista[sku] = pesos == null ? -1 : Math.toIntExact(Math.round(pesos * 100));
+            Integer bp = promos.remove(nombre);
+            t.precio[sku] = t.lista[sku] < 0 || bp == null ? t.lista[sku] : (int) descontar(t.lista[sku], bp);
+        }
+        if (!promos.isEmpty()) {
+            throw new IllegalArgumentException("promoción de SKU desconocido: " + promos.keySet());
+        }
+
+        // Tamaños que se ofrecen: solo los que tienen precio
+        for (Map.Entry<String, List<String>> e : tamanos.entrySet()) {
+            ProductoDulceria producto = ProductoDulceria.desde(e.getKey());
+            if (producto == null) throw new IllegalArgumentException("producto desconocido \"" + e.getKey() + "\"");
+            int[] ofrecidos = new int[e.getValue().size()];
+            int k = 0;
+            for (String tam : e.getValue()) {
+                TamanoDulceria tamano = TamanoDulceria.desde(tam);
+                if (tamano == null) throw new IllegalArgumentException("tamaño desconocido \"" + tam + "\"");
+                int sku = producto.sku(tamano);
+                if (t.lista[sku] < 0) {
+                    System.err.println("Sin precio para " + e.getKey() + " " + tam + "; no se ofrecerá.");
+                } else {
+                    ofrecidos[k++] = sku;
+                }
+            }
+            t.tamanos.put(producto, Arrays.copyOf(ofrecidos, k));
+        }
+
+        // Combos: cada partida con su descuento ya aplicado
+        t.comboNombre = new String[combos.size()];
+        t.comboDescuento = new int[combos.size()];
+        t.comboInicio = new int[combos.size() + 1];
+        t.comboTotal = new long[combos.size()];
+        List<int[]> partidas = new ArrayList<>();
+        for (int c = 0; c < combos.size(); c++) {
+            String[] def = combos.get(c);
+            int linea = Integer.parseInt(def[2]);
+            int pc = def[1].lastIndexOf(';');
+            int bp = pc < 0 ? 0 : basePuntos(def[1].substring(pc + 1), linea);
+            String contenido = pc < 0 ? def[1] : def[1].substring(0, pc);
+            t.comboNombre[c] = def[0];
+            t.comboDescuento[c] = bp;
+            t.comboInicio[c] = partidas.size();
+            for (String p : contenido.split(",")) {
+                String[] partes = p.strip().split("\\s+x", 2);
+                int id = ProductoDulceria.skuDe(partes[0].strip());
+                if (id < 0 || t.lista[id] < 0) {
+                    throw new IllegalArgumentException("línea " + linea + ": \"" + partes[0].strip() + "\" no tiene precio");
+                }
+                int piezas;
+                try {
+                    piezas = partes.length < 2 ? 1 : Integer.parseInt(partes[1].strip());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("línea " + linea + ": piezas inválidas en \"" + p.strip() + "\"");
+                }
+                if (piezas <= 0) throw new IllegalArgumentException("línea " + linea + ": piezas deben ser > 0");
+                long centavos = descontar((long) t.lista[id] * piezas, bp);
+                partidas.add(new int[]{id, piezas, Math.toIntExact(centavos)});
+                t.comboTotal[c] += centavos;
+            }
+        }
+        t.comboInicio[combos.size()] = partidas.size();
+        t.partidaSku = new int[partidas.size()];
+        t.partidaPiezas = new int[partidas.size()];
+        t.partidaCentavos = new int[partidas.size()];
+        for (int i = 0; i < partidas.size(); i++) {
+            t.partidaSku[i] = partidas.get(i)[0];
+            t.partidaPiezas[i] = partidas.get(i)[1];
+            t.partidaCentavos[i] = partidas.get(i)[2];
+        }
+        return t;
+    }
+
+    /** "10" o "12.5" (por ciento) -> puntos base (1000, 1250). */
+    private static int basePuntos(String texto, int linea) {
+        try {
+            int bp = new BigDecimal(texto.strip().replace("%", "")).movePointRight(2).intValueExact();
+            if (bp < 0 || bp > 10_000) throw new ArithmeticException();
+            return bp;
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("línea " + linea + ": descuento inválido \"" + texto.strip() + "\"");
+        }
+    }
+
+    /** Aplica un descuento en puntos base redondeando al centavo (mitad hacia arriba). */
+    static long descontar(long centavos, int puntosBase) {
+        return (centavos * (10_000 - puntosBase) + 5_000) / 10_000;
+    }
+
+    /* -------------------- Tabla compilada -------------------- */
+
+    /**
+     * Resultado inmutable de una compilación. Los precios son centavos; -1 indica
+     * un SKU sin precio de lista.
+     */
+    public static final class Tabla {
+
+        private final int[] lista = new int[ProductoDulceria.SKUS];
+        private final int[] precio = new int[ProductoDulceria.SKUS];
+        private final Map<ProductoDulceria, int[]> tamanos = new EnumMap<>(ProductoDulceria.class);
+
+        // Combo c: partidas [comboInicio[c], comboInicio[c+1])
+        private String[] comboNombre;
+        private int[] comboDescuento;
+        private int[] comboInicio;
+        private long[] comboTotal;
+        private int[] partidaSku;
+        private int[] partidaPiezas;
+        private int[] partidaCentavos;
+
+        private Tabla() {
+        }
+
+        /** @return centavos del precio de lista, o -1 */
+        public int precioLista(int sku) {
+            return lista[sku];
+        }
+
+        /** @return centavos con la promoción aplicada, o -1 */
+        public int precio(int sku) {
+            return precio[sku];
+        }
+
+        /**
+         * Total de una orden con precios unitarios de esta tabla, sin crear objetos.
+         *
+         * @param skus       ids de SKU
+         * @param cantidades piezas de cada uno
+         * @param n          partidas a sumar
+         * @return centavos; -1 si algún SKU no tiene precio
+         */
+        public long total(int[] skus, int[] cantidades, int n) {
+            long total = 0;
+            for (int i = 0; i < n; i++) {
+                int p = precio[skus[i]];
+                if (p < 0) return -1;
+                total += (long) p * cantidades[i];
+            }
+            return total;
+        }
+
+        /** @return productos que se venden */
+        public List<ProductoDulceria> getProductos() {
+            return new ArrayList<>(tamanos.keySet());
+        }
+
+        /** @return ids de los tamaños que se ofrecen del producto, en orden de menú */
+        public int[] tamanos(ProductoDulceria producto) {
+            int[] t = tamanos.get(producto);
+            return t == null ? new int[0] : t.clone();
+        }
+
+        /* ---- Combos ---- */
+
+        public int getCombos() {
+            return comboNombre.length;
+        }
+
+        public String nombreCombo(int combo) {
+            return comboNombre[combo];
+        }
+
+        /** @return descuento del combo en puntos base (1000 = 10%) */
+        public int descuentoCombo(int combo) {
+            return comboDescuento[combo];
+        }
+
+        /** @return centavos del combo con su descuento */
+        public long totalCombo(int combo) {
+            return comboTotal[combo];
+        }
+
+        /** @return primera partida del combo; la última es {@code finCombo(combo) - 1} */
+        public int inicioCombo(int combo) {
+            return comboInicio[combo];
+        }
+
+        public int finCombo(int combo) {
+            return comboInicio[combo + 1];
+        }
+
+        public int skuPartida(int partida) {
+            return partidaSku[partida];
+        }
+
+        public int piezasPartida(int partida) {
+            return partidaPiezas[partida];
+        }
+
+        /** @return centavos de la partida (piezas x precio de lista, con el descuento del combo) */
+        public int centavosPartida(int partida) {
+            return partidaCentavos[partida];
+        }
+
+        /** @return "palomitas jumbo + 2 refresco jumbo" */
+        public String describirCombo(int combo) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = inicioCombo(combo); i < finCombo(combo); i++) {
+                if (sb.length() > 0) sb.append(" + ");
+                if (partidaPiezas[i] > 1) sb.append(partidaPiezas[i]).append(' ');
+                sb.append(ProductoDulceria.nombreSku(partidaSku[i]).replace('_', ' '));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package cine;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark de arranque del almacenamiento de clientes en shards.
+ * Uso: java cine.TestAlmacenClientes [numClientes]
+ * Trabaja en una carpeta temporal; no toca ArchivosAplicacion.
+ */
+public class TestAlmacenClientes {
+
+    private static final int[] SHARDS = {1, 2, 4, 8, 16, 32};
+    private static final int REPETICIONES = 3;
+
+    public static void main(String[] args) throws IOException {
+        int numClientes = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        System.out.println("=== BENCHMARK DE ARRANQUE: CLIENTES EN SHARDS ===");
+        System.out.println("Clientes: " + numClientes + " | Núcleos: " + Runtime.getRuntime().availableProcessors());
+
+        List<Cliente> clientes = new ArrayList<>(numClientes);
+        for (int i = 0; i < numClientes; i++) {
+            clientes.add(new Cliente("Nombre" + i, "Paterno", "Materno", 20 + (i % 50),
+                    "cliente" + i, "pass" + i, "cliente" + i + "@cine.com",
+                    "55" + (10000000 + i), "4000000000000000"));
+        }
+
+        Path raiz = Files.createTempDirectory("bench-shards");
+        try {
+            for (int n : SHARDS) {
+                Path carpeta = raiz.resolve("shards-" + n);
+                Path legado = raiz.resolve("clientes-" + n + ".dat");
+                GestorArchivos.guardarClientes(clientes, legado.toString());
+
+                // La primera carga migra el archivo monolítico y escribe los shards
+                new AlmacenClientes(carpeta.toString(), n).cargar(legado.toString());
+
+                long mejor = Long.MAX_VALUE;
+                int cargados = 0;
+                for (int r = 0; r < REPETICIONES; r++) {
+                    long ini = System.nanoTime();
+                    cargados = new AlmacenClientes(carpeta.toString(), n).cargar(null).size();
+                    mejor = Math.min(mejor, System.nanoTime() - ini);
+                }
+
+                // Costo de un registro: solo se reescribe un shard
+                AlmacenClientes almacen = new AlmacenClientes(carpeta.toString(), n);
+                almacen.cargar(null);
+                long ini = System.nanoTime();
+                almacen.agregar(new Cliente("Nuevo", "P", "M", 30, "nuevo" + n, "x",
+                        "n@cine.com", "5500000000", "4000000000000000"));
+                long registro = System.nanoTime() - ini;
+
+                System.out.printf("Shards: %3d | carga: %8.1f ms | clientes: %d | registro: %7.1f ms%n",
+                        n, mejor / 1e6, cargados, registro / 1e6);
+            }
+
+            // Redistribución: los shards nuevos se escriben antes de borrar los viejos
+            System.out.println("\n--- Redistribución ---");
+            Path carpeta = raiz.resolve("shards-4");
+            int antes = new AlmacenClientes(carpeta.toString(), 4).cargar(null).size();
+            int despues = new AlmacenClientes(carpeta.toString(), 8).cargar(null).size();
+            System.out.println("Clientes de 4 a 8 shards (Esperado " + antes + "): " + despues);
+            System.out.println("Archivos de shard (Esperado 8): " + contar(carpeta, ".dat"));
+
+            // Redistribución interrumpida: un temporal suelto con clientes repetidos
+            Files.copy(carpeta.resolve("clientes-0.dat"), carpeta.resolve("clientes-0.dat.tmp"));
+            Files.copy(carpeta.resolve("clientes-1.dat"), carpeta.resolve("clientes-9.dat"));
+            int recuperados = new AlmacenClientes(carpeta.toString(), 8).cargar(null).size();
+            System.out.println("Clientes tras una redistribución interrumpida (Esperado " + antes + "): " + recuperados);
+            System.out.println("Archivos de shard (Esperado 8): " + contar(carpeta, ".dat"));
+            System.out.println("Temporales sueltos (Esperado 0): " + contar(carpeta, ".tmp"));
+        } finally {
+            try (Stream<Path> s = Files.walk(raiz)) {
+                s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+
+        System.out.println("\n=== BENCHMARK FINALIZADO ===");
+    }
+
+    private static long contar(Path carpeta, String extension) throws IOException {
+        try (Stream<Path> s = Files.list(carpeta)) {
+            return s.filter(p -> p.getFileName().toString().endsWith(extension)).count();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package cine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Carga de trabajo común contra cada implementación de {@link Almacenamiento}.
+ * Uso: java cine.TestAlmacenamiento [clientes] [ventas] [urlJdbc]
+ * <p>
+ * Siempre prueba memoria y archivos (en una carpeta temporal). El backend JDBC solo
+ * se prueba si se pasa un URL y el driver (H2 o SQLite) está en el classpath, p. ej.
+ * {@code java -cp out:h2.jar cine.TestAlmacenamiento 10000 50000 jdbc:h2:mem:cine}
+ * </p>
+ */
+public class TestAlmacenamiento {
+
+    private static final int TAM_LOTE = 64;
+    private static final int NOTIFICACIONES = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        int numClientes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int numVentas = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        String urlJdbc = args.length > 2 ? args[2] : null;
+
+        System.out.println("=== CARGA DE TRABAJO POR ALMACENAMIENTO ===");
+        System.out.println("Clientes: " + numClientes + " | Ventas: " + numVentas + " (lotes de " + TAM_LOTE + ")");
+
+        ejecutar("memoria", new AlmacenamientoMemoria(), numClientes, numVentas);
+
+        Path carpeta = Files.createTempDirectory("almacen");
+        try {
+            ejecutar("archivos", new AlmacenamientoArchivos(carpeta.toString()), numClientes, numVentas);
+        } finally {
+            borrar(carpeta);
+        }
+
+        if (urlJdbc != null) {
+            try {
+                ejecutar(urlJdbc, new AlmacenamientoJdbc(urlJdbc, 4), numClientes, numVentas);
+            } catch (java.sql.SQLException e) {
+                System.out.println("\nJDBC omitido (" + e.getMessage() + ")");
+            }
+        }
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static void ejecutar(String nombre, Almacenamiento almacen, int numClientes, int numVentas)
+            throws IOException {
+        System.out.println("\n--- " + nombre + " ---");
+        try {
+            // 1. Alta de clientes uno por uno (como el registro) y guardado total
+            long ini = System.nanoTime();
+            List<Cliente> clientes = new ArrayList<>(numClientes);
+            for (int i = 0; i < numClientes; i++) {
+                Cliente c = new Cliente("Nombre" + i, "Paterno", "Materno", 20 + (i % 50),
+                        "cliente" + i, "pass" + i, "cliente" + i + "@cine.com",
+                        "55" + (10000000 + i), "4000000000000000");
+                clientes.add(c);
+                if (i < 1_000) almacen.guardarCliente(c);
+            }
+            almacen.guardarClientes(clientes);
+            imprimir("Clientes guardados", numClientes, ini);
+
+            // 2. Ventas en lotes (como el escritor del libro de ventas)
+            ini = System.nanoTime();
+            List<RegistroVenta> lote = new ArrayList<>(TAM_LOTE);
+            for (int i = 1; i <= numVentas; i++) {
+                lote.add(new RegistroVenta(i, LocalDateTime.now(), "AV2:20250101:1500:SalaA",
+                        "cliente" + (i % numClientes), List.of("H7", "H8"), 140.0));
+                if (lote.size() == TAM_LOTE || i == numVentas) {
+                    almacen.registrarVentas(lote);
+                    lote = new ArrayList<>(TAM_LOTE);
+                }
+            }
+            imprimir("Ventas registradas", numVentas, ini);
+
+            // 3. Notificaciones e historial de vendedor
+            ini = System.nanoTime();
+            for (int i = 0; i < NOTIFICACIONES; i++) {
+                almacen.guardarNotificacion("ORD-" + i, "Orden en espera");
+                almacen.guardarNotificacion("ORD-" + i, "Orden entregada por vendedor1");
+                almacen.agregarHistorialVendedor("vendedor" + (i % 4), "Orden ORD-" + i);
+            }
+            imprimir("Notificaciones", 2 * NOTIFICACIONES, ini);
+
+            // 4. Lectura completa (arranque)
+            ini = System.nanoTime();
+            List<Cliente> leidos = almacen.cargarClientes();
+            int clientesLeidos = leidos.size();
+            long[] ventasLeidas = {0};
+            almacen.recorrerVentas(v -> ventasLeidas[0]++);
+            imprimir("Recarga", clientesLeidos + ventasLeidas[0], ini);
+
+            System.out.println("Clientes leídos (Esperado " + numClientes + "): " + clientesLeidos);
+            if (!(almacen instanceof AlmacenamientoArchivos)) {
+                // Los archivos devuelven shard por shard (en orden de alta dentro de cada uno)
+                System.out.println("Último cliente en orden de alta (Esperado cliente" + (numClientes - 1) + "): "
+                        + leidos.get(clientesLeidos - 1).getNickname());
+            }
+            System.out.println("Ventas leídas (Esperado " + numVentas + "): " + ventasLeidas[0]);
+            System.out.println("Notificación ORD-7 (Esperado entregada): " + almacen.leerNotificacion("ORD-7"));
+            System.out.println("Historial vendedor1 (Esperado " + (NOTIFICACIONES / 4) + "): "
+                    + almacen.leerHistorialVendedor("vendedor1").size());
+
+            // 5. Historial de compras y guardado total que reemplaza
+            almacen.agregarRegistroCompra("cliente3", "compra 1");
+            almacen.agregarRegistroCompra("cliente3", "compra 2");
+            int[] compras = {0};
+            almacen.recorrerHistorialCompras("cliente3", l -> ++compras[0] > 0);
+            System.out.println("Compras de cliente3 (Esperado 2): " + compras[0]);
+            System.out.println("cliente4 tiene compras (Esperado false): " + almacen.existeHistorialCompras("cliente4"));
+            almacen.guardarClientes(clientes.subList(0, numClientes / 2));
+            System.out.println("Clientes tras guardar la mitad (Esperado " + (numClientes / 2) + "): "
+                    + almacen.cargarClientes().size());
+        } finally {
+            almacen.cerrar();
+        }
+    }
+
+    private static void imprimir(String etapa, long operaciones, long ini) {
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("%-20s %8.3f s | %,.0f ops/s%n", etapa + ":", seg, operaciones / seg);
+    }
+
+    private static void borrar(Path carpeta) throws IOException {
+        try (Stream<Path> s = Files.walk(carpeta)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package cine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pruebas del catálogo de precios con recarga en vivo.
+ * Uso: java cine.TestCatalogoPrecios [consultas]
+ * Trabaja sobre una carpeta temporal, no sobre precios/.
+ */
+public class TestCatalogoPrecios {
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        System.out.println("=== PRUEBAS DEL CATÁLOGO DE PRECIOS ===");
+
+        Path dir = Files.createTempDirectory("precios");
+        Files.writeString(dir.resolve("palomitas_jumbo.txt"), "95.5\n");
+        Files.writeString(dir.resolve("refresco_jumbo.txt"), "70\n");
+        Files.writeString(dir.resolve("nachos_jumbo.txt"), "80\n");
+
+        CatalogoPrecios catalogo = new CatalogoPrecios(dir);
+        catalogo.vigilar();
+
+        // 1. Carga inicial
+        System.out.println("\n--- 1. Carga ---");
+        System.out.println("Palomitas jumbo (Esperado 95.5): " + catalogo.precio("palomitas_jumbo.txt"));
+        System.out.println("Producto inexistente (Esperado 0.0): " + catalogo.precio("helado.txt"));
+
+        // 2. Cambio en vivo
+        System.out.println("\n--- 2. Recarga en vivo ---");
+        long v = catalogo.getVersion();
+        Files.writeString(dir.resolve("palomitas_jumbo.txt"), "99\n");
+        esperarVersion(catalogo, v);
+        System.out.println("Palomitas jumbo tras editar (Esperado 99.0): " + catalogo.precio("palomitas_jumbo.txt"));
+
+        v = catalogo.getVersion();
+        Files.writeString(dir.resolve("nachos_mega.txt"), "110\n");
+        esperarVersion(catalogo, v);
+        System.out.println("Producto nuevo (Esperado 110.0): " + catalogo.precio("nachos_mega.txt"));
+
+        v = catalogo.getVersion();
+        Files.writeString(dir.resolve("refresco_jumbo.txt"), "setenta\n");
+        esperarVersion(catalogo, v);
+        System.out.println("Archivo ilegible conserva el precio (Esperado 70.0): " + catalogo.precio("refresco_jumbo.txt"));
+
+        // 3. Consultas durante recargas: cada lectura ve un catálogo completo
+        System.out.println("\n--- 3. Consultas concurrentes con recargas ---");
+        AtomicLong incompletas = new AtomicLong();
+        List<Thread> lectores = new ArrayList<>();
+        for (int h = 0; h < 2; h++) {
+            lectores.add(new Thread(() -> {
+                for (int i = 0; i < n / 2; i++) {
+                    if (catalogo.getPrecios().size() != 4) incompletas.incrementAndGet();
+                }
+            }));
+        }
+        long ini = System.nanoTime();
+        for (Thread t : lectores) t.start();
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(dir.resolve("palomitas_jumbo.txt"), (100 + i) + "\n");
+            catalogo.recargar();
+        }
+        for (Thread t : lectores) t.join();
+        imprimir("catálogo", n, ini);
+        System.out.println("Lecturas de catálogo incompleto (Esperado 0): " + incompletas.get());
+
+        // 4. Comparación con leer el archivo en cada consulta (como antes)
+        System.out.println("\n--- 4. Memoria contra disco ---");
+        int m = 20_000;
+        ini = System.nanoTime();
+        double suma = 0;
+        for (int i = 0; i < m; i++) {
+            try (Scanner lector = new Scanner(dir.resolve("nachos_jumbo.txt").toFile())) {
+                suma += lector.nextDouble();
+            }
+        }
+        imprimir("archivo", m, ini);
+        ini = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            suma += catalogo.precio("nachos_jumbo.txt");
+        }
+        imprimir("memoria", n, ini);
+        System.out.println("(suma " + (long) suma + ")");
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static void esperarVersion(CatalogoPrecios catalogo, long anterior) throws InterruptedException {
+        for (int i = 0; i < 200 && catalogo.getVersion() == anterior; i++) {
+            Thread.sleep(50);
+        }
+        if (catalogo.getVersion() == anterior) {
+            System.out.println("(el vigilante no reportó el cambio en 10 s)");
+        }
+    }
+
+    private static void imprimir(String etapa, long operaciones, long ini) {
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("%-10s %8.3f s | %,.0f ops/s%n", etapa + ":", seg, operaciones / seg);
+    }
+}
@@ -0,0 +1,102 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de la cocina de dulcería (cola acotada + trabajadores por vendedor).
+ * Uso: java cine.TestCocinaDulceria [ordenes] [vendedores]
+ * Usa el almacenamiento en memoria y un {@link RelojVirtual}: la preparación (30-45 s
+ * por orden) no espera tiempo real.
+ */
+public class TestCocinaDulceria {
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int v = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        RelojVirtual reloj = new RelojVirtual(LocalDateTime.of(2026, 10, 24, 10, 0), 1);
+        Reloj.usar(reloj);
+
+        System.out.println("=== PRUEBAS DE LA COCINA DE DULCERÍA ===");
+
+        // 1. Una orden de punta a punta
+        System.out.println("\n--- 1. Una orden ---");
+        List<VendedorDulceria> uno = vendedores(1);
+        CocinaDulceria chica = new CocinaDulceria(uno, 10, reloj);
+        OrdenDulceria orden = orden(0);
+        chica.ofrecer(orden, 1, TimeUnit.SECONDS);
+        reloj.correrTodo();
+        System.out.println("Completadas (Esperado 1): " + chica.getCompletadas());
+        System.out.println("Notificación: " + GestorNotificaciones.leerNotificacion(orden.getClaveCompra())
+                .replace('\n', ' '));
+        System.out.println("Líneas en historial del vendedor (Esperado 3): "
+                + GestorArchivos.getAlmacenamiento().leerHistorialVendedor(uno.get(0).getNickname()).size());
+
+        // 2. Contrapresión: nadie atiende, la cola se llena y el mostrador rechaza
+        System.out.println("\n--- 2. Contrapresión ---");
+        CocinaDulceria lenta = new CocinaDulceria(vendedores(1), 100, reloj);
+        lenta.usarLotes(1); // órdenes iguales: sin lotes, cada una ocupa su lugar
+        int aceptadas = 0;
+        for (int i = 0; i < 150; i++) {
+            if (lenta.ofrecer(orden(i), 1, TimeUnit.MILLISECONDS)) aceptadas++;
+        }
+        System.out.println("Aceptadas (Esperado 101 = 1 en preparación + 100 en cola): " + aceptadas);
+        System.out.println("Rechazadas (Esperado 49): " + lenta.getRechazadas());
+        reloj.correrTodo();
+
+        // 3. Sin vendedores: atiende "sin asignar" hasta que llega uno
+        System.out.println("\n--- 3. Sin vendedores ---");
+        CocinaDulceria vacia = new CocinaDulceria(new ArrayList<>(), 10, reloj);
+        OrdenDulceria huerfana = orden(1);
+        vacia.ofrecer(huerfana, 1, TimeUnit.SECONDS);
+        reloj.correrTodo();
+        System.out.println("Atendida por (Esperado sin asignar): "
+                + GestorNotificaciones.leerNotificacion(huerfana.getClaveCompra()).contains("sin asignar"));
+        vacia.agregarVendedor(vendedores(1).get(0));
+        System.out.println("Trabajadores tras agregar vendedor (Esperado 1): " + vacia.getTrabajadores());
+
+        // 4. Carga: n órdenes en cola sin n hilos
+        System.out.println("\n--- 4. " + n + " órdenes con " + v + " vendedores ---");
+        int hilosAntes = Thread.activeCount();
+        CocinaDulceria cocina = new CocinaDulceria(vendedores(v), n, reloj);
+        long ini = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            cocina.ofrecer(orden(i), 1, TimeUnit.SECONDS);
+        }
+        double segEncolar = (System.nanoTime() - ini) / 1e9;
+        int hilosMax = Thread.activeCount();
+        System.out.printf("Encolar: %.3f s | %,.0f órdenes/s%n", segEncolar, n / segEncolar);
+        System.out.println("En cola al terminar de encolar: " + cocina.getEnCola());
+        System.out.println("Hilos nuevos (Esperado 0): " + (hilosMax - hilosAntes));
+        long inicioSimulado = reloj.milis();
+        reloj.correrTodo();
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("Total: %.3f s reales para %.1f h simuladas | %,.0f órdenes/s%n", seg,
+                (reloj.milis() - inicioSimulado) / 3_600_000.0, n / seg);
+        System.out.println(cocina.resumen().lines().limit(3).reduce((a, b) -> a + "\n" + b).orElse(""));
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static List<VendedorDulceria> vendedores(int n) {
+        List<VendedorDulceria> lista = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            lista.add(new VendedorDulceria("Vendedor" + i, "Prueba", "Uno", "vend" + i + "_" + System.nanoTime(),
+                    "x", "v@cine.com", "5500000000", "matutino", "lunes"));
+        }
+        return lista;
+    }
+
+    private static OrdenDulceria orden(int i) {
+        OrdenDulceria o = new OrdenDulceria();
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "mantequilla", 1, 9000);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "cola", 1, 7000);
+        o.setClaveCompra("ORD-" + i + "-" + System.nanoTime());
+        return o;
+    }
+
+}
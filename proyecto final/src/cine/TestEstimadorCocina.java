@@ -0,0 +1,120 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pruebas de la hora estimada de la cocina ({@link EstimadorCocina}).
+ * Uso: java cine.TestEstimadorCocina [ordenes]
+ * Usa el almacenamiento en memoria y un {@link RelojVirtual}.
+ */
+public class TestEstimadorCocina {
+
+    private static final Pattern MINUTOS = Pattern.compile("unos (\\d+) min");
+    private static final String[] SABOR_PALOMITAS = {"mantequilla", "mantequilla", "queso", "jalapeño"};
+    private static final String[] SABOR_REFRESCO = {"cola", "cola", "light", "naranja", "manzana", "toronja"};
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        RelojVirtual reloj = new RelojVirtual(LocalDateTime.of(2026, 10, 24, 10, 0), 1);
+        Reloj.usar(reloj);
+
+        System.out.println("=== PRUEBAS DE LA HORA ESTIMADA ===");
+
+        // 1. La notificación trae la hora estimada desde que la orden entra a la cola
+        System.out.println("\n--- 1. Aviso con hora estimada ---");
+        CocinaDulceria cocina = new CocinaDulceria(vendedores(1), 100, reloj);
+        cocina.usarLotes(1);
+        OrdenDulceria primera = orden("uno", "mantequilla", "cola");
+        cocina.ofrecer(primera, 0, TimeUnit.SECONDS);
+        String aviso = GestorNotificaciones.leerNotificacion(primera.getClaveCompra());
+        System.out.println(aviso);
+        System.out.println("Trae hora estimada (Esperado true): " + aviso.contains("Hora estimada:"));
+
+        // 2. Mientras más órdenes hay delante, más tarde la hora estimada
+        System.out.println("\n--- 2. Crece con la cola ---");
+        List<Integer> minutos = new ArrayList<>();
+        minutos.add(minutos(primera));
+        for (int i = 0; i < 5; i++) {
+            OrdenDulceria o = orden("cola" + i, "queso", "light");
+            cocina.ofrecer(o, 0, TimeUnit.SECONDS);
+            minutos.add(minutos(o));
+        }
+        boolean crece = true;
+        for (int i = 1; i < minutos.size(); i++) crece &= minutos.get(i) >= minutos.get(i - 1);
+        System.out.println("Minutos estimados: " + minutos);
+        System.out.println("Nunca baja y la última es mayor (Esperado true): "
+                + (crece && minutos.get(minutos.size() - 1) > minutos.get(0)));
+        reloj.correrTodo();
+        System.out.println("Al terminar ya no dice hora estimada (Esperado true): "
+                + !GestorNotificaciones.leerNotificacion(primera.getClaveCompra()).contains("Hora estimada"));
+        System.out.println("Medidas (Esperado 6): " + cocina.getEstimador().getMedidas());
+
+        // 3. Aprendiendo de los lotes se acerca a lo observado
+        System.out.println("\n--- 3. " + n + " órdenes, nominal contra aprendida ---");
+        EstimadorCocina[] estimadores = new EstimadorCocina[2];
+        for (int k = 0; k < 2; k++) {
+            cocina = new CocinaDulceria(vendedores(2), n, reloj);
+            cocina.getEstimador().setAprender(k == 1);
+            Random rnd = new Random(11);
+            for (int i = 0; i < n; i++) {
+                cocina.ofrecer(orden("r" + i, SABOR_PALOMITAS[rnd.nextInt(SABOR_PALOMITAS.length)],
+                        SABOR_REFRESCO[rnd.nextInt(SABOR_REFRESCO.length)]), 0, TimeUnit.SECONDS);
+                reloj.dormir(10_000 + rnd.nextInt(25_000)); // con cola casi siempre
+            }
+            reloj.correrTodo();
+            estimadores[k] = cocina.getEstimador();
+            System.out.println((k == 0 ? "Nominal:   " : "Aprendida: ") + estimadores[k].resumen()
+                    .replace(System.lineSeparator(), System.lineSeparator() + "           "));
+        }
+        System.out.println("Menos sesgo al aprender (Esperado true): "
+                + (Math.abs(estimadores[1].getSesgoMs()) < Math.abs(estimadores[0].getSesgoMs())));
+        System.out.println("Menos error al aprender (Esperado true): "
+                + (estimadores[1].getErrorPromedioMs() < estimadores[0].getErrorPromedioMs()));
+        double nominal = LoteDulceria.nominalPorPiezaMs(ProductoDulceria.REFRESCO);
+        System.out.printf("Refresco por pieza: nominal %.1f s, aprendido %.1f s (Esperado distintos)%n",
+                nominal / 1000, estimadores[1].msPorPieza(ProductoDulceria.REFRESCO) / 1000);
+
+        // 4. Percentiles del histograma (cubetas de 10%)
+        System.out.println("\n--- 4. Histograma ---");
+        EstimadorCocina.Histograma h = new EstimadorCocina.Histograma();
+        for (int ms = 1_000; ms <= 100_000; ms += 1_000) h.agregar(ms, 1);
+        long p50 = h.percentil(0.5), p90 = h.percentil(0.9);
+        System.out.println("p50 entre 50000 y 55000 (Esperado true): " + (p50 >= 50_000 && p50 <= 55_000) + " (" + p50 + ")");
+        System.out.println("p90 entre 90000 y 99000 (Esperado true): " + (p90 >= 90_000 && p90 <= 99_000) + " (" + p90 + ")");
+        System.out.println("Sin muestras (Esperado 0): " + new EstimadorCocina.Histograma().percentil(0.9));
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    /** @return minutos de "unos N min" en la notificación de la orden, o -1 */
+    private static int minutos(OrdenDulceria o) {
+        Matcher m = MINUTOS.matcher(GestorNotificaciones.leerNotificacion(o.getClaveCompra()));
+        return m.find() ? Integer.parseInt(m.group(1)) : -1;
+    }
+
+    private static List<VendedorDulceria> vendedores(int n) {
+        List<VendedorDulceria> lista = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            lista.add(new VendedorDulceria("Vendedor" + i, "Prueba", "Uno", "vend" + i + "_" + System.nanoTime(),
+                    "x", "v@cine.com", "5500000000", "matutino", "lunes"));
+        }
+        return lista;
+    }
+
+    /** Combo "amix": palomitas jumbo + 2 refrescos jumbo. */
+    private static OrdenDulceria orden(String nombre, String saborP, String saborR) {
+        OrdenDulceria o = new OrdenDulceria();
+        o.setClaveCompra(nombre + "-" + System.nanoTime());
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, saborP, 1, 9500);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, saborR, 2, 7000);
+        return o;
+    }
+}
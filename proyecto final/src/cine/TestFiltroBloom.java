@@ -0,0 +1,116 @@
+package cine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pruebas del filtro de Bloom de nicknames.
+ * Uso: java cine.TestFiltroBloom [nicknames]
+ * Usa el almacenamiento en memoria; el archivo del filtro va a una carpeta temporal.
+ */
+public class TestFiltroBloom {
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.setProperty("cine.pbkdf2Iteraciones", "1000");
+        System.setProperty("cine.migrarContrasenas", "false");
+
+        System.out.println("=== PRUEBAS DEL FILTRO DE NICKNAMES ===");
+
+        // 1. Tasa de falsos positivos medida contra la configurada
+        System.out.println("\n--- 1. Falsos positivos con " + n + " nicknames ---");
+        for (double fp : new double[]{0.05, 0.01, 0.001}) {
+            FiltroBloom f = new FiltroBloom(n, fp);
+            for (int i = 0; i < n; i++) f.agregar("usuario" + i);
+            int faltantes = 0;
+            for (int i = 0; i < n; i++) {
+                if (!f.podriaContener("USUARIO" + i)) faltantes++;
+            }
+            int positivos = 0;
+            for (int i = 0; i < n; i++) {
+                if (f.podriaContener("libre" + i)) positivos++;
+            }
+            System.out.printf("FP objetivo %.3f | estimada %.4f | medida %.4f | %.1f MB | falsos negativos (Esperado 0): %d%n",
+                    fp, f.getFpEstimada(), (double) positivos / n, f.getBytes() / (1024.0 * 1024.0), faltantes);
+        }
+
+        // 2. Contadores: quitar deja libre el nickname y no afecta a los demás
+        System.out.println("\n--- 2. Quitar ---");
+        FiltroBloom chico = new FiltroBloom(1000, 0.01);
+        chico.agregar("ana");
+        chico.agregar("beto");
+        chico.quitar("ana");
+        System.out.println("ana tras quitar (Esperado false): " + chico.podriaContener("ana"));
+        System.out.println("beto sigue (Esperado true): " + chico.podriaContener("beto"));
+
+        // 3. Guardar y cargar
+        System.out.println("\n--- 3. Persistencia ---");
+        Path dir = Files.createTempDirectory("filtro");
+        Path archivo = dir.resolve("nicknames.bloom");
+        FiltroBloom grande = new FiltroBloom(n, 0.01);
+        for (int i = 0; i < n; i++) grande.agregar("usuario" + i);
+        long ini = System.nanoTime();
+        grande.guardar(archivo);
+        imprimir("guardar", 1, ini);
+        ini = System.nanoTime();
+        FiltroBloom leido = FiltroBloom.cargar(archivo);
+        imprimir("cargar", 1, ini);
+        int iguales = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (leido.podriaContener("libre" + i) == grande.podriaContener("libre" + i)) iguales++;
+        }
+        System.out.println("Mismas respuestas tras cargar (Esperado 100000): " + iguales);
+        System.out.println("Insertados (Esperado " + n + "): " + leido.getInsertados());
+        Files.write(archivo, new byte[]{1, 2, 3});
+        System.out.println("Archivo dañado (Esperado null): " + FiltroBloom.cargar(archivo));
+
+        // 4. Altas concurrentes: ningún nickname registrado queda fuera del filtro
+        System.out.println("\n--- 4. Altas concurrentes ---");
+        FiltroBloom compartido = new FiltroBloom(400_000, 0.01);
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            final int id = h;
+            hilos.add(new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) compartido.agregar("h" + id + "-" + i);
+            }));
+        }
+        for (Thread t : hilos) t.start();
+        for (Thread t : hilos) t.join();
+        int perdidos = 0;
+        for (int h = 0; h < 4; h++) {
+            for (int i = 0; i < 100_000; i++) {
+                if (!compartido.podriaContener("h" + h + "-" + i)) perdidos++;
+            }
+        }
+        System.out.println("Nicknames perdidos (Esperado 0): " + perdidos);
+
+        // 5. Integración: nicknameExiste con el filtro conectado
+        System.out.println("\n--- 5. SistemaAutenticacion ---");
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        SistemaAutenticacion sistema = new SistemaAutenticacion();
+        for (int i = 0; i < 1000; i++) {
+            sistema.registrarCliente(new Cliente("Cliente", "Prueba", "Uno", 30, "cliente" + i, "x",
+                    "c" + i + "@cine.com", "5500000000", "4000000000000000"));
+        }
+        System.out.println("cliente7 existe (Esperado true): " + sistema.nicknameExiste("Cliente7"));
+        System.out.println("elAdministrador existe (Esperado true): " + sistema.nicknameExiste("ELADMINISTRADOR"));
+        int libres = 0;
+        ini = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            if (!sistema.nicknameExiste("nuevo" + i)) libres++;
+        }
+        imprimir("libres", n, ini);
+        System.out.println("Libres (Esperado " + n + "): " + libres);
+        System.out.println(sistema.getFiltroNicknames().resumen());
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static void imprimir(String etapa, long operaciones, long ini) {
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("%-10s %8.3f s | %,.0f ops/s%n", etapa + ":", seg, operaciones / seg);
+    }
+}
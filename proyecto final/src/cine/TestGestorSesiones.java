@@ -0,0 +1,105 @@
+package cine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pruebas y benchmark del gestor de sesiones.
+ * Uso: java -Xmx2g cine.TestGestorSesiones [sesiones]
+ * El tiempo es simulado: la prueba adelanta el reloj y avanza la rueda a mano.
+ */
+public class TestGestorSesiones {
+
+    private static final int TTL = 30 * 60;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+
+        System.out.println("=== PRUEBAS DEL GESTOR DE SESIONES ===");
+        System.out.println("Sesiones: " + n);
+
+        AtomicLong reloj = new AtomicLong(1_000_000);
+        Cliente cliente = new Cliente("Ana", "López", "Ruiz", 30, "ana", "x", "ana@cine.com",
+                "5500000000", "4000000000000000");
+
+        // 1. Correctitud básica
+        System.out.println("\n--- 1. Correctitud ---");
+        GestorSesiones chico = new GestorSesiones(TTL, reloj::get);
+        String t = chico.abrir(cliente);
+        System.out.println("Token: " + t);
+        System.out.println("Reanudar (Esperado ana): " + nick(chico.reanudar(t)));
+        System.out.println("Token inventado (Esperado null): " + nick(chico.reanudar("0123456789abcdef")));
+        System.out.println("Token mal formado (Esperado null): " + nick(chico.reanudar("hola")));
+        System.out.println("Cerrar (Esperado true): " + chico.cerrar(t));
+        System.out.println("Reanudar tras cerrar (Esperado null): " + nick(chico.reanudar(t)));
+
+        // 2. Alta masiva
+        System.out.println("\n--- 2. Alta de " + n + " sesiones ---");
+        GestorSesiones sesiones = new GestorSesiones(TTL, reloj::get);
+        String[] tokens = new String[n];
+        long memAntes = memoriaUsada();
+        long ini = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            tokens[i] = sesiones.abrir(cliente);
+        }
+        imprimir("abrir", n, ini);
+        long memDespues = memoriaUsada();
+        // Los tokens en texto los guarda la prueba, no el gestor: se descuentan
+        long bytesTokens = (long) n * (16 + 16 + 4 + 4) + 16L + 4L * n;
+        System.out.printf("Memoria del gestor: ~%d bytes por sesión%n",
+                Math.max(0, memDespues - memAntes - bytesTokens) / n);
+
+        // 3. Búsquedas
+        ini = System.nanoTime();
+        int encontradas = 0;
+        for (int i = 0; i < n; i++) {
+            if (sesiones.reanudar(tokens[(int) ((i * 2654435761L) % n)]) != null) encontradas++;
+        }
+        imprimir("reanudar", n, ini);
+        System.out.println("Encontradas (Esperado " + n + "): " + encontradas);
+
+        // 4. Expiración deslizante: la mitad se usa a los 20 minutos, luego pasan 20 más
+        System.out.println("\n--- 4. Expiración deslizante ---");
+        reloj.addAndGet(20 * 60);
+        sesiones.expirar();
+        for (int i = 0; i < n; i += 2) sesiones.reanudar(tokens[i]);
+        reloj.addAndGet(20 * 60);
+        ini = System.nanoTime();
+        int retiradas = sesiones.expirar();
+        imprimir("expirar", retiradas, ini);
+        System.out.println("Retiradas (Esperado " + (n / 2) + "): " + retiradas);
+        System.out.println("Activas (Esperado " + (n - n / 2) + "): " + sesiones.getActivas());
+        System.out.println("Usada sigue viva (Esperado ana): " + nick(sesiones.reanudar(tokens[0])));
+        System.out.println("Sin usar expiró (Esperado null): " + nick(sesiones.reanudar(tokens[1])));
+
+        // 5. Vencida pero la rueda todavía no pasa: no se debe poder reanudar
+        reloj.addAndGet(TTL + 5);
+        System.out.println("Vencida antes de que pase la rueda (Esperado null): " + nick(sesiones.reanudar(tokens[2])));
+        sesiones.expirar();
+        System.out.println("Activas tras otra media hora (Esperado 0): " + sesiones.getActivas());
+
+        // 6. Reutilización de casillas: abrir de nuevo no crece la memoria
+        ini = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            tokens[i] = sesiones.abrir(cliente);
+        }
+        imprimir("reabrir", n, ini);
+        System.out.println("Activas (Esperado " + n + "): " + sesiones.getActivas());
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static String nick(Persona p) {
+        return p == null ? "null" : p.getNickname();
+    }
+
+    private static long memoriaUsada() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void imprimir(String etapa, long operaciones, long ini) {
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("%-10s %8.3f s | %,.0f ops/s%n", etapa + ":", seg, operaciones / seg);
+    }
+}
@@ -0,0 +1,94 @@
+package cine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark del índice de nicknames de {@link SistemaAutenticacion}.
+ * Uso: java -Xmx3g cine.TestIndiceUsuarios [numClientes]
+ * Usa el almacenamiento en memoria; no toca ArchivosAplicacion.
+ */
+public class TestIndiceUsuarios {
+
+    private static final int CONSULTAS = 1_000_000;
+    /** La búsqueda lineal es demasiado lenta para hacer tantas consultas como el índice. */
+    private static final int CONSULTAS_LINEALES = 200;
+
+    public static void main(String[] args) {
+        int numClientes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        // Se mide el índice: las contraseñas se quedan en texto plano (sin PBKDF2)
+        System.setProperty("cine.migrarContrasenas", "false");
+
+        System.out.println("=== BENCHMARK DEL ÍNDICE DE USUARIOS ===");
+        System.out.println("Clientes: " + numClientes);
+
+        List<Cliente> clientes = new ArrayList<>(numClientes);
+        for (int i = 0; i < numClientes; i++) {
+            clientes.add(new Cliente("Nombre" + i, "Paterno", "Materno", 20 + (i % 50),
+                    "cliente" + i, "pass" + i, "cliente" + i + "@cine.com",
+                    "55" + (10000000 + i), "4000000000000000"));
+        }
+        AlmacenamientoMemoria almacen = new AlmacenamientoMemoria();
+        almacen.guardarClientes(clientes);
+        GestorArchivos.usarAlmacenamiento(almacen);
+
+        // 1. Arranque: cargar y construir el índice
+        long ini = System.nanoTime();
+        SistemaAutenticacion sistema = new SistemaAutenticacion();
+        System.out.printf("%nArranque con índice: %.2f s%n", (System.nanoTime() - ini) / 1e9);
+
+        Random rnd = new Random(42);
+
+        // 2. Login e unicidad con el índice
+        System.out.println("\n--- Con índice (" + CONSULTAS + " consultas) ---");
+        ini = System.nanoTime();
+        int aciertos = 0;
+        for (int i = 0; i < CONSULTAS; i++) {
+            int n = rnd.nextInt(numClientes);
+            if (sistema.autenticar("cliente" + n, "pass" + n) != null) aciertos++;
+        }
+        imprimir("autenticar", CONSULTAS, ini);
+        System.out.println("Logins válidos (Esperado " + CONSULTAS + "): " + aciertos);
+
+        ini = System.nanoTime();
+        int existentes = 0;
+        for (int i = 0; i < CONSULTAS; i++) {
+            // Mitad existentes (con otras mayúsculas), mitad libres
+            String nick = (i % 2 == 0 ? "CLIENTE" : "libre") + rnd.nextInt(numClientes);
+            if (sistema.nicknameExiste(nick)) existentes++;
+        }
+        imprimir("nicknameExiste", CONSULTAS, ini);
+        System.out.println("Existentes (Esperado " + (CONSULTAS / 2) + "): " + existentes);
+        System.out.println("Contraseña incorrecta (Esperado null): " + sistema.autenticar("cliente7", "otra"));
+        System.out.println("Mayúsculas distintas al entrar (Esperado null): " + sistema.autenticar("CLIENTE7", "pass7"));
+
+        // 3. Línea base: el recorrido lineal que hacía iniciarSesion / nicknameExiste
+        System.out.println("\n--- Recorrido lineal (" + CONSULTAS_LINEALES + " consultas) ---");
+        List<Cliente> lista = sistema.getClientes();
+        ini = System.nanoTime();
+        aciertos = 0;
+        for (int i = 0; i < CONSULTAS_LINEALES; i++) {
+            int n = rnd.nextInt(numClientes);
+            String nick = "cliente" + n;
+            String pass = "pass" + n;
+            for (Cliente c : lista) {
+                if (c.validarCredenciales(nick, pass)) {
+                    aciertos++;
+                    break;
+                }
+            }
+        }
+        imprimir("lineal", CONSULTAS_LINEALES, ini);
+        System.out.println("Logins válidos (Esperado " + CONSULTAS_LINEALES + "): " + aciertos);
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static void imprimir(String etapa, long operaciones, long ini) {
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("%-16s %8.3f s | %,.0f consultas/s | %,.0f ns/consulta%n",
+                etapa + ":", seg, operaciones / seg, seg * 1e9 / operaciones);
+    }
+}
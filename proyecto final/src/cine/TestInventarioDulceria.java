@@ -0,0 +1,120 @@
+package cine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pruebas del inventario de dulcería (reservar, confirmar, liberar, alertas).
+ * Uso: java cine.TestInventarioDulceria [hilos] [intentosPorHilo]
+ */
+public class TestInventarioDulceria {
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int intentos = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        Reloj.usar(new RelojVirtual(LocalDateTime.of(2026, 10, 24, 10, 0), 1));
+        System.out.println("=== PRUEBAS DEL INVENTARIO DE DULCERÍA ===");
+
+        // 1. Reservar, confirmar y liberar
+        System.out.println("\n--- 1. Ciclo de una reserva ---");
+        InventarioDulceria inv = new InventarioDulceria(
+                Map.of("palomitas_jumbo", 10, "refresco_jumbo", 10, "nachos_mega", 1), 2);
+        InventarioDulceria.Reserva r = inv.reservar(combo(2));
+        System.out.println("Aceptada (Esperado true): " + r.isAceptada());
+        System.out.println("Refrescos disponibles / reservados (Esperado 8 / 2): "
+                + inv.getDisponible("refresco_jumbo") + " / " + inv.getReservado("refresco_jumbo"));
+        r.confirmar();
+        r.liberar(); // ya confirmada: no hace nada
+        System.out.println("Tras confirmar, disponibles / vendidos (Esperado 8 / 2): "
+                + inv.getDisponible("refresco_jumbo") + " / " + inv.getVendido("refresco_jumbo"));
+        InventarioDulceria.Reserva pagoRechazado = inv.reservar(combo(2));
+        pagoRechazado.liberar();
+        System.out.println("Tras liberar, disponibles (Esperado 8): " + inv.getDisponible("refresco_jumbo"));
+
+        // 2. Agotado: se rechaza sin tomar nada de lo demás
+        System.out.println("\n--- 2. Agotado ---");
+        OrdenDulceria conNachos = combo(1);
+        conNachos.agregar(ProductoDulceria.NACHOS, TamanoDulceria.MEGA, "", 2, 11000);
+        InventarioDulceria.Reserva agotada = inv.reservar(conNachos);
+        System.out.println("Aceptada (Esperado false): " + agotada.isAceptada());
+        System.out.println("Agotado (Esperado nachos_mega): " + agotada.getAgotado());
+        System.out.println("Palomitas intactas (Esperado 9): " + inv.getDisponible("palomitas_jumbo"));
+        OrdenDulceria sinExistencia = new OrdenDulceria();
+        sinExistencia.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.MED, "queso", 1, 3500);
+        System.out.println("SKU sin existencia no se controla (Esperado true): " + inv.reservar(sinExistencia).isAceptada());
+
+        // 3. Alertas: una sola al cruzar el umbral, y otra tras reabastecer y volver a bajar
+        System.out.println("\n--- 3. Alertas ---");
+        InventarioDulceria chico = new InventarioDulceria(Map.of("refresco_med", 5), 2);
+        for (int i = 0; i < 5; i++) chico.reservar(refrescoMed()).confirmar();
+        System.out.println("Alertas al agotarse (Esperado 1): " + chico.getTotalAlertas());
+        chico.reabastecer("refresco_med", 10);
+        for (int i = 0; i < 9; i++) chico.reservar(refrescoMed()).confirmar();
+        System.out.println("Alertas tras reabastecer y bajar otra vez (Esperado 2): " + chico.getTotalAlertas());
+        System.out.println("Última: " + chico.getAlertas().get(chico.getAlertas().size() - 1));
+
+        // 4. Concurrencia: muchos hilos peleando por pocas piezas, nunca se sobrevende
+        System.out.println("\n--- 4. " + hilos + " hilos x " + intentos + " intentos sobre 1000 piezas ---");
+        InventarioDulceria compartido = new InventarioDulceria(
+                Map.of("palomitas_jumbo", 1_000, "refresco_jumbo", 100_000), 10);
+        AtomicInteger confirmadas = new AtomicInteger();
+        List<Thread> lista = new ArrayList<>();
+        long ini = System.nanoTime();
+        for (int h = 0; h < hilos; h++) {
+            lista.add(new Thread(() -> {
+                for (int i = 0; i < intentos; i++) {
+                    InventarioDulceria.Reserva res = compartido.reservar(combo(1));
+                    if (!res.isAceptada()) continue;
+                    // Uno de cada cuatro pagos se rechaza y devuelve sus piezas
+                    if (i % 4 == 0) {
+                        res.liberar();
+                    } else {
+                        res.confirmar();
+                        confirmadas.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread t : lista) t.start();
+        for (Thread t : lista) t.join();
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("%,.0f reservas/s%n", (double) hilos * intentos / seg);
+        System.out.println("Confirmadas (Esperado 1000): " + confirmadas.get());
+        System.out.println("Vendidas / disponibles / reservadas (Esperado 1000 / 0 / 0): "
+                + compartido.getVendido("palomitas_jumbo") + " / " + compartido.getDisponible("palomitas_jumbo")
+                + " / " + compartido.getReservado("palomitas_jumbo"));
+        System.out.println("Refrescos cuadran (Esperado 100000): "
+                + (compartido.getVendido("refresco_jumbo") + compartido.getDisponible("refresco_jumbo")));
+
+        // 5. Guardar y cargar
+        System.out.println("\n--- 5. Persistencia ---");
+        Path archivo = Files.createTempFile("inventario", ".txt");
+        inv.guardar(archivo);
+        InventarioDulceria leido = InventarioDulceria.cargar(archivo);
+        System.out.println("Palomitas tras cargar (Esperado 9): " + leido.getDisponible("palomitas_jumbo"));
+        System.out.println("Nachos tras cargar (Esperado 1): " + leido.getDisponible("nachos_mega"));
+        Files.deleteIfExists(archivo);
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    /** Palomitas jumbo + {@code refrescos} refrescos jumbo. */
+    private static OrdenDulceria combo(int refrescos) {
+        OrdenDulceria o = new OrdenDulceria();
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "mantequilla", 1, 9500);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "cola", refrescos, 7000);
+        return o;
+    }
+
+    private static OrdenDulceria refrescoMed() {
+        OrdenDulceria o = new OrdenDulceria();
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.MED, "naranja", 1, 4500);
+        return o;
+    }
+}
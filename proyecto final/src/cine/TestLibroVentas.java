@@ -0,0 +1,133 @@
+package cine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Prueba de rendimiento y reproducción del libro de ventas.
+ * Uso: java cine.TestLibroVentas [ventas] [hilos]
+ * Trabaja sobre carpetas temporales; no toca ArchivosAplicacion.
+ */
+public class TestLibroVentas {
+
+    /** Segmentos chicos para que la prueba genere varios. */
+    private static final long TAM_SEGMENTO = 256 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int ventas = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        System.out.println("=== PRUEBAS DEL LIBRO DE VENTAS ===");
+
+        Pelicula peli = new Pelicula("Avatar 2", "Ciencia Ficción", "Pitufos gigantes", "03:10");
+        FuncionDeCine funcion = new FuncionDeCine(peli, new Sala("Sala A", "A"), LocalDate.now(), LocalTime.of(15, 0));
+        List<Boleto> boletos = List.of(new Boleto("H7", 70.0, "Adulto"), new Boleto("H8", 70.0, "Adulto"));
+        CompraBoletos compra = new CompraBoletos(funcion, boletos);
+
+        Path carpeta = Files.createTempDirectory("ventas");
+        try {
+            // 1. Rendimiento: cada hilo espera a que su venta quede en disco (como la taquilla)
+            System.out.println("\n--- 1. Agregados durables (" + ventas + " ventas, " + hilos + " hilos) ---");
+            AlmacenamientoArchivos almacen = new AlmacenamientoArchivos(carpeta.toString(), TAM_SEGMENTO);
+            LibroVentas libro = new LibroVentas(almacen);
+
+            long ini = System.nanoTime();
+            List<Thread> taquillas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                final int id = h;
+                Thread t = new Thread(() -> {
+                    for (int i = id; i < ventas; i += hilos) {
+                        libro.registrar("cliente" + (i % 1000), compra).join();
+                    }
+                });
+                taquillas.add(t);
+                t.start();
+            }
+            for (Thread t : taquillas) t.join();
+            double seg = (System.nanoTime() - ini) / 1e9;
+            System.out.printf("Tiempo: %.2f s | %.0f ventas/s%n", seg, ventas / seg);
+
+            // 2. Rendimiento sin esperar cada venta (ráfaga encolada)
+            System.out.println("\n--- 2. Ráfaga sin esperar (" + ventas + " ventas) ---");
+            ini = System.nanoTime();
+            CompletableFuture<RegistroVenta> ultima = null;
+            for (int i = 0; i < ventas; i++) {
+                ultima = libro.registrar("cliente" + (i % 1000), compra);
+            }
+            ultima.join();
+            seg = (System.nanoTime() - ini) / 1e9;
+            System.out.printf("Tiempo: %.2f s | %.0f ventas/s%n", seg, ventas / seg);
+
+            // 3. Reproducción: un libro nuevo sobre el mismo archivo debe ver todo
+            System.out.println("\n--- 3. Reproducción ---");
+            LibroVentas reabierto = new LibroVentas(new AlmacenamientoArchivos(carpeta.toString(), TAM_SEGMENTO));
+            int total = reabierto.ventasDeFuncion(funcion.getIdFuncion()).size();
+            System.out.println("Ventas reproducidas (Esperado " + (2 * ventas) + "): " + total);
+            System.out.println("Ventas de cliente7 (Esperado " + (2 * ventas / 1000) + "): "
+                    + reabierto.ventasDeCliente("cliente7").size());
+            System.out.println("Ventas de hoy (Esperado " + (2 * ventas) + "): "
+                    + reabierto.ventasDelDia(LocalDate.now()).size());
+
+            FuncionDeCine nueva = new FuncionDeCine(peli, new Sala("Sala A", "A"), LocalDate.now(), LocalTime.of(15, 0));
+            LibroVentas soloUna = new LibroVentas(new AlmacenamientoMemoria());
+            soloUna.registrar("cliente1", compra).join();
+            soloUna.restaurarAsientos(nueva);
+            System.out.println("H7 ocupado tras restaurar (Esperado false): " + nueva.asientoDisponible("H7"));
+
+            // 4. Compactación a mano (el libro no está en el Compactador) mientras se sigue vendiendo
+            System.out.println("\n--- 4. Compactación con escritura concurrente ---");
+            System.out.println("Segmentos sellados antes: " + almacen.getBitacoraVentas().segmentosSellados().size());
+            Thread taquilla = new Thread(() -> {
+                for (int i = 0; i < ventas; i++) libro.registrar("cliente" + (i % 1000), compra).join();
+            });
+            taquilla.start();
+            new Compactador(Compactador.BYTES_SEG_POR_DEFECTO).compactar(almacen.getBitacoraVentas());
+            taquilla.join();
+            System.out.println("Segmentos sellados después: " + almacen.getBitacoraVentas().segmentosSellados().size());
+            LibroVentas trasCompactar = new LibroVentas(new AlmacenamientoArchivos(carpeta.toString(), TAM_SEGMENTO));
+            System.out.println("Ventas reproducidas (Esperado " + (3 * ventas) + "): "
+                    + trasCompactar.ventasDeFuncion(funcion.getIdFuncion()).size());
+
+            // 5. Un backend que falla con RuntimeException no detiene al hilo escritor
+            System.out.println("\n--- 5. Falla del backend ---");
+            boolean[] fallar = {true};
+            LibroVentas conFalla = new LibroVentas(new AlmacenamientoMemoria() {
+                @Override
+                public void registrarVentas(List<RegistroVenta> lote) {
+                    if (fallar[0]) throw new IllegalStateException("base de datos caída");
+                    super.registrarVentas(lote);
+                }
+            });
+            boolean fallo = false;
+            try {
+                conFalla.registrar("cliente1", compra).join();
+            } catch (CompletionException e) {
+                fallo = true;
+            }
+            System.out.println("Venta con el backend caído falla (Esperado true): " + fallo);
+            fallar[0] = false;
+            System.out.println("Venta siguiente se guarda (Esperado true): "
+                    + (conFalla.registrar("cliente1", compra).get(5, TimeUnit.SECONDS) != null));
+        } finally {
+            borrar(carpeta);
+        }
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static void borrar(Path carpeta) throws IOException {
+        try (Stream<Path> s = Files.walk(carpeta)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
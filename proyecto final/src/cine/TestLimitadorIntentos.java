@@ -0,0 +1,163 @@
+package cine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pruebas del limitador de intentos de inicio de sesión.
+ * Uso: java cine.TestLimitadorIntentos [hilos]
+ * Usa el almacenamiento en memoria; no toca ArchivosAplicacion.
+ */
+public class TestLimitadorIntentos {
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+
+        // Costo de hash bajo: se prueba el limitador, no PBKDF2
+        System.setProperty("cine.pbkdf2Iteraciones", "1000");
+
+        System.out.println("=== PRUEBAS DEL LIMITADOR DE INTENTOS ===");
+
+        // 1. Cubeta básica: 5 seguidos, luego uno cada 100 ms
+        System.out.println("\n--- 1. Cubeta de fichas ---");
+        LimitadorIntentos lim = new LimitadorIntentos("prueba", 5, 100, 1_000);
+        int permitidos = 0;
+        for (int i = 0; i < 8; i++) {
+            if (lim.intentar("ana") == 0) permitidos++;
+        }
+        System.out.println("Permitidos de 8 seguidos (Esperado 5): " + permitidos);
+        System.out.println("Otra identidad no se afecta (Esperado 0): " + lim.intentar("beto"));
+        Thread.sleep(120);
+        System.out.println("Tras 120 ms, uno más (Esperado 0): " + lim.intentar("ana"));
+        System.out.println("Y el siguiente espera (Esperado > 0): " + lim.intentar("ana"));
+        lim.devolver("ana");
+        System.out.println("Tras devolver uno (Esperado 0): " + lim.intentar("ana"));
+        System.out.println("Limitadas: " + lim.limitadas());
+
+        // 2. Rendimiento sin candados: todos los hilos sobre la misma cubeta y sobre distintas
+        System.out.println("\n--- 2. Rendimiento (" + hilos + " hilos) ---");
+        medir("misma cubeta", hilos, new LimitadorIntentos("caliente", 1000, 1, 10), i -> "x");
+        medir("cubetas distintas", hilos, new LimitadorIntentos("frias", 5, 60_000, 100_000), i -> "n" + (i % 50_000));
+
+        // 3. Memoria acotada: un millón de identidades distintas contra un máximo de 10 000
+        System.out.println("\n--- 3. Memoria acotada ---");
+        LimitadorIntentos acotado = new LimitadorIntentos("acotado", 3, 50, 10_000);
+        for (int i = 0; i < 1_000_000; i++) {
+            acotado.intentar("atacante" + i);
+        }
+        System.out.println("Cubetas tras 1M identidades (Esperado <= 10000): " + acotado.getCubetas());
+
+        // Un intento devuelto no deja cubeta; uno cobrado en el desborde se le devuelve al desborde
+        LimitadorIntentos chico = new LimitadorIntentos("chico", 2, 60_000, 1);
+        chico.intentar("ocupa");
+        chico.devolver("ocupa");
+        System.out.println("Cubetas tras devolver (Esperado 0): " + chico.getCubetas());
+        chico.intentar("ocupa");
+        int correctos = 0;
+        for (int i = 0; i < 10; i++) {
+            if (chico.intentar("nuevo" + i) == 0) correctos++;
+            chico.devolver("nuevo" + i);
+        }
+        System.out.println("Logins correctos por el desborde (Esperado 10): " + correctos);
+        Thread.sleep(200);
+        System.out.println("Purgadas al recargarse (Esperado " + acotado.getCubetas() + "): " + acotado.purgar());
+        System.out.println("Cubetas tras purgar (Esperado 0): " + acotado.getCubetas());
+
+        // 4. Fuerza bruta contra SistemaAutenticacion
+        System.out.println("\n--- 4. Fuerza bruta ---");
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        SistemaAutenticacion sistema = new SistemaAutenticacion();
+        sistema.registrarCliente(new Cliente("Ana", "López", "Ruiz", 30, "ana", "secreta", "ana@cine.com",
+                "5500000000", "4000000000000000"));
+
+        int incorrectas = 0;
+        int bloqueados = 0;
+        for (int i = 0; i < 20; i++) {
+            try {
+                if (sistema.autenticar("ana", "intento" + i, "quiosco-A") == null) incorrectas++;
+            } catch (DemasiadosIntentosException e) {
+                bloqueados++;
+            }
+        }
+        System.out.println("Contraseñas revisadas (Esperado 5): " + incorrectas);
+        System.out.println("Intentos bloqueados sin calcular hash (Esperado 15): " + bloqueados);
+        try {
+            sistema.autenticar("ana", "secreta", "quiosco-B");
+            System.out.println("Contraseña correcta con nickname bloqueado (Esperado bloqueo): permitida");
+        } catch (DemasiadosIntentosException e) {
+            System.out.println("Contraseña correcta con nickname bloqueado (Esperado bloqueo): bloqueo");
+        }
+
+        // Muchos nicknames distintos desde una sola terminal
+        bloqueados = 0;
+        for (int i = 0; i < 50; i++) {
+            try {
+                sistema.autenticar("usuario" + i, "x", "quiosco-C");
+            } catch (DemasiadosIntentosException e) {
+                bloqueados++;
+            }
+        }
+        System.out.println("Intentos bloqueados en quiosco-C (Esperado 20): " + bloqueados);
+        System.out.println("Login correcto no gasta intentos: "
+                + (sistema.autenticar("elAdministrador", "3l4dm1n", "quiosco-D") != null));
+
+        // 5. Ola de nicknames inventados desde muchas terminales: no ocupa cubetas de nickname
+        System.out.println("\n--- 5. Nicknames inexistentes ---");
+        int inventados = 200_000;
+        for (int i = 0; i < inventados; i++) {
+            try {
+                sistema.autenticar("bot" + i, "x", "bot-" + (i % 9_000));
+            } catch (DemasiadosIntentosException e) {
+                // la terminal del bot se agotó; no importa aquí
+            }
+        }
+        System.out.println("Cubetas de nickname tras " + inventados + " nicknames inventados (Esperado <= 3): "
+                + sistema.getNicknamesVigilados());
+        sistema.registrarCliente(new Cliente("Beto", "Díaz", "Mora", 25, "beto", "clave", "beto@cine.com",
+                "5500000000", "4000000000000000"));
+        int fallidos = 0;
+        for (int i = 0; i < 5; i++) {
+            if (sistema.autenticar("beto", "mala" + i, "quiosco-E") == null) fallidos++;
+        }
+        try {
+            sistema.autenticar("beto", "clave", "quiosco-E");
+            System.out.println("Cuenta real con su propia cubeta, bloqueada tras 5 fallos (Esperado bloqueo): permitida");
+        } catch (DemasiadosIntentosException e) {
+            System.out.println("Cuenta real con su propia cubeta, bloqueada tras 5 fallos (Esperado bloqueo): bloqueo ("
+                    + fallidos + " fallos)");
+        }
+        System.out.println("Otra cuenta real no comparte esa cubeta (Esperado true): "
+                + (sistema.autenticar("elAdministrador", "3l4dm1n", "quiosco-F") != null));
+
+        System.out.println("\nVista del administrador:");
+        for (LimitadorIntentos.Limitada l : sistema.getIdentidadesLimitadas()) {
+            System.out.println("  " + l);
+        }
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static void medir(String etapa, int hilos, LimitadorIntentos lim,
+                              java.util.function.IntFunction<String> clave) throws InterruptedException {
+        int porHilo = 1_000_000;
+        AtomicLong permitidos = new AtomicLong();
+        List<Thread> ts = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            final int id = h;
+            ts.add(new Thread(() -> {
+                long ok = 0;
+                for (int i = 0; i < porHilo; i++) {
+                    if (lim.intentar(clave.apply(id * porHilo + i)) == 0) ok++;
+                }
+                permitidos.addAndGet(ok);
+            }));
+        }
+        long ini = System.nanoTime();
+        for (Thread t : ts) t.start();
+        for (Thread t : ts) t.join();
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("%-18s %8.3f s | %,.0f intentos/s | permitidos %,d%n",
+                etapa + ":", seg, hilos * (double) porHilo / seg, permitidos.get());
+    }
+}
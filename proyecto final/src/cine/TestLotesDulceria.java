@@ -0,0 +1,115 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de los lotes de la cocina (órdenes con partidas iguales preparadas juntas).
+ * Uso: java cine.TestLotesDulceria [ordenes]
+ * Usa el almacenamiento en memoria y un {@link RelojVirtual}.
+ */
+public class TestLotesDulceria {
+
+    private static final String[] SABOR_PALOMITAS = {"mantequilla", "mantequilla", "queso", "jalapeño"};
+    private static final String[] SABOR_REFRESCO = {"cola", "cola", "light", "naranja", "manzana", "toronja"};
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        RelojVirtual reloj = new RelojVirtual(LocalDateTime.of(2026, 10, 24, 10, 0), 1);
+        Reloj.usar(reloj);
+
+        System.out.println("=== PRUEBAS DE LOTES DE DULCERÍA ===");
+
+        // 1. Vendedor ocupado y seis órdenes iguales en cola: un solo lote
+        System.out.println("\n--- 1. Órdenes iguales ---");
+        List<VendedorDulceria> uno = vendedores(1);
+        CocinaDulceria cocina = new CocinaDulceria(uno, 100, reloj);
+        cocina.ofrecer(orden("ocupa", "queso", "light"), 0, TimeUnit.SECONDS);
+        List<OrdenDulceria> iguales = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            OrdenDulceria o = orden("igual" + i, "mantequilla", "cola");
+            iguales.add(o);
+            cocina.ofrecer(o, 0, TimeUnit.SECONDS);
+        }
+        reloj.correrTodo();
+        System.out.println("Lotes (Esperado 2: la que ocupaba y las seis juntas): " + cocina.getLotes());
+        System.out.println("Lote mayor (Esperado 6): " + cocina.getLoteMayor());
+        int listas = 0;
+        for (OrdenDulceria o : iguales) {
+            if (GestorNotificaciones.leerNotificacion(o.getClaveCompra()).contains("lista")) listas++;
+        }
+        System.out.println("Cada orden con su aviso de lista (Esperado 6): " + listas);
+        System.out.println("Líneas en historial del vendedor (Esperado 21 = 7 órdenes x 3): "
+                + GestorArchivos.getAlmacenamiento().leerHistorialVendedor(uno.get(0).getNickname()).size());
+
+        // 2. Sabores distintos no se juntan
+        System.out.println("\n--- 2. Sabores distintos ---");
+        cocina = new CocinaDulceria(vendedores(1), 100, reloj);
+        cocina.ofrecer(orden("ocupa", "queso", "light"), 0, TimeUnit.SECONDS);
+        cocina.ofrecer(soloPalomitas("m", "mantequilla"), 0, TimeUnit.SECONDS);
+        cocina.ofrecer(soloPalomitas("j", "jalapeño"), 0, TimeUnit.SECONDS);
+        reloj.correrTodo();
+        System.out.println("Lotes (Esperado 3): " + cocina.getLotes());
+
+        // 3. Con la cola vacía el vendedor empieza de inmediato, sin esperar órdenes iguales
+        System.out.println("\n--- 3. Vendedor libre ---");
+        cocina = new CocinaDulceria(vendedores(2), 100, reloj);
+        OrdenDulceria a = orden("a", "mantequilla", "cola");
+        cocina.ofrecer(a, 0, TimeUnit.SECONDS);
+        reloj.dormir(1_000);
+        System.out.println("Asignada al segundo (Esperado ASIGNADA): " + cocina.getRegistro().getEstado(a.getClaveCompra()));
+        cocina.ofrecer(orden("b", "mantequilla", "naranja"), 0, TimeUnit.SECONDS);
+        reloj.correrTodo();
+        System.out.println("Lotes (Esperado 2: b no espera a a ni a ella la esperan): " + cocina.getLotes());
+        System.out.println("Lote mayor (Esperado 1): " + cocina.getLoteMayor());
+
+        // 4. Rendimiento con y sin lotes: las mismas n órdenes de golpe, 4 vendedores
+        System.out.println("\n--- 4. " + n + " órdenes con y sin lotes ---");
+        for (int maximo : new int[]{1, CocinaDulceria.LOTE_MAX_POR_DEFECTO}) {
+            cocina = new CocinaDulceria(vendedores(4), n, reloj);
+            cocina.usarLotes(maximo);
+            Random rnd = new Random(7);
+            long inicio = reloj.milis();
+            for (int i = 0; i < n; i++) {
+                cocina.ofrecer(orden("r" + i, SABOR_PALOMITAS[rnd.nextInt(SABOR_PALOMITAS.length)],
+                        SABOR_REFRESCO[rnd.nextInt(SABOR_REFRESCO.length)]), 0, TimeUnit.SECONDS);
+            }
+            reloj.correrTodo();
+            System.out.printf("Lote máx. %d: %.2f órdenes por lote | %.1f órdenes por hora de vendedor | "
+                            + "todo listo en %.1f min%n", maximo, cocina.getOrdenesPorLote(),
+                    cocina.getOrdenesPorHoraVendedor(), (reloj.milis() - inicio) / 60_000.0);
+        }
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static List<VendedorDulceria> vendedores(int n) {
+        List<VendedorDulceria> lista = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            lista.add(new VendedorDulceria("Vendedor" + i, "Prueba", "Uno", "vend" + i + "_" + System.nanoTime(),
+                    "x", "v@cine.com", "5500000000", "matutino", "lunes"));
+        }
+        return lista;
+    }
+
+    /** Combo "amix": palomitas jumbo + 2 refrescos jumbo. */
+    private static OrdenDulceria orden(String nombre, String saborP, String saborR) {
+        OrdenDulceria o = new OrdenDulceria();
+        o.setClaveCompra(nombre + "-" + System.nanoTime());
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, saborP, 1, 9500);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, saborR, 2, 7000);
+        return o;
+    }
+
+    private static OrdenDulceria soloPalomitas(String nombre, String sabor) {
+        OrdenDulceria o = new OrdenDulceria();
+        o.setClaveCompra(nombre + "-" + System.nanoTime());
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, sabor, 1, 9500);
+        return o;
+    }
+}
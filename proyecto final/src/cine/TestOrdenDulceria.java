@@ -0,0 +1,81 @@
+package cine;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+/**
+ * Pruebas de las partidas de {@link OrdenDulceria} (total, sabores, formato de línea).
+ * Uso: java cine.TestOrdenDulceria [sumas]
+ */
+public class TestOrdenDulceria {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        Reloj.usar(new RelojVirtual(LocalDateTime.of(2026, 10, 24, 10, 0), 1));
+        System.out.println("=== PRUEBAS DE LA ORDEN DE DULCERÍA ===");
+
+        // 1. Partidas y total exacto en centavos
+        System.out.println("\n--- 1. Partidas ---");
+        OrdenDulceria o = new OrdenDulceria();
+        o.setTipo("Combo amix");
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "queso", 1, 6000);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "cola", 1, 4500);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "cola", 1, 4500);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "light", 1, 4500);
+        o.setDescuento(1500);
+        System.out.println("Partidas (Esperado 3: los dos refrescos de cola se juntan): " + o.getLineas());
+        System.out.println("Refrescos (Esperado 3): " + o.getPiezas(ProductoDulceria.REFRESCO));
+        System.out.println("Total en centavos (Esperado 18000): " + o.getTotalCentavos());
+        System.out.println("Sabor de la primera (Esperado queso): " + o.getSabor(0));
+        System.out.println("Partidas para la cocina (Esperado {palomitas|jumbo|queso=1, refresco|jumbo|cola=2, "
+                + "refresco|jumbo|light=1}): " + o.getPartidas());
+        System.out.println("Sabor desconocido queda sin sabor (Esperado 0): "
+                + Math.max(0, ProductoDulceria.NACHOS.modificador("mango")));
+
+        // 2. Cualquier número de partidas
+        System.out.println("\n--- 2. Muchas partidas ---");
+        OrdenDulceria grande = new OrdenDulceria();
+        long esperado = 0;
+        for (int sku = 0; sku < ProductoDulceria.SKUS; sku++) {
+            int sabores = ProductoDulceria.productoDe(sku).getSabores().size();
+            for (int m = 0; m <= sabores; m++) {
+                grande.agregar(sku, m + 1, 100 + sku, m);
+                esperado += (long) (m + 1) * (100 + sku);
+            }
+        }
+        System.out.println("Partidas (Esperado " + (ProductoDulceria.SKUS / 3 * (4 + 6 + 4)) + "): " + grande.getLineas());
+        System.out.println("Total (Esperado " + esperado + "): " + grande.getTotalCentavos());
+
+        // 3. Formato de línea
+        System.out.println("\n--- 3. Formato de línea ---");
+        o.setClaveCompra("CCX:20261024:1000");
+        o.setFuncion("F1|Sala 2", LocalDateTime.of(2026, 10, 24, 10, 30));
+        String linea = o.aLinea();
+        System.out.println("Línea: " + linea);
+        OrdenDulceria leida = OrdenDulceria.desdeLinea(linea);
+        System.out.println("Misma línea al releer (Esperado true): " + linea.equals(leida.aLinea()));
+        System.out.println("Total releído (Esperado 18000): " + leida.getTotalCentavos());
+        System.out.println("Función releída (Esperado 2026-10-24T10:30): " + leida.getInicioFuncion());
+        System.out.println("Línea mal formada (Esperado null): " + OrdenDulceria.desdeLinea("a|b|c"));
+        System.out.println("SKU fuera de rango (Esperado null): "
+                + OrdenDulceria.desdeLinea(linea.replaceFirst("\\|[0-9]+:", "|999:")));
+        System.out.println("\n" + leida.resumenOrden());
+
+        // 4. Sumar sin crear objetos
+        System.out.println("--- 4. Total sin crear objetos ---");
+        com.sun.management.ThreadMXBean hilos =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long suma = 0;
+        for (int i = 0; i < 100_000; i++) suma += grande.getTotalCentavos(); // calentar
+        long bytes = hilos.getCurrentThreadAllocatedBytes();
+        long ini = System.nanoTime();
+        for (int i = 0; i < n; i++) suma += o.getTotalCentavos();
+        long ns = System.nanoTime() - ini;
+        bytes = hilos.getCurrentThreadAllocatedBytes() - bytes;
+        System.out.printf("%,d totales en %.1f ms (%.1f ns cada uno, suma %d)%n", n, ns / 1e6, (double) ns / n, suma);
+        System.out.println("Bytes creados al sumar (Esperado < 1024): " + bytes);
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+}
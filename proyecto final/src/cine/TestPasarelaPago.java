@@ -0,0 +1,171 @@
+package cine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pruebas de la pasarela de pago ({@link PasarelaPago}, {@link BancoLocal}).
+ * Uso: java cine.TestPasarelaPago [pagosEnCurso]
+ * Usa el almacenamiento en memoria; los cobros corren con el reloj real y un banco rápido.
+ */
+public class TestPasarelaPago {
+
+    public static void main(String[] args) throws Exception {
+        int enCurso = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        Reloj.usar(new RelojReal());
+
+        System.out.println("=== PRUEBAS DE LA PASARELA DE PAGO ===");
+
+        // 1. Banco local configurable
+        System.out.println("\n--- 1. Banco local ---");
+        ResultadoPago si = new BancoLocal(10, 20, 100, null).cobrar("A", 9500).get();
+        System.out.println(si);
+        System.out.println("Aprobado con operación (Esperado true): " + (si.isAprobado() && si.getOperacion().length() == 10));
+        ResultadoPago no = new BancoLocal(10, 20, 0, null).cobrar("B", 9500).get();
+        System.out.println(no);
+        System.out.println("Declinado (Esperado false): " + no.isAprobado());
+        System.out.println("Monto cero se declina (Esperado false): " + new BancoLocal().cobrar("C", 0).get().isAprobado());
+        try {
+            new BancoLocal(50, 10, 97, null);
+            System.out.println("Latencia al revés (Esperado excepción): ninguna");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Latencia al revés (Esperado excepción): " + e.getMessage());
+        }
+        BancoLocal latencia = new BancoLocal(300, 300, 100, null);
+        long ini = System.nanoTime();
+        CompletableFuture<ResultadoPago> f = latencia.cobrar("D", 100);
+        long pedir = (System.nanoTime() - ini) / 1_000_000;
+        f.get();
+        long total = (System.nanoTime() - ini) / 1_000_000;
+        System.out.println("Cobrar no bloquea (Esperado true): " + (pedir < 100) + " (" + pedir + " ms)");
+        System.out.println("Responde tras la latencia (Esperado true): " + (total >= 300) + " (" + total + " ms)");
+
+        // 2. Dulcería: un pago declinado devuelve piezas y lugar en la cocina
+        System.out.println("\n--- 2. Dulcería con pago declinado ---");
+        InventarioDulceria inv = new InventarioDulceria(Map.of("palomitas_jumbo", 10, "refresco_jumbo", 10), 0);
+        CocinaDulceria cocina = new CocinaDulceria(vendedores(), 1, Reloj.getInstancia());
+        PasarelaPago.usar(new BancoLocal(10, 20, 0, null));
+        ControladorDulceria controlador = new ControladorDulceria(entrada(""), inv, cocina);
+        String salida = capturar(() -> controlador.finalizarOrden(combo()));
+        System.out.println("Avisa que se declinó (Esperado true): " + salida.contains("declinado"));
+        System.out.println("Refrescos disponibles / reservados (Esperado 10 / 0): "
+                + inv.getDisponible("refresco_jumbo") + " / " + inv.getReservado("refresco_jumbo"));
+        System.out.println("No entró a la cocina (Esperado 0): " + cocina.getEncoladas());
+        boolean hayLugar = cocina.reservarLugar(0, TimeUnit.SECONDS);
+        System.out.println("Se devolvió el lugar (Esperado true): " + hayLugar);
+        if (hayLugar) cocina.liberarLugar();
+
+        PasarelaPago.usar(new BancoLocal(10, 20, 100, null));
+        ControladorDulceria aprobado = new ControladorDulceria(entrada("\n"), inv, cocina);
+        salida = capturar(() -> aprobado.finalizarOrden(combo()));
+        System.out.println("Aprobado, refrescos disponibles / vendidos (Esperado 8 / 2): "
+                + inv.getDisponible("refresco_jumbo") + " / " + inv.getVendido("refresco_jumbo"));
+        System.out.println("Entró a la cocina (Esperado 1): " + cocina.getEncoladas());
+
+        // 3. Boletos: los asientos apartados se devuelven
+        System.out.println("\n--- 3. Asientos de un pago declinado ---");
+        FuncionDeCine funcion = new FuncionDeCine(new Pelicula("Prueba", "Drama", "Sinopsis", "02:00"),
+                new Sala("1", "A"), LocalDate.of(2026, 10, 24), LocalTime.of(18, 0));
+        int libres = funcion.getDisponibles();
+        List<Boleto> apartados = funcion.venderAsientosPorCodigos(List.of("A1", "A2"), "Adulto");
+        System.out.println("Apartados (Esperado " + (libres - 2) + "): " + funcion.getDisponibles());
+        funcion.liberarAsientos(apartados);
+        System.out.println("Tras declinar, libres (Esperado " + libres + "): " + funcion.getDisponibles());
+        List<Boleto> otro = funcion.venderAsientosPorCodigos(List.of("A1"), "Adulto");
+        funcion.liberarAsientos(apartados);
+        System.out.println("No libera un asiento que ya compró otro (Esperado false): " + funcion.asientoDisponible("A1"));
+        funcion.liberarAsientos(otro);
+        String ref = funcion.getIdFuncion() + ":A1";
+        System.out.println("Volver a pagar los mismos asientos usa otra referencia (Esperado true): "
+                + !PasarelaPago.nuevaReferencia(ref).equals(PasarelaPago.nuevaReferencia(ref)));
+
+        // 4. Miles de pagos en curso a la vez
+        System.out.println("\n--- 4. " + enCurso + " pagos en curso ---");
+        BancoLocal banco = new BancoLocal(1000, 2000, 97, null);
+        int hilosAntes = Thread.activeCount();
+        AtomicInteger aprobados = new AtomicInteger();
+        List<CompletableFuture<ResultadoPago>> pagos = new ArrayList<>(enCurso);
+        ini = System.nanoTime();
+        for (int i = 0; i < enCurso; i++) {
+            CompletableFuture<ResultadoPago> p = banco.cobrar("P" + i, 10_000);
+            p.thenAccept(r -> { if (r.isAprobado()) aprobados.incrementAndGet(); });
+            pagos.add(p);
+        }
+        double pedirMs = (System.nanoTime() - ini) / 1e6;
+        int hilosDurante = Thread.activeCount();
+        System.out.printf("Cobros pedidos en %.1f ms%n", pedirMs);
+        System.out.println("En curso a la vez (Esperado " + enCurso + "): " + banco.getMaxEnCurso());
+        System.out.println("Hilos nuevos mientras tanto < 10 (Esperado true): " + (hilosDurante - hilosAntes < 10)
+                + " (" + (hilosDurante - hilosAntes) + ")");
+        CompletableFuture.allOf(pagos.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        double totalSeg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("Todos respondidos en %.2f s (Esperado entre 1 y 3)%n", totalSeg);
+        double porcentaje = 100.0 * aprobados.get() / enCurso;
+        System.out.printf("Aprobados %.1f%% (Esperado cerca de 97%%)%n", porcentaje);
+        System.out.println(banco.resumen());
+
+        // 5. En tiempo virtual la misma semilla da los mismos pagos
+        System.out.println("\n--- 5. Tiempo virtual ---");
+        String[] huellas = new String[2];
+        for (int k = 0; k < 2; k++) {
+            RelojVirtual reloj = new RelojVirtual(LocalDateTime.of(2026, 10, 24, 10, 0), 7);
+            Reloj.usar(reloj);
+            BancoLocal virtual = new BancoLocal(2000, 5000, 97, new java.util.Random(7));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                virtual.cobrar("V" + i, 100).thenAccept(r -> sb.append(r.isAprobado() ? 'a' : 'd'));
+            }
+            reloj.correrTodo();
+            huellas[k] = sb.toString();
+        }
+        System.out.println("Misma secuencia (Esperado true): " + huellas[0].equals(huellas[1]));
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static Scanner entrada(String texto) {
+        return new Scanner(new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+    }
+
+    /** Corre la tarea con System.out a un búfer y regresa lo que imprimió. */
+    private static String capturar(Runnable tarea) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buf, true, StandardCharsets.UTF_8));
+        try {
+            tarea.run();
+        } finally {
+            System.setOut(original);
+        }
+        return buf.toString(StandardCharsets.UTF_8);
+    }
+
+    private static List<VendedorDulceria> vendedores() {
+        List<VendedorDulceria> lista = new ArrayList<>();
+        lista.add(new VendedorDulceria("Vendedor", "Prueba", "Uno", "vend_" + System.nanoTime(),
+                "x", "v@cine.com", "5500000000", "matutino", "lunes"));
+        return lista;
+    }
+
+    /** Combo "amix": palomitas jumbo + 2 refrescos jumbo. */
+    private static OrdenDulceria combo() {
+        OrdenDulceria o = new OrdenDulceria();
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "mantequilla", 1, 9500);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "cola", 2, 7000);
+        return o;
+    }
+}
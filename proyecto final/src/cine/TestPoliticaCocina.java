@@ -0,0 +1,114 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas del orden de atención de la cocina (FIFO y EDF por hora de función).
+ * Usa el almacenamiento en memoria y un {@link RelojVirtual}; un solo vendedor y sin
+ * lotes para que el orden de salida sea el orden de la cola. La comparación con carga real está
+ * en {@link SimulacionDulceria}.
+ */
+public class TestPoliticaCocina {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2026, 10, 24, 10, 0);
+
+    public static void main(String[] args) {
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        RelojVirtual reloj = new RelojVirtual(INICIO, 1);
+        Reloj.usar(reloj);
+
+        System.out.println("=== PRUEBAS DEL ORDEN DE LA COCINA ===");
+
+        // 1. Con el vendedor ocupado llegan tres órdenes: sale primero la función más próxima
+        System.out.println("\n--- 1. Primero la función más próxima ---");
+        for (CocinaDulceria.Politica pol : CocinaDulceria.Politica.values()) {
+            CocinaDulceria cocina = cocina(10, reloj, pol);
+            cocina.ofrecer(orden("ocupa", null), 0, TimeUnit.SECONDS);
+            List<OrdenDulceria> ordenes = List.of(
+                    orden("A", INICIO.plusMinutes(18)),
+                    orden("B", INICIO.plusMinutes(6)),
+                    orden("C", INICIO.plusMinutes(12)));
+            for (OrdenDulceria o : ordenes) cocina.ofrecer(o, 0, TimeUnit.SECONDS);
+            System.out.println(pol + " (Esperado " + (pol == CocinaDulceria.Politica.EDF ? "BCA" : "ABC") + "): "
+                    + ordenDeSalida(reloj, ordenes));
+        }
+
+        // 2. Inanición: una orden con función lejana no espera detrás de un flujo sin fin
+        // de órdenes más urgentes. Sin envejecimiento saldría al terminar el flujo (1 h).
+        System.out.println("\n--- 2. Envejecimiento ---");
+        CocinaDulceria cocina = cocina(1000, reloj, CocinaDulceria.Politica.EDF);
+        long llegada = reloj.milis();
+        cocina.ofrecer(orden("ocupa", null), 0, TimeUnit.SECONDS);
+        OrdenDulceria lejana = orden("lejana", reloj.ahora().plusHours(3));
+        cocina.ofrecer(lejana, 0, TimeUnit.SECONDS);
+        // Cada 20 s llega otra con función en 10 min: el vendedor nunca se desocupa
+        long salida = -1;
+        for (int i = 0; i < 180; i++) {
+            reloj.dormir(20_000);
+            cocina.ofrecer(orden("flujo" + i, reloj.ahora().plusMinutes(10)), 0, TimeUnit.SECONDS);
+            if (salida < 0 && lista(lejana)) salida = reloj.milis();
+        }
+        double minutos = (salida - llegada) / 60_000.0;
+        long limite = CocinaDulceria.ESPERA_MAXIMA_MS / 60_000;
+        System.out.println("La lejana salió mientras seguía el flujo (Esperado true): " + (salida > 0));
+        System.out.printf("Minutos hasta quedar lista (Esperado entre 10 y %d + lo que se preparaba): %.1f%n",
+                limite, minutos);
+        reloj.correrTodo();
+
+        // 3. Métricas de atraso
+        System.out.println("\n--- 3. Atrasos ---");
+        CocinaDulceria tarde = cocina(10, reloj, CocinaDulceria.Politica.EDF);
+        tarde.ofrecer(orden("apenas", reloj.ahora().plusSeconds(10)), 0, TimeUnit.SECONDS);
+        tarde.ofrecer(orden("holgada", reloj.ahora().plusMinutes(30)), 0, TimeUnit.SECONDS);
+        tarde.ofrecer(orden("sinFuncion", null), 0, TimeUnit.SECONDS);
+        reloj.correrTodo();
+        System.out.println("Con función (Esperado 2): " + tarde.getConFuncion());
+        System.out.println("Listas tarde (Esperado 1): " + tarde.getAtrasadas());
+        System.out.println("Tasa de atraso (Esperado 0.5): " + tarde.getTasaAtraso());
+        System.out.println("Atraso máximo > 0 (Esperado true): " + (tarde.getAtrasoMaxMs() > 0));
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    /** Avanza el reloj de segundo en segundo y anota en qué orden quedan listas. */
+    private static String ordenDeSalida(RelojVirtual reloj, List<OrdenDulceria> ordenes) {
+        StringBuilder salida = new StringBuilder();
+        while (salida.length() < ordenes.size()) {
+            reloj.dormir(1000);
+            for (OrdenDulceria o : ordenes) {
+                String nombre = o.getClaveCompra().substring(0, 1);
+                if (lista(o) && salida.indexOf(nombre) < 0) salida.append(nombre);
+            }
+        }
+        return salida.toString();
+    }
+
+    private static boolean lista(OrdenDulceria o) {
+        return GestorNotificaciones.leerNotificacion(o.getClaveCompra()).contains("lista");
+    }
+
+    private static CocinaDulceria cocina(int capacidad, Reloj reloj, CocinaDulceria.Politica politica) {
+        CocinaDulceria c = new CocinaDulceria(vendedor(), capacidad, reloj, politica);
+        c.usarLotes(1);
+        return c;
+    }
+
+    private static List<VendedorDulceria> vendedor() {
+        List<VendedorDulceria> lista = new ArrayList<>();
+        lista.add(new VendedorDulceria("Vendedor", "Prueba", "Uno", "vend_" + System.nanoTime(),
+                "x", "v@cine.com", "5500000000", "matutino", "lunes"));
+        return lista;
+    }
+
+    private static OrdenDulceria orden(String nombre, LocalDateTime funcion) {
+        OrdenDulceria o = new OrdenDulceria();
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "mantequilla", 1, 9000);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "cola", 1, 7000);
+        o.setClaveCompra(nombre + "-" + System.nanoTime());
+        if (funcion != null) o.setFuncion("PRUEBA", funcion);
+        return o;
+    }
+}
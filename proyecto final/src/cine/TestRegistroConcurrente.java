@@ -0,0 +1,160 @@
+package cine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de estrés del registro concurrente de usuarios.
+ * Uso: java cine.TestRegistroConcurrente [nicknames] [hilos]
+ * <p>
+ * Cada nickname lo intentan registrar varios hilos a la vez (con mayúsculas distintas)
+ * mientras otros hilos inician sesión y recorren la lista de clientes. Usa el
+ * almacenamiento en memoria; no toca ArchivosAplicacion.
+ * </p>
+ */
+public class TestRegistroConcurrente {
+
+    /** Cuántos hilos compiten por cada nickname. */
+    private static final int COMPETIDORES = 4;
+
+    /** Clientes guardados con contraseña en texto plano antes de arrancar. */
+    private static final int LEGADOS = 2_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int nicknames = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        // Costo de hash bajo: aquí se prueba la concurrencia, no PBKDF2 (ver TestSeguridadContrasenas)
+        System.setProperty("cine.pbkdf2Iteraciones", "100");
+
+        System.out.println("=== ESTRÉS DE REGISTRO CONCURRENTE ===");
+        System.out.println("Nicknames: " + nicknames + " | Intentos: " + (nicknames * COMPETIDORES)
+                + " | Hilos de registro: " + hilos);
+
+        // Clientes de antes con contraseña en texto plano: su migración corre durante los registros
+        // y su guardado completo es lento (como un disco), para que coincida con altas nuevas
+        Almacenamiento almacen = new AlmacenamientoMemoria() {
+            @Override
+            public void guardarClientes(List<Cliente> lista) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.guardarClientes(lista);
+            }
+        };
+        for (int i = 0; i < LEGADOS; i++) {
+            almacen.guardarCliente(new Cliente("Legado" + i, "Paterno", "Materno", 30, "legado" + i, "pass" + i,
+                    "legado" + i + "@cine.com", "5500000000", "4000000000000000"));
+        }
+        GestorArchivos.usarAlmacenamiento(almacen);
+        SistemaAutenticacion sistema = new SistemaAutenticacion();
+        int inicialesClientes = sistema.getClientes().size();
+
+        AtomicInteger exitos = new AtomicInteger();
+        AtomicInteger rechazos = new AtomicInteger();
+        AtomicInteger loginsFallidos = new AtomicInteger();
+        AtomicInteger ocupados = new AtomicInteger();
+        ConcurrentLinkedQueue<String> errores = new ConcurrentLinkedQueue<>();
+        CountDownLatch salida = new CountDownLatch(1);
+        CountDownLatch registrosTerminados = new CountDownLatch(hilos);
+
+        // 1. Registros: el intento k de cada nickname usa otra combinación de mayúsculas
+        List<Thread> todos = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            final int id = h;
+            Thread t = new Thread(() -> {
+                try {
+                    salida.await();
+                    for (int intento = 0; intento < nicknames * COMPETIDORES; intento++) {
+                        if (intento % hilos != id) continue;
+                        int n = intento / COMPETIDORES;
+                        String nick = (intento % 2 == 0 ? "usuario" : "USUARIO") + n;
+                        Cliente c = new Cliente("Nombre" + n, "Paterno", "Materno", 30, nick, "pass" + n,
+                                nick + "@cine.com", "5500000000", "4000000000000000");
+                        while (true) {
+                            try {
+                                if (sistema.registrarCliente(c)) exitos.incrementAndGet();
+                                else rechazos.incrementAndGet();
+                                break;
+                            } catch (SistemaOcupadoException e) {
+                                ocupados.incrementAndGet(); // pool de contraseñas lleno: se reintenta
+                                Thread.sleep(1);
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    errores.add(e.toString());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    registrosTerminados.countDown();
+                }
+            });
+            todos.add(t);
+        }
+
+        // 2. Lectores simultáneos: login de usuarios ya registrados y recorrido de la lista
+        for (int h = 0; h < 4; h++) {
+            final int id = h;
+            Thread t = new Thread(() -> {
+                try {
+                    salida.await();
+                    while (registrosTerminados.getCount() > 0) {
+                        if (id % 2 == 0) {
+                            for (Cliente c : sistema.getClientes()) {
+                                try {
+                                    if (sistema.autenticar(c.getNickname(), contrasenaDe(c.getNickname())) == null) {
+                                        loginsFallidos.incrementAndGet();
+                                    }
+                                } catch (SistemaOcupadoException e) {
+                                    ocupados.incrementAndGet(); // se vuelve a probar en la siguiente vuelta
+                                }
+                            }
+                        } else {
+                            sistema.nicknameExiste("usuario" + id);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    errores.add(e.toString());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            todos.add(t);
+        }
+
+        for (Thread t : todos) t.start();
+        long ini = System.nanoTime();
+        salida.countDown();
+        for (Thread t : todos) t.join();
+        double seg = (System.nanoTime() - ini) / 1e9;
+
+        System.out.printf("%nTiempo: %.2f s | %.0f intentos/s%n", seg, nicknames * COMPETIDORES / seg);
+        System.out.println("Registros exitosos (Esperado " + nicknames + "): " + exitos.get());
+        System.out.println("Rechazos por duplicado (Esperado " + (nicknames * (COMPETIDORES - 1)) + "): "
+                + rechazos.get());
+        System.out.println("Clientes en lista (Esperado " + nicknames + "): "
+                + (sistema.getClientes().size() - inicialesClientes));
+        System.out.println("Contraseñas migradas al arrancar, con el administrador (Esperado " + (LEGADOS + 1) + "): "
+                + sistema.getMigracion().join());
+        System.out.println("Clientes guardados tras migrar (Esperado " + (nicknames + LEGADOS) + "): "
+                + almacen.cargarClientes().size());
+        System.out.println("Logins fallidos de usuarios registrados (Esperado 0): " + loginsFallidos.get());
+        System.out.println("Rechazos por pool de contraseñas ocupado (reintentados): " + ocupados.get());
+        System.out.println("Excepciones (Esperado 0): " + errores.size());
+        errores.stream().limit(5).forEach(System.out::println);
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    /** Contraseña con la que se registró cada usuario de la prueba. */
+    private static String contrasenaDe(String nickname) {
+        if (nickname.equals("elAdministrador")) return "3l4dm1n";
+        return "pass" + nickname.replaceAll("\\D", "");
+    }
+}
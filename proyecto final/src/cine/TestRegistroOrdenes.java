@@ -0,0 +1,207 @@
+package cine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Pruebas de la máquina de estados de órdenes ({@link RegistroOrdenes}).
+ * Uso: java cine.TestRegistroOrdenes [ordenes] [hilos]
+ * Trabaja en memoria y sobre carpetas temporales; no toca ArchivosAplicacion.
+ */
+public class TestRegistroOrdenes {
+
+    /** Segmentos chicos para que la prueba genere varios. */
+    private static final long TAM_SEGMENTO = 64 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int ordenes = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        RelojVirtual reloj = new RelojVirtual(LocalDateTime.of(2026, 10, 24, 10, 0), 1);
+        Reloj.usar(reloj);
+
+        System.out.println("=== PRUEBAS DEL REGISTRO DE ÓRDENES ===");
+
+        // 1. La cocina lleva la orden por todos los estados
+        System.out.println("\n--- 1. Ciclo de una orden ---");
+        RegistroOrdenes registro = new RegistroOrdenes(new AlmacenamientoMemoria());
+        List<VendedorDulceria> vendedores = new ArrayList<>();
+        vendedores.add(new VendedorDulceria("Vendedor", "Prueba", "Uno", "vend_" + System.nanoTime(),
+                "x", "v@cine.com", "5500000000", "matutino", "lunes"));
+        CocinaDulceria cocina = new CocinaDulceria(vendedores, 100, reloj);
+        cocina.usarRegistro(registro);
+        OrdenDulceria o = new OrdenDulceria();
+        o.setClaveCompra("ciclo-" + System.nanoTime());
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "queso", 1, 9500);
+        String clave = o.getClaveCompra();
+        cocina.ofrecer(o, 0, TimeUnit.SECONDS);
+        System.out.println("Recién pagada (Esperado EN_COLA: el reloj aún no corre): " + registro.getEstado(clave));
+        reloj.correrTodo();
+        System.out.println("Al terminar (Esperado LISTA): " + registro.getEstado(clave));
+        System.out.println("Listas para entregar (Esperado [" + clave + "]): " + registro.ordenesEn(EstadoOrden.LISTA));
+        System.out.println("Recoger (Esperado true): " + registro.recoger(clave));
+        System.out.println("Recoger otra vez (Esperado false): " + registro.recoger(clave));
+        List<EventoOrden> historial = registro.historial(clave);
+        for (EventoOrden e : historial) System.out.println("  " + e);
+        System.out.println("Eventos (Esperado 5): " + historial.size());
+        System.out.println("Asignada a (Esperado " + vendedores.get(0).getNickname() + "): "
+                + registro.getEvento(clave, EstadoOrden.ASIGNADA).getDetalle());
+        System.out.println("Orden desconocida (Esperado null): " + registro.getEstado("no-existe"));
+
+        // 2. Transiciones inválidas
+        System.out.println("\n--- 2. Transiciones inválidas (se reportan en System.err) ---");
+        System.out.println("Nueva que empieza lista (Esperado false): " + registro.registrar("x1", EstadoOrden.LISTA, ""));
+        registro.registrar("x2", EstadoOrden.EN_COLA, "");
+        System.out.println("Saltarse la asignación (Esperado false): " + registro.registrar("x2", EstadoOrden.PREPARANDO, ""));
+        System.out.println("Sigue en cola (Esperado EN_COLA): " + registro.getEstado("x2"));
+        System.out.println("Recoger sin estar lista (Esperado false): " + registro.recoger("x2"));
+
+        // 3. Varios hilos registrando a la vez; consulta por clave
+        System.out.println("\n--- 3. " + ordenes + " órdenes desde " + hilos + " hilos ---");
+        RegistroOrdenes concurrente = new RegistroOrdenes(new AlmacenamientoMemoria());
+        long ini = System.nanoTime();
+        correrCiclos(concurrente, ordenes, hilos);
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("%,d eventos en %.2f s (%.0f eventos/s)%n", ordenes * 4L, seg, ordenes * 4 / seg);
+        System.out.println("Listas (Esperado " + (ordenes - ordenes / 2) + "): " + concurrente.getCuantas(EstadoOrden.LISTA));
+        System.out.println("Recogidas (Esperado " + ordenes / 2 + "): " + concurrente.getCuantas(EstadoOrden.RECOGIDA));
+        System.out.println("En cola (Esperado 0): " + concurrente.getCuantas(EstadoOrden.EN_COLA));
+        List<EventoOrden> ultimos = concurrente.recientes(5);
+        boolean enOrden = ultimos.size() == 5;
+        for (int i = 1; i < ultimos.size(); i++) {
+            enOrden &= ultimos.get(i).getSecuencia() == ultimos.get(i - 1).getSecuencia() + 1;
+        }
+        System.out.println("Últimos 5 eventos seguidos (Esperado true): " + enOrden);
+        String[] claves = new String[ordenes];
+        for (int i = 0; i < ordenes; i++) claves[i] = "o" + i;
+        int consultas = 1_000_000;
+        int listas = 0;
+        for (int i = 0; i < consultas; i++) concurrente.getEstado(claves[i % ordenes]); // calentar
+        ini = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            if (concurrente.getEstado(claves[i % ordenes]) == EstadoOrden.LISTA) listas++;
+        }
+        long ns = System.nanoTime() - ini;
+        System.out.printf("%,d consultas de estado en %.1f ms (%.0f ns cada una)%n", consultas, ns / 1e6, (double) ns / consultas);
+        System.out.println("Listas vistas (Esperado " + consultas / 2 + "): " + listas);
+
+        // 4. Cola durable: otro registro sobre los mismos archivos ve el último estado
+        System.out.println("\n--- 4. Reproducción desde archivos ---");
+        Path carpeta = Files.createTempDirectory("ordenes");
+        try {
+            AlmacenamientoArchivos almacen = new AlmacenamientoArchivos(carpeta.toString(), TAM_SEGMENTO);
+            RegistroOrdenes durable = new RegistroOrdenes(almacen);
+            correrCiclos(durable, ordenes, hilos);
+            durable.vaciar();
+            RegistroOrdenes reabierto = new RegistroOrdenes(new AlmacenamientoArchivos(carpeta.toString(), TAM_SEGMENTO));
+            System.out.println("Recogidas (Esperado " + ordenes / 2 + "): " + reabierto.getCuantas(EstadoOrden.RECOGIDA));
+            System.out.println("Estado de o1 (Esperado LISTA): " + reabierto.getEstado("o1"));
+
+            System.out.println("Segmentos sellados antes: " + almacen.getBitacoraOrdenes().segmentosSellados().size());
+            new Compactador(Compactador.BYTES_SEG_POR_DEFECTO).compactar(almacen.getBitacoraOrdenes());
+            System.out.println("Segmentos sellados después: " + almacen.getBitacoraOrdenes().segmentosSellados().size());
+            RegistroOrdenes compactado = new RegistroOrdenes(new AlmacenamientoArchivos(carpeta.toString(), TAM_SEGMENTO));
+            System.out.println("Tras compactar, listas / recogidas (Esperado " + (ordenes - ordenes / 2) + " / "
+                    + ordenes / 2 + "): " + compactado.getCuantas(EstadoOrden.LISTA) + " / "
+                    + compactado.getCuantas(EstadoOrden.RECOGIDA));
+            System.out.println("Sigue la secuencia (Esperado true): " + (compactado.registrar("nueva", EstadoOrden.EN_COLA, "")
+                    && compactado.getEvento("nueva", EstadoOrden.EN_COLA).getSecuencia() == ordenes * 4L + ordenes / 2 + 1));
+        } finally {
+            borrar(carpeta);
+        }
+
+        // 5. Dos clientes pagan en el mismo minuto desde el mostrador: cada orden con su clave
+        System.out.println("\n--- 5. Dos órdenes del mostrador en el mismo minuto ---");
+        RelojVirtual mostrador = new RelojVirtual(LocalDateTime.of(2026, 10, 24, 18, 0), 2);
+        Reloj.usar(mostrador);
+        PasarelaPago.usar(new BancoLocal(10, 20, 100, new Random(2)));
+        RegistroOrdenes caja = new RegistroOrdenes(new AlmacenamientoMemoria());
+        CocinaDulceria cocinaCaja = new CocinaDulceria(vendedores, 100, mostrador);
+        cocinaCaja.usarRegistro(caja);
+        InventarioDulceria inv = new InventarioDulceria(Map.of("palomitas_jumbo", 10), 0);
+        OrdenDulceria primera = palomitas();
+        OrdenDulceria segunda = palomitas();
+        silencio(() -> {
+            new ControladorDulceria(entrada("\n"), inv, cocinaCaja).finalizarOrden(primera);
+            new ControladorDulceria(entrada("\n"), inv, cocinaCaja).finalizarOrden(segunda);
+        });
+        System.out.println("Claves: " + primera.getClaveCompra() + " / " + segunda.getClaveCompra());
+        System.out.println("Mismo minuto (Esperado 18:00): " + mostrador.ahora().toLocalTime().withSecond(0).withNano(0));
+        System.out.println("Claves distintas (Esperado true): " + !primera.getClaveCompra().equals(segunda.getClaveCompra()));
+        // Mientras la segunda pagaba, el vendedor libre ya tomó la primera
+        System.out.println("Cada una con su estado (Esperado ASIGNADA / EN_COLA): " + caja.getEstado(primera.getClaveCompra())
+                + " / " + caja.getEstado(segunda.getClaveCompra()));
+        System.out.println("Eventos por orden (Esperado 2 / 1): " + caja.historial(primera.getClaveCompra()).size()
+                + " / " + caja.historial(segunda.getClaveCompra()).size());
+        mostrador.correrTodo();
+        System.out.println("Las dos listas por separado (Esperado LISTA / LISTA): " + caja.getEstado(primera.getClaveCompra())
+                + " / " + caja.getEstado(segunda.getClaveCompra()));
+        System.out.println("Entregar la primera no toca la segunda (Esperado true / LISTA): "
+                + caja.recoger(primera.getClaveCompra()) + " / " + caja.getEstado(segunda.getClaveCompra()));
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static OrdenDulceria palomitas() {
+        OrdenDulceria o = new OrdenDulceria();
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "queso", 1, 9500);
+        return o;
+    }
+
+    private static Scanner entrada(String texto) {
+        return new Scanner(new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+    }
+
+    /** Corre la tarea sin imprimir en System.out (la compra imprime su resumen). */
+    private static void silencio(Runnable tarea) {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+        try {
+            tarea.run();
+        } finally {
+            System.setOut(original);
+        }
+    }
+
+    /** Lleva las órdenes o0..o(n-1) hasta lista; las pares además se recogen. */
+    private static void correrCiclos(RegistroOrdenes registro, int ordenes, int hilos) throws InterruptedException {
+        List<Thread> kioscos = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            final int id = h;
+            Thread t = new Thread(() -> {
+                for (int i = id; i < ordenes; i += hilos) {
+                    String clave = "o" + i;
+                    registro.registrar(clave, EstadoOrden.EN_COLA, "");
+                    registro.registrar(clave, EstadoOrden.ASIGNADA, "vend" + id);
+                    registro.registrar(clave, EstadoOrden.PREPARANDO, "");
+                    registro.registrar(clave, EstadoOrden.LISTA, "");
+                    if (i % 2 == 0) registro.recoger(clave);
+                }
+            });
+            kioscos.add(t);
+            t.start();
+        }
+        for (Thread t : kioscos) t.join();
+    }
+
+    private static void borrar(Path carpeta) throws IOException {
+        try (Stream<Path> s = Files.walk(carpeta)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
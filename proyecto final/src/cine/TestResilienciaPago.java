@@ -0,0 +1,241 @@
+package cine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pruebas de plazos, reintentos e interruptor de pagos ({@link PasarelaResiliente},
+ * {@link CircuitoPago}) con fallas inyectadas en el {@link BancoLocal}.
+ * Uso: java cine.TestResilienciaPago [cobros]
+ * Casi todo corre en un {@link RelojVirtual}; la última prueba usa el reloj real.
+ */
+public class TestResilienciaPago {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2026, 10, 24, 18, 0);
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+
+        System.out.println("=== PRUEBAS DE RESILIENCIA DE PAGOS ===");
+
+        // 1. Banco colgado: cada intento vence y el cobro termina dentro del plazo
+        System.out.println("\n--- 1. Banco que no responde ---");
+        RelojVirtual reloj = nuevoReloj();
+        BancoLocal colgado = new BancoLocal(2000, 5000, 100, new Random(1));
+        colgado.inyectarFallas(0, 100, 0);
+        PasarelaResiliente p = new PasarelaResiliente(colgado, new CircuitoPago(1000, 100, 30_000),
+                3000, 2, 500, 4000, 60_000);
+        List<CompletableFuture<ResultadoPago>> cobros = new ArrayList<>();
+        for (int i = 0; i < 200; i++) cobros.add(p.cobrar("C" + i, 10_000));
+        Set<Long> fines = new HashSet<>();
+        for (CompletableFuture<ResultadoPago> c : cobros) c.thenRun(() -> fines.add(Reloj.getInstancia().milis()));
+        reloj.correrTodo();
+        ResultadoPago r = cobros.get(0).get();
+        System.out.println(r);
+        System.out.println("Declinado reintentable (Esperado true): " + (!r.isAprobado() && r.isReintentable()));
+        System.out.println("Intentos por cobro (Esperado 3.0): " + (double) p.getIntentos() / cobros.size());
+        System.out.println("Intentos vencidos (Esperado 600): " + p.getSinRespuesta());
+        System.out.printf("Tiempo máximo %.1f s (Esperado entre 9 y 14: 3 intentos de 3 s y dos esperas)%n",
+                p.getLatenciaMaxMs() / 1000.0);
+        System.out.println("Con espera al azar terminan en momentos distintos (Esperado más de 150 de 200): "
+                + fines.size());
+        PasarelaResiliente corto = new PasarelaResiliente(colgado, new CircuitoPago(1000, 100, 30_000),
+                3000, 5, 500, 4000, 5000);
+        CompletableFuture<ResultadoPago> conPlazo = corto.cobrar("plazo", 10_000);
+        reloj.correrTodo();
+        System.out.println("Con plazo de 5 s, declinado (Esperado false): " + conPlazo.get().isAprobado());
+        System.out.println("Y no pasó del plazo (Esperado true): " + (corto.getLatenciaMaxMs() <= 5000)
+                + " (" + corto.getLatenciaMaxMs() + " ms)");
+
+        // 2. Caídas intermitentes: los reintentos recuperan la mayoría
+        System.out.println("\n--- 2. Banco caído la mitad de las veces ---");
+        double[] aprobados = new double[2];
+        for (int k = 0; k < 2; k++) {
+            reloj = nuevoReloj();
+            BancoLocal intermitente = new BancoLocal(1000, 2000, 100, new Random(2));
+            intermitente.inyectarFallas(50, 0, 0);
+            PasarelaResiliente pr = new PasarelaResiliente(intermitente, new CircuitoPago(1000, 100, 30_000),
+                    8000, k == 0 ? 0 : 2, 500, 4000, 20_000);
+            int[] ok = new int[1];
+            for (int i = 0; i < 2000; i++) pr.cobrar("I" + i, 10_000).thenAccept(x -> { if (x.isAprobado()) ok[0]++; });
+            reloj.correrTodo();
+            aprobados[k] = ok[0] / 20.0;
+        }
+        System.out.printf("Aprobados sin reintentos %.1f%% (Esperado cerca de 50%%)%n", aprobados[0]);
+        System.out.printf("Aprobados con 2 reintentos %.1f%% (Esperado cerca de 87.5%%)%n", aprobados[1]);
+        reloj = nuevoReloj();
+        BancoLocal estricto = new BancoLocal(1000, 2000, 0, new Random(3));
+        PasarelaResiliente sinReintento = new PasarelaResiliente(estricto, new CircuitoPago(),
+                8000, 2, 500, 4000, 20_000);
+        sinReintento.cobrar("fondos", 10_000);
+        reloj.correrTodo();
+        System.out.println("Declinado por el cliente no se reintenta (Esperado 1 intento): " + sinReintento.getIntentos());
+
+        // 3. Interruptor: el banco se degrada y se recupera
+        System.out.println("\n--- 3. Interruptor ---");
+        reloj = nuevoReloj();
+        BancoLocal degradable = new BancoLocal(1000, 2000, 100, new Random(4));
+        CircuitoPago circuito = new CircuitoPago(20, 50, 10_000);
+        PasarelaResiliente pi = new PasarelaResiliente(degradable, circuito, 3000, 1, 200, 1000, 8000);
+        List<Long> rapidos = new ArrayList<>(); // duración de los cobros rechazados por el interruptor
+        for (int s = 0; s < 120; s++) {
+            final int seg = s;
+            reloj.programar(s * 1000L, () -> {
+                if (seg == 20) degradable.inyectarFallas(100, 0, 0);
+                if (seg == 60) degradable.inyectarFallas(0, 0, 0);
+                for (int i = 0; i < 2; i++) {
+                    Reloj rv = Reloj.getInstancia();
+                    long ini = rv.milis();
+                    long rechazosAntes = circuito.getRechazados();
+                    CompletableFuture<ResultadoPago> c = pi.cobrar("S" + seg + "-" + i, 10_000);
+                    if (circuito.getRechazados() > rechazosAntes) c.thenRun(() -> rapidos.add(rv.milis() - ini));
+                }
+            });
+        }
+        reloj.correrTodo();
+        System.out.println(pi.resumen());
+        System.out.println("Se abrió al degradarse (Esperado true): " + (circuito.getEntradas(CircuitoPago.Estado.ABIERTO) >= 1));
+        System.out.println("Probó y se volvió a abrir mientras seguía caído (Esperado true): "
+                + (circuito.getEntradas(CircuitoPago.Estado.ABIERTO) >= 2
+                && circuito.getEntradas(CircuitoPago.Estado.SEMIABIERTO) >= 2));
+        System.out.println("Se cerró al recuperarse (Esperado CERRADO): " + circuito.getEstado()
+                + " (último cambio " + circuito.getUltimoCambio().toLocalTime() + ")");
+        long maxRapido = 0;
+        for (long x : rapidos) maxRapido = Math.max(maxRapido, x);
+        System.out.println("Rechazados al instante > 0 (Esperado true): " + (circuito.getRechazados() > 0)
+                + " (" + circuito.getRechazados() + ")");
+        System.out.println("Con el interruptor abierto responde en 0 ms (Esperado 0): " + maxRapido);
+
+        // 4. Tiempo del cobro con fallas inyectadas: banco solo contra pasarela resiliente
+        System.out.println("\n--- 4. " + n + " cobros con fallas inyectadas ---");
+        System.out.println("Fallas: 10% caídos, 10% sin respuesta, +2 s de latencia");
+        long[] maximos = new long[2];
+        long[] sinTerminar = new long[2];
+        long[] cargosDeMas = new long[1];
+        for (int k = 0; k < 2; k++) {
+            reloj = nuevoReloj();
+            BancoLocal banco = new BancoLocal(BancoLocal.LATENCIA_MIN_POR_DEFECTO, BancoLocal.LATENCIA_MAX_POR_DEFECTO,
+                    97, new Random(5));
+            banco.inyectarFallas(10, 10, 2000);
+            PasarelaPago pasarela = k == 0 ? banco : new PasarelaResiliente(banco);
+            long[] max = new long[1];
+            int[] terminados = new int[1];
+            int[] aprobadosCliente = new int[1];
+            Random llegadas = new Random(6);
+            long t = 0;
+            for (int i = 0; i < n; i++) {
+                t += llegadas.nextInt(400);
+                final int id = i;
+                reloj.programar(t, () -> {
+                    long ini = Reloj.getInstancia().milis();
+                    pasarela.cobrar("F" + id, 10_000).thenAccept(x -> {
+                        terminados[0]++;
+                        if (x.isAprobado()) aprobadosCliente[0]++;
+                        max[0] = Math.max(max[0], Reloj.getInstancia().milis() - ini);
+                    });
+                });
+            }
+            reloj.correrTodo();
+            maximos[k] = max[0];
+            sinTerminar[k] = n - terminados[0];
+            if (k == 1) {
+                System.out.println(((PasarelaResiliente) pasarela).resumen());
+                cargosDeMas[0] = banco.getAprobados() - banco.getAnulados() - aprobadosCliente[0];
+            }
+        }
+        System.out.printf("Banco solo: %d cobros nunca terminan, el más lento que terminó %.1f s%n",
+                sinTerminar[0], maximos[0] / 1000.0);
+        System.out.printf("Resiliente: %d sin terminar (Esperado 0), máximo %.1f s (Esperado <= %.1f)%n",
+                sinTerminar[1], maximos[1] / 1000.0, PasarelaResiliente.PLAZO_MS_POR_DEFECTO / 1000.0);
+        System.out.println("Cargos que quedaron sin aprobarse al cliente (Esperado 0): " + cargosDeMas[0]);
+
+        // 5. Banco más lento que el plazo por intento: el reintento no cobra otra vez
+        System.out.println("\n--- 5. Banco más lento que el plazo por intento ---");
+        reloj = nuevoReloj();
+        BancoLocal lento = new BancoLocal(4000, 6000, 100, new Random(7));
+        PasarelaResiliente pl = new PasarelaResiliente(lento, new CircuitoPago(1000, 100, 30_000),
+                3000, 2, 500, 4000, 20_000);
+        int[] aprobadosLento = new int[1];
+        for (int i = 0; i < 300; i++) pl.cobrar("L" + i, 10_000).thenAccept(x -> { if (x.isAprobado()) aprobadosLento[0]++; });
+        reloj.correrTodo();
+        System.out.println(pl.resumen());
+        System.out.println("Intentos vencidos > 0 (Esperado true): " + (pl.getSinRespuesta() > 0)
+                + " (" + pl.getSinRespuesta() + ")");
+        System.out.println("Aprobados al cliente (Esperado 300): " + aprobadosLento[0]);
+        System.out.println("Un cargo por referencia (Esperado 300 cargos): " + lento.getAprobados()
+                + " (" + lento.getRepetidos() + " intentos repetidos)");
+        reloj = nuevoReloj();
+        BancoLocal tardio = new BancoLocal(8000, 9000, 100, new Random(8));
+        PasarelaResiliente pt = new PasarelaResiliente(tardio, new CircuitoPago(1000, 100, 30_000),
+                3000, 2, 500, 4000, 5000);
+        int[] aprobadosTardio = new int[1];
+        for (int i = 0; i < 100; i++) pt.cobrar("T" + i, 10_000).thenAccept(x -> { if (x.isAprobado()) aprobadosTardio[0]++; });
+        reloj.correrTodo();
+        System.out.println("Con plazo de 5 s y banco de 8 s, aprobados al cliente (Esperado 0): " + aprobadosTardio[0]);
+        System.out.println("Cargos que aprobó el banco / anulados (Esperado 100 / 100): " + tardio.getAprobados()
+                + " / " + tardio.getAnulados());
+        System.out.println("Anular otra vez no devuelve dos veces (Esperado false): " + tardio.anular("T0").get());
+
+        // 6. Compra real en la dulcería con el banco colgado
+        System.out.println("\n--- 6. Compra de dulcería con el banco colgado (reloj real) ---");
+        Reloj.usar(new RelojReal());
+        BancoLocal sinRespuesta = new BancoLocal(10, 20, 100, null);
+        sinRespuesta.inyectarFallas(0, 100, 0);
+        PasarelaPago.usar(new PasarelaResiliente(sinRespuesta, new CircuitoPago(), 200, 1, 50, 100, 600));
+        InventarioDulceria inv = new InventarioDulceria(Map.of("palomitas_jumbo", 10, "refresco_jumbo", 10), 0);
+        List<VendedorDulceria> vendedores = List.of(new VendedorDulceria("Vendedor", "Prueba", "Uno",
+                "vend_" + System.nanoTime(), "x", "v@cine.com", "5500000000", "matutino", "lunes"));
+        CocinaDulceria cocina = new CocinaDulceria(vendedores, 10, Reloj.getInstancia());
+        ControladorDulceria controlador = new ControladorDulceria(
+                new Scanner(new ByteArrayInputStream(new byte[0]), "UTF-8"), inv, cocina);
+        long ini = System.nanoTime();
+        String salida = capturar(() -> controlador.finalizarOrden(combo()));
+        long ms = (System.nanoTime() - ini) / 1_000_000;
+        System.out.println("Terminó con plazo de 600 ms (Esperado menos de 2000 ms): " + ms + " ms");
+        System.out.println("Avisa que el resultado es incierto, sin prometer que no hubo cargo (Esperado true / false): "
+                + salida.contains("No pudimos confirmar") + " / " + salida.contains("No se hizo ningún cargo"));
+        System.out.println("Refrescos reservados (Esperado 0): " + inv.getReservado("refresco_jumbo"));
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static RelojVirtual nuevoReloj() {
+        RelojVirtual r = new RelojVirtual(INICIO, 9);
+        Reloj.usar(r);
+        return r;
+    }
+
+    /** Corre la tarea con System.out a un búfer y regresa lo que imprimió. */
+    private static String capturar(Runnable tarea) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buf, true, StandardCharsets.UTF_8));
+        try {
+            tarea.run();
+        } finally {
+            System.setOut(original);
+        }
+        return buf.toString(StandardCharsets.UTF_8);
+    }
+
+    /** Combo "amix": palomitas jumbo + 2 refrescos jumbo. */
+    private static OrdenDulceria combo() {
+        OrdenDulceria o = new OrdenDulceria();
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "mantequilla", 1, 9500);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "cola", 2, 7000);
+        return o;
+    }
+}
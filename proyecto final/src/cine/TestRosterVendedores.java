@@ -0,0 +1,132 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas del reparto de órdenes entre vendedores (menos cargado primero).
+ * Uso: java cine.TestRosterVendedores [vendedores] [asignaciones]
+ */
+public class TestRosterVendedores {
+
+    public static void main(String[] args) throws Exception {
+        int v = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        System.out.println("=== PRUEBAS DEL ROSTER DE VENDEDORES ===");
+
+        // 1. Reparto parejo: sin terminar nada, las cargas nunca difieren en más de 1
+        System.out.println("\n--- 1. Menos cargado primero ---");
+        RosterVendedores roster = new RosterVendedores();
+        List<RosterVendedores.Puesto> puestos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            RosterVendedores.Puesto p = new RosterVendedores.Puesto(vendedor(i));
+            puestos.add(p);
+            roster.agregar(p);
+        }
+        for (int i = 0; i < 23; i++) roster.asignar();
+        System.out.println("Cargas (Esperado 4 o 5 cada uno): " + cargas(puestos));
+        roster.liberar(puestos.get(4));
+        roster.liberar(puestos.get(4));
+        System.out.println("El que terminó dos recibe la siguiente (Esperado "
+                + puestos.get(4).getVendedor().getNickname() + "): " + roster.asignar().getVendedor().getNickname());
+
+        // Un vendedor nuevo recibe órdenes hasta alcanzar a los demás
+        RosterVendedores.Puesto nuevo = new RosterVendedores.Puesto(vendedor(99));
+        roster.agregar(nuevo);
+        for (int i = 0; i < 4; i++) roster.asignar();
+        System.out.println("Carga del nuevo tras 4 órdenes (Esperado 4): " + nuevo.getCarga());
+        roster.retirar(nuevo);
+        System.out.println("Retirado no recibe más (Esperado 5): " + roster.getTamano());
+
+        // 2. O(log n): asignar y liberar con muchos vendedores
+        System.out.println("\n--- 2. " + n + " asignaciones entre " + v + " vendedores ---");
+        RosterVendedores grande = new RosterVendedores();
+        List<RosterVendedores.Puesto> todos = new ArrayList<>();
+        for (int i = 0; i < v; i++) {
+            RosterVendedores.Puesto p = new RosterVendedores.Puesto(vendedor(i));
+            todos.add(p);
+            grande.agregar(p);
+        }
+        long ini = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            RosterVendedores.Puesto p = grande.asignar();
+            // La mitad de las veces algún vendedor cargado termina una orden
+            if ((i & 1) == 0) {
+                RosterVendedores.Puesto otro = todos.get(ThreadLocalRandom.current().nextInt(v));
+                if (otro.getCarga() > 0) grande.liberar(otro);
+            }
+            if (p == null) throw new IllegalStateException();
+        }
+        imprimir("asignar", n, ini);
+        System.out.printf("Equidad (Esperado cerca de 1): %.4f%n", grande.getIndiceEquidad());
+
+        // 3. Concurrencia: 4 hilos asignan y liberan a la vez; al final todo vuelve a 0
+        System.out.println("\n--- 3. Concurrencia ---");
+        List<Thread> hilos = new ArrayList<>();
+        RosterVendedores compartido = new RosterVendedores();
+        List<RosterVendedores.Puesto> cincuenta = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            RosterVendedores.Puesto p = new RosterVendedores.Puesto(vendedor(i));
+            cincuenta.add(p);
+            compartido.agregar(p);
+        }
+        ini = System.nanoTime();
+        for (int h = 0; h < 4; h++) {
+            hilos.add(new Thread(() -> {
+                for (int i = 0; i < n / 4; i++) {
+                    compartido.liberar(compartido.asignar());
+                }
+            }));
+        }
+        for (Thread t : hilos) t.start();
+        for (Thread t : hilos) t.join();
+        imprimir("asignar+liberar", n, ini);
+        int cargaTotal = 0;
+        for (RosterVendedores.Puesto p : cincuenta) cargaTotal += p.getCarga();
+        System.out.println("Carga total al final (Esperado 0): " + cargaTotal);
+        System.out.println("Puestos en el conjunto (Esperado 50): " + compartido.getTamano());
+        System.out.printf("Equidad (Esperado cerca de 1): %.4f%n", compartido.getIndiceEquidad());
+
+        // 4. En la cocina: 4 vendedores y 20 000 órdenes
+        System.out.println("\n--- 4. Cocina ---");
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        RelojVirtual reloj = new RelojVirtual(LocalDateTime.of(2026, 10, 24, 10, 0), 1);
+        List<VendedorDulceria> cuatro = new ArrayList<>();
+        for (int i = 0; i < 4; i++) cuatro.add(vendedor(i));
+        CocinaDulceria cocina = new CocinaDulceria(cuatro, 100_000, reloj);
+        for (int i = 0; i < 20_000; i++) {
+            OrdenDulceria o = new OrdenDulceria();
+            o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "mantequilla", 1, 9000);
+            o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "cola", 1, 7000);
+            o.setClaveCompra("ORD-" + i);
+            cocina.ofrecer(o, 1, TimeUnit.SECONDS);
+        }
+        reloj.dormir(3_600_000); // una hora después llega un quinto: toma órdenes de las colas de los demás
+        cocina.agregarVendedor(vendedor(4));
+        reloj.correrTodo();
+        System.out.println("Completadas (Esperado 20000): " + cocina.getCompletadas());
+        System.out.println(cocina.getRoster().resumen());
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static VendedorDulceria vendedor(int i) {
+        return new VendedorDulceria("Vendedor" + i, "Prueba", "Uno", "vend" + i,
+                "x", "v@cine.com", "5500000000", "matutino", "lunes");
+    }
+
+    private static String cargas(List<RosterVendedores.Puesto> puestos) {
+        StringBuilder sb = new StringBuilder();
+        for (RosterVendedores.Puesto p : puestos) sb.append(p.getCarga()).append(' ');
+        return sb.toString().trim();
+    }
+
+    private static void imprimir(String etapa, long operaciones, long ini) {
+        double seg = (System.nanoTime() - ini) / 1e9;
+        System.out.printf("%-16s %8.3f s | %,.0f ops/s%n", etapa + ":", seg, operaciones / seg);
+    }
+}
@@ -0,0 +1,142 @@
+package cine;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pruebas y benchmark de latencia del hash de contraseñas, para elegir
+ * {@code -Dcine.pbkdf2Iteraciones} y {@code -Dcine.hilosVerificacion}.
+ * Uso: java cine.TestSeguridadContrasenas [hilosCliente] [loginsPorHilo]
+ */
+public class TestSeguridadContrasenas {
+
+    private static final int[] ITERACIONES = {10_000, 50_000, 100_000, 210_000, 310_000, 600_000};
+    private static final int MUESTRAS = 15;
+
+    public static void main(String[] args) throws Exception {
+        int hilosCliente = args.length > 0 ? Integer.parseInt(args[0]) : 4 * VerificadorContrasenas.HILOS;
+        int loginsPorHilo = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        System.out.println("=== PRUEBAS DE CONTRASEÑAS ===");
+
+        // 1. Correctitud
+        System.out.println("\n--- 1. Correctitud ---");
+        String hash = SeguridadContrasenas.hashear("secreta", 1_000);
+        System.out.println("Formato: " + hash);
+        System.out.println("Contraseña correcta (Esperado true): " + SeguridadContrasenas.verificar("secreta", hash));
+        System.out.println("Contraseña incorrecta (Esperado false): " + SeguridadContrasenas.verificar("Secreta", hash));
+        System.out.println("Misma contraseña, otra sal (Esperado false): "
+                + hash.equals(SeguridadContrasenas.hashear("secreta", 1_000)));
+        System.out.println("Texto plano sin migrar (Esperado true): " + SeguridadContrasenas.verificar("abc", "abc"));
+        System.out.println("Necesita rehash por iteraciones (Esperado true): " + SeguridadContrasenas.necesitaRehash(hash));
+
+        List<Cliente> viejos = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            viejos.add(new Cliente("N", "P", "M", 30, "viejo" + i, "pass" + i, "c@cine.com", "55", "4000000000000000"));
+        }
+        int migradas = VerificadorContrasenas.migrar(viejos, 4).join();
+        System.out.println("Contraseñas migradas (Esperado 40): " + migradas);
+        System.out.println("Login tras migrar (Esperado true): " + viejos.get(7).validarCredenciales("viejo7", "pass7"));
+
+        // Una contraseña tecleada que parece hash también se hashea al registrarse
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+        SistemaAutenticacion sistema = new SistemaAutenticacion();
+        sistema.registrarCliente(new Cliente("N", "P", "M", 30, "raro", hash, "r@cine.com", "55", "4000000000000000"));
+        System.out.println("Login con contraseña que parece hash (Esperado true): "
+                + (sistema.autenticar("raro", hash) != null));
+
+        // 2. Latencia de una verificación según el costo
+        System.out.println("\n--- 2. Latencia de una verificación (un hilo) ---");
+        System.out.println("Iteraciones |   p50 ms |   p99 ms | verif/s por núcleo");
+        for (int it : ITERACIONES) {
+            String h = SeguridadContrasenas.hashear("secreta", it);
+            SeguridadContrasenas.verificar("secreta", h); // calentamiento
+            long[] ns = new long[MUESTRAS];
+            for (int i = 0; i < MUESTRAS; i++) {
+                long ini = System.nanoTime();
+                SeguridadContrasenas.verificar("secreta", h);
+                ns[i] = System.nanoTime() - ini;
+            }
+            Arrays.sort(ns);
+            System.out.printf("%11d | %8.1f | %8.1f | %8.1f%n", it,
+                    ns[MUESTRAS / 2] / 1e6, ns[MUESTRAS - 1] / 1e6, 1e9 / ns[MUESTRAS / 2]);
+        }
+
+        // 3. Ola de inicios de sesión contra el pool, con ventas corriendo a la vez
+        System.out.println("\n--- 3. Ola de logins: " + hilosCliente + " hilos x " + loginsPorHilo
+                + " (pool de " + VerificadorContrasenas.HILOS + " hilos, " + SeguridadContrasenas.ITERACIONES
+                + " iteraciones) ---");
+        double ventasSinCarga = medirVentas();
+        System.out.printf("Ventas/s sin logins: %.0f%n", ventasSinCarga);
+
+        VerificadorContrasenas verificador = VerificadorContrasenas.getInstancia();
+        String guardado = SeguridadContrasenas.hashear("secreta");
+        List<Long> latencias = new ArrayList<>();
+        AtomicInteger ocupados = new AtomicInteger();
+
+        List<Thread> clientes = new ArrayList<>();
+        for (int h = 0; h < hilosCliente; h++) {
+            Thread t = new Thread(() -> {
+                for (int i = 0; i < loginsPorHilo; i++) {
+                    long ini = System.nanoTime();
+                    try {
+                        verificador.verificar("secreta", guardado);
+                        synchronized (latencias) {
+                            latencias.add(System.nanoTime() - ini);
+                        }
+                    } catch (SistemaOcupadoException e) {
+                        ocupados.incrementAndGet();
+                    }
+                }
+            });
+            clientes.add(t);
+        }
+        long ini = System.nanoTime();
+        for (Thread t : clientes) t.start();
+        double ventasConCarga = medirVentas();
+        for (Thread t : clientes) t.join();
+        double seg = (System.nanoTime() - ini) / 1e9;
+
+        long[] ns = latencias.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("Ventas/s durante la ola: %.0f (%.0f%% de la línea base)%n",
+                ventasConCarga, 100 * ventasConCarga / ventasSinCarga);
+        System.out.printf("Logins: %d en %.2f s | %.1f logins/s%n", ns.length, seg, ns.length / seg);
+        if (ns.length > 0) {
+            System.out.printf("Latencia login ms: p50 %.1f | p95 %.1f | p99 %.1f | máx %.1f%n",
+                    pct(ns, 50), pct(ns, 95), pct(ns, 99), ns[ns.length - 1] / 1e6);
+        }
+        System.out.println("Rechazados por saturación o espera > " + VerificadorContrasenas.ESPERA_MAX_MS
+                + " ms: " + ocupados.get());
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    /**
+     * Registra ventas en un libro en memoria durante 3 segundos.
+     */
+    private static double medirVentas() {
+        Pelicula peli = new Pelicula("Avatar 2", "Ciencia Ficción", "Pitufos gigantes", "03:10");
+        FuncionDeCine funcion = new FuncionDeCine(peli, new Sala("Sala A", "A"), LocalDate.now(), LocalTime.of(15, 0));
+        CompraBoletos compra = new CompraBoletos(funcion, List.of(new Boleto("H7", 70.0, "Adulto")));
+        LibroVentas libro = new LibroVentas(new AlmacenamientoMemoria());
+
+        AtomicLong ventas = new AtomicLong();
+        long ini = System.nanoTime();
+        long fin = ini + 3_000_000_000L;
+        while (System.nanoTime() < fin) {
+            libro.registrar("cliente1", compra).join();
+            ventas.incrementAndGet();
+        }
+        return ventas.get() / ((System.nanoTime() - ini) / 1e9);
+    }
+
+    private static double pct(long[] ordenados, int p) {
+        int i = Math.min(ordenados.length - 1, (int) Math.ceil(p / 100.0 * ordenados.length) - 1);
+        return ordenados[Math.max(0, i)] / 1e6;
+    }
+}
@@ -0,0 +1,113 @@
+package cine;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Pruebas de la tarifa compilada de la dulcería (combos, promociones, recarga).
+ * Uso: java cine.TestTarifaDulceria [cobros]
+ * Trabaja sobre una carpeta temporal, no sobre precios/.
+ */
+public class TestTarifaDulceria {
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        System.out.println("=== PRUEBAS DE LA TARIFA DE DULCERÍA ===");
+
+        Path dir = Files.createTempDirectory("precios");
+        Files.writeString(dir.resolve("palomitas_jumbo.txt"), "95.5\n");
+        Files.writeString(dir.resolve("refresco_jumbo.txt"), "70\n");
+        Files.writeString(dir.resolve("refresco_mega.txt"), "33.33\n");
+        Files.writeString(dir.resolve("nachos_jumbo.txt"), "80\n");
+        Files.writeString(dir.resolve("nachos_mega.txt"), "110\n");
+
+        CatalogoPrecios catalogo = new CatalogoPrecios(dir);
+        catalogo.vigilar();
+
+        // 1. Sin archivo de configuración: los combos de siempre
+        System.out.println("\n--- 1. Configuración por defecto ---");
+        TarifaDulceria tarifa = new TarifaDulceria(catalogo);
+        TarifaDulceria.Tabla t = tarifa.getTabla();
+        System.out.println("Combos (Esperado 4): " + t.getCombos());
+        // 95.50 + 2 x 70 = 235.50, menos 10% por partida: 85.95 + 126.00
+        System.out.println("Combo amix en centavos (Esperado 21195): " + t.totalCombo(0));
+        System.out.println("Tamaños de refresco con precio (Esperado [jumbo, mega]): " + tamanos(t, ProductoDulceria.REFRESCO));
+
+        // 2. Configuración propia con promoción
+        System.out.println("\n--- 2. Configuración propia ---");
+        Files.writeString(dir.resolve(TarifaDulceria.ARCHIVO_CONFIG), String.join("\n",
+                "# prueba",
+                "tamano palomitas = jumbo",
+                "tamano refresco = jumbo, mega",
+                "combo pareja = palomitas_jumbo x2, refresco_jumbo x2 ; 12.5",
+                "promo refresco_mega = 15", ""));
+        t = esperarTabla(tarifa, t);
+        System.out.println("Combos (Esperado 1): " + t.getCombos() + " \"" + t.nombreCombo(0) + "\"");
+        // 191.00 -> 167.125 -> 167.13 ; 140.00 -> 122.50
+        System.out.println("Combo pareja (Esperado 28963): " + t.totalCombo(0));
+        System.out.println("Descripción (Esperado 2 palomitas jumbo + 2 refresco jumbo): " + t.describirCombo(0));
+        int mega = ProductoDulceria.skuDe("refresco_mega");
+        // 33.33 x 0.85 = 28.3305 -> 28.33
+        System.out.println("Refresco mega lista / promo (Esperado 3333 / 2833): "
+                + t.precioLista(mega) + " / " + t.precio(mega));
+        System.out.println("SKU inexistente (Esperado -1): " + ProductoDulceria.skuDe("helado_chico"));
+
+        // 3. Error de configuración: se conserva la tabla anterior
+        System.out.println("\n--- 3. Configuración con error ---");
+        TarifaDulceria.Tabla antes = t;
+        Files.writeString(dir.resolve(TarifaDulceria.ARCHIVO_CONFIG),
+                "combo malo = nachos_personal x1 ; 10\n");
+        long v = catalogo.getVersion();
+        while (catalogo.getVersion() == v) Thread.sleep(10);
+        System.out.println("Tabla conservada (Esperado true): " + (tarifa.getTabla() == antes));
+
+        // 4. Cambio de precio de lista: se recompila con el precio nuevo
+        System.out.println("\n--- 4. Cambio de precio ---");
+        Files.writeString(dir.resolve(TarifaDulceria.ARCHIVO_CONFIG), "tamano palomitas = jumbo\n");
+        t = esperarTabla(tarifa, antes);
+        Files.writeString(dir.resolve("palomitas_jumbo.txt"), "100\n");
+        t = esperarTabla(tarifa, t);
+        System.out.println("Palomitas jumbo (Esperado 10000): " + t.precio(ProductoDulceria.skuDe("palomitas_jumbo")));
+
+        // 5. Cobrar sin crear objetos
+        System.out.println("\n--- 5. Cobro ---");
+        int[] skus = {ProductoDulceria.skuDe("palomitas_jumbo"), ProductoDulceria.skuDe("refresco_jumbo"), ProductoDulceria.skuDe("nachos_jumbo")};
+        int[] cantidades = {1, 2, 1};
+        System.out.println("Total (Esperado 32000): " + t.total(skus, cantidades, 3));
+        com.sun.management.ThreadMXBean hilos =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long suma = 0;
+        for (int i = 0; i < 100_000; i++) suma += t.total(skus, cantidades, 3); // calentar
+        long bytes = hilos.getCurrentThreadAllocatedBytes();
+        long ini = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            cantidades[0] = 1 + (i & 3);
+            suma += t.total(skus, cantidades, 3);
+        }
+        long ns = System.nanoTime() - ini;
+        bytes = hilos.getCurrentThreadAllocatedBytes() - bytes;
+        System.out.printf("%,d cobros en %.1f ms (%.1f ns por cobro, suma %d)%n", n, ns / 1e6, (double) ns / n, suma);
+        System.out.println("Bytes creados al cobrar (Esperado < 1024): " + bytes);
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static String tamanos(TarifaDulceria.Tabla t, ProductoDulceria producto) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int sku : t.tamanos(producto)) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(ProductoDulceria.tamanoDe(sku).getNombre());
+        }
+        return sb.append(']').toString();
+    }
+
+    /** Espera a que la recarga del catálogo publique otra tabla. */
+    private static TarifaDulceria.Tabla esperarTabla(TarifaDulceria tarifa, TarifaDulceria.Tabla anterior)
+            throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (tarifa.getTabla() == anterior && System.currentTimeMillis() < limite) Thread.sleep(10);
+        return tarifa.getTabla();
+    }
+}
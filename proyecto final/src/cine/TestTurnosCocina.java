@@ -0,0 +1,139 @@
+package cine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de los turnos en la cocina ({@link CalendarioTurnos}).
+ * Uso: java cine.TestTurnosCocina [consultas]
+ * Usa el almacenamiento en memoria y un {@link RelojVirtual}.
+ */
+public class TestTurnosCocina {
+
+    // 24 de octubre de 2026 es sábado
+    private static final LocalDateTime SABADO = LocalDateTime.of(2026, 10, 24, 0, 0);
+
+    public static void main(String[] args) {
+        int consultas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        GestorArchivos.usarAlmacenamiento(new AlmacenamientoMemoria());
+
+        System.out.println("=== PRUEBAS DE TURNOS DE LA COCINA ===");
+
+        // 1. Calendario
+        System.out.println("\n--- 1. Calendario ---");
+        VendedorDulceria ana = vendedor("ana", "matutino", "sábado");
+        VendedorDulceria beto = vendedor("beto", "Vespertino", "domingo");
+        VendedorDulceria caro = vendedor("caro", "nocturno", "lunes");
+        VendedorDulceria dani = vendedor("dani", "mixto", "martes");
+        CalendarioTurnos cal = new CalendarioTurnos(List.of(ana, beto, caro, dani));
+        System.out.println("Sábado 10:00 (Esperado [dani]): " + nombres(cal.enTurno(SABADO.withHour(10))));
+        System.out.println("Viernes 10:00 (Esperado [ana, dani]): " + nombres(cal.enTurno(SABADO.minusDays(1).withHour(10))));
+        System.out.println("Sábado 15:00 (Esperado [beto, dani]): " + nombres(cal.enTurno(SABADO.withHour(15))));
+        LocalDateTime lunes = SABADO.plusDays(2);
+        System.out.println("Lunes 23:30 (Esperado false: descansa): " + cal.estaEnTurno(caro, lunes.withHour(23).withMinute(30)));
+        System.out.println("Martes 2:00 (Esperado false: es del turno del lunes): " + cal.estaEnTurno(caro, lunes.plusDays(1).withHour(2)));
+        System.out.println("Martes 23:30 (Esperado true): " + cal.estaEnTurno(caro, lunes.plusDays(1).withHour(23).withMinute(30)));
+        System.out.println("Miércoles 6:59 (Esperado true): " + cal.estaEnTurno(caro, lunes.plusDays(2).withHour(6).withMinute(59)));
+        System.out.println("Turno desconocido, siempre de turno (Esperado true): " + cal.estaEnTurno(dani, lunes.plusDays(1).withHour(3)));
+        System.out.println("Día con acento (Esperado WEDNESDAY): " + CalendarioTurnos.dia("Miércoles"));
+        try {
+            new CalendarioTurnos(List.of(ana), "matutino=7");
+            System.out.println("Horario mal escrito (Esperado excepción): ninguna");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Horario mal escrito (Esperado excepción): " + e.getMessage());
+        }
+
+        // 2. Consultas O(1) con muchos vendedores
+        System.out.println("\n--- 2. " + consultas + " consultas con 10000 vendedores ---");
+        String[] turnos = {"matutino", "vespertino", "nocturno"};
+        String[] dias = {"lunes", "martes", "miércoles", "jueves", "viernes", "sábado", "domingo"};
+        List<VendedorDulceria> muchos = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) muchos.add(vendedor("v" + i, turnos[i % 3], dias[i % 7]));
+        long ini = System.nanoTime();
+        CalendarioTurnos grande = new CalendarioTurnos(muchos);
+        System.out.printf("Calendario armado en %.1f ms%n", (System.nanoTime() - ini) / 1e6);
+        LocalDateTime[] horas = new LocalDateTime[168];
+        for (int h = 0; h < horas.length; h++) horas[h] = SABADO.plusHours(h);
+        long suma = 0;
+        ini = System.nanoTime();
+        for (int i = 0; i < consultas; i++) suma += grande.enTurno(horas[i % horas.length]).size();
+        long ns = System.nanoTime() - ini;
+        System.out.printf("%.0f ns por consulta (promedio de turno: %d vendedores)%n", (double) ns / consultas, suma / consultas);
+
+        // 3. Cambio de turno con órdenes en cola
+        System.out.println("\n--- 3. Cambio de turno a las 15:00 ---");
+        RelojVirtual reloj = new RelojVirtual(SABADO.withHour(14).withMinute(50), 1);
+        Reloj.usar(reloj);
+        VendedorDulceria manana = vendedor("manana" + System.nanoTime(), "matutino", "lunes");
+        VendedorDulceria tarde = vendedor("tarde" + System.nanoTime(), "vespertino", "lunes");
+        CocinaDulceria cocina = new CocinaDulceria(List.of(manana, tarde), 100, reloj);
+        RegistroOrdenes registro = new RegistroOrdenes(new AlmacenamientoMemoria());
+        cocina.usarRegistro(registro);
+        cocina.usarLotes(1);
+        System.out.println("De turno a las 14:50 (Esperado 1): " + cocina.getTrabajadores());
+        List<String> claves = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            OrdenDulceria o = orden("t" + i);
+            claves.add(o.getClaveCompra());
+            cocina.ofrecer(o, 0, TimeUnit.SECONDS);
+        }
+        reloj.correrTodo();
+        LocalDateTime cambio = SABADO.withHour(15);
+        int deManana = 0, deTarde = 0, mananaTarde = 0;
+        for (String clave : claves) {
+            EventoOrden e = registro.getEvento(clave, EstadoOrden.ASIGNADA);
+            if (e.getDetalle().equals(manana.getNickname())) {
+                deManana++;
+                if (!e.getFechaHora().isBefore(cambio)) mananaTarde++;
+            } else if (e.getDetalle().equals(tarde.getNickname())) {
+                deTarde++;
+            }
+        }
+        System.out.println("Completadas (Esperado 30): " + cocina.getCompletadas());
+        System.out.println("Atendidas por el matutino / vespertino: " + deManana + " / " + deTarde);
+        System.out.println("Ambos atendieron (Esperado true): " + (deManana > 0 && deTarde > 0));
+        System.out.println("El matutino no tomó órdenes después de las 15:00 (Esperado 0): " + mananaTarde);
+        System.out.println("Reasignadas por fin de turno > 0 (Esperado true): " + (cocina.getReasignadasPorTurno() > 0)
+                + " (" + cocina.getReasignadasPorTurno() + ")");
+        System.out.println("De turno al final (Esperado 1): " + cocina.getTrabajadores());
+
+        // 4. Vendedor nuevo fuera de turno; nadie de turno
+        System.out.println("\n--- 4. Fuera de turno ---");
+        cocina.agregarVendedor(vendedor("noche" + System.nanoTime(), "nocturno", "lunes"));
+        System.out.println("Nocturno registrado a las " + reloj.ahora().toLocalTime().withNano(0)
+                + " no entra (Esperado 1): " + cocina.getTrabajadores());
+        reloj = new RelojVirtual(SABADO.withHour(3), 1);
+        Reloj.usar(reloj);
+        cocina = new CocinaDulceria(List.of(vendedor("m1", "matutino", "lunes"), vendedor("m2", "matutino", "lunes")), 100, reloj);
+        System.out.println("Nadie de turno a las 3:00, atienden todos (Esperado 2): " + cocina.getTrabajadores());
+        cocina.ofrecer(orden("madrugada"), 0, TimeUnit.SECONDS);
+        reloj.correrTodo();
+        System.out.println("Completadas (Esperado 1): " + cocina.getCompletadas());
+        cocina.usarTurnos(false);
+        System.out.println("Sin turnos (Esperado sin calendario): " + (cocina.getCalendario() == null ? "sin calendario" : "con calendario"));
+
+        System.out.println("\n=== PRUEBAS FINALIZADAS ===");
+    }
+
+    private static VendedorDulceria vendedor(String nick, String turno, String descanso) {
+        return new VendedorDulceria(nick, "Prueba", "Uno", nick, "x", "v@cine.com", "5500000000", turno, descanso);
+    }
+
+    private static List<String> nombres(List<VendedorDulceria> vendedores) {
+        List<String> lista = new ArrayList<>();
+        for (VendedorDulceria v : vendedores) lista.add(v.getNickname());
+        return lista;
+    }
+
+    /** Combo "amix": palomitas jumbo + 2 refrescos jumbo. */
+    private static OrdenDulceria orden(String nombre) {
+        OrdenDulceria o = new OrdenDulceria();
+        o.setClaveCompra(nombre + "-" + System.nanoTime());
+        o.agregar(ProductoDulceria.PALOMITAS, TamanoDulceria.JUMBO, "mantequilla", 1, 9500);
+        o.agregar(ProductoDulceria.REFRESCO, TamanoDulceria.JUMBO, "cola", 2, 7000);
+        return o;
+    }
+}
@@ -0,0 +1,192 @@
+package cine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pool dedicado y de tamaño fijo para calcular y verificar hashes de contraseñas
+ * ({@link SeguridadContrasenas}).
+ * <p>
+ * PBKDF2 consume CPU a propósito. Para que una ola de inicios de sesión no deje sin
+ * procesador a las ventas, los hashes solo corren en {@link #HILOS} hilos, con una
+ * cola acotada: si la cola se llena, la verificación se rechaza de inmediato, y quien
+ * espera más de {@link #ESPERA_MAX_MS} ms se rinde. En ambos casos el usuario ve
+ * "sistema ocupado" en lugar de una espera sin fin.
+ * </p>
+ * <p>
+ * La migración de contraseñas en texto plano corre aparte, en hilos de baja
+ * prioridad, para no ocupar el pool de verificación.
+ * </p>
+ */
+public class VerificadorContrasenas {
+
+    /** Hilos de verificación (se puede cambiar con -Dcine.hilosVerificacion=N). */
+    public static final int HILOS = Integer.getInteger("cine.hilosVerificacion",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    /** Espera máxima de una verificación en ms (-Dcine.verificacionMaxMs=N). */
+    public static final long ESPERA_MAX_MS = Long.getLong("cine.verificacionMaxMs", 3_000);
+
+    /** Verificaciones en espera por hilo antes de rechazar. */
+    private static final int COLA_POR_HILO = 16;
+
+    /** Usuarios por tarea de migración. */
+    private static final int TAM_BLOQUE_MIGRACION = 64;
+
+    private static VerificadorContrasenas instancia = null;
+
+    private final ThreadPoolExecutor pool;
+    private final AtomicInteger rechazadas = new AtomicInteger();
+
+    /**
+     * @param hilos tamaño del pool de verificación
+     */
+    public VerificadorContrasenas(int hilos) {
+        AtomicInteger n = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hilos * COLA_POR_HILO), r -> {
+                    Thread t = new Thread(r, "verificador-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /** @return verificador compartido de {@link #HILOS} hilos */
+    public static synchronized VerificadorContrasenas getInstancia() {
+        if (instancia == null) {
+            instancia = new VerificadorContrasenas(HILOS);
+        }
+        return instancia;
+    }
+
+    /**
+     * Verifica una contraseña en el pool y espera el resultado.
+     *
+     * @return true si coincide
+     * @throws SistemaOcupadoException si el pool está saturado o la espera excede {@link #ESPERA_MAX_MS}
+     */
+    public boolean verificar(String contrasena, String almacenado) {
+        return esperar(enviar(() -> SeguridadContrasenas.verificar(contrasena, almacenado)));
+    }
+
+    /**
+     * Calcula el hash de una contraseña en el pool y espera el resultado.
+     *
+     * @throws SistemaOcupadoException si el pool está saturado o la espera excede {@link #ESPERA_MAX_MS}
+     */
+    public String hashear(String contrasena) {
+        return esperar(enviar(() -> SeguridadContrasenas.hashear(contrasena)));
+    }
+
+    private <T> Future<T> enviar(Callable<T> tarea) {
+        try {
+            return pool.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            rechazadas.incrementAndGet();
+            throw new SistemaOcupadoException("Demasiadas verificaciones en curso");
+        }
+    }
+
+    private <T> T esperar(Future<T> futuro) {
+        try {
+            return futuro.get(ESPERA_MAX_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(false);
+            rechazadas.incrementAndGet();
+            throw new SistemaOcupadoException("La verificación tardó más de " + ESPERA_MAX_MS + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SistemaOcupadoException("Verificación interrumpida");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Recalcula en el pool, sin esperar, el hash de un usuario que acaba de iniciar
+     * sesión (por ejemplo, tras cambiar {@link SeguridadContrasenas#ITERACIONES}).
+     * Si el pool está lleno se omite; se reintentará en el siguiente inicio de sesión.
+     *
+     * @param usuario usuario autenticado
+     * @param contrasena contraseña que acaba de verificarse
+     * @param alTerminar se llama con el usuario si la contraseña se actualizó
+     */
+    public void rehashear(Persona usuario, String contrasena, Consumer<Persona> alTerminar) {
+        String anterior = usuario.getContrasena();
+        try {
+            pool.execute(() -> {
+                if (usuario.actualizarContrasena(anterior, SeguridadContrasenas.hashear(contrasena))) {
+                    alTerminar.accept(usuario);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool ocupado: no vale la pena competir con los inicios de sesión
+        }
+    }
+
+    /**
+     * Convierte a hash, en paralelo y en segundo plano, las contraseñas que sigan en
+     * texto plano. (Un hash con otras iteraciones solo se puede recalcular cuando el
+     * usuario vuelve a iniciar sesión.)
+     *
+     * @param usuarios usuarios a revisar
+     * @param hilos hilos de migración (de baja prioridad)
+     * @return futuro con la cantidad de contraseñas migradas
+     */
+    public static CompletableFuture<Integer> migrar(List<? extends Persona> usuarios, int hilos) {
+        List<Persona> pendientes = new ArrayList<>();
+        for (Persona p : usuarios) {
+            if (!SeguridadContrasenas.esHash(p.getContrasena())) pendientes.add(p);
+        }
+        if (pendientes.isEmpty()) return CompletableFuture.completedFuture(0);
+
+        AtomicInteger n = new AtomicInteger();
+        ExecutorService migradores = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "migrador-contrasenas-" + n.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+
+        AtomicInteger migradas = new AtomicInteger();
+        List<CompletableFuture<Void>> bloques = new ArrayList<>();
+        for (int ini = 0; ini < pendientes.size(); ini += TAM_BLOQUE_MIGRACION) {
+            List<Persona> bloque = pendientes.subList(ini, Math.min(ini + TAM_BLOQUE_MIGRACION, pendientes.size()));
+            bloques.add(CompletableFuture.runAsync(() -> {
+                for (Persona p : bloque) {
+                    String plano = p.getContrasena();
+                    if (!SeguridadContrasenas.esHash(plano)) {
+                        p.actualizarContrasena(plano, SeguridadContrasenas.hashear(plano));
+                        migradas.incrementAndGet();
+                    }
+                }
+            }, migradores));
+        }
+        return CompletableFuture.allOf(bloques.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((r, e) -> migradores.shutdown())
+                .thenApply(r -> migradas.get());
+    }
+
+    /** @return verificaciones rechazadas por saturación o espera excesiva */
+    public int getRechazadas() {
+        return rechazadas.get();
+    }
+
+    /** @return verificaciones en cola en este momento */
+    public int getEnCola() {
+        return pool.getQueue().size();
+    }
+}